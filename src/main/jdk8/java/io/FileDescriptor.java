@@ -25,6 +25,7 @@
 
 package java.io;
 
+import java.lang.ref.Cleaner;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -50,6 +51,13 @@ public final class FileDescriptor {
     private List<Closeable> otherParents;
     private boolean closed;
 
+    /*
+     * Closes the handle once this FileDescriptor is phantom reachable;
+     * null unless a stream that owns the handle has registered it.
+     */
+    private Cleanup cleanup;
+    private Cleaner.Cleanable cleanable;
+
     /**
      * Constructs an (invalid) FileDescriptor
      * object.
@@ -164,6 +172,55 @@ public final class FileDescriptor {
         return desc;
     }
 
+    /**
+     * Registers this FileDescriptor with the common cleaner, so that its
+     * handle is closed once it, and with it every stream sharing it, has
+     * become phantom reachable.  Descriptors without a handle and the
+     * standard streams are not registered.
+     */
+    synchronized void registerCleanup() {
+        if (cleanable == null && !closed && handle != -1
+                && this != in && this != out && this != err) {
+            cleanup = new Cleanup(handle);
+            cleanable = Cleaner.commonCleaner().register(this, cleanup);
+        }
+    }
+
+    /*
+     * The cleaning action of a FileDescriptor.  It keeps the handle by
+     * value: referring to the FileDescriptor, or to the streams attached
+     * to it, would keep them reachable.
+     */
+    private static final class Cleanup implements Runnable {
+        private long handle;
+
+        Cleanup(long handle) {
+            this.handle = handle;
+        }
+
+        /*
+         * Called when the handle is closed by closeAll; the cleanable
+         * is then cleaned only to unregister it.
+         */
+        void disarm() {
+            handle = -1;
+        }
+
+        public void run() {
+            if (handle != -1) {
+                // close0 is only reachable through a stream, so attach
+                // one to a copy that is still invalid and not registered
+                FileDescriptor copy = new FileDescriptor();
+                FileInputStream stream = new FileInputStream(copy);
+                copy.handle = handle;
+                try {
+                    stream.close();
+                } catch (IOException ignore) {
+                }
+            }
+        }
+    }
+
     /*
      * Package private methods to track referents.
      * If multiple streams point to the same FileDescriptor, we cycle
@@ -198,6 +255,11 @@ public final class FileDescriptor {
     synchronized void closeAll(Closeable releaser) throws IOException {
         if (!closed) {
             closed = true;
+            if (cleanable != null) {
+                cleanup.disarm();
+                cleanable.clean();
+                cleanable = null;
+            }
             IOException ioe = null;
             try (Closeable c = releaser) {
                 if (otherParents != null) {
@@ -136,6 +136,7 @@ class FileInputStream extends InputStream
         fd.attach(this);
         path = name;
         open(name);
+        fd.registerCleanup();
     }
 
     /**
@@ -178,6 +179,12 @@ class FileInputStream extends InputStream
          * Register this stream with FileDescriptor tracker.
          */
         fd.attach(this);
+        /*
+         * Subclasses such as the socket streams do not own the handle.
+         */
+        if (getClass() == FileInputStream.class) {
+            fd.registerCleanup();
+        }
     }
 
     /**
@@ -379,22 +386,4 @@ class FileInputStream extends InputStream
     static {
         initIDs();
     }
-
-    /**
-     * Ensures that the <code>close</code> method of this file input stream is
-     * called when there are no more references to it.
-     *
-     * @exception  IOException  if an I/O error occurs.
-     * @see        java.io.FileInputStream#close()
-     */
-    protected void finalize() throws IOException {
-        if ((fd != null) &&  (fd != FileDescriptor.in)) {
-            /* if fd is shared, the references in FileDescriptor
-             * will ensure that finalizer is only called when
-             * safe to do so. All references using the fd have
-             * become unreachable. We can call close()
-             */
-            close();
-        }
-    }
 }
@@ -211,6 +211,7 @@ class FileOutputStream extends OutputStream
         this.path = name;
 
         open(name, append);
+        fd.registerCleanup();
     }
 
     /**
@@ -249,6 +250,16 @@ class FileOutputStream extends OutputStream
         this.path = null;
 
         fd.attach(this);
+        /*
+         * Subclasses such as the socket streams do not own the handle.
+         * FileDescriptor.out and err are never registered; unlike the
+         * finalizer this replaces, nothing flushes them when the stream
+         * becomes unreachable, which for this class, whose flush() does
+         * nothing, changes nothing.
+         */
+        if (getClass() == FileOutputStream.class) {
+            fd.registerCleanup();
+        }
     }
 
     /**
@@ -401,29 +412,6 @@ class FileOutputStream extends OutputStream
         }
     }
 
-    /**
-     * Cleans up the connection to the file, and ensures that the
-     * <code>close</code> method of this file output stream is
-     * called when there are no more references to this stream.
-     *
-     * @exception  IOException  if an I/O error occurs.
-     * @see        java.io.FileInputStream#close()
-     */
-    protected void finalize() throws IOException {
-        if (fd != null) {
-            if (fd == FileDescriptor.out || fd == FileDescriptor.err) {
-                flush();
-            } else {
-                /* if fd is shared, the references in FileDescriptor
-                 * will ensure that finalizer is only called when
-                 * safe to do so. All references using the fd have
-                 * become unreachable. We can call close()
-                 */
-                close();
-            }
-        }
-    }
-
     private native void close0() throws IOException;
 
     private static native void initIDs();
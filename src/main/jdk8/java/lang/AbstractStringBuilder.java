@@ -25,7 +25,6 @@
 
 package java.lang;
 
-import sun.misc.FloatingDecimal;
 import java.util.Arrays;
 
 /**
@@ -689,7 +688,8 @@ abstract class AbstractStringBuilder implements Appendable, CharSequence {
      * @return  a reference to this object.
      */
     public AbstractStringBuilder append(float f) {
-        FloatingDecimal.appendTo(f,this);
+        ensureCapacityInternal(count + FloatToDecimal.MAX_CHARS);
+        count = FloatToDecimal.toChars(f, value, count);
         return this;
     }
 
@@ -706,7 +706,8 @@ abstract class AbstractStringBuilder implements Appendable, CharSequence {
      * @return  a reference to this object.
      */
     public AbstractStringBuilder append(double d) {
-        FloatingDecimal.appendTo(d,this);
+        ensureCapacityInternal(count + DoubleToDecimal.MAX_CHARS);
+        count = DoubleToDecimal.toChars(d, value, count);
         return this;
     }
 
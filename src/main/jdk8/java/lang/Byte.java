@@ -175,6 +175,89 @@ public final class Byte extends Number implements Comparable<Byte> {
         return parseByte(s, 10);
     }
 
+    /**
+     * Parses the {@link CharSequence} argument as a signed {@code byte} in
+     * the specified {@code radix}, beginning at the specified
+     * {@code beginIndex} and extending to {@code endIndex - 1}, as
+     * by {@link Integer#parseInt(CharSequence, int, int, int)}.
+     *
+     * @param      s   the {@code CharSequence} containing the {@code byte}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code s}.
+     * @return     the {@code byte} represented by the subsequence in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code s} is null.
+     * @throws     IndexOutOfBoundsException  if the range is out of bounds.
+     * @throws     NumberFormatException  if the subsequence does not contain
+     *             a parsable {@code byte} in the specified {@code radix}.
+     * @since  9
+     */
+    public static byte parseByte(CharSequence s, int beginIndex, int endIndex, int radix)
+        throws NumberFormatException {
+        return checkRange(NumberParser.parseInt(s, beginIndex, endIndex, radix),
+                          s, beginIndex, endIndex, radix);
+    }
+
+    /**
+     * Parses the specified range of a {@code char} array as a signed
+     * {@code byte} in the specified {@code radix}, as by {@link
+     * #parseByte(CharSequence, int, int, int)}.
+     *
+     * @param      a   the array containing the {@code byte}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code a}.
+     * @return     the {@code byte} represented by the range in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code a} is null.
+     * @throws     IndexOutOfBoundsException  if the range is out of bounds.
+     * @throws     NumberFormatException  if the range does not contain
+     *             a parsable {@code byte} in the specified {@code radix}.
+     * @since  9
+     */
+    public static byte parseByte(char[] a, int beginIndex, int endIndex, int radix)
+        throws NumberFormatException {
+        return checkRange(NumberParser.parseInt(a, beginIndex, endIndex, radix),
+                          a, beginIndex, endIndex, radix);
+    }
+
+    /**
+     * Parses the specified range of a {@code byte} array of ASCII
+     * characters as a signed {@code byte} in the specified {@code radix},
+     * as by {@link Integer#parseInt(byte[], int, int, int)}.
+     *
+     * @param      a   the array containing the {@code byte}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code a}.
+     * @return     the {@code byte} represented by the range in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code a} is null.
+     * @throws     IndexOutOfBoundsException  if the range is out of bounds.
+     * @throws     NumberFormatException  if the range does not contain
+     *             a parsable {@code byte} in the specified {@code radix}.
+     * @since  9
+     */
+    public static byte parseByte(byte[] a, int beginIndex, int endIndex, int radix)
+        throws NumberFormatException {
+        return checkRange(NumberParser.parseInt(a, beginIndex, endIndex, radix),
+                          a, beginIndex, endIndex, radix);
+    }
+
+    private static byte checkRange(int i, Object src, int beginIndex, int endIndex,
+                                  int radix) {
+        if (i < MIN_VALUE || i > MAX_VALUE)
+            throw new NumberFormatException(
+                "Value out of range. Value:\"" +
+                NumberParser.toString(src, beginIndex, endIndex) +
+                "\" Radix:" + radix);
+        return (byte)i;
+    }
+
     /**
      * Returns a {@code Byte} object holding the value
      * extracted from the specified {@code String} when parsed
@@ -0,0 +1,616 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.lang;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * A mutable sequence of characters held in a list of fixed-size chunks,
+ * for building very large strings.  Unlike {@link StringBuilder}, which
+ * holds its characters in a single array and copies them into an array
+ * of about twice the size whenever it is full, a
+ * {@code ChunkedStringBuilder} allocates a new chunk when its last chunk
+ * is full, and never copies the characters it holds.  Its memory use is
+ * therefore at most one chunk more than its length, rather than up to
+ * three times its length while it grows, and it never needs a single
+ * array as large as its contents.
+ *
+ * <p>The contents can be written to a {@link Writer} or, encoded in a
+ * given charset, to a {@link WritableByteChannel}, one chunk at a time,
+ * without being copied into a single array.  Method {@link #toString()}
+ * creates a string of the contents when one is needed.
+ *
+ * <p>Random access by {@link #charAt} takes constant time, as chunks are
+ * a power of two in size.  The chunk size may be given when the builder is
+ * created, and defaults to 8192 characters.
+ *
+ * <p>Instances of {@code ChunkedStringBuilder} are not safe for use by
+ * multiple threads.  Unless otherwise noted, passing a {@code null}
+ * argument to a constructor or method in this class will cause a
+ * {@link NullPointerException} to be thrown, except that appending
+ * {@code null} appends {@code "null"}, as in {@code StringBuilder}.
+ *
+ * @see StringBuilder
+ * @since 9
+ */
+public final class ChunkedStringBuilder implements Appendable, CharSequence {
+
+    /** The default chunk size, in chars. */
+    private static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    /** The minimum chunk size, in chars. */
+    private static final int MIN_CHUNK_SIZE = 16;
+
+    /** The maximum chunk size, in chars. */
+    private static final int MAX_CHUNK_SIZE = 1 << 24;
+
+    /** The size, in bytes, of the buffer used to write to channels. */
+    private static final int WRITE_BUFFER_SIZE = 8192;
+
+    /** log2 of the chunk size */
+    private final int shift;
+
+    /** The chunk size less one */
+    private final int mask;
+
+    /**
+     * The chunks.  Chunks are allocated when they are first appended to;
+     * elements beyond the last allocated chunk are null.
+     */
+    private char[][] chunks;
+
+    /** The number of chars held */
+    private int count;
+
+    /** Scratch space for formatting numbers, allocated on first use */
+    private char[] digits;
+
+    /**
+     * Constructs an empty builder with the default chunk size of 8192
+     * characters.
+     */
+    public ChunkedStringBuilder() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs an empty builder with the given chunk size, rounded up to
+     * a power of two, and to at least 16 and at most 2<sup>24</sup>.
+     *
+     * @param chunkSize the number of characters in each chunk
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive
+     */
+    public ChunkedStringBuilder(int chunkSize) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("chunkSize: " + chunkSize);
+        int size = (chunkSize <= MIN_CHUNK_SIZE) ? MIN_CHUNK_SIZE
+                 : (chunkSize >= MAX_CHUNK_SIZE) ? MAX_CHUNK_SIZE
+                 : Integer.highestOneBit(chunkSize - 1) << 1;
+        this.shift = Integer.numberOfTrailingZeros(size);
+        this.mask = size - 1;
+        this.chunks = new char[4][];
+    }
+
+    /**
+     * Constructs a builder containing the characters of the given
+     * sequence, with the default chunk size.
+     *
+     * @param seq the sequence to copy
+     */
+    public ChunkedStringBuilder(CharSequence seq) {
+        this();
+        append(seq);
+    }
+
+    /**
+     * Returns the number of characters in this builder.
+     *
+     * @return the number of characters in this builder
+     */
+    @Override
+    public int length() {
+        return count;
+    }
+
+    /**
+     * Returns the {@code char} value at the given index.
+     *
+     * @param index the index of the {@code char} value
+     * @return the {@code char} value at the given index
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not
+     *         less than {@code length()}
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= count)
+            throw new StringIndexOutOfBoundsException(index);
+        return chunks[index >>> shift][index & mask];
+    }
+
+    /**
+     * Sets the character at the given index to {@code ch}.
+     *
+     * @param index the index of the character to modify
+     * @param ch the new character
+     * @throws IndexOutOfBoundsException if {@code index} is negative or not
+     *         less than {@code length()}
+     */
+    public void setCharAt(int index, char ch) {
+        if (index < 0 || index >= count)
+            throw new StringIndexOutOfBoundsException(index);
+        chunks[index >>> shift][index & mask] = ch;
+    }
+
+    /**
+     * Sets the length of this builder.  If {@code newLength} is less than
+     * the current length, the builder is truncated; otherwise null
+     * characters ({@code '\u0000'}) are appended.  Chunks no longer
+     * in use are released.
+     *
+     * @param newLength the new length
+     * @throws IndexOutOfBoundsException if {@code newLength} is negative
+     */
+    public void setLength(int newLength) {
+        if (newLength < 0)
+            throw new StringIndexOutOfBoundsException(newLength);
+        if (newLength > count) {
+            while (count < newLength) {
+                char[] chunk = chunkForAppend();
+                int off = count & mask;
+                int n = Math.min(chunk.length - off, newLength - count);
+                Arrays.fill(chunk, off, off + n, '\0');
+                count += n;
+            }
+        } else {
+            int used = (newLength >>> shift) + ((newLength & mask) != 0 ? 1 : 0);
+            Arrays.fill(chunks, used, chunks.length, null);
+            count = newLength;
+        }
+    }
+
+    /**
+     * Copies characters from this builder into the destination array.
+     *
+     * @param srcBegin the index of the first character to copy
+     * @param srcEnd the index after the last character to copy
+     * @param dst the array to copy into
+     * @param dstBegin the start offset in the destination array
+     * @throws IndexOutOfBoundsException if {@code srcBegin} is negative,
+     *         greater than {@code srcEnd} or {@code srcEnd} is greater than
+     *         {@code length()}, or if the destination range is out of the
+     *         bounds of {@code dst}
+     */
+    public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        if (srcBegin < 0)
+            throw new StringIndexOutOfBoundsException(srcBegin);
+        if (srcEnd < srcBegin || srcEnd > count)
+            throw new StringIndexOutOfBoundsException("srcBegin " + srcBegin +
+                ", srcEnd " + srcEnd + ", length " + count);
+        if (dstBegin < 0 || dstBegin > dst.length - (srcEnd - srcBegin))
+            throw new IndexOutOfBoundsException("dstBegin " + dstBegin);
+        while (srcBegin < srcEnd) {
+            int off = srcBegin & mask;
+            int n = Math.min(mask + 1 - off, srcEnd - srcBegin);
+            System.arraycopy(chunks[srcBegin >>> shift], off, dst, dstBegin, n);
+            srcBegin += n;
+            dstBegin += n;
+        }
+    }
+
+    /**
+     * Returns a string containing the characters of the given range of
+     * this builder.
+     *
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @return the string of the given range
+     * @throws IndexOutOfBoundsException if {@code start} or {@code end} is
+     *         negative, {@code end} is greater than {@code length()}, or
+     *         {@code start} is greater than {@code end}
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return substring(start, end);
+    }
+
+    /**
+     * Returns a string containing the characters of the given range of
+     * this builder.
+     *
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @return the string of the given range
+     * @throws IndexOutOfBoundsException if {@code start} or {@code end} is
+     *         negative, {@code end} is greater than {@code length()}, or
+     *         {@code start} is greater than {@code end}
+     */
+    public String substring(int start, int end) {
+        if (start < 0)
+            throw new StringIndexOutOfBoundsException(start);
+        if (end > count)
+            throw new StringIndexOutOfBoundsException(end);
+        if (start > end)
+            throw new StringIndexOutOfBoundsException(end - start);
+        char[] value = new char[end - start];
+        getChars(start, end, value, 0);
+        return new String(value, true);
+    }
+
+    /**
+     * Returns a string containing the characters of this builder.  The
+     * characters are copied once, into the new string.
+     *
+     * @return a string containing the characters of this builder
+     */
+    @Override
+    public String toString() {
+        return substring(0, count);
+    }
+
+    // Appending
+
+    /**
+     * Returns the chunk to append to at index {@code count}, allocating it
+     * if needed.
+     */
+    private char[] chunkForAppend() {
+        if (count == Integer.MAX_VALUE)
+            throw new OutOfMemoryError("Length exceeds Integer.MAX_VALUE");
+        int i = count >>> shift;
+        char[][] cs = chunks;
+        if (i >= cs.length)
+            chunks = cs = Arrays.copyOf(cs, cs.length << 1);
+        char[] chunk = cs[i];
+        if (chunk == null)
+            cs[i] = chunk = new char[mask + 1];
+        return chunk;
+    }
+
+    /**
+     * Checks that {@code n} more characters may be appended.
+     */
+    private void checkAppend(int n) {
+        if (count + n < 0)
+            throw new OutOfMemoryError("Length exceeds Integer.MAX_VALUE");
+    }
+
+    /**
+     * Appends the given character.
+     *
+     * @param c a {@code char}
+     * @return this builder
+     */
+    @Override
+    public ChunkedStringBuilder append(char c) {
+        char[] chunk = chunkForAppend();
+        chunk[count & mask] = c;
+        count++;
+        return this;
+    }
+
+    /**
+     * Appends the characters of the given range of a {@code char} array.
+     *
+     * @param str the characters to append
+     * @param offset the index of the first character to append
+     * @param len the number of characters to append
+     * @return this builder
+     * @throws IndexOutOfBoundsException if {@code offset} or {@code len} is
+     *         negative, or {@code offset + len} is greater than
+     *         {@code str.length}
+     */
+    public ChunkedStringBuilder append(char[] str, int offset, int len) {
+        if (offset < 0 || len < 0 || offset > str.length - len)
+            throw new StringIndexOutOfBoundsException(
+                "offset " + offset + ", len " + len + ", length " + str.length);
+        checkAppend(len);
+        while (len > 0) {
+            char[] chunk = chunkForAppend();
+            int off = count & mask;
+            int n = Math.min(chunk.length - off, len);
+            System.arraycopy(str, offset, chunk, off, n);
+            count += n;
+            offset += n;
+            len -= n;
+        }
+        return this;
+    }
+
+    /**
+     * Appends the characters of a {@code char} array.
+     *
+     * @param str the characters to append
+     * @return this builder
+     */
+    public ChunkedStringBuilder append(char[] str) {
+        return append(str, 0, str.length);
+    }
+
+    /**
+     * Appends the given string, or {@code "null"} if it is {@code null}.
+     *
+     * @param str a string
+     * @return this builder
+     */
+    public ChunkedStringBuilder append(String str) {
+        if (str == null)
+            str = "null";
+        return append(str, 0, str.length());
+    }
+
+    /**
+     * Appends the given sequence, or {@code "null"} if it is {@code null}.
+     *
+     * @param s the sequence to append
+     * @return this builder
+     */
+    @Override
+    public ChunkedStringBuilder append(CharSequence s) {
+        if (s == null)
+            s = "null";
+        return append(s, 0, s.length());
+    }
+
+    /**
+     * Appends the characters of the given range of a sequence, or of
+     * {@code "null"} if it is {@code null}.
+     *
+     * @param s the sequence to append
+     * @param start the index of the first character to append
+     * @param end the index after the last character to append
+     * @return this builder
+     * @throws IndexOutOfBoundsException if {@code start} is negative,
+     *         {@code start} is greater than {@code end}, or {@code end} is
+     *         greater than {@code s.length()}
+     */
+    @Override
+    public ChunkedStringBuilder append(CharSequence s, int start, int end) {
+        if (s == null)
+            s = "null";
+        if (start < 0 || start > end || end > s.length())
+            throw new IndexOutOfBoundsException(
+                "start " + start + ", end " + end + ", length " + s.length());
+        checkAppend(end - start);
+        while (start < end) {
+            char[] chunk = chunkForAppend();
+            int off = count & mask;
+            int n = Math.min(chunk.length - off, end - start);
+            if (s instanceof String)
+                ((String) s).getChars(start, start + n, chunk, off);
+            else if (s instanceof AbstractStringBuilder)
+                ((AbstractStringBuilder) s).getChars(start, start + n, chunk, off);
+            else if (s instanceof ChunkedStringBuilder)
+                ((ChunkedStringBuilder) s).getChars(start, start + n, chunk, off);
+            else {
+                for (int i = 0; i < n; i++)
+                    chunk[off + i] = s.charAt(start + i);
+            }
+            count += n;
+            start += n;
+        }
+        return this;
+    }
+
+    /**
+     * Appends the string representation of the given object, as by
+     * {@link String#valueOf(Object)}.
+     *
+     * @param obj an {@code Object}
+     * @return this builder
+     */
+    public ChunkedStringBuilder append(Object obj) {
+        return append(String.valueOf(obj));
+    }
+
+    /**
+     * Appends {@code "true"} or {@code "false"}.
+     *
+     * @param b a {@code boolean}
+     * @return this builder
+     */
+    public ChunkedStringBuilder append(boolean b) {
+        return append(b ? "true" : "false");
+    }
+
+    /**
+     * Appends the decimal representation of the given {@code int}, as by
+     * {@link Integer#toString(int)}, without creating a string.
+     *
+     * @param i an {@code int}
+     * @return this builder
+     */
+    public ChunkedStringBuilder append(int i) {
+        if (i == Integer.MIN_VALUE)
+            return append("-2147483648");
+        int size = (i < 0) ? Integer.stringSize(-i) + 1 : Integer.stringSize(i);
+        char[] buf = digits();
+        Integer.getChars(i, size, buf);
+        return append(buf, 0, size);
+    }
+
+    /**
+     * Appends the decimal representation of the given {@code long}, as by
+     * {@link Long#toString(long)}, without creating a string.
+     *
+     * @param l a {@code long}
+     * @return this builder
+     */
+    public ChunkedStringBuilder append(long l) {
+        if (l == Long.MIN_VALUE)
+            return append("-9223372036854775808");
+        int size = (l < 0) ? Long.stringSize(-l) + 1 : Long.stringSize(l);
+        char[] buf = digits();
+        Long.getChars(l, size, buf);
+        return append(buf, 0, size);
+    }
+
+    /**
+     * Appends the string representation of the given {@code float}, as by
+     * {@link Float#toString(float)}.
+     *
+     * @param f a {@code float}
+     * @return this builder
+     */
+    public ChunkedStringBuilder append(float f) {
+        return append(Float.toString(f));
+    }
+
+    /**
+     * Appends the string representation of the given {@code double}, as by
+     * {@link Double#toString(double)}.
+     *
+     * @param d a {@code double}
+     * @return this builder
+     */
+    public ChunkedStringBuilder append(double d) {
+        return append(Double.toString(d));
+    }
+
+    private char[] digits() {
+        char[] buf = digits;
+        if (buf == null)
+            digits = buf = new char[20];
+        return buf;
+    }
+
+    // Writing
+
+    /**
+     * Writes the characters of this builder to the given writer, one chunk
+     * at a time.
+     *
+     * @param out the writer
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(Writer out) throws IOException {
+        for (int i = 0, remaining = count; remaining > 0; i++) {
+            int n = Math.min(mask + 1, remaining);
+            out.write(chunks[i], 0, n);
+            remaining -= n;
+        }
+    }
+
+    /**
+     * Writes the characters of this builder, encoded in the given charset,
+     * to the given channel, one chunk at a time.  Malformed input and
+     * unmappable characters are replaced by the charset's default
+     * replacement, as by {@link String#getBytes(Charset)}.  The bytes are
+     * written through a buffer of a fixed size, so the channel must be in
+     * blocking mode.
+     *
+     * @param out the channel
+     * @param charset the charset in which to encode the characters
+     * @return the number of bytes written
+     * @throws IOException if an I/O error occurs
+     */
+    public long writeTo(WritableByteChannel out, Charset charset) throws IOException {
+        if (count == 0)
+            return 0L;
+        CharsetEncoder encoder = charset.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bb = ByteBuffer.allocate(
+            Math.max(WRITE_BUFFER_SIZE, (int) Math.ceil(encoder.maxBytesPerChar()) * 2));
+        long written = 0L;
+        char carry = 0;       // a trailing char left over from the previous chunk
+        boolean carried = false;
+        for (int i = 0, remaining = count; remaining > 0; i++) {
+            int n = Math.min(mask + 1, remaining);
+            remaining -= n;
+            boolean last = (remaining == 0);
+            CharBuffer cb = CharBuffer.wrap(chunks[i], 0, n);
+            if (carried) {
+                // Encode a surrogate pair split across chunks
+                CharBuffer pair = CharBuffer.wrap(new char[] { carry, cb.get() });
+                written += encode(encoder, pair, bb, out, last && !cb.hasRemaining());
+                if (pair.hasRemaining())    // not a pair; the second char is
+                    cb.position(0);         // encoded with the rest of the chunk
+                carried = false;
+            }
+            written += encode(encoder, cb, bb, out, last);
+            if (cb.hasRemaining()) {
+                carry = cb.get();
+                carried = true;
+            }
+        }
+        CoderResult cr;
+        while ((cr = encoder.flush(bb)).isOverflow())
+            written += drain(bb, out);
+        if (!cr.isUnderflow())
+            throwException(cr);
+        return written + drain(bb, out);
+    }
+
+    /**
+     * Encodes the given chars into the buffer, writing it to the channel
+     * whenever it is full.  Returns the number of bytes written.
+     */
+    private static long encode(CharsetEncoder encoder, CharBuffer cb, ByteBuffer bb,
+                               WritableByteChannel out, boolean endOfInput)
+        throws IOException
+    {
+        long written = 0L;
+        for (;;) {
+            CoderResult cr = encoder.encode(cb, bb, endOfInput);
+            if (cr.isUnderflow())
+                return written;
+            if (cr.isOverflow())
+                written += drain(bb, out);
+            else
+                throwException(cr);
+        }
+    }
+
+    /**
+     * Writes the contents of the buffer to the channel, and clears it.
+     */
+    private static int drain(ByteBuffer bb, WritableByteChannel out) throws IOException {
+        bb.flip();
+        int n = bb.remaining();
+        while (bb.hasRemaining())
+            out.write(bb);
+        bb.clear();
+        return n;
+    }
+
+    private static void throwException(CoderResult cr) {
+        try {
+            cr.throwException();
+        } catch (CharacterCodingException x) {
+            // Substitution is always enabled,
+            // so this shouldn't happen
+            throw new Error(x);
+        }
+    }
+}
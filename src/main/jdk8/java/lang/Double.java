@@ -193,6 +193,8 @@ public final class Double extends Number implements Comparable<Double> {
      * to <i>x</i>; or if two {@code double} values are equally close
      * to <i>x</i>, then <i>d</i> must be one of them and the least
      * significant bit of the significand of <i>d</i> must be {@code 0}.
+     * Of the decimal representations with the fewest digits that meet
+     * this requirement, the one closest to <i>d</i> is produced.
      *
      * <p>To create localized string representations of a floating-point
      * value, use subclasses of {@link java.text.NumberFormat}.
@@ -201,7 +203,61 @@ public final class Double extends Number implements Comparable<Double> {
      * @return a string representation of the argument.
      */
     public static String toString(double d) {
-        return FloatingDecimal.toJavaFormatString(d);
+        return DoubleToDecimal.toString(d);
+    }
+
+    /**
+     * Writes the string representation of the {@code double} argument, as
+     * returned by {@link #toString(double)}, into a {@code char} array
+     * starting at the specified offset.  No intermediate string is
+     * created.
+     *
+     * @param   d        the {@code double} to be formatted.
+     * @param   dst      the destination array.
+     * @param   offset   the index of the first character to be written.
+     * @return  the index following the last character written.
+     * @throws  NullPointerException  if {@code dst} is null.
+     * @throws  IndexOutOfBoundsException  if {@code offset} is negative
+     *          or the representation does not fit between {@code offset}
+     *          and the end of {@code dst}.
+     * @since   9
+     */
+    public static int formatTo(double d, char[] dst, int offset) {
+        if (offset < 0 || dst.length - offset < DoubleToDecimal.MAX_CHARS) {
+            char[] buf = new char[DoubleToDecimal.MAX_CHARS];
+            int size = DoubleToDecimal.toChars(d, buf, 0);
+            Integer.checkFormatRange(dst.length, offset, size);
+            System.arraycopy(buf, 0, dst, offset, size);
+            return offset + size;
+        }
+        return DoubleToDecimal.toChars(d, dst, offset);
+    }
+
+    /**
+     * Writes the string representation of the {@code double} argument, as
+     * returned by {@link #toString(double)}, into a {@code byte} array of
+     * ASCII characters starting at the specified offset.  No
+     * intermediate string is created.
+     *
+     * @param   d        the {@code double} to be formatted.
+     * @param   dst      the destination array.
+     * @param   offset   the index of the first byte to be written.
+     * @return  the index following the last byte written.
+     * @throws  NullPointerException  if {@code dst} is null.
+     * @throws  IndexOutOfBoundsException  if {@code offset} is negative
+     *          or the representation does not fit between {@code offset}
+     *          and the end of {@code dst}.
+     * @since   9
+     */
+    public static int formatTo(double d, byte[] dst, int offset) {
+        if (offset < 0 || dst.length - offset < DoubleToDecimal.MAX_CHARS) {
+            byte[] buf = new byte[DoubleToDecimal.MAX_CHARS];
+            int size = DoubleToDecimal.toChars(d, buf, 0);
+            Integer.checkFormatRange(dst.length, offset, size);
+            System.arraycopy(buf, 0, dst, offset, size);
+            return offset + size;
+        }
+        return DoubleToDecimal.toChars(d, dst, offset);
     }
 
     /**
@@ -538,6 +594,70 @@ public final class Double extends Number implements Comparable<Double> {
         return FloatingDecimal.parseDouble(s);
     }
 
+    /**
+     * Returns a new {@code double} initialized to the value represented
+     * by the specified range of a {@code CharSequence}, as if the
+     * subsequence were given as a string to {@link #parseDouble(String)}.
+     * Decimal input with few enough significant digits and a small enough
+     * exponent to be converted exactly by a single correctly rounded
+     * operation is converted without creating any objects.
+     *
+     * @param  s   the {@code CharSequence} to be parsed.
+     * @param  beginIndex   the beginning index, inclusive.
+     * @param  endIndex     the ending index, exclusive.
+     * @return the {@code double} value represented by the subsequence.
+     * @throws NullPointerException  if {@code s} is null
+     * @throws IndexOutOfBoundsException  if the range is out of bounds
+     * @throws NumberFormatException if the subsequence does not contain
+     *         a parsable {@code double}.
+     * @since 9
+     */
+    public static double parseDouble(CharSequence s, int beginIndex, int endIndex)
+        throws NumberFormatException {
+        return NumberParser.parseDouble(s, beginIndex, endIndex);
+    }
+
+    /**
+     * Returns a new {@code double} initialized to the value represented
+     * by the specified range of a {@code char} array, as by {@link
+     * #parseDouble(CharSequence, int, int)}.
+     *
+     * @param  a   the array to be parsed.
+     * @param  beginIndex   the beginning index, inclusive.
+     * @param  endIndex     the ending index, exclusive.
+     * @return the {@code double} value represented by the range.
+     * @throws NullPointerException  if {@code a} is null
+     * @throws IndexOutOfBoundsException  if the range is out of bounds
+     * @throws NumberFormatException if the range does not contain
+     *         a parsable {@code double}.
+     * @since 9
+     */
+    public static double parseDouble(char[] a, int beginIndex, int endIndex)
+        throws NumberFormatException {
+        return NumberParser.parseDouble(a, beginIndex, endIndex);
+    }
+
+    /**
+     * Returns a new {@code double} initialized to the value represented
+     * by the specified range of a {@code byte} array of ASCII
+     * characters, as by {@link #parseDouble(CharSequence, int, int)}.  Each
+     * byte is taken as the ISO-8859-1 character of the same value.
+     *
+     * @param  a   the array to be parsed.
+     * @param  beginIndex   the beginning index, inclusive.
+     * @param  endIndex     the ending index, exclusive.
+     * @return the {@code double} value represented by the range.
+     * @throws NullPointerException  if {@code a} is null
+     * @throws IndexOutOfBoundsException  if the range is out of bounds
+     * @throws NumberFormatException if the range does not contain
+     *         a parsable {@code double}.
+     * @since 9
+     */
+    public static double parseDouble(byte[] a, int beginIndex, int endIndex)
+        throws NumberFormatException {
+        return NumberParser.parseDouble(a, beginIndex, endIndex);
+    }
+
     /**
      * Returns {@code true} if the specified number is a
      * Not-a-Number (NaN) value, {@code false} otherwise.
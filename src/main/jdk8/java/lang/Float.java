@@ -194,7 +194,9 @@ public final class Float extends Number implements Comparable<Float> {
      * value nearest to <i>x</i>; or, if two {@code float} values are
      * equally close to <i>x</i>, then <i>f</i> must be one of
      * them and the least significant bit of the significand of
-     * <i>f</i> must be {@code 0}.
+     * <i>f</i> must be {@code 0}. Of the decimal representations with
+     * the fewest digits that meet this requirement, the one closest to
+     * <i>f</i> is produced.
      *
      * <p>To create localized string representations of a floating-point
      * value, use subclasses of {@link java.text.NumberFormat}.
@@ -203,7 +205,61 @@ public final class Float extends Number implements Comparable<Float> {
      * @return a string representation of the argument.
      */
     public static String toString(float f) {
-        return FloatingDecimal.toJavaFormatString(f);
+        return FloatToDecimal.toString(f);
+    }
+
+    /**
+     * Writes the string representation of the {@code float} argument, as
+     * returned by {@link #toString(float)}, into a {@code char} array
+     * starting at the specified offset.  No intermediate string is
+     * created.
+     *
+     * @param   f        the {@code float} to be formatted.
+     * @param   dst      the destination array.
+     * @param   offset   the index of the first character to be written.
+     * @return  the index following the last character written.
+     * @throws  NullPointerException  if {@code dst} is null.
+     * @throws  IndexOutOfBoundsException  if {@code offset} is negative
+     *          or the representation does not fit between {@code offset}
+     *          and the end of {@code dst}.
+     * @since   9
+     */
+    public static int formatTo(float f, char[] dst, int offset) {
+        if (offset < 0 || dst.length - offset < FloatToDecimal.MAX_CHARS) {
+            char[] buf = new char[FloatToDecimal.MAX_CHARS];
+            int size = FloatToDecimal.toChars(f, buf, 0);
+            Integer.checkFormatRange(dst.length, offset, size);
+            System.arraycopy(buf, 0, dst, offset, size);
+            return offset + size;
+        }
+        return FloatToDecimal.toChars(f, dst, offset);
+    }
+
+    /**
+     * Writes the string representation of the {@code float} argument, as
+     * returned by {@link #toString(float)}, into a {@code byte} array of
+     * ASCII characters starting at the specified offset.  No
+     * intermediate string is created.
+     *
+     * @param   f        the {@code float} to be formatted.
+     * @param   dst      the destination array.
+     * @param   offset   the index of the first byte to be written.
+     * @return  the index following the last byte written.
+     * @throws  NullPointerException  if {@code dst} is null.
+     * @throws  IndexOutOfBoundsException  if {@code offset} is negative
+     *          or the representation does not fit between {@code offset}
+     *          and the end of {@code dst}.
+     * @since   9
+     */
+    public static int formatTo(float f, byte[] dst, int offset) {
+        if (offset < 0 || dst.length - offset < FloatToDecimal.MAX_CHARS) {
+            byte[] buf = new byte[FloatToDecimal.MAX_CHARS];
+            int size = FloatToDecimal.toChars(f, buf, 0);
+            Integer.checkFormatRange(dst.length, offset, size);
+            System.arraycopy(buf, 0, dst, offset, size);
+            return offset + size;
+        }
+        return FloatToDecimal.toChars(f, dst, offset);
     }
 
     /**
@@ -451,6 +507,70 @@ public final class Float extends Number implements Comparable<Float> {
         return FloatingDecimal.parseFloat(s);
     }
 
+    /**
+     * Returns a new {@code float} initialized to the value represented
+     * by the specified range of a {@code CharSequence}, as if the
+     * subsequence were given as a string to {@link #parseFloat(String)}.
+     * Decimal input with few enough significant digits and a small enough
+     * exponent to be converted exactly by a single correctly rounded
+     * operation is converted without creating any objects.
+     *
+     * @param  s   the {@code CharSequence} to be parsed.
+     * @param  beginIndex   the beginning index, inclusive.
+     * @param  endIndex     the ending index, exclusive.
+     * @return the {@code float} value represented by the subsequence.
+     * @throws NullPointerException  if {@code s} is null
+     * @throws IndexOutOfBoundsException  if the range is out of bounds
+     * @throws NumberFormatException if the subsequence does not contain
+     *         a parsable {@code float}.
+     * @since 9
+     */
+    public static float parseFloat(CharSequence s, int beginIndex, int endIndex)
+        throws NumberFormatException {
+        return NumberParser.parseFloat(s, beginIndex, endIndex);
+    }
+
+    /**
+     * Returns a new {@code float} initialized to the value represented
+     * by the specified range of a {@code char} array, as by {@link
+     * #parseFloat(CharSequence, int, int)}.
+     *
+     * @param  a   the array to be parsed.
+     * @param  beginIndex   the beginning index, inclusive.
+     * @param  endIndex     the ending index, exclusive.
+     * @return the {@code float} value represented by the range.
+     * @throws NullPointerException  if {@code a} is null
+     * @throws IndexOutOfBoundsException  if the range is out of bounds
+     * @throws NumberFormatException if the range does not contain
+     *         a parsable {@code float}.
+     * @since 9
+     */
+    public static float parseFloat(char[] a, int beginIndex, int endIndex)
+        throws NumberFormatException {
+        return NumberParser.parseFloat(a, beginIndex, endIndex);
+    }
+
+    /**
+     * Returns a new {@code float} initialized to the value represented
+     * by the specified range of a {@code byte} array of ASCII
+     * characters, as by {@link #parseFloat(CharSequence, int, int)}.  Each
+     * byte is taken as the ISO-8859-1 character of the same value.
+     *
+     * @param  a   the array to be parsed.
+     * @param  beginIndex   the beginning index, inclusive.
+     * @param  endIndex     the ending index, exclusive.
+     * @return the {@code float} value represented by the range.
+     * @throws NullPointerException  if {@code a} is null
+     * @throws IndexOutOfBoundsException  if the range is out of bounds
+     * @throws NumberFormatException if the range does not contain
+     *         a parsable {@code float}.
+     * @since 9
+     */
+    public static float parseFloat(byte[] a, int beginIndex, int endIndex)
+        throws NumberFormatException {
+        return NumberParser.parseFloat(a, beginIndex, endIndex);
+    }
+
     /**
      * Returns {@code true} if the specified number is a
      * Not-a-Number (NaN) value, {@code false} otherwise.
@@ -0,0 +1,186 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.lang;
+
+import static java.lang.DoubleToDecimal.flog10pow2;
+import static java.lang.DoubleToDecimal.flog10threeQuartersPow2;
+import static java.lang.DoubleToDecimal.flog2pow10;
+import static java.lang.DoubleToDecimal.g1;
+import static java.lang.DoubleToDecimal.multiplyHigh;
+
+/**
+ * Renders {@code float} values as the shortest decimal that rounds to
+ * them, in the format specified by {@link Float#toString(float)}.
+ *
+ * <p>This is the {@code float} variant of the algorithm of {@link
+ * DoubleToDecimal}, which describes the selection of the decimal and
+ * the references [1] and [2].  A 64-bit approximation of each power of
+ * ten suffices here, and is taken from the high half of the same table.
+ */
+final class FloatToDecimal {
+
+    private FloatToDecimal() { }
+
+    /** The maximum number of characters of a rendering, as of "-1.17549435E-38" */
+    static final int MAX_CHARS = 15;
+
+    /** The precision in bits */
+    private static final int P = 24;
+
+    /** The exponent field width in bits */
+    private static final int W = 8;
+
+    /** The minimum binary exponent, that of Float.MIN_VALUE = 2^Q_MIN */
+    private static final int Q_MIN = -149;
+
+    /** The smallest normal significand, 2^(P-1) */
+    private static final int C_MIN = 1 << (P - 1);
+
+    /** Subnormal significands below this are scaled by 10 first */
+    private static final int C_TINY = 8;
+
+    private static final int BQ_MASK = (1 << W) - 1;
+    private static final int T_MASK = (1 << (P - 1)) - 1;
+    private static final long MASK_32 = (1L << 32) - 1;
+
+    /**
+     * Writes the rendering of {@code v} into {@code buf} starting at
+     * {@code index}, and returns the index following the last character
+     * written.  The caller must ensure that there is room for
+     * {@link #MAX_CHARS} characters.
+     */
+    static int toChars(float v, char[] buf, int index) {
+        return toChars(v, (Object) buf, index);
+    }
+
+    /**
+     * Writes the rendering of {@code v} into {@code buf} as ISO-8859-1
+     * bytes, as by {@link #toChars(float, char[], int)}.
+     */
+    static int toChars(float v, byte[] buf, int index) {
+        return toChars(v, (Object) buf, index);
+    }
+
+    /**
+     * Returns the rendering of {@code v} as a string.
+     */
+    static String toString(float v) {
+        char[] buf = new char[MAX_CHARS];
+        return new String(buf, 0, toChars(v, buf, 0));
+    }
+
+    private static int toChars(float v, Object buf, int index) {
+        int bits = Float.floatToRawIntBits(v);
+        int t = bits & T_MASK;
+        int bq = (bits >>> (P - 1)) & BQ_MASK;
+        if (bq < BQ_MASK) {
+            if (bits < 0) {
+                index = DoubleToDecimal.put(buf, index, "-");
+            }
+            if (bq != 0) {
+                // Normal value: v = c 2^q, with q = -mq
+                int mq = -Q_MIN + 1 - bq;
+                int c = C_MIN | t;
+                // Integers below 2^24 are rendered exactly
+                if (0 < mq & mq < P) {
+                    int f = c >> mq;
+                    if (f << mq == c) {
+                        return DoubleToDecimal.toChars(f, 0, buf, index);
+                    }
+                }
+                return toDecimal(-mq, c, 0, buf, index);
+            }
+            if (t != 0) {
+                // Subnormal value
+                return (t < C_TINY)
+                    ? toDecimal(Q_MIN, 10 * t, -1, buf, index)
+                    : toDecimal(Q_MIN, t, 0, buf, index);
+            }
+            return DoubleToDecimal.put(buf, index, "0.0");
+        }
+        if (t != 0) {
+            return DoubleToDecimal.put(buf, index, "NaN");
+        }
+        return DoubleToDecimal.put(buf, index, (bits > 0) ? "Infinity" : "-Infinity");
+    }
+
+    /**
+     * Renders the shortest decimal that rounds to c 2^q, scaled by
+     * 10^dk, as in {@code DoubleToDecimal}.
+     */
+    private static int toDecimal(int q, int c, int dk, Object buf, int index) {
+        int out = c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        // The rounding interval is narrower below powers of two
+        if (c != C_MIN | q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 33;
+
+        // An upper bound of the 64 high bits of g in section 5 of [1]
+        long g = g1(k) + 1;
+
+        int vb = rop(g, cb << h);
+        int vbl = rop(g, cbl << h);
+        int vbr = rop(g, cbr << h);
+
+        int s = vb >> 2;
+        if (s >= 100) {
+            // floor(s / 10) = floor(s 1_717_986_919 / 2^34), for s < 2^31
+            int sp10 = 10 * (int) (s * 1_717_986_919L >>> 34);
+            int tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return DoubleToDecimal.toChars(upin ? sp10 : tp10, k + dk, buf, index);
+            }
+        }
+
+        int t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            return DoubleToDecimal.toChars(uin ? s : t, k + dk, buf, index);
+        }
+        int cmp = vb - (s + t << 1);
+        return DoubleToDecimal.toChars((cmp < 0 || cmp == 0 && (s & 0x1) == 0) ? s : t,
+                                       k + dk, buf, index);
+    }
+
+    /**
+     * Returns rop(cp g 2^-95), the product rounded to odd.
+     */
+    private static int rop(long g, long cp) {
+        long x1 = multiplyHigh(g, cp);
+        long vbp = x1 >>> 31;
+        return (int) (vbp | (x1 & MASK_32) + MASK_32 >>> 32);
+    }
+}
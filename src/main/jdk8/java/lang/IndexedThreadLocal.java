@@ -0,0 +1,261 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ThreadLocal} whose values are held in a plain array
+ * attached to each thread and located by an index assigned when the
+ * variable is constructed, rather than in a per-thread hash table
+ * keyed by weak references to the variable. Reading or writing the
+ * current thread's value is a bounds check and a single array access;
+ * there is no hashing, probing, or stale entry expunging, and no
+ * reference objects are created, so no reference processing is
+ * required during garbage collection.
+ *
+ * <p>These advantages come with obligations. Indices are never
+ * reused, and each thread's array grows to accommodate the largest
+ * index it has used, so this class is intended for a bounded number
+ * of long-lived (typically {@code static}) variables that are used
+ * on performance-critical paths, such as per-thread buffers and
+ * codecs. Because values are strongly referenced from the array,
+ * they are not reclaimed when the variable itself becomes
+ * unreachable: threads that outlive their use of a variable (for
+ * example pooled threads) must explicitly {@link #remove} its value,
+ * or invoke {@link #removeAll}.
+ *
+ * <p>Apart from the above, instances behave like other thread-local
+ * variables, and may be used wherever a {@code ThreadLocal} is
+ * expected. For values that are inherited by child threads, see
+ * {@link InheritableIndexedThreadLocal}.
+ *
+ * @param <T> the type of the thread local's value
+ * @see ThreadLocal
+ * @since 9
+ */
+public class IndexedThreadLocal<T> extends ThreadLocal<T> {
+    /**
+     * The value held in a thread's array for a variable explicitly set
+     * to null, distinguishing it from a variable having no value.
+     */
+    private static final Object NULL = new Object();
+
+    /**
+     * The largest index that may be assigned, leaving room for
+     * array headers.
+     */
+    private static final int MAX_INDEX = Integer.MAX_VALUE - 8;
+
+    /**
+     * The next index to be assigned.
+     */
+    private static final AtomicInteger nextIndex = new AtomicInteger();
+
+    /**
+     * Weak references to all inheritable variables, consulted when
+     * constructing threads. Replaced, not modified, under the class
+     * lock when inheritable variables are constructed.
+     */
+    @SuppressWarnings("unchecked")
+    private static volatile WeakReference<IndexedThreadLocal<?>>[]
+        inheritables = (WeakReference<IndexedThreadLocal<?>>[])
+        new WeakReference<?>[0];
+
+    /**
+     * The index of this variable's value in each thread's array.
+     */
+    private final int index;
+
+    /**
+     * Creates an indexed thread local variable.
+     *
+     * @throws IllegalStateException if too many indexed thread local
+     *         variables have been created
+     * @see #withInitial(java.util.function.Supplier)
+     */
+    public IndexedThreadLocal() {
+        super(false);       // never a ThreadLocalMap key
+        int i = nextIndex.getAndIncrement();
+        if (i < 0 || i > MAX_INDEX) {
+            nextIndex.set(MAX_INDEX + 1);   // avoid wrapping
+            throw new IllegalStateException
+                ("too many indexed thread local variables");
+        }
+        index = i;
+        if (this instanceof InheritableIndexedThreadLocal)
+            registerInheritable(this);
+    }
+
+    /**
+     * Creates an indexed thread local variable. The initial value of
+     * the variable is determined by invoking the {@code get} method on
+     * the {@code Supplier}.
+     *
+     * @param <S> the type of the thread local's value
+     * @param supplier the supplier to be used to determine the initial value
+     * @return a new indexed thread local variable
+     * @throws NullPointerException if the specified supplier is null
+     */
+    public static <S> IndexedThreadLocal<S> withInitial(
+            Supplier<? extends S> supplier) {
+        Objects.requireNonNull(supplier);
+        return new IndexedThreadLocal<S>() {
+            protected S initialValue() {
+                return supplier.get();
+            }
+        };
+    }
+
+    /**
+     * Returns the value in the current thread's copy of this
+     * thread-local variable.  If the variable has no value for the
+     * current thread, it is first initialized to the value returned
+     * by an invocation of the {@link #initialValue} method.
+     *
+     * @return the current thread's value of this thread-local
+     */
+    @SuppressWarnings("unchecked")
+    public T get() {
+        Thread t = Thread.currentThread();
+        Object[] a = t.indexedThreadLocals;
+        int i = index;
+        Object v;
+        if (a != null && i < a.length && (v = a[i]) != null)
+            return (v == NULL) ? null : (T)v;
+        T value = initialValue();
+        store(t, value);
+        return value;
+    }
+
+    /**
+     * Sets the current thread's copy of this thread-local variable
+     * to the specified value.
+     *
+     * @param value the value to be stored in the current thread's copy of
+     *        this thread-local.
+     */
+    public void set(T value) {
+        store(Thread.currentThread(), value);
+    }
+
+    /**
+     * Removes the current thread's value for this thread-local
+     * variable.  If this thread-local variable is subsequently
+     * {@linkplain #get read} by the current thread, its value will be
+     * reinitialized by invoking its {@link #initialValue} method,
+     * unless its value is {@linkplain #set set} by the current thread
+     * in the interim.
+     */
+    public void remove() {
+        Object[] a = Thread.currentThread().indexedThreadLocals;
+        int i = index;
+        if (a != null && i < a.length)
+            a[i] = null;
+    }
+
+    /**
+     * Removes the current thread's values for all indexed thread-local
+     * variables. This may be used, for example, when returning a
+     * pooled thread to its pool.
+     */
+    public static void removeAll() {
+        Thread.currentThread().indexedThreadLocals = null;
+    }
+
+    /**
+     * Stores value in t's array, growing the array if necessary.
+     */
+    private void store(Thread t, T value) {
+        Object[] a = t.indexedThreadLocals;
+        int i = index;
+        if (a == null || i >= a.length)
+            t.indexedThreadLocals = a = grow(a, i);
+        a[i] = (value == null) ? NULL : value;
+    }
+
+    /**
+     * Returns a copy of the given array, or a new array if null, large
+     * enough to hold the given index.
+     */
+    private static Object[] grow(Object[] a, int index) {
+        int n = (a == null) ? 16 : a.length;
+        while (n <= index)
+            n = (n >= (MAX_INDEX >>> 1)) ? MAX_INDEX + 1 : n << 1;
+        return (a == null) ? new Object[n] : Arrays.copyOf(a, n);
+    }
+
+    private static synchronized void registerInheritable(
+            IndexedThreadLocal<?> t) {
+        WeakReference<IndexedThreadLocal<?>>[] refs = inheritables;
+        int n = 0;
+        for (WeakReference<IndexedThreadLocal<?>> r : refs)
+            if (r.get() != null)
+                ++n;                            // drop cleared refs
+        WeakReference<IndexedThreadLocal<?>>[] nrefs =
+            Arrays.copyOf(refs, n + 1);
+        int k = 0;
+        for (WeakReference<IndexedThreadLocal<?>> r : refs)
+            if (r.get() != null)
+                nrefs[k++] = r;
+        nrefs[k] = new WeakReference<IndexedThreadLocal<?>>(t);
+        inheritables = nrefs;
+    }
+
+    /**
+     * Factory method to create the array of inherited values for a
+     * new thread, given its parent's array. Called only from Thread
+     * constructor, in the parent thread.
+     *
+     * @param parentValues the array associated with the parent thread
+     * @return an array containing the parent's inheritable values, or
+     *         null if there are none
+     */
+    static Object[] createInheritedArray(Object[] parentValues) {
+        Object[] a = null;
+        for (WeakReference<IndexedThreadLocal<?>> r : inheritables) {
+            IndexedThreadLocal<?> t; Object v; int i;
+            if ((t = r.get()) != null && (i = t.index) < parentValues.length &&
+                (v = parentValues[i]) != null) {
+                if (a == null)
+                    a = new Object[parentValues.length];
+                Object c = t.inheritedValue(v == NULL ? null : v);
+                a[i] = (c == null) ? NULL : c;
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Returns the child's value for the given parent value.
+     */
+    @SuppressWarnings("unchecked")
+    private Object inheritedValue(Object parentValue) {
+        return childValue((T)parentValue);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang;
+
+/**
+ * This class extends {@code IndexedThreadLocal} to provide inheritance
+ * of values from parent thread to child thread, in the same way as
+ * {@link InheritableThreadLocal}: when a child thread is created, the
+ * child receives initial values for all inheritable indexed
+ * thread-local variables for which the parent has values, as computed
+ * by the {@code childValue} method.
+ *
+ * <p>Values of these variables are held in the same per-thread array
+ * as those of other {@link IndexedThreadLocal}s, and are independent
+ * of any {@code InheritableThreadLocal} values; a thread may use both
+ * kinds of variable, and both are inherited when it creates a child.
+ *
+ * @param <T> the type of the thread local's value
+ * @see IndexedThreadLocal
+ * @see InheritableThreadLocal
+ * @since 9
+ */
+public class InheritableIndexedThreadLocal<T> extends IndexedThreadLocal<T> {
+    /**
+     * Creates an inheritable indexed thread local variable.
+     *
+     * @throws IllegalStateException if too many indexed thread local
+     *         variables have been created
+     */
+    public InheritableIndexedThreadLocal() {
+    }
+
+    /**
+     * Computes the child's initial value for this inheritable thread-local
+     * variable as a function of the parent's value at the time the child
+     * thread is created.  This method is called from within the parent
+     * thread before the child is started.
+     * <p>
+     * This method merely returns its input argument, and should be overridden
+     * if a different behavior is desired.
+     *
+     * @param parentValue the parent thread's value
+     * @return the child thread's initial value
+     */
+    protected T childValue(T parentValue) {
+        return parentValue;
+    }
+}
@@ -486,6 +486,114 @@ public final class Integer extends Number implements Comparable<Integer> {
                 return i+1;
     }
 
+    /**
+     * Places the ASCII characters representing the integer i into the
+     * byte array buf, as by {@link #getChars}.
+     *
+     * Will fail if i == MIN_VALUE
+     */
+    static void getBytes(int i, int index, byte[] buf) {
+        int q, r;
+        int charPos = index;
+        byte sign = 0;
+
+        if (i < 0) {
+            sign = '-';
+            i = -i;
+        }
+
+        // Generate two digits per iteration
+        while (i >= 65536) {
+            q = i / 100;
+        // really: r = i - (q * 100);
+            r = i - ((q << 6) + (q << 5) + (q << 2));
+            i = q;
+            buf[--charPos] = (byte) DigitOnes[r];
+            buf[--charPos] = (byte) DigitTens[r];
+        }
+
+        // Fall thru to fast mode for smaller numbers
+        // assert(i <= 65536, i);
+        for (;;) {
+            q = (i * 52429) >>> (16+3);
+            r = i - ((q << 3) + (q << 1));  // r = i-(q*10) ...
+            buf[--charPos] = (byte) digits[r];
+            i = q;
+            if (i == 0) break;
+        }
+        if (sign != 0) {
+            buf [--charPos] = sign;
+        }
+    }
+
+    /**
+     * Writes the signed decimal representation of the specified
+     * {@code int}, as returned by {@link #toString(int)}, into a
+     * {@code char} array starting at the specified offset.  No objects
+     * are created.
+     *
+     * @param   i        the {@code int} to be formatted.
+     * @param   dst      the destination array.
+     * @param   offset   the index of the first character to be written.
+     * @return  the index following the last character written.
+     * @throws  NullPointerException  if {@code dst} is null.
+     * @throws  IndexOutOfBoundsException  if {@code offset} is negative
+     *          or the representation does not fit between {@code offset}
+     *          and the end of {@code dst}.
+     * @since   9
+     */
+    public static int formatTo(int i, char[] dst, int offset) {
+        if (i == Integer.MIN_VALUE) {
+            checkFormatRange(dst.length, offset, 11);
+            "-2147483648".getChars(0, 11, dst, offset);
+            return offset + 11;
+        }
+        int end = offset + checkFormatRange(dst.length, offset,
+            (i < 0) ? stringSize(-i) + 1 : stringSize(i));
+        getChars(i, end, dst);
+        return end;
+    }
+
+    /**
+     * Writes the signed decimal representation of the specified
+     * {@code int}, as returned by {@link #toString(int)}, into a
+     * {@code byte} array of ASCII characters starting at the specified
+     * offset.  No objects are created.
+     *
+     * @param   i        the {@code int} to be formatted.
+     * @param   dst      the destination array.
+     * @param   offset   the index of the first byte to be written.
+     * @return  the index following the last byte written.
+     * @throws  NullPointerException  if {@code dst} is null.
+     * @throws  IndexOutOfBoundsException  if {@code offset} is negative
+     *          or the representation does not fit between {@code offset}
+     *          and the end of {@code dst}.
+     * @since   9
+     */
+    public static int formatTo(int i, byte[] dst, int offset) {
+        if (i == Integer.MIN_VALUE) {
+            checkFormatRange(dst.length, offset, 11);
+            for (int k = 0; k < 11; k++)
+                dst[offset + k] = (byte) "-2147483648".charAt(k);
+            return offset + 11;
+        }
+        int end = offset + checkFormatRange(dst.length, offset,
+            (i < 0) ? stringSize(-i) + 1 : stringSize(i));
+        getBytes(i, end, dst);
+        return end;
+    }
+
+    /**
+     * Checks that {@code size} elements fit in an array of the given
+     * length starting at {@code offset}, and returns {@code size}.
+     */
+    static int checkFormatRange(int length, int offset, int size) {
+        if (offset < 0 || offset > length - size)
+            throw new IndexOutOfBoundsException("offset " + offset +
+                ", size " + size + ", length " + length);
+        return size;
+    }
+
     /**
      * Parses the string argument as a signed integer in the radix
      * specified by the second argument. The characters in the string
@@ -627,6 +735,91 @@ public final class Integer extends Number implements Comparable<Integer> {
         return parseInt(s,10);
     }
 
+    /**
+     * Parses the {@link CharSequence} argument as a signed {@code int} in
+     * the specified {@code radix}, beginning at the specified
+     * {@code beginIndex} and extending to {@code endIndex - 1}.
+     *
+     * <p>The method does not take steps to guard against the
+     * {@code CharSequence} being mutated while parsing.
+     *
+     * <p>Decimal input is converted without creating any objects, and
+     * with fast paths for values that cannot overflow.
+     *
+     * @param      s   the {@code CharSequence} containing the {@code int}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code s}.
+     * @return     the signed {@code int} represented by the subsequence in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code s} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code s.length()}.
+     * @throws     NumberFormatException  if the {@code CharSequence} does not
+     *             contain a parsable {@code int} in the specified
+     *             {@code radix}, or if {@code radix} is either smaller than
+     *             {@link java.lang.Character#MIN_RADIX} or larger than
+     *             {@link java.lang.Character#MAX_RADIX}.
+     * @since  9
+     */
+    public static int parseInt(CharSequence s, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        return NumberParser.parseInt(s, beginIndex, endIndex, radix);
+    }
+
+    /**
+     * Parses the specified range of a {@code char} array as a signed
+     * {@code int} in the specified {@code radix}, exactly as if the
+     * range were given as a {@code CharSequence} to {@link
+     * #parseInt(CharSequence, int, int, int)}.
+     *
+     * @param      a   the array containing the {@code int}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code a}.
+     * @return     the signed {@code int} represented by the range in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code a} is null.
+     * @throws     IndexOutOfBoundsException  if the range is out of bounds.
+     * @throws     NumberFormatException  if the range does not contain a
+     *             parsable {@code int} in the specified {@code radix}.
+     * @since  9
+     */
+    public static int parseInt(char[] a, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        return NumberParser.parseInt(a, beginIndex, endIndex, radix);
+    }
+
+    /**
+     * Parses the specified range of a {@code byte} array of ASCII
+     * characters as a signed {@code int} in the specified {@code radix}.
+     * Each byte is taken as the ISO-8859-1 character of the same value,
+     * and the range is parsed exactly as if it were given as a
+     * {@code CharSequence} to {@link #parseInt(CharSequence, int, int, int)}.
+     * Decimal input is converted eight digits at a time.
+     *
+     * @param      a   the array containing the {@code int}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code a}.
+     * @return     the signed {@code int} represented by the range in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code a} is null.
+     * @throws     IndexOutOfBoundsException  if the range is out of bounds.
+     * @throws     NumberFormatException  if the range does not contain a
+     *             parsable {@code int} in the specified {@code radix}.
+     * @since  9
+     */
+    public static int parseInt(byte[] a, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        return NumberParser.parseInt(a, beginIndex, endIndex, radix);
+    }
+
     /**
      * Parses the string argument as an unsigned integer in the radix
      * specified by the second argument.  An unsigned integer maps the
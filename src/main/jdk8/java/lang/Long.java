@@ -484,6 +484,116 @@ public final class Long extends Number implements Comparable<Long> {
         return 19;
     }
 
+    /**
+     * Places the ASCII characters representing the long i into the
+     * byte array buf, as by {@link #getChars}.
+     *
+     * Will fail if i == MIN_VALUE
+     */
+    static void getBytes(long i, int index, byte[] buf) {
+        long q;
+        int r;
+        int charPos = index;
+        byte sign = 0;
+
+        if (i < 0) {
+            sign = '-';
+            i = -i;
+        }
+
+        // Get 2 digits/iteration using longs until quotient fits into an int
+        while (i > Integer.MAX_VALUE) {
+            q = i / 100;
+            // really: r = i - (q * 100);
+            r = (int)(i - ((q << 6) + (q << 5) + (q << 2)));
+            i = q;
+            buf[--charPos] = (byte) Integer.DigitOnes[r];
+            buf[--charPos] = (byte) Integer.DigitTens[r];
+        }
+
+        // Get 2 digits/iteration using ints
+        int q2;
+        int i2 = (int)i;
+        while (i2 >= 65536) {
+            q2 = i2 / 100;
+            // really: r = i2 - (q * 100);
+            r = i2 - ((q2 << 6) + (q2 << 5) + (q2 << 2));
+            i2 = q2;
+            buf[--charPos] = (byte) Integer.DigitOnes[r];
+            buf[--charPos] = (byte) Integer.DigitTens[r];
+        }
+
+        // Fall thru to fast mode for smaller numbers
+        // assert(i2 <= 65536, i2);
+        for (;;) {
+            q2 = (i2 * 52429) >>> (16+3);
+            r = i2 - ((q2 << 3) + (q2 << 1));  // r = i2-(q2*10) ...
+            buf[--charPos] = (byte) Integer.digits[r];
+            i2 = q2;
+            if (i2 == 0) break;
+        }
+        if (sign != 0) {
+            buf[--charPos] = sign;
+        }
+    }
+
+    /**
+     * Writes the signed decimal representation of the specified
+     * {@code long}, as returned by {@link #toString(long)}, into a
+     * {@code char} array starting at the specified offset.  No objects
+     * are created.
+     *
+     * @param   i        the {@code long} to be formatted.
+     * @param   dst      the destination array.
+     * @param   offset   the index of the first character to be written.
+     * @return  the index following the last character written.
+     * @throws  NullPointerException  if {@code dst} is null.
+     * @throws  IndexOutOfBoundsException  if {@code offset} is negative
+     *          or the representation does not fit between {@code offset}
+     *          and the end of {@code dst}.
+     * @since   9
+     */
+    public static int formatTo(long i, char[] dst, int offset) {
+        if (i == Long.MIN_VALUE) {
+            Integer.checkFormatRange(dst.length, offset, 20);
+            "-9223372036854775808".getChars(0, 20, dst, offset);
+            return offset + 20;
+        }
+        int end = offset + Integer.checkFormatRange(dst.length, offset,
+            (i < 0) ? stringSize(-i) + 1 : stringSize(i));
+        getChars(i, end, dst);
+        return end;
+    }
+
+    /**
+     * Writes the signed decimal representation of the specified
+     * {@code long}, as returned by {@link #toString(long)}, into a
+     * {@code byte} array of ASCII characters starting at the specified
+     * offset.  No objects are created.
+     *
+     * @param   i        the {@code long} to be formatted.
+     * @param   dst      the destination array.
+     * @param   offset   the index of the first byte to be written.
+     * @return  the index following the last byte written.
+     * @throws  NullPointerException  if {@code dst} is null.
+     * @throws  IndexOutOfBoundsException  if {@code offset} is negative
+     *          or the representation does not fit between {@code offset}
+     *          and the end of {@code dst}.
+     * @since   9
+     */
+    public static int formatTo(long i, byte[] dst, int offset) {
+        if (i == Long.MIN_VALUE) {
+            Integer.checkFormatRange(dst.length, offset, 20);
+            for (int k = 0; k < 20; k++)
+                dst[offset + k] = (byte) "-9223372036854775808".charAt(k);
+            return offset + 20;
+        }
+        int end = offset + Integer.checkFormatRange(dst.length, offset,
+            (i < 0) ? stringSize(-i) + 1 : stringSize(i));
+        getBytes(i, end, dst);
+        return end;
+    }
+
     /**
      * Parses the string argument as a signed {@code long} in the
      * radix specified by the second argument. The characters in the
@@ -631,6 +741,91 @@ public final class Long extends Number implements Comparable<Long> {
         return parseLong(s, 10);
     }
 
+    /**
+     * Parses the {@link CharSequence} argument as a signed {@code long} in
+     * the specified {@code radix}, beginning at the specified
+     * {@code beginIndex} and extending to {@code endIndex - 1}.
+     *
+     * <p>The method does not take steps to guard against the
+     * {@code CharSequence} being mutated while parsing.
+     *
+     * <p>Decimal input is converted without creating any objects, and
+     * with fast paths for values that cannot overflow.
+     *
+     * @param      s   the {@code CharSequence} containing the {@code long}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code s}.
+     * @return     the signed {@code long} represented by the subsequence in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code s} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code s.length()}.
+     * @throws     NumberFormatException  if the {@code CharSequence} does not
+     *             contain a parsable {@code long} in the specified
+     *             {@code radix}, or if {@code radix} is either smaller than
+     *             {@link java.lang.Character#MIN_RADIX} or larger than
+     *             {@link java.lang.Character#MAX_RADIX}.
+     * @since  9
+     */
+    public static long parseLong(CharSequence s, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        return NumberParser.parseLong(s, beginIndex, endIndex, radix);
+    }
+
+    /**
+     * Parses the specified range of a {@code char} array as a signed
+     * {@code long} in the specified {@code radix}, exactly as if the
+     * range were given as a {@code CharSequence} to {@link
+     * #parseLong(CharSequence, int, int, int)}.
+     *
+     * @param      a   the array containing the {@code long}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code a}.
+     * @return     the signed {@code long} represented by the range in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code a} is null.
+     * @throws     IndexOutOfBoundsException  if the range is out of bounds.
+     * @throws     NumberFormatException  if the range does not contain a
+     *             parsable {@code long} in the specified {@code radix}.
+     * @since  9
+     */
+    public static long parseLong(char[] a, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        return NumberParser.parseLong(a, beginIndex, endIndex, radix);
+    }
+
+    /**
+     * Parses the specified range of a {@code byte} array of ASCII
+     * characters as a signed {@code long} in the specified {@code radix}.
+     * Each byte is taken as the ISO-8859-1 character of the same value,
+     * and the range is parsed exactly as if it were given as a
+     * {@code CharSequence} to {@link #parseLong(CharSequence, int, int, int)}.
+     * Decimal input is converted eight digits at a time.
+     *
+     * @param      a   the array containing the {@code long}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code a}.
+     * @return     the signed {@code long} represented by the range in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code a} is null.
+     * @throws     IndexOutOfBoundsException  if the range is out of bounds.
+     * @throws     NumberFormatException  if the range does not contain a
+     *             parsable {@code long} in the specified {@code radix}.
+     * @since  9
+     */
+    public static long parseLong(byte[] a, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        return NumberParser.parseLong(a, beginIndex, endIndex, radix);
+    }
+
     /**
      * Parses the string argument as an unsigned {@code long} in the
      * radix specified by the second argument.  An unsigned integer
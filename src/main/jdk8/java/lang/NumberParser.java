@@ -0,0 +1,403 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.lang;
+
+/**
+ * Parsers of numbers from ranges of character sequences, {@code char}
+ * arrays and {@code byte} arrays, backing the range-based parse methods of
+ * the numeric wrapper classes.
+ *
+ * <p>A source is a {@code CharSequence}, a {@code char[]}, or a
+ * {@code byte[]} holding one ISO-8859-1 character per byte.  Valid input
+ * is parsed without creating any objects.  Decimal integers of up to nine
+ * ({@code int}) or eighteen ({@code long}) digits, which cannot overflow,
+ * are converted two digits at a time, and eight digits at a time from a
+ * {@code byte[]} using SWAR (SIMD within a register) arithmetic; other
+ * integers are converted as by {@link Integer#parseInt(String, int)}.
+ * Decimal floating-point numbers with few enough significant digits and a
+ * small enough exponent that the result is one correctly rounded
+ * multiplication or division of exactly representable values are
+ * converted directly; other input is parsed from a string of the range.
+ */
+final class NumberParser {
+
+    private NumberParser() { }
+
+    /** Exactly representable powers of ten, as doubles */
+    private static final double[] DOUBLE_POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+        1e21, 1e22
+    };
+
+    /** Exactly representable powers of ten, as floats */
+    private static final float[] FLOAT_POW10 = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    // -- Sources --
+
+    static char charAt(Object src, int i) {
+        if (src instanceof byte[])
+            return (char)(((byte[]) src)[i] & 0xff);
+        if (src instanceof char[])
+            return ((char[]) src)[i];
+        return ((CharSequence) src).charAt(i);
+    }
+
+    private static int length(Object src) {
+        if (src instanceof byte[])
+            return ((byte[]) src).length;
+        if (src instanceof char[])
+            return ((char[]) src).length;
+        return ((CharSequence) src).length();
+    }
+
+    /**
+     * Returns a string of the given range of a source, for error messages
+     * and for parsing by the string-based methods.
+     */
+    @SuppressWarnings("deprecation")
+    static String toString(Object src, int beginIndex, int endIndex) {
+        if (src instanceof byte[])
+            return new String((byte[]) src, 0, beginIndex, endIndex - beginIndex);
+        if (src instanceof char[])
+            return new String((char[]) src, beginIndex, endIndex - beginIndex);
+        return ((CharSequence) src).subSequence(beginIndex, endIndex).toString();
+    }
+
+    /**
+     * Checks that the given range lies within the source.
+     *
+     * @throws NullPointerException if the source is null
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    static void checkRange(Object src, int beginIndex, int endIndex) {
+        int length = length(src);
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > length)
+            throw new IndexOutOfBoundsException("begin " + beginIndex +
+                ", end " + endIndex + ", length " + length);
+    }
+
+    private static NumberFormatException error(Object src, int beginIndex, int endIndex,
+                                               int errorIndex) {
+        return NumberFormatException.forCharSequence(
+            toString(src, beginIndex, endIndex), 0, endIndex - beginIndex,
+            errorIndex - beginIndex);
+    }
+
+    private static void checkRadix(int radix) {
+        if (radix < Character.MIN_RADIX) {
+            throw new NumberFormatException("radix " + radix +
+                                            " less than Character.MIN_RADIX");
+        }
+        if (radix > Character.MAX_RADIX) {
+            throw new NumberFormatException("radix " + radix +
+                                            " greater than Character.MAX_RADIX");
+        }
+    }
+
+    // -- Integers --
+
+    /**
+     * Returns the value of the given decimal digit, or -1 if it is not one.
+     */
+    private static int digit10(char c) {
+        int d = c - '0';
+        if (d >= 0 && d <= 9)
+            return d;
+        return (c < 128) ? -1 : Character.digit(c, 10);
+    }
+
+    /**
+     * Returns the value of the at most eighteen decimal digits of the
+     * given range, or -1 if it includes a character that is not a digit.
+     */
+    private static long parseDigits(Object src, int i, int end) {
+        long result = 0;
+        if (src instanceof byte[]) {
+            byte[] a = (byte[]) src;
+            for (; end - i >= 8; i += 8) {
+                int eight = parseEightDigits(a, i);
+                if (eight < 0)
+                    return -1;
+                result = result * 100000000 + eight;
+            }
+        }
+        if (((end - i) & 1) != 0) {
+            int d = digit10(charAt(src, i++));
+            if (d < 0)
+                return -1;
+            result = result * 10 + d;
+        }
+        for (; i < end; i += 2) {
+            int d1 = digit10(charAt(src, i));
+            int d2 = digit10(charAt(src, i + 1));
+            if ((d1 | d2) < 0)
+                return -1;
+            result = result * 100 + (d1 * 10 + d2);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the value of the eight ASCII decimal digits starting at the
+     * given index, or -1 if they are not all digits.
+     */
+    private static int parseEightDigits(byte[] a, int i) {
+        // The first digit is in the low byte
+        long x = (a[i] & 0xffL)
+            | (a[i + 1] & 0xffL) << 8
+            | (a[i + 2] & 0xffL) << 16
+            | (a[i + 3] & 0xffL) << 24
+            | (a[i + 4] & 0xffL) << 32
+            | (a[i + 5] & 0xffL) << 40
+            | (a[i + 6] & 0xffL) << 48
+            | (a[i + 7] & 0xffL) << 56;
+        // Every byte is in '0'..'9' iff its high nibble is 3, and remains
+        // 3 after adding 6
+        if ((x & 0xf0f0f0f0f0f0f0f0L) != 0x3030303030303030L ||
+            ((x + 0x0606060606060606L) & 0xf0f0f0f0f0f0f0f0L) != 0x3030303030303030L)
+            return -1;
+        x -= 0x3030303030303030L;
+        // Combine adjacent digits, then pairs, then quadruples
+        x = (x * 10 + (x >>> 8)) & 0x00ff00ff00ff00ffL;
+        x = (x * 100 + (x >>> 16)) & 0x0000ffff0000ffffL;
+        return (int)(x * 10000 + (x >>> 32));
+    }
+
+    /**
+     * Parses the given range of a source as a signed integer in the
+     * given radix, as by {@link Integer#parseInt(String, int)}.
+     */
+    static int parseInt(Object src, int beginIndex, int endIndex, int radix) {
+        checkRange(src, beginIndex, endIndex);
+        checkRadix(radix);
+        if (beginIndex == endIndex)
+            throw NumberFormatException.forInputString("");
+        int i = beginIndex;
+        boolean negative = false;
+        int limit = -Integer.MAX_VALUE;
+        char firstChar = charAt(src, i);
+        if (firstChar < '0') { // Possible leading "+" or "-"
+            if (firstChar == '-') {
+                negative = true;
+                limit = Integer.MIN_VALUE;
+            } else if (firstChar != '+')
+                throw error(src, beginIndex, endIndex, i);
+            if (++i == endIndex) // Cannot have lone "+" or "-"
+                throw error(src, beginIndex, endIndex, i);
+        }
+        if (radix == 10 && endIndex - i <= 9) {
+            // At most nine digits cannot overflow
+            int result = (int) parseDigits(src, i, endIndex);
+            if (result < 0)
+                throw error(src, beginIndex, endIndex, firstNonDigit(src, i, endIndex));
+            return negative ? -result : result;
+        }
+        int multmin = limit / radix;
+        int result = 0;
+        for (; i < endIndex; i++) {
+            // Accumulating negatively avoids surprises near MAX_VALUE
+            int digit = Character.digit(charAt(src, i), radix);
+            if (digit < 0 || result < multmin)
+                throw error(src, beginIndex, endIndex, i);
+            result *= radix;
+            if (result < limit + digit)
+                throw error(src, beginIndex, endIndex, i);
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses the given range of a source as a signed integer in the
+     * given radix, as by {@link Long#parseLong(String, int)}.
+     */
+    static long parseLong(Object src, int beginIndex, int endIndex, int radix) {
+        checkRange(src, beginIndex, endIndex);
+        checkRadix(radix);
+        if (beginIndex == endIndex)
+            throw NumberFormatException.forInputString("");
+        int i = beginIndex;
+        boolean negative = false;
+        long limit = -Long.MAX_VALUE;
+        char firstChar = charAt(src, i);
+        if (firstChar < '0') { // Possible leading "+" or "-"
+            if (firstChar == '-') {
+                negative = true;
+                limit = Long.MIN_VALUE;
+            } else if (firstChar != '+')
+                throw error(src, beginIndex, endIndex, i);
+            if (++i == endIndex) // Cannot have lone "+" or "-"
+                throw error(src, beginIndex, endIndex, i);
+        }
+        if (radix == 10 && endIndex - i <= 18) {
+            // At most eighteen digits cannot overflow
+            long result = parseDigits(src, i, endIndex);
+            if (result < 0)
+                throw error(src, beginIndex, endIndex, firstNonDigit(src, i, endIndex));
+            return negative ? -result : result;
+        }
+        long multmin = limit / radix;
+        long result = 0;
+        for (; i < endIndex; i++) {
+            // Accumulating negatively avoids surprises near MAX_VALUE
+            int digit = Character.digit(charAt(src, i), radix);
+            if (digit < 0 || result < multmin)
+                throw error(src, beginIndex, endIndex, i);
+            result *= radix;
+            if (result < limit + digit)
+                throw error(src, beginIndex, endIndex, i);
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static int firstNonDigit(Object src, int i, int end) {
+        while (i < end && digit10(charAt(src, i)) >= 0)
+            i++;
+        return i;
+    }
+
+    // -- Floating-point numbers --
+
+    /*
+     * The fast paths accept [+-]digits[.digits][(e|E)[+-]digits], with at
+     * least one digit in the significand, of at most MAX_DIGITS
+     * significant digits, and scaled by a power of ten of magnitude at
+     * most that of the largest exactly representable one.  The
+     * significand is then exact, and multiplying or dividing it by the
+     * exact power of ten, in a single correctly rounded operation, yields
+     * the correctly rounded result, as by Clinger's fast path.  Anything
+     * else, including the hexadecimal, "NaN" and "Infinity" forms,
+     * surrounding whitespace, and type suffixes, is parsed from a string.
+     */
+
+    /**
+     * Returns the value of a decimal number of the simple form, or NaN if
+     * it has more than {@code maxDigits} significant digits, is scaled by
+     * a power of ten not in {@code pow10}, or is not of that form.  The
+     * {@code pow10} table and operations are those of {@code double}, or
+     * of {@code float} if {@code isFloat}, in which case the result is
+     * exactly a {@code float}.
+     */
+    private static double parseDecimal(Object src, int i, int end, boolean isFloat) {
+        int maxDigits = isFloat ? 7 : 15;
+        int maxPow10 = isFloat ? FLOAT_POW10.length - 1 : DOUBLE_POW10.length - 1;
+        boolean negative = false;
+        if (i < end) {
+            char c = charAt(src, i);
+            if (c == '-' || c == '+') {
+                negative = (c == '-');
+                i++;
+            }
+        }
+        long significand = 0;
+        int digits = 0;         // significant digits
+        int scale = 0;          // digits after the point
+        boolean any = false;    // any digits at all
+        boolean point = false;
+        for (; i < end; i++) {
+            char c = charAt(src, i);
+            int d = c - '0';
+            if (d >= 0 && d <= 9) {
+                any = true;
+                if (point)
+                    scale++;
+                if (significand == 0 && d == 0)
+                    continue;   // leading zero
+                if (++digits > maxDigits)
+                    return Double.NaN;
+                significand = significand * 10 + d;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (!any)
+            return Double.NaN;
+        int e = 0;
+        if (i < end) {
+            char c = charAt(src, i++);
+            if (c != 'e' && c != 'E')
+                return Double.NaN;
+            boolean negativeExp = false;
+            if (i < end && ((c = charAt(src, i)) == '-' || c == '+')) {
+                negativeExp = (c == '-');
+                i++;
+            }
+            if (i == end)
+                return Double.NaN;
+            for (; i < end; i++) {
+                int d = charAt(src, i) - '0';
+                if (d < 0 || d > 9)
+                    return Double.NaN;
+                if (e < 100000)
+                    e = e * 10 + d;
+            }
+            if (negativeExp)
+                e = -e;
+        }
+        e -= scale;
+        double value;
+        if (significand == 0) {
+            value = 0.0;
+        } else if (e < -maxPow10 || e > maxPow10) {
+            return Double.NaN;
+        } else if (isFloat) {
+            float f = (float) significand;
+            value = (e < 0) ? f / FLOAT_POW10[-e] : f * FLOAT_POW10[e];
+        } else {
+            double d = (double) significand;
+            value = (e < 0) ? d / DOUBLE_POW10[-e] : d * DOUBLE_POW10[e];
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the given range of a source as a {@code double}, as by
+     * {@link Double#parseDouble(String)}.
+     */
+    static double parseDouble(Object src, int beginIndex, int endIndex) {
+        checkRange(src, beginIndex, endIndex);
+        double value = parseDecimal(src, beginIndex, endIndex, false);
+        if (value == value)
+            return value;
+        return Double.parseDouble(toString(src, beginIndex, endIndex));
+    }
+
+    /**
+     * Parses the given range of a source as a {@code float}, as by
+     * {@link Float#parseFloat(String)}.
+     */
+    static float parseFloat(Object src, int beginIndex, int endIndex) {
+        checkRange(src, beginIndex, endIndex);
+        double value = parseDecimal(src, beginIndex, endIndex, true);
+        if (value == value)
+            return (float) value;
+        return Float.parseFloat(toString(src, beginIndex, endIndex));
+    }
+}
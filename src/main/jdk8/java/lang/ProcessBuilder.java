@@ -26,6 +26,8 @@
 package java.lang;
 
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -33,6 +35,8 @@ import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
 
 /**
  * This class is used to create operating system processes.
@@ -666,6 +670,37 @@ public final class ProcessBuilder
         private Redirect() {}
     }
 
+    /**
+     * The output of a pipeline stage that is connected to the input of
+     * the next stage.  {@code ProcessImpl.start} stores the handle of the
+     * read end of the stage's standard output pipe in {@code fd}, from
+     * where it is handed to the next stage as its standard input.
+     */
+    static class RedirectPipeImpl extends Redirect {
+        private final FileDescriptor fd = new FileDescriptor();
+
+        public Type type() { return Type.PIPE; }
+        public String toString() { return type().toString(); }
+
+        FileDescriptor getFd() { return fd; }
+
+        /**
+         * Closes this process's copy of the pipe, once the next stage
+         * has inherited it.
+         */
+        void close() throws IOException {
+            if (fd.valid()) {
+                FileInputStream in = AccessController.doPrivileged(
+                    new PrivilegedAction<FileInputStream>() {
+                        public FileInputStream run() {
+                            return new FileInputStream(fd);
+                        }
+                    });
+                in.close();
+            }
+        }
+    }
+
     private Redirect[] redirects() {
         if (redirects == null)
             redirects = new Redirect[] {
@@ -1002,6 +1037,14 @@ public final class ProcessBuilder
      * @see Runtime#exec(String[], String[], java.io.File)
      */
     public Process start() throws IOException {
+        return start(redirects);
+    }
+
+    /**
+     * Starts a new process with the given redirects, which are the
+     * redirects of this process builder unless it is a pipeline stage.
+     */
+    private Process start(Redirect[] redirects) throws IOException {
         // Must convert to array first -- a malicious user-supplied
         // list might try to circumvent the security check.
         String[] cmdarray = command.toArray(new String[command.size()]);
@@ -1052,4 +1095,118 @@ public final class ProcessBuilder
                 cause);
         }
     }
+
+    /**
+     * Starts a {@code Process} for each {@code ProcessBuilder}, creating a
+     * pipeline of processes linked by their standard output and standard
+     * input streams.
+     *
+     * <p>The attributes of each {@code ProcessBuilder} are used to start
+     * its process, except that as each process is started, its standard
+     * output is connected to the standard input of the next process by a
+     * pipe of the operating system.  No Java thread copies the data
+     * between the processes.
+     *
+     * <p>The {@link #redirectInput() input} of the first builder and the
+     * {@link #redirectOutput() output} of the last builder are those of
+     * the builders.  The output of every other builder and the input of
+     * every builder but the first must be {@link Redirect#PIPE
+     * Redirect.PIPE}, the default.  The {@link Process#getInputStream()
+     * standard output stream} of all but the last process and the {@link
+     * Process#getOutputStream() standard input stream} of all but the first
+     * process are null streams.  The {@link #redirectErrorStream()
+     * redirectErrorStream} attribute of a builder applies as usual, so its
+     * error output joins the data passed to the next process if set.
+     *
+     * <p>If starting a process fails, the processes of the pipeline that
+     * have already been started are {@linkplain Process#destroyForcibly()
+     * destroyed} and waited for before the exception is thrown.
+     *
+     * <p>For example, to count the unique lines of a compressed file:
+     * <pre> {@code
+     * List<Process> processes = ProcessBuilder.startPipeline(Arrays.asList(
+     *     new ProcessBuilder("gzip", "-dc", "words.gz"),
+     *     new ProcessBuilder("sort"),
+     *     new ProcessBuilder("uniq", "-c")));
+     * Process last = processes.get(processes.size() - 1);
+     * }</pre>
+     *
+     * @param  builders a list of {@code ProcessBuilder}s
+     * @return a {@code List<Process>} of the processes started from the
+     *         corresponding builders, in the same order
+     *
+     * @throws IllegalArgumentException
+     *         if a builder other than the first has an input that is not
+     *         {@code Redirect.PIPE}, or a builder other than the last has
+     *         an output that is not {@code Redirect.PIPE}
+     * @throws NullPointerException
+     *         if {@code builders} or one of its elements is {@code null},
+     *         or if an element of the command list of a builder is
+     *         {@code null}
+     * @throws IndexOutOfBoundsException
+     *         if the command list of a builder is empty
+     * @throws SecurityException
+     *         for the reasons given in {@link #start()}
+     * @throws IOException if an I/O error occurs
+     * @see #start()
+     * @since 9
+     */
+    public static List<Process> startPipeline(List<ProcessBuilder> builders)
+        throws IOException
+    {
+        int numBuilders = builders.size();
+        for (int index = 0; index < numBuilders; index++) {
+            ProcessBuilder builder = builders.get(index);
+            if (index > 0 && builder.redirectInput() != Redirect.PIPE)
+                throw new IllegalArgumentException(
+                    "builder redirectInput() must be PIPE except for the first builder: "
+                    + builder.redirectInput());
+            if (index < numBuilders - 1 && builder.redirectOutput() != Redirect.PIPE)
+                throw new IllegalArgumentException(
+                    "builder redirectOutput() must be PIPE except for the last builder: "
+                    + builder.redirectOutput());
+        }
+
+        List<Process> processes = new ArrayList<>(numBuilders);
+        RedirectPipeImpl prevOutput = null;
+        try {
+            for (int index = 0; index < numBuilders; index++) {
+                ProcessBuilder builder = builders.get(index);
+                Redirect[] redirects = builder.redirects().clone();
+                if (index > 0)
+                    redirects[0] = prevOutput;
+                RedirectPipeImpl output = null;
+                if (index < numBuilders - 1)
+                    redirects[1] = output = new RedirectPipeImpl();
+                try {
+                    processes.add(builder.start(redirects));
+                } finally {
+                    if (prevOutput != null) {
+                        RedirectPipeImpl inherited = prevOutput;
+                        prevOutput = null;
+                        inherited.close();
+                    }
+                }
+                prevOutput = output;
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            for (Process p : processes)
+                p.destroyForcibly();
+            boolean interrupted = false;
+            for (Process p : processes) {
+                while (true) {
+                    try {
+                        p.waitFor();
+                        break;
+                    } catch (InterruptedException ie) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+            throw e;
+        }
+        return processes;
+    }
 }
@@ -108,12 +108,16 @@ final class ProcessImpl extends Process {
                     stdHandles[0] = -1L;
                 else if (redirects[0] == Redirect.INHERIT)
                     stdHandles[0] = fdAccess.getHandle(FileDescriptor.in);
+                else if (redirects[0] instanceof ProcessBuilder.RedirectPipeImpl)
+                    stdHandles[0] = fdAccess.getHandle(
+                        ((ProcessBuilder.RedirectPipeImpl) redirects[0]).getFd());
                 else {
                     f0 = new FileInputStream(redirects[0].file());
                     stdHandles[0] = fdAccess.getHandle(f0.getFD());
                 }
 
-                if (redirects[1] == Redirect.PIPE)
+                if (redirects[1] == Redirect.PIPE ||
+                    redirects[1] instanceof ProcessBuilder.RedirectPipeImpl)
                     stdHandles[1] = -1L;
                 else if (redirects[1] == Redirect.INHERIT)
                     stdHandles[1] = fdAccess.getHandle(FileDescriptor.out);
@@ -134,8 +138,14 @@ final class ProcessImpl extends Process {
                 }
             }
 
+            // The read end of a pipeline stage's output goes to the next stage
+            FileDescriptor pipeOutput =
+                (redirects != null && redirects[1] instanceof ProcessBuilder.RedirectPipeImpl)
+                ? ((ProcessBuilder.RedirectPipeImpl) redirects[1]).getFd()
+                : null;
+
             return new ProcessImpl(cmdarray, envblock, dir,
-                                   stdHandles, redirectErrorStream);
+                                   stdHandles, redirectErrorStream, pipeOutput);
         } finally {
             // In theory, close() can throw IOException
             // (although it is rather unlikely to happen here)
@@ -315,7 +325,8 @@ final class ProcessImpl extends Process {
                         final String envblock,
                         final String path,
                         final long[] stdHandles,
-                        final boolean redirectErrorStream)
+                        final boolean redirectErrorStream,
+                        final FileDescriptor pipeOutput)
         throws IOException
     {
         String cmdstr;
@@ -400,7 +411,10 @@ final class ProcessImpl extends Process {
 
             if (stdHandles[1] == -1L)
                 stdout_stream = ProcessBuilder.NullInputStream.INSTANCE;
-            else {
+            else if (pipeOutput != null) {
+                fdAccess.setHandle(pipeOutput, stdHandles[1]);
+                stdout_stream = ProcessBuilder.NullInputStream.INSTANCE;
+            } else {
                 FileDescriptor stdout_fd = new FileDescriptor();
                 fdAccess.setHandle(stdout_fd, stdHandles[1]);
                 stdout_stream = new BufferedInputStream(
@@ -0,0 +1,529 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.lang;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A stack walker that presents the frames of the current thread's stack
+ * as a lazily populated stream.
+ *
+ * <p>{@link StackWalker#walk walk} opens a sequential stream of {@link
+ * StackFrame StackFrame}s for the current thread and applies the given
+ * function to it.  The stream reports the frames in order, starting from
+ * the method that called {@code walk}.  Unlike {@link
+ * Throwable#getStackTrace()} and {@link Thread#getStackTrace()}, which
+ * create a {@code StackTraceElement} for every frame on the stack, a walk
+ * decodes a frame only when the stream reaches it, so a function that
+ * looks at the first few frames, or stops at the first frame matching a
+ * predicate, pays for those frames only:
+ *
+ * <pre>{@code
+ * Optional<StackWalker.StackFrame> frame = StackWalker.getInstance().walk(
+ *     s -> s.filter(f -> !f.getClassName().startsWith("com.foo.log."))
+ *           .findFirst());
+ * }</pre>
+ *
+ * <p>By default, the frames of reflective invocations, such as {@link
+ * java.lang.reflect.Method#invoke Method.invoke} and its implementation
+ * frames, are not reported; {@link Option#SHOW_REFLECT_FRAMES} includes
+ * them.  A stack frame gives access to its declaring {@code Class} if the
+ * stack walker was obtained with {@link Option#RETAIN_CLASS_REFERENCE}.
+ *
+ * <p>The stream is valid only during the call to {@code walk}; using it
+ * after {@code walk} returns throws {@code IllegalStateException}.
+ *
+ * <p>{@code StackWalker} is thread-safe.  The same instance can be used by
+ * several threads to walk their own stacks.
+ *
+ * @since 9
+ */
+public final class StackWalker {
+
+    /**
+     * A frame on the stack, as reported by a {@code StackWalker}.
+     *
+     * @since 9
+     */
+    public interface StackFrame {
+        /**
+         * Returns the binary name of the declaring class of the method
+         * represented by this stack frame.
+         *
+         * @return the binary name of the declaring class
+         */
+        String getClassName();
+
+        /**
+         * Returns the name of the method represented by this stack frame.
+         *
+         * @return the name of the method
+         */
+        String getMethodName();
+
+        /**
+         * Returns the declaring {@code Class} of the method represented by
+         * this stack frame.
+         *
+         * @return the declaring class
+         * @throws UnsupportedOperationException if the stack walker was not
+         *         configured with {@link Option#RETAIN_CLASS_REFERENCE}
+         */
+        Class<?> getDeclaringClass();
+
+        /**
+         * Returns the name of the source file containing the execution
+         * point represented by this stack frame, or {@code null} if it is
+         * unavailable.
+         *
+         * @return the name of the source file, or {@code null}
+         */
+        String getFileName();
+
+        /**
+         * Returns the line number of the source line containing the
+         * execution point represented by this stack frame, or a negative
+         * number if it is unavailable.
+         *
+         * @return the line number, or a negative number
+         */
+        int getLineNumber();
+
+        /**
+         * Returns {@code true} if the method represented by this stack
+         * frame is a native method.
+         *
+         * @return {@code true} if the method is native
+         */
+        boolean isNativeMethod();
+
+        /**
+         * Returns a {@code StackTraceElement} for this stack frame.
+         *
+         * @return a {@code StackTraceElement} for this stack frame
+         */
+        StackTraceElement toStackTraceElement();
+    }
+
+    /**
+     * Options that configure the stack frames reported by a
+     * {@code StackWalker}.
+     *
+     * @since 9
+     */
+    public enum Option {
+        /**
+         * Retains the {@code Class} object of each stack frame, so that
+         * {@link StackFrame#getDeclaringClass()} and {@link
+         * StackWalker#getCallerClass()} can be used.
+         */
+        RETAIN_CLASS_REFERENCE,
+        /**
+         * Shows the frames of reflective invocations: {@link
+         * java.lang.reflect.Method#invoke Method.invoke}, {@link
+         * java.lang.reflect.Constructor#newInstance Constructor.newInstance}
+         * and the frames of their implementation.
+         */
+        SHOW_REFLECT_FRAMES;
+    }
+
+    private static final StackWalker DEFAULT_WALKER =
+        new StackWalker(EnumSet.noneOf(Option.class));
+
+    private static final RuntimePermission RETAIN_CLASS_REFERENCE_PERMISSION =
+        new RuntimePermission("getStackWalkerWithClassReference");
+
+    private final Set<Option> options;
+    private final boolean retainClassRef;
+    private final boolean showReflectFrames;
+
+    private StackWalker(EnumSet<Option> options) {
+        this.options = options;
+        this.retainClassRef = options.contains(Option.RETAIN_CLASS_REFERENCE);
+        this.showReflectFrames = options.contains(Option.SHOW_REFLECT_FRAMES);
+    }
+
+    /**
+     * Returns a {@code StackWalker} that does not retain class references
+     * and does not show reflection frames.
+     *
+     * @return a {@code StackWalker} with no options
+     */
+    public static StackWalker getInstance() {
+        return DEFAULT_WALKER;
+    }
+
+    /**
+     * Returns a {@code StackWalker} with the given option.
+     *
+     * @param option the stack walking option
+     * @return a {@code StackWalker} configured with the given option
+     * @throws SecurityException if a security manager exists, the option
+     *         is {@link Option#RETAIN_CLASS_REFERENCE RETAIN_CLASS_REFERENCE}
+     *         and the security manager denies
+     *         {@code RuntimePermission("getStackWalkerWithClassReference")}
+     */
+    public static StackWalker getInstance(Option option) {
+        return getInstance(EnumSet.of(Objects.requireNonNull(option)));
+    }
+
+    /**
+     * Returns a {@code StackWalker} with the given options.
+     *
+     * @param options the stack walking options
+     * @return a {@code StackWalker} configured with the given options
+     * @throws SecurityException if a security manager exists, the options
+     *         contain {@link Option#RETAIN_CLASS_REFERENCE
+     *         RETAIN_CLASS_REFERENCE} and the security manager denies
+     *         {@code RuntimePermission("getStackWalkerWithClassReference")}
+     */
+    public static StackWalker getInstance(Set<Option> options) {
+        if (options.isEmpty()) {
+            return DEFAULT_WALKER;
+        }
+        EnumSet<Option> set = EnumSet.copyOf(options);
+        if (set.contains(Option.RETAIN_CLASS_REFERENCE)) {
+            SecurityManager sm = System.getSecurityManager();
+            if (sm != null) {
+                sm.checkPermission(RETAIN_CLASS_REFERENCE_PERMISSION);
+            }
+        }
+        return new StackWalker(set);
+    }
+
+    /**
+     * Applies the given function to the stream of stack frames of the
+     * current thread, starting from the caller of this method, and returns
+     * its result.  The stream is closed when this method returns.
+     *
+     * @param <T> the type of the result
+     * @param function a function that takes a stream of stack frames and
+     *        returns a result
+     * @return the result of applying the function to the stream of stack
+     *         frames
+     */
+    public <T> T walk(Function<? super Stream<StackFrame>, ? extends T> function) {
+        Objects.requireNonNull(function);
+        Frames frames = new Frames(showReflectFrames, new Throwable(),
+                                   retainClassRef ? ClassContext.get() : null);
+        try {
+            return function.apply(StreamSupport.stream(frames, false));
+        } finally {
+            frames.close();
+        }
+    }
+
+    /**
+     * Performs the given action on each frame of the stack of the current
+     * thread, starting from the caller of this method.
+     *
+     * @param action an action to be performed on each {@code StackFrame}
+     */
+    public void forEach(Consumer<? super StackFrame> action) {
+        Objects.requireNonNull(action);
+        Frames frames = new Frames(showReflectFrames, new Throwable(),
+                                   retainClassRef ? ClassContext.get() : null);
+        try {
+            frames.forEachRemaining(action);
+        } finally {
+            frames.close();
+        }
+    }
+
+    /**
+     * Returns the {@code Class} object of the caller of the method that
+     * called this method.  Reflection frames are skipped whether or not
+     * {@link Option#SHOW_REFLECT_FRAMES} is set.
+     *
+     * <p>Only the stack frames up to the caller are decoded, which makes
+     * this method suitable for logging and security checks that need the
+     * identity of their caller.
+     *
+     * @return the {@code Class} object of the caller's caller
+     * @throws UnsupportedOperationException if this {@code StackWalker} is
+     *         not configured with {@link Option#RETAIN_CLASS_REFERENCE}
+     * @throws IllegalStateException if this method is called from the
+     *         bottom frame of the stack
+     */
+    public Class<?> getCallerClass() {
+        if (!retainClassRef) {
+            throw new UnsupportedOperationException(
+                "This stack walker does not have RETAIN_CLASS_REFERENCE access");
+        }
+        Frames frames = new Frames(false, new Throwable(), ClassContext.get());
+        try {
+            Frame caller = frames.next();
+            if (caller != null) {
+                caller = frames.next();
+            }
+            if (caller == null) {
+                throw new IllegalStateException("no caller frame");
+            }
+            return caller.getDeclaringClass();
+        } finally {
+            frames.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StackWalker" + options;
+    }
+
+    /**
+     * Returns {@code true} if the given frame belongs to a reflective
+     * invocation.
+     */
+    private static boolean isReflectionFrame(StackTraceElement ste) {
+        String cn = ste.getClassName();
+        String mn = ste.getMethodName();
+        return (cn.equals("java.lang.reflect.Method") && mn.equals("invoke")) ||
+               (cn.equals("java.lang.reflect.Constructor") && mn.equals("newInstance")) ||
+               (cn.startsWith("sun.reflect.") && cn.contains("Accessor")) ||
+               cn.startsWith("java.lang.reflect.MethodHandleAccessorFactory$");
+    }
+
+    /**
+     * Returns {@code true} if the given class name is that of this class
+     * or one of its nested classes.
+     */
+    private static boolean isWalkerClass(String cn) {
+        return cn.startsWith("java.lang.StackWalker") &&
+               (cn.length() == 21 || cn.charAt(21) == '$');
+    }
+
+    /**
+     * Gives access to the classes of the execution stack.  The VM omits
+     * native and reflection implementation frames from them.
+     */
+    private static final class ClassContext extends SecurityManager {
+        private static final ClassContext INSTANCE = AccessController.doPrivileged(
+            new PrivilegedAction<ClassContext>() {
+                public ClassContext run() {
+                    return new ClassContext();
+                }
+            });
+
+        static Class<?>[] get() {
+            return INSTANCE.getClassContext();
+        }
+    }
+
+    /**
+     * The frames of a captured stack.  The backtrace of a {@code Throwable}
+     * is captured up front, and each {@code StackTraceElement} is decoded
+     * from it only when the frame is reached.  If class references are
+     * retained, the class context captured alongside is matched to the
+     * frames by name, skipping the frames the class context omits.
+     */
+    private static final class Frames implements Spliterator<StackFrame> {
+        private final boolean showReflectFrames;
+        private final Throwable backtrace;
+        private final int depth;
+        private final Class<?>[] classes;
+        private int index;
+        private int classIndex;
+        private ClassLoader loader;
+        private boolean closed;
+
+        Frames(boolean showReflectFrames, Throwable backtrace, Class<?>[] classes) {
+            this.showReflectFrames = showReflectFrames;
+            this.backtrace = backtrace;
+            this.depth = backtrace.getStackTraceDepth();
+            this.classes = classes;
+            // skip the frames of the stack walker itself
+            while (index < depth &&
+                   isWalkerClass(backtrace.getStackTraceElement(index).getClassName())) {
+                index++;
+            }
+            if (classes != null) {
+                while (classIndex < classes.length &&
+                       isWalkerClass(classes[classIndex].getName())) {
+                    classIndex++;
+                }
+            }
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        /**
+         * Returns the next reported frame, or {@code null} at the bottom
+         * of the stack.
+         */
+        Frame next() {
+            if (closed) {
+                throw new IllegalStateException(
+                    "the stream of stack frames is not valid outside of walk");
+            }
+            while (index < depth) {
+                StackTraceElement ste = backtrace.getStackTraceElement(index++);
+                Frame frame = new Frame(ste, classes != null);
+                if (classes != null) {
+                    match(frame);
+                }
+                if (showReflectFrames || !isReflectionFrame(ste)) {
+                    return frame;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Finds the class of a frame in the class context.  Frames the class
+         * context omits, such as native frames, remember a class loader
+         * through which their class is resolved by name.
+         */
+        private void match(Frame frame) {
+            if (!frame.ste.isNativeMethod()) {
+                String name = frame.ste.getClassName();
+                for (int i = classIndex; i < classes.length; i++) {
+                    Class<?> c = classes[i];
+                    if (c.getName().equals(name)) {
+                        classIndex = i + 1;
+                        loader = c.getClassLoader();
+                        frame.declaringClass = c;
+                        return;
+                    }
+                    // the class context may hold method handle and lambda
+                    // proxy frames that the backtrace hides; look past them
+                    if (!c.getName().startsWith("java.lang.invoke.") &&
+                        !c.getName().contains("$$Lambda$")) {
+                        break;
+                    }
+                }
+            }
+            frame.loader = loader;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super StackFrame> action) {
+            Frame frame = next();
+            if (frame == null) {
+                return false;
+            }
+            action.accept(frame);
+            return true;
+        }
+
+        @Override
+        public Spliterator<StackFrame> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    private static final class Frame implements StackFrame {
+        private final StackTraceElement ste;
+        private final boolean retainClassRef;
+        private Class<?> declaringClass;
+        private ClassLoader loader;
+
+        Frame(StackTraceElement ste, boolean retainClassRef) {
+            this.ste = ste;
+            this.retainClassRef = retainClassRef;
+        }
+
+        @Override
+        public String getClassName() {
+            return ste.getClassName();
+        }
+
+        @Override
+        public String getMethodName() {
+            return ste.getMethodName();
+        }
+
+        @Override
+        public Class<?> getDeclaringClass() {
+            if (!retainClassRef) {
+                throw new UnsupportedOperationException(
+                    "No access to RETAIN_CLASS_REFERENCE");
+            }
+            Class<?> c = declaringClass;
+            if (c == null) {
+                c = AccessController.doPrivileged(
+                    new PrivilegedAction<Class<?>>() {
+                        public Class<?> run() {
+                            try {
+                                return Class.forName(ste.getClassName(), false, loader);
+                            } catch (ClassNotFoundException e) {
+                                return null;
+                            }
+                        }
+                    });
+                if (c == null) {
+                    throw new UnsupportedOperationException(
+                        "declaring class of " + ste + " is not accessible");
+                }
+                declaringClass = c;
+            }
+            return c;
+        }
+
+        @Override
+        public String getFileName() {
+            return ste.getFileName();
+        }
+
+        @Override
+        public int getLineNumber() {
+            return ste.getLineNumber();
+        }
+
+        @Override
+        public boolean isNativeMethod() {
+            return ste.isNativeMethod();
+        }
+
+        @Override
+        public StackTraceElement toStackTraceElement() {
+            return ste;
+        }
+
+        @Override
+        public String toString() {
+            return ste.toString();
+        }
+    }
+}
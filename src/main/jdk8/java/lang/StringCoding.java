@@ -57,6 +57,12 @@ class StringCoding {
     private final static ThreadLocal<SoftReference<StringEncoder>> encoder =
         new ThreadLocal<>();
 
+    /** The scratch arrays of each thread, see byteScratch and charScratch */
+    private final static ThreadLocal<SoftReference<byte[]>> byteScratch =
+        new ThreadLocal<>();
+    private final static ThreadLocal<SoftReference<char[]>> charScratch =
+        new ThreadLocal<>();
+
     private static boolean warnUnsupportedCharset = true;
 
     private static <T> T deref(ThreadLocal<SoftReference<T>> tl) {
@@ -89,6 +95,67 @@ class StringCoding {
             return Arrays.copyOf(ca, len);
     }
 
+    // -- Scratch arrays --
+    //
+    // A coder is given an array large enough for the worst case, which for
+    // UTF-8 encoding is three bytes per char, and the result is then trimmed
+    // to the coded length.  When the charset is the platform's own, and so
+    // does not keep the array, it codes into a scratch array of the thread
+    // instead, so that only the exact result is allocated.  This is only
+    // done when the result can be shorter than the worst case, since an
+    // exact result array is returned without a copy, and for arrays of up
+    // to MAX_SCRATCH bytes, which are kept, softly, for reuse.
+
+    private static final int MAX_SCRATCH = 1 << 20;
+
+    // Returns a byte array of at least the given length, at most
+    // MAX_SCRATCH, reusing the thread's scratch array if it is large enough
+    //
+    private static byte[] byteScratch(int len) {
+        byte[] ba = deref(byteScratch);
+        if (ba == null || ba.length < len) {
+            ba = new byte[len];
+            set(byteScratch, ba);
+        }
+        return ba;
+    }
+
+    // Returns a char array of at least the given length, at most
+    // MAX_SCRATCH / 2, reusing the thread's scratch array if it is large
+    // enough
+    //
+    private static char[] charScratch(int len) {
+        char[] ca = deref(charScratch);
+        if (ca == null || ca.length < len) {
+            ca = new char[len];
+            set(charScratch, ca);
+        }
+        return ca;
+    }
+
+    // One-entry cache of the last charset asked about by isMultiByte
+    private static volatile Object[] multiByteCache = null;
+
+    // Returns whether some chars of the given charset are coded as several
+    // bytes, so that decoding may produce fewer chars than bytes.  A
+    // single-byte charset decodes exactly one char per byte.
+    //
+    private static boolean isMultiByte(Charset cs) {
+        Object[] cached = multiByteCache;
+        if (cached != null && cached[0] == cs)
+            return (Boolean)cached[1];
+        boolean mb = cs.canEncode() && cs.newEncoder().maxBytesPerChar() > 1.0f;
+        multiByteCache = new Object[] { cs, mb };
+        return mb;
+    }
+
+    // Returns whether the given decoder may decode fewer chars than its
+    // worst case, so that decoding into a scratch array saves a copy
+    //
+    private static boolean mayShrink(Charset cs, CharsetDecoder cd) {
+        return cd.maxCharsPerByte() > 1.0f || isMultiByte(cs);
+    }
+
     private static int scale(int len, float expansionFactor) {
         // We need to perform double, not float, arithmetic; otherwise
         // we lose low order bits when len is larger than 2**24.
@@ -106,6 +173,70 @@ class StringCoding {
         return null;
     }
 
+    // -- Latin-1 fast paths --
+    //
+    // Most strings are ASCII, and most encoding and decoding is to and from
+    // UTF-8, ISO-8859-1 and US-ASCII, in which chars below 0x80 are single
+    // bytes of the same value (and, in ISO-8859-1, chars below 0x100).  Such
+    // strings are converted directly, into an array of the exact length,
+    // without creating or running a coder.  This avoids, in particular, the
+    // UTF-8 encoder's result array of three bytes per char and the copy
+    // trimming it.  The fast paths apply only to the platform's own
+    // charsets, which do not see the arrays, so no defensive copies are
+    // needed.
+
+    /** Charsets without fast paths */
+    private static final int OTHER = 0;
+    /** Charsets coding chars below 0x80 as single bytes */
+    private static final int ASCII = 1;
+    /** ISO-8859-1, coding chars below 0x100 as single bytes */
+    private static final int LATIN1 = 2;
+
+    private static int fastPath(Charset cs) {
+        String name = cs.name();
+        int kind = name.equals("ISO-8859-1") ? LATIN1
+                 : (name.equals("UTF-8") || name.equals("US-ASCII")) ? ASCII
+                 : OTHER;
+        if (kind != OTHER && cs.getClass().getClassLoader0() != null)
+            return OTHER;
+        return kind;
+    }
+
+    // Returns the chars decoded from the given bytes, or null if
+    // there is no fast path for them
+    //
+    private static char[] decodeFast(int kind, byte[] ba, int off, int len) {
+        if (kind == OTHER)
+            return null;
+        if (kind == ASCII) {
+            for (int i = off, end = off + len; i < end; i++) {
+                if (ba[i] < 0)
+                    return null;
+            }
+        }
+        char[] ca = new char[len];
+        for (int i = 0; i < len; i++)
+            ca[i] = (char)(ba[off + i] & 0xff);
+        return ca;
+    }
+
+    // Returns the bytes encoding the given chars, or null if
+    // there is no fast path for them
+    //
+    private static byte[] encodeFast(int kind, char[] ca, int off, int len) {
+        if (kind == OTHER)
+            return null;
+        char limit = (kind == LATIN1) ? '\u00ff' : '\u007f';
+        for (int i = off, end = off + len; i < end; i++) {
+            if (ca[i] > limit)
+                return null;
+        }
+        byte[] ba = new byte[len];
+        for (int i = 0; i < len; i++)
+            ba[i] = (byte)ca[off + i];
+        return ba;
+    }
+
     private static void warnUnsupportedCharset(String csn) {
         if (warnUnsupportedCharset) {
             // Use sun.misc.MessageUtils rather than the Logging API or
@@ -124,6 +255,8 @@ class StringCoding {
         private final Charset cs;
         private final CharsetDecoder cd;
         private final boolean isTrusted;
+        private final int fastPath;
+        private final boolean mayShrink;
 
         private StringDecoder(Charset cs, String rcn) {
             this.requestedCharsetName = rcn;
@@ -132,6 +265,8 @@ class StringCoding {
                 .onMalformedInput(CodingErrorAction.REPLACE)
                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
             this.isTrusted = (cs.getClass().getClassLoader0() == null);
+            this.fastPath = fastPath(cs);
+            this.mayShrink = isTrusted && mayShrink(cs, cd);
         }
 
         String charsetName() {
@@ -145,17 +280,22 @@ class StringCoding {
         }
 
         char[] decode(byte[] ba, int off, int len) {
+            char[] fast = decodeFast(fastPath, ba, off, len);
+            if (fast != null)
+                return fast;
             int en = scale(len, cd.maxCharsPerByte());
-            char[] ca = new char[en];
             if (len == 0)
-                return ca;
+                return new char[en];
+            boolean scratch = mayShrink && en <= MAX_SCRATCH / 2;
+            char[] ca = scratch ? charScratch(en) : new char[en];
             if (cd instanceof ArrayDecoder) {
                 int clen = ((ArrayDecoder)cd).decode(ba, off, len, ca);
-                return safeTrim(ca, clen, cs, isTrusted);
+                return scratch ? Arrays.copyOf(ca, clen)
+                               : safeTrim(ca, clen, cs, isTrusted);
             } else {
                 cd.reset();
                 ByteBuffer bb = ByteBuffer.wrap(ba, off, len);
-                CharBuffer cb = CharBuffer.wrap(ca);
+                CharBuffer cb = CharBuffer.wrap(ca, 0, en);
                 try {
                     CoderResult cr = cd.decode(bb, cb, true);
                     if (!cr.isUnderflow())
@@ -168,7 +308,8 @@ class StringCoding {
                     // so this shouldn't happen
                     throw new Error(x);
                 }
-                return safeTrim(ca, cb.position(), cs, isTrusted);
+                return scratch ? Arrays.copyOf(ca, cb.position())
+                               : safeTrim(ca, cb.position(), cs, isTrusted);
             }
         }
     }
@@ -210,11 +351,13 @@ class StringCoding {
         // check (... && (isTrusted || SM == null || getClassLoader0())) in trim
         // but it then can be argued that the SM is null when the opertaion
         // is started...
+        char[] fast = decodeFast(fastPath(cs), ba, off, len);
+        if (fast != null)
+            return fast;
         CharsetDecoder cd = cs.newDecoder();
         int en = scale(len, cd.maxCharsPerByte());
-        char[] ca = new char[en];
         if (len == 0)
-            return ca;
+            return new char[en];
         boolean isTrusted = false;
         if (System.getSecurityManager() != null) {
             if (!(isTrusted = (cs.getClass().getClassLoader0() == null))) {
@@ -222,15 +365,20 @@ class StringCoding {
                 off = 0;
             }
         }
+        boolean scratch = en <= MAX_SCRATCH / 2
+                          && (cs.getClass().getClassLoader0() == null)
+                          && mayShrink(cs, cd);
+        char[] ca = scratch ? charScratch(en) : new char[en];
         cd.onMalformedInput(CodingErrorAction.REPLACE)
           .onUnmappableCharacter(CodingErrorAction.REPLACE)
           .reset();
         if (cd instanceof ArrayDecoder) {
             int clen = ((ArrayDecoder)cd).decode(ba, off, len, ca);
-            return safeTrim(ca, clen, cs, isTrusted);
+            return scratch ? Arrays.copyOf(ca, clen)
+                           : safeTrim(ca, clen, cs, isTrusted);
         } else {
             ByteBuffer bb = ByteBuffer.wrap(ba, off, len);
-            CharBuffer cb = CharBuffer.wrap(ca);
+            CharBuffer cb = CharBuffer.wrap(ca, 0, en);
             try {
                 CoderResult cr = cd.decode(bb, cb, true);
                 if (!cr.isUnderflow())
@@ -243,7 +391,8 @@ class StringCoding {
                 // so this shouldn't happen
                 throw new Error(x);
             }
-            return safeTrim(ca, cb.position(), cs, isTrusted);
+            return scratch ? Arrays.copyOf(ca, cb.position())
+                           : safeTrim(ca, cb.position(), cs, isTrusted);
         }
     }
 
@@ -275,6 +424,7 @@ class StringCoding {
         private CharsetEncoder ce;
         private final String requestedCharsetName;
         private final boolean isTrusted;
+        private final int fastPath;
 
         private StringEncoder(Charset cs, String rcn) {
             this.requestedCharsetName = rcn;
@@ -283,6 +433,7 @@ class StringCoding {
                 .onMalformedInput(CodingErrorAction.REPLACE)
                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
             this.isTrusted = (cs.getClass().getClassLoader0() == null);
+            this.fastPath = fastPath(cs);
         }
 
         String charsetName() {
@@ -296,16 +447,22 @@ class StringCoding {
         }
 
         byte[] encode(char[] ca, int off, int len) {
+            byte[] fast = encodeFast(fastPath, ca, off, len);
+            if (fast != null)
+                return fast;
             int en = scale(len, ce.maxBytesPerChar());
-            byte[] ba = new byte[en];
             if (len == 0)
-                return ba;
+                return new byte[en];
+            // A single-byte result fills its array exactly
+            boolean scratch = isTrusted && en > len && en <= MAX_SCRATCH;
+            byte[] ba = scratch ? byteScratch(en) : new byte[en];
             if (ce instanceof ArrayEncoder) {
                 int blen = ((ArrayEncoder)ce).encode(ca, off, len, ba);
-                return safeTrim(ba, blen, cs, isTrusted);
+                return scratch ? Arrays.copyOf(ba, blen)
+                               : safeTrim(ba, blen, cs, isTrusted);
             } else {
                 ce.reset();
-                ByteBuffer bb = ByteBuffer.wrap(ba);
+                ByteBuffer bb = ByteBuffer.wrap(ba, 0, en);
                 CharBuffer cb = CharBuffer.wrap(ca, off, len);
                 try {
                     CoderResult cr = ce.encode(cb, bb, true);
@@ -319,7 +476,8 @@ class StringCoding {
                     // so this shouldn't happen
                     throw new Error(x);
                 }
-                return safeTrim(ba, bb.position(), cs, isTrusted);
+                return scratch ? Arrays.copyOf(ba, bb.position())
+                               : safeTrim(ba, bb.position(), cs, isTrusted);
             }
         }
     }
@@ -345,11 +503,13 @@ class StringCoding {
     }
 
     static byte[] encode(Charset cs, char[] ca, int off, int len) {
+        byte[] fast = encodeFast(fastPath(cs), ca, off, len);
+        if (fast != null)
+            return fast;
         CharsetEncoder ce = cs.newEncoder();
         int en = scale(len, ce.maxBytesPerChar());
-        byte[] ba = new byte[en];
         if (len == 0)
-            return ba;
+            return new byte[en];
         boolean isTrusted = false;
         if (System.getSecurityManager() != null) {
             if (!(isTrusted = (cs.getClass().getClassLoader0() == null))) {
@@ -357,14 +517,18 @@ class StringCoding {
                 off = 0;
             }
         }
+        boolean scratch = en > len && en <= MAX_SCRATCH
+                          && (cs.getClass().getClassLoader0() == null);
+        byte[] ba = scratch ? byteScratch(en) : new byte[en];
         ce.onMalformedInput(CodingErrorAction.REPLACE)
           .onUnmappableCharacter(CodingErrorAction.REPLACE)
           .reset();
         if (ce instanceof ArrayEncoder) {
             int blen = ((ArrayEncoder)ce).encode(ca, off, len, ba);
-            return safeTrim(ba, blen, cs, isTrusted);
+            return scratch ? Arrays.copyOf(ba, blen)
+                           : safeTrim(ba, blen, cs, isTrusted);
         } else {
-            ByteBuffer bb = ByteBuffer.wrap(ba);
+            ByteBuffer bb = ByteBuffer.wrap(ba, 0, en);
             CharBuffer cb = CharBuffer.wrap(ca, off, len);
             try {
                 CoderResult cr = ce.encode(cb, bb, true);
@@ -376,7 +540,8 @@ class StringCoding {
             } catch (CharacterCodingException x) {
                 throw new Error(x);
             }
-            return safeTrim(ba, bb.position(), cs, isTrusted);
+            return scratch ? Arrays.copyOf(ba, bb.position())
+                           : safeTrim(ba, bb.position(), cs, isTrusted);
         }
     }
 
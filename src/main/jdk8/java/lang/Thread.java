@@ -187,6 +187,12 @@ class Thread implements Runnable {
      */
     ThreadLocal.ThreadLocalMap inheritableThreadLocals = null;
 
+    /*
+     * IndexedThreadLocal values pertaining to this thread, by index. This
+     * array is maintained by the IndexedThreadLocal class.
+     */
+    Object[] indexedThreadLocals = null;
+
     /*
      * The requested stack size for this thread, or 0 if the creator did
      * not specify a stack size.  It is up to the VM to do whatever it
@@ -415,6 +421,9 @@ class Thread implements Runnable {
         if (parent.inheritableThreadLocals != null)
             this.inheritableThreadLocals =
                 ThreadLocal.createInheritedMap(parent.inheritableThreadLocals);
+        if (parent.indexedThreadLocals != null)
+            this.indexedThreadLocals =
+                IndexedThreadLocal.createInheritedArray(parent.indexedThreadLocals);
         /* Stash the specified stack size in case the VM cares */
         this.stackSize = stackSize;
 
@@ -760,6 +769,7 @@ class Thread implements Runnable {
         /* Speed the release of some of these resources */
         threadLocals = null;
         inheritableThreadLocals = null;
+        indexedThreadLocals = null;
         inheritedAccessControlContext = null;
         blocker = null;
         uncaughtExceptionHandler = null;
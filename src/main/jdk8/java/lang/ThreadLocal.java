@@ -93,7 +93,7 @@ public class ThreadLocal<T> {
      *
      * 当前ThreadLocal的hashcode值
      */
-    private final int threadLocalHashCode = nextHashCode();
+    private final int threadLocalHashCode;
 
     /**
      * The next hash code to be given out. Updated atomically. Starts at
@@ -172,6 +172,16 @@ public class ThreadLocal<T> {
      *
      */
     public ThreadLocal() {
+        this(true);
+    }
+
+    /**
+     * Creates a thread local variable, consuming a hash code only if it
+     * is to be a ThreadLocalMap key; subclasses keeping their values
+     * elsewhere pass false.
+     */
+    ThreadLocal(boolean hashed) {
+        threadLocalHashCode = hashed ? nextHashCode() : 0;
     }
 
     /**
@@ -0,0 +1,513 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.lang.ref;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code Cleaner} manages a set of object references and corresponding
+ * cleaning actions.
+ *
+ * <p>Cleaning actions are {@link #register(Object, Runnable) registered}
+ * to run after the cleaner is notified that the object has become phantom
+ * reachable.  The cleaner uses a {@link PhantomReference} and a {@link
+ * ReferenceQueue} to be notified when the reachability changes.  Unlike
+ * finalization, this does not keep the object alive for another garbage
+ * collection cycle: the object is reclaimed as soon as it is found
+ * unreachable, and only the cleaning action, which must not refer to it,
+ * remains.
+ *
+ * <p>Each cleaner operates independently, managing the pending cleaning
+ * actions and handling threading and termination when the cleaner is no
+ * longer in use.  Registering an object reference and corresponding
+ * cleaning action returns a {@link Cleanable Cleanable}.  The most
+ * efficient use is to explicitly invoke the {@link Cleanable#clean clean}
+ * method when the object is closed or no longer needed; the cleaning
+ * action then runs at once, on the calling thread, and the reference is
+ * dropped.  The cleaning action is invoked at most once.
+ *
+ * <p>A cleaner has a thread of its own, started by {@link #create()} or
+ * {@link #create(ThreadFactory)}, or uses the thread of the {@linkplain
+ * #commonCleaner() common cleaner} shared with the Java platform classes.
+ * The thread takes the references of unreachable objects from its queue
+ * in batches and runs their cleaning actions.  Exceptions thrown by a
+ * cleaning action are ignored.  The thread of a dedicated cleaner
+ * terminates once the cleaner itself has become phantom reachable and
+ * all of its cleaning actions have completed.
+ *
+ * <p>Whether the cleaning keeps up can be monitored through the
+ * {@linkplain #getPendingCount() backlog} of unreachable objects awaiting
+ * their cleaning action and the time the thread spends running them.
+ *
+ * <p>The cleaning action could be a lambda but all too easily will
+ * capture the object reference, by referring to fields of the object
+ * being cleaned, preventing the object from becoming phantom reachable.
+ * Using a static nested class, as in the example below, avoids
+ * accidentally retaining the object reference.
+ *
+ * <pre>{@code
+ * public class CleaningExample implements AutoCloseable {
+ *     private static final Cleaner cleaner = Cleaner.create();
+ *
+ *     static class State implements Runnable {
+ *         State(...) {
+ *             // initialize State needed for cleaning action
+ *         }
+ *
+ *         public void run() {
+ *             // cleanup action accessing State, executed at most once
+ *         }
+ *     }
+ *
+ *     private final State state;
+ *     private final Cleaner.Cleanable cleanable;
+ *
+ *     public CleaningExample() {
+ *         this.state = new State(...);
+ *         this.cleanable = cleaner.register(this, state);
+ *     }
+ *
+ *     public void close() {
+ *         cleanable.clean();
+ *     }
+ * }
+ * }</pre>
+ *
+ * @since 9
+ */
+public final class Cleaner {
+
+    /**
+     * {@code Cleanable} represents an object and a cleaning action
+     * registered in a {@code Cleaner}.
+     *
+     * @since 9
+     */
+    public interface Cleanable {
+        /**
+         * Unregisters the cleanable and invokes the cleaning action.
+         * The cleanable's cleaning action is invoked at most once
+         * regardless of the number of calls to {@code clean}.
+         */
+        void clean();
+    }
+
+    /** the number of references the cleaner thread removes at once */
+    private static final int BATCH_SIZE = 64;
+
+    /** how long the cleaner thread waits before checking for termination */
+    private static final long TIMEOUT = 60 * 1000L;
+
+    private static final AtomicInteger nextThreadNumber = new AtomicInteger();
+
+    /*
+     * The state used by the cleaner thread, kept apart so that neither the
+     * thread nor the cleanables keep the Cleaner itself reachable.
+     */
+    private final State state = new State();
+
+    private Cleaner() { }
+
+    /**
+     * Returns a new {@code Cleaner} with a thread of its own.
+     *
+     * <p>The cleaner creates a daemon thread to process the phantom
+     * reachable objects and to invoke cleaning actions.  The thread belongs
+     * to the root thread group, its context class loader is {@code null}
+     * and it inherits no thread-local values from the calling thread.
+     *
+     * @return a new {@code Cleaner}
+     * @throws SecurityException if the current thread is not allowed to
+     *         create or start the thread
+     */
+    public static Cleaner create() {
+        return create("Cleaner-" + nextThreadNumber.getAndIncrement());
+    }
+
+    /**
+     * Returns a new {@code Cleaner} with a {@link CleanerThread} of the
+     * given name.
+     */
+    private static Cleaner create(final String name) {
+        final Cleaner cleaner = new Cleaner();
+        Thread thread = AccessController.doPrivileged(
+            new PrivilegedAction<Thread>() {
+                public Thread run() {
+                    return new CleanerThread(cleaner.state, name);
+                }
+            });
+        cleaner.start(thread);
+        return cleaner;
+    }
+
+    /**
+     * Returns a new {@code Cleaner} with a thread created by the given
+     * {@code ThreadFactory}.
+     *
+     * <p>The thread is set to be a daemon thread and started to process
+     * the phantom reachable objects and to invoke cleaning actions.
+     *
+     * @param threadFactory a {@code ThreadFactory} to return a new
+     *        {@code Thread} to process cleaning actions
+     * @return a new {@code Cleaner}
+     * @throws IllegalThreadStateException if the thread from the thread
+     *         factory was not a new thread
+     * @throws SecurityException if the current thread is not allowed to
+     *         create or start the thread
+     */
+    public static Cleaner create(ThreadFactory threadFactory) {
+        Objects.requireNonNull(threadFactory, "threadFactory");
+        Cleaner cleaner = new Cleaner();
+        Thread thread = threadFactory.newThread(cleaner.state);
+        if (thread == null) {
+            throw new IllegalThreadStateException("threadFactory returned null");
+        }
+        cleaner.start(thread);
+        return cleaner;
+    }
+
+    /**
+     * Returns the common {@code Cleaner}, whose thread is shared by the
+     * Java platform classes and all its other users.
+     *
+     * <p>The common cleaner never terminates.  Its cleaning actions must
+     * be short and must not block, since they delay all other cleaning
+     * actions of the common cleaner; a cleaner of its own should be
+     * {@linkplain #create() created} for actions that may block.
+     *
+     * @return the common {@code Cleaner}
+     */
+    public static Cleaner commonCleaner() {
+        return Common.CLEANER;
+    }
+
+    private static final class Common {
+        static final Cleaner CLEANER = create("Common-Cleaner");
+    }
+
+    /*
+     * The thread of a cleaner created without a thread factory.  It may
+     * be started by whichever thread first needs a cleaner, so, like the
+     * finalizer thread, it is placed in the root thread group, has no
+     * context class loader and drops the thread locals it inherited from
+     * its creator, none of which may then be kept reachable by it.
+     */
+    private static final class CleanerThread extends Thread {
+        CleanerThread(Runnable target, String name) {
+            super(rootThreadGroup(), target, name);
+            U.putObject(this, INHERITABLETHREADLOCALS, null);
+            U.putObject(this, INDEXEDTHREADLOCALS, null);
+            setContextClassLoader(null);
+            setPriority(Thread.MAX_PRIORITY - 2);
+            setDaemon(true);
+        }
+
+        private static ThreadGroup rootThreadGroup() {
+            ThreadGroup tg = Thread.currentThread().getThreadGroup();
+            for (ThreadGroup tgn = tg;
+                 tgn != null;
+                 tg = tgn, tgn = tg.getParent());
+            return tg;
+        }
+
+        // Set up to allow clearing thread fields in constructor
+        private static final sun.misc.Unsafe U;
+        private static final long INHERITABLETHREADLOCALS;
+        private static final long INDEXEDTHREADLOCALS;
+        static {
+            try {
+                U = sun.misc.Unsafe.getUnsafe();
+                Class<?> tk = Thread.class;
+                INHERITABLETHREADLOCALS = U.objectFieldOffset
+                    (tk.getDeclaredField("inheritableThreadLocals"));
+                INDEXEDTHREADLOCALS = U.objectFieldOffset
+                    (tk.getDeclaredField("indexedThreadLocals"));
+            } catch (Exception e) {
+                throw new Error(e);
+            }
+        }
+    }
+
+    /**
+     * Registers an object and a cleaning action to run when the object
+     * becomes phantom reachable.  Refer to the class description for
+     * cautions about the behavior of cleaning actions.
+     *
+     * @param obj   the object to monitor
+     * @param action a {@code Runnable} to invoke when the object becomes
+     *        phantom reachable
+     * @return a {@code Cleanable} instance
+     */
+    public Cleanable register(Object obj, Runnable action) {
+        Objects.requireNonNull(obj, "obj");
+        Objects.requireNonNull(action, "action");
+        return new PhantomCleanable(obj, state, action);
+    }
+
+    /**
+     * Returns the number of registered cleaning actions that have not yet
+     * been invoked.
+     *
+     * @return the number of pending registrations
+     */
+    public long getRegisteredCount() {
+        synchronized (state.list) {
+            return state.registered;
+        }
+    }
+
+    /**
+     * Returns the number of objects that have become phantom reachable and
+     * whose cleaning action is waiting for the cleaner thread.  A backlog
+     * that keeps growing means the cleaning actions do not keep up with
+     * the rate at which objects become unreachable.
+     *
+     * @return the number of unreachable objects awaiting cleaning
+     */
+    public long getPendingCount() {
+        return state.queue.length();
+    }
+
+    /**
+     * Returns the number of cleaning actions invoked so far, whether by
+     * {@link Cleanable#clean clean} or by the cleaner thread.
+     *
+     * @return the number of cleaning actions invoked
+     */
+    public long getCleanedCount() {
+        synchronized (state.list) {
+            return state.cleaned;
+        }
+    }
+
+    /**
+     * Returns the total time the cleaner thread has spent running cleaning
+     * actions.
+     *
+     * @param unit the time unit of the result
+     * @return the time spent running cleaning actions
+     */
+    public long getCleaningTime(TimeUnit unit) {
+        return unit.convert(state.cleaningTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the longest time an object has waited to be cleaned by the
+     * cleaner thread, from its reference being enqueued to the completion
+     * of its cleaning action.  A latency far above the time spent running
+     * the actions means that cleaning has fallen behind the rate at which
+     * objects become unreachable.
+     *
+     * @param unit the time unit of the result
+     * @return the longest delay from enqueuing to cleaning
+     */
+    public long getMaxCleaningLatency(TimeUnit unit) {
+        return unit.convert(state.maxLatency, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Starts the cleaner thread.  The cleaner registers itself, so that
+     * the thread keeps running until the cleaner becomes phantom reachable
+     * and all registered cleaning actions have completed.
+     */
+    private void start(Thread thread) {
+        if (thread.getState() != Thread.State.NEW) {
+            throw new IllegalThreadStateException("Thread is already started");
+        }
+        new PhantomCleanable(this, state, null);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * The reference queue and registered cleanables of a cleaner, and the
+     * statistics about them.
+     */
+    private static final class State implements Runnable {
+        final ReferenceQueue<Object> queue = new Queue();
+
+        /** the head of the list of registered cleanables, guarded by itself */
+        final PhantomCleanable list = new PhantomCleanable();
+
+        // the counts are guarded by list, the times are only written by
+        // the cleaner thread
+        long registered;
+        long cleaned;
+        volatile long cleaningTime;
+        volatile long maxLatency;
+
+        /**
+         * Runs the cleaning actions of phantom reachable objects, a batch
+         * of references at a time, until no cleanable is registered.
+         */
+        @Override
+        public void run() {
+            @SuppressWarnings("unchecked")
+            Reference<Object>[] batch = (Reference<Object>[]) new Reference<?>[BATCH_SIZE];
+            while (!list.isListEmpty()) {
+                int n;
+                try {
+                    n = queue.remove(batch, TIMEOUT);
+                } catch (InterruptedException e) {
+                    // ignore and continue
+                    continue;
+                }
+                if (n == 0) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                long oldest = start;
+                for (int i = 0; i < n; i++) {
+                    PhantomCleanable ref = (PhantomCleanable) batch[i];
+                    batch[i] = null;
+                    if (ref.enqueued - oldest < 0) {
+                        oldest = ref.enqueued;
+                    }
+                    try {
+                        ref.clean();
+                    } catch (Throwable t) {
+                        // ignore exceptions from the cleanup action
+                    }
+                }
+                long end = System.nanoTime();
+                cleaningTime += end - start;
+                // every action of the batch has completed by now, so the
+                // oldest reference of the batch has waited the longest
+                long latency = end - oldest;
+                if (latency > maxLatency) {
+                    maxLatency = latency;
+                }
+            }
+        }
+    }
+
+    /**
+     * The reference queue of a cleaner, which stamps each cleanable with
+     * the time it is enqueued.
+     */
+    private static final class Queue extends ReferenceQueue<Object> {
+        @Override
+        boolean enqueue(Reference<?> r) {
+            // stamped before it is published to the cleaner thread by the
+            // queue's lock
+            ((PhantomCleanable) r).enqueued = System.nanoTime();
+            return super.enqueue(r);
+        }
+    }
+
+    /**
+     * The phantom reference of a registered object, linked into the list
+     * of its cleaner so that it stays reachable until cleaned.
+     */
+    private static final class PhantomCleanable extends PhantomReference<Object>
+        implements Cleanable
+    {
+        private final State state;
+        private final Runnable action;
+        private PhantomCleanable prev = this, next = this;
+
+        /** the time this was enqueued, written by its queue */
+        long enqueued;
+
+        /** Creates the head of a list */
+        PhantomCleanable() {
+            super(null, null);
+            this.state = null;
+            this.action = null;
+        }
+
+        PhantomCleanable(Object referent, State state, Runnable action) {
+            super(referent, state.queue);
+            this.state = state;
+            this.action = action;
+            insert();
+        }
+
+        private void insert() {
+            PhantomCleanable list = state.list;
+            synchronized (list) {
+                prev = list;
+                next = list.next;
+                next.prev = this;
+                list.next = this;
+                if (action != null) {
+                    state.registered++;
+                }
+            }
+        }
+
+        /**
+         * Removes this cleanable from its list, returning {@code true}
+         * the first time only.
+         */
+        private boolean remove() {
+            PhantomCleanable list = state.list;
+            synchronized (list) {
+                if (next != this) {
+                    next.prev = prev;
+                    prev.next = next;
+                    prev = this;
+                    next = this;
+                    if (action != null) {
+                        state.registered--;
+                        state.cleaned++;
+                    }
+                    return true;
+                }
+                return false;
+            }
+        }
+
+        boolean isListEmpty() {
+            synchronized (this) {
+                return next == this;
+            }
+        }
+
+        @Override
+        public void clean() {
+            if (remove()) {
+                super.clear();
+                if (action != null) {
+                    action.run();
+                }
+            }
+        }
+
+        /**
+         * Unregisters this cleanable without invoking its action.
+         */
+        @Override
+        public void clear() {
+            if (remove()) {
+                super.clear();
+            }
+        }
+    }
+}
@@ -164,4 +164,44 @@ public class ReferenceQueue<T> {
         return remove(0);
     }
 
+    /**
+     * Removes up to {@code batch.length} reference objects from this queue
+     * into {@code batch}, blocking until at least one is available or the
+     * given timeout period expires.  The lock is taken once for the whole
+     * batch.
+     *
+     * @param  batch    the array to store the removed reference objects in
+     * @param  timeout  If positive, block for up to <code>timeout</code>
+     *                  milliseconds.  If zero, block indefinitely.
+     * @return the number of reference objects removed, <code>0</code> if
+     *         none was available within the timeout period
+     * @throws InterruptedException  If the wait is interrupted
+     */
+    int remove(Reference<? extends T>[] batch, long timeout)
+        throws InterruptedException
+    {
+        synchronized (lock) {
+            Reference<? extends T> r = reallyPoll();
+            if (r == null) {
+                r = remove(timeout);
+                if (r == null) return 0;
+            }
+            batch[0] = r;
+            int n = 1;
+            while (n < batch.length && (r = reallyPoll()) != null) {
+                batch[n++] = r;
+            }
+            return n;
+        }
+    }
+
+    /**
+     * Returns the number of reference objects in this queue.
+     */
+    long length() {
+        synchronized (lock) {
+            return queueLength;
+        }
+    }
+
 }
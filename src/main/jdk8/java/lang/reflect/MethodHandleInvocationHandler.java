@@ -0,0 +1,108 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.lang.reflect;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * An {@link InvocationHandler} that supplies a method handle for each
+ * method of a proxy class, to which the proxy instance dispatches
+ * invocations directly.
+ *
+ * <p>When {@link Proxy#newProxyInstance Proxy.newProxyInstance} is given
+ * an invocation handler implementing this interface, the returned proxy
+ * instance belongs to a proxy class that calls, for every proxy method,
+ * the method handle returned by {@link #methodHandle methodHandle} for
+ * that method.  The handle receives the proxy instance followed by the
+ * arguments of the invocation, with their declared types; no
+ * {@code Method} lookup, argument array or boxing of primitive values
+ * takes place on the invocation path.
+ *
+ * <p>The handles are requested when a proxy instance is created.  A
+ * proxy class retains the handles of the handler it was most recently
+ * instantiated with, so creating many proxy instances that share one
+ * handler asks the handler for its handles only once.
+ *
+ * <p>Exceptions thrown by a handle are treated as exceptions thrown by
+ * {@link InvocationHandler#invoke invoke}: checked exceptions that are not
+ * assignable to an exception type declared by the interface method are
+ * wrapped in an {@link UndeclaredThrowableException}.
+ *
+ * <p>Proxy instances of such a proxy class are proxy instances in every
+ * other respect: {@link Proxy#isProxyClass Proxy.isProxyClass} returns
+ * {@code true} for their class and {@link Proxy#getInvocationHandler
+ * Proxy.getInvocationHandler} returns this handler.  When a proxy
+ * instance is deserialized, or when this handler is associated with a
+ * proxy class obtained from {@link Proxy#getProxyClass
+ * Proxy.getProxyClass}, invocations go through {@link #invoke invoke},
+ * which calls the same method handles.
+ *
+ * @see     Proxy
+ * @since   9
+ */
+public interface MethodHandleInvocationHandler extends InvocationHandler {
+
+    /**
+     * Returns the method handle to which invocations of the given method
+     * on a proxy instance with this handler are dispatched.
+     *
+     * <p>The returned handle must be convertible, as if by {@link
+     * MethodHandle#asType asType}, to a handle whose first parameter type
+     * is {@code Object}, followed by the parameter types of {@code method},
+     * and whose return type is the return type of {@code method}.
+     *
+     * @param   method the {@code Method} instance corresponding to the
+     *          interface method invoked on the proxy instance, as it would
+     *          be passed to {@link InvocationHandler#invoke invoke}
+     * @return  a method handle taking the proxy instance and the arguments
+     *          of the invocation
+     */
+    MethodHandle methodHandle(Method method);
+
+    /**
+     * Processes a method invocation on a proxy instance by invoking the
+     * method handle returned by {@link #methodHandle methodHandle} for
+     * {@code method} with the proxy instance and the given arguments.
+     *
+     * @param   proxy the proxy instance that the method was invoked on
+     * @param   method the {@code Method} instance corresponding to
+     *          the interface method invoked on the proxy instance
+     * @param   args the arguments of the invocation, or {@code null} if
+     *          the interface method takes no arguments
+     * @return  the value returned by the method handle
+     * @throws  Throwable the exception thrown by the method handle
+     */
+    @Override
+    default Object invoke(Object proxy, Method method, Object[] args)
+        throws Throwable
+    {
+        int n = (args == null) ? 0 : args.length;
+        Object[] arguments = new Object[n + 1];
+        arguments[0] = proxy;
+        if (n > 0) {
+            System.arraycopy(args, 0, arguments, 1, n);
+        }
+        return methodHandle(method).invokeWithArguments(arguments);
+    }
+}
@@ -0,0 +1,682 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.lang.reflect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.AccessController;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import jdk.internal.org.objectweb.asm.ClassWriter;
+import jdk.internal.org.objectweb.asm.Label;
+import jdk.internal.org.objectweb.asm.MethodVisitor;
+import jdk.internal.org.objectweb.asm.Type;
+import static jdk.internal.org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates the proxy classes used for proxy instances whose invocation
+ * handler is a {@link MethodHandleInvocationHandler}.
+ *
+ * <p>A generated proxy class extends {@code Proxy}, implements the proxy
+ * interfaces and holds an array of method handles, one per proxy method,
+ * that is shared by all instances created with the same handler.  Each
+ * proxy method loads its handle and calls {@code invokeExact} with the
+ * proxy instance and its own arguments, so the invocation involves no
+ * {@code Method} object, no argument array and no boxing.  Method
+ * signatures, duplicate method and exception handling follow the rules
+ * of the classic proxy classes.
+ *
+ * <p>The name of a generated class is derived from a digest of everything
+ * the class file depends on, which makes the class file a pure function
+ * of that digest.  If the system property
+ * {@code sun.reflect.proxy.cacheDir} names a directory, generated class
+ * files are stored there and reused by later runs, saving the generation
+ * work at startup.  Each entry records its full key and is only used if
+ * the key matches exactly.  The cache is only used for classes defined
+ * by application class loaders; proxy classes of the bootstrap and
+ * extension class loaders are always generated, so that a class file
+ * planted in the directory can never run with their privileges.  The
+ * directory must still be writable only by trusted users, since the
+ * classes read from it are defined without further verification of
+ * their origin.
+ */
+final class MethodHandleProxyGenerator {
+
+    /*
+     * Version 49 class files, like those of the classic proxy classes,
+     * need no stack map frames for the exception handlers.  Linkage of
+     * MethodHandle.invokeExact does not depend on the class file version.
+     */
+    private static final int CLASSFILE_VERSION = 49;
+
+    /** bumped whenever the generated code changes */
+    private static final String GENERATOR_VERSION = "MethodHandleProxy/1";
+
+    /** prefix for all method handle proxy class names */
+    private static final String proxyClassNamePrefix = "$MHProxy";
+
+    private static final String HANDLES = "handles";
+    private static final String MH = "java/lang/invoke/MethodHandle";
+    private static final String HANDLES_DESC = "[L" + MH + ";";
+    private static final String SUPER = "java/lang/reflect/Proxy";
+    private static final String UTE = "java/lang/reflect/UndeclaredThrowableException";
+    private static final String CTOR_DESC =
+        "(Ljava/lang/reflect/InvocationHandler;" + HANDLES_DESC + ")V";
+
+    /** directory of the persistent class file cache, or null */
+    private static final Path cacheDir = AccessController.doPrivileged(
+        new PrivilegedAction<Path>() {
+            public Path run() {
+                String dir = System.getProperty("sun.reflect.proxy.cacheDir");
+                if (dir == null || dir.isEmpty()) {
+                    return null;
+                }
+                Path path = Paths.get(dir);
+                return Files.isDirectory(path) ? path : null;
+            }
+        });
+
+    /** per proxy class state, created on first instantiation */
+    private static final ClassValue<ProxyClassInfo> proxyClassInfo =
+        new ClassValue<ProxyClassInfo>() {
+            @Override
+            protected ProxyClassInfo computeValue(Class<?> cl) {
+                return new ProxyClassInfo(cl);
+            }
+        };
+
+    private final String proxyPkg;
+    private final Class<?>[] interfaces;
+    private final int accessFlags;
+    private final List<ProxyMethod> methods;
+    private final String key;
+    private final String digest;
+
+    /**
+     * Prepares the generation of a proxy class in package
+     * {@code proxyPkg} (including its trailing dot) for the given,
+     * already validated, interfaces.
+     *
+     * @throws IllegalArgumentException if the interfaces have methods with
+     *         the same signature but incompatible return types
+     */
+    MethodHandleProxyGenerator(String proxyPkg, Class<?>[] interfaces,
+                               int accessFlags) {
+        this.proxyPkg = proxyPkg;
+        this.interfaces = interfaces;
+        this.accessFlags = accessFlags;
+        this.methods = proxyMethods(interfaces);
+        this.key = key();
+        this.digest = digest(key);
+    }
+
+    /**
+     * Returns the binary name of the proxy class.
+     */
+    String className() {
+        return proxyPkg + proxyClassNamePrefix + digest;
+    }
+
+    /**
+     * Returns the class file of the proxy class to be defined by
+     * {@code loader}, from the persistent cache if possible.
+     */
+    byte[] generateClassFile(final ClassLoader loader) {
+        if (cacheDir == null || loader == null) {
+            return generate();
+        }
+        return AccessController.doPrivileged(new PrivilegedAction<byte[]>() {
+            public byte[] run() {
+                if (!isApplicationLoader(loader)) {
+                    return generate();
+                }
+                Path file = cacheDir.resolve(digest + ".proxy");
+                byte[] classFile = readCacheEntry(file);
+                if (classFile == null) {
+                    classFile = generate();
+                    writeCacheEntry(file, classFile);
+                }
+                return classFile;
+            }
+        });
+    }
+
+    /**
+     * Returns true if {@code loader} is neither the bootstrap nor the
+     * extension class loader, the latter being the ancestor of the system
+     * class loader that has no parent.
+     */
+    private static boolean isApplicationLoader(ClassLoader loader) {
+        if (loader == null) {
+            return false;
+        }
+        ClassLoader ext = ClassLoader.getSystemClassLoader();
+        while (ext != null && ext.getParent() != null) {
+            ext = ext.getParent();
+        }
+        return loader != ext;
+    }
+
+    /**
+     * Creates an instance of the method handle proxy class {@code cl}
+     * with the invocation handler {@code h}.
+     *
+     * @throws IllegalArgumentException if {@code h} returns a method
+     *         handle of an incompatible type
+     */
+    static Object newInstance(Class<?> cl, MethodHandleInvocationHandler h) {
+        return proxyClassInfo.get(cl).newInstance(h);
+    }
+
+    /**
+     * The state a method handle proxy class needs to be instantiated: its
+     * methods in dispatch order, the exact types of their handles, its
+     * constructor and, weakly, the handles of the most recently used
+     * handler.
+     */
+    private static final class ProxyClassInfo {
+        private final Method[] methods;
+        private final MethodType[] types;
+        private final Constructor<?> constructor;
+        private volatile Resolved last;
+
+        ProxyClassInfo(Class<?> cl) {
+            List<ProxyMethod> pms = proxyMethods(cl.getInterfaces());
+            int n = pms.size();
+            methods = new Method[n];
+            types = new MethodType[n];
+            for (int i = 0; i < n; i++) {
+                ProxyMethod pm = pms.get(i);
+                methods[i] = pm.method;
+                types[i] = MethodType.methodType(pm.returnType, pm.parameterTypes)
+                                     .insertParameterTypes(0, Object.class);
+            }
+            try {
+                constructor = cl.getDeclaredConstructor(
+                    InvocationHandler.class, MethodHandle[].class);
+            } catch (NoSuchMethodException e) {
+                throw new InternalError(e.toString(), e);
+            }
+            AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                public Void run() {
+                    constructor.setAccessible(true);
+                    return null;
+                }
+            });
+        }
+
+        Object newInstance(MethodHandleInvocationHandler h) {
+            try {
+                return constructor.newInstance(h, handles(h));
+            } catch (IllegalAccessException|InstantiationException e) {
+                throw new InternalError(e.toString(), e);
+            } catch (InvocationTargetException e) {
+                Throwable t = e.getCause();
+                if (t instanceof RuntimeException) {
+                    throw (RuntimeException) t;
+                } else {
+                    throw new InternalError(t.toString(), t);
+                }
+            }
+        }
+
+        private MethodHandle[] handles(MethodHandleInvocationHandler h) {
+            Resolved r = last;
+            if (r != null && r.handler.get() == h) {
+                MethodHandle[] handles = r.handles.get();
+                if (handles != null)
+                    return handles;
+            }
+            MethodHandle[] handles = new MethodHandle[methods.length];
+            for (int i = 0; i < handles.length; i++) {
+                MethodHandle mh = Objects.requireNonNull(
+                    h.methodHandle(methods[i]), "methodHandle");
+                try {
+                    handles[i] = mh.asType(types[i]);
+                } catch (WrongMethodTypeException e) {
+                    throw new IllegalArgumentException(
+                        "method handle " + mh + " is not compatible with " +
+                        methods[i], e);
+                }
+            }
+            last = new Resolved(h, handles);
+            return handles;
+        }
+    }
+
+    /**
+     * The handles resolved for a handler.  Both are held weakly: every
+     * proxy instantiated with them holds them strongly, so they remain
+     * reusable while such a proxy is in use, but the cache of a proxy
+     * class does not keep a handler, or anything its handles refer to,
+     * reachable once its proxies are gone.
+     */
+    private static final class Resolved {
+        final WeakReference<MethodHandleInvocationHandler> handler;
+        final WeakReference<MethodHandle[]> handles;
+
+        Resolved(MethodHandleInvocationHandler handler, MethodHandle[] handles) {
+            this.handler = new WeakReference<>(handler);
+            this.handles = new WeakReference<>(handles);
+        }
+    }
+
+    /**
+     * A method of a proxy class: the {@code Method} passed to the handler,
+     * the signature implemented and the exceptions it may throw.
+     */
+    private static final class ProxyMethod {
+        final Method method;
+        final String name;
+        final Class<?>[] parameterTypes;
+        final Class<?> returnType;
+        List<Class<?>> exceptionTypes;
+
+        ProxyMethod(Method method) {
+            this.method = method;
+            this.name = method.getName();
+            this.parameterTypes = method.getParameterTypes();
+            this.returnType = method.getReturnType();
+            this.exceptionTypes = Arrays.asList(method.getExceptionTypes());
+        }
+
+        String descriptor() {
+            return Type.getMethodDescriptor(method);
+        }
+    }
+
+    /**
+     * Returns the methods of a proxy class for the given interfaces in
+     * dispatch order: {@code hashCode}, {@code equals} and {@code toString}
+     * of {@code Object}, then the methods of the interfaces in order, those
+     * of one interface sorted by name and descriptor so that the order does
+     * not depend on {@code getMethods}, each
+     * signature and return type once, taking the {@code Method} of the
+     * foremost interface and the exceptions compatible with all of the
+     * duplicates.
+     */
+    private static List<ProxyMethod> proxyMethods(Class<?>[] interfaces) {
+        Map<String, ProxyMethod> byDescriptor = new LinkedHashMap<>();
+        Map<String, List<Class<?>>> returnTypes = new LinkedHashMap<>();
+        try {
+            add(byDescriptor, returnTypes, Object.class.getMethod("hashCode"));
+            add(byDescriptor, returnTypes,
+                Object.class.getMethod("equals", Object.class));
+            add(byDescriptor, returnTypes, Object.class.getMethod("toString"));
+        } catch (NoSuchMethodException e) {
+            throw new NoSuchMethodError(e.getMessage());
+        }
+        for (Class<?> intf : interfaces) {
+            Method[] ms = intf.getMethods();
+            Arrays.sort(ms, METHOD_ORDER);
+            for (Method m : ms) {
+                if (!Modifier.isStatic(m.getModifiers())) {
+                    add(byDescriptor, returnTypes, m);
+                }
+            }
+        }
+        for (Map.Entry<String, List<Class<?>>> e : returnTypes.entrySet()) {
+            checkReturnTypes(e.getKey(), e.getValue());
+        }
+        return new ArrayList<>(byDescriptor.values());
+    }
+
+    private static final Comparator<Method> METHOD_ORDER = new Comparator<Method>() {
+        public int compare(Method m1, Method m2) {
+            int c = m1.getName().compareTo(m2.getName());
+            return (c != 0) ? c : Type.getMethodDescriptor(m1)
+                                      .compareTo(Type.getMethodDescriptor(m2));
+        }
+    };
+
+    private static void add(Map<String, ProxyMethod> byDescriptor,
+                            Map<String, List<Class<?>>> returnTypes,
+                            Method m) {
+        String name = m.getName();
+        String descriptor = Type.getMethodDescriptor(m);
+        ProxyMethod pm = byDescriptor.get(name + descriptor);
+        if (pm != null) {
+            pm.exceptionTypes = compatibleTypes(
+                pm.exceptionTypes, Arrays.asList(m.getExceptionTypes()));
+            return;
+        }
+        byDescriptor.put(name + descriptor, new ProxyMethod(m));
+        String signature = name + descriptor.substring(0, descriptor.indexOf(')') + 1);
+        List<Class<?>> types = returnTypes.get(signature);
+        if (types == null) {
+            returnTypes.put(signature, types = new ArrayList<>(1));
+        }
+        types.add(m.getReturnType());
+    }
+
+    /**
+     * Methods with the same signature but different return types are all
+     * implemented, provided that one return type is assignable to all of
+     * the others.
+     */
+    private static void checkReturnTypes(String signature, List<Class<?>> types) {
+        if (types.size() < 2) {
+            return;
+        }
+    nextType:
+        for (Class<?> candidate : types) {
+            if (candidate.isPrimitive()) {
+                continue;
+            }
+            for (Class<?> type : types) {
+                if (!type.isAssignableFrom(candidate)) {
+                    continue nextType;
+                }
+            }
+            return;
+        }
+        throw new IllegalArgumentException(
+            "methods with same signature " + signature +
+            " but incompatible return types: " + types);
+    }
+
+    /**
+     * Returns the exception types of {@code from} that are assignable to a
+     * type in {@code with}, and those of {@code with} assignable to a type
+     * in {@code from}.
+     */
+    private static List<Class<?>> compatibleTypes(List<Class<?>> from,
+                                                  List<Class<?>> with) {
+        List<Class<?>> list = new ArrayList<>();
+        collect(from, with, list);
+        collect(with, from, list);
+        return list;
+    }
+
+    private static void collect(List<Class<?>> from, List<Class<?>> with,
+                                List<Class<?>> list) {
+        for (Class<?> fc : from) {
+            if (list.contains(fc)) {
+                continue;
+            }
+            for (Class<?> wc : with) {
+                if (wc.isAssignableFrom(fc)) {
+                    list.add(fc);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the exception types a proxy method rethrows unwrapped: the
+     * minimal list covering {@code Error}, {@code RuntimeException} and
+     * the declared exceptions, or an empty list if it covers every
+     * {@code Throwable}.
+     */
+    private static List<Class<?>> computeUniqueCatchList(List<Class<?>> exceptions) {
+        List<Class<?>> uniqueList = new ArrayList<>();
+        uniqueList.add(Error.class);
+        uniqueList.add(RuntimeException.class);
+    nextException:
+        for (Class<?> ex : exceptions) {
+            if (ex.isAssignableFrom(Throwable.class)) {
+                uniqueList.clear();
+                break;
+            } else if (!Throwable.class.isAssignableFrom(ex)) {
+                continue;
+            }
+            for (int j = 0; j < uniqueList.size();) {
+                Class<?> ex2 = uniqueList.get(j);
+                if (ex2.isAssignableFrom(ex)) {
+                    continue nextException;
+                } else if (ex.isAssignableFrom(ex2)) {
+                    uniqueList.remove(j);
+                } else {
+                    j++;
+                }
+            }
+            uniqueList.add(ex);
+        }
+        return uniqueList;
+    }
+
+    /**
+     * Returns the text that determines the class file: generator version,
+     * package, access flags, interfaces and proxy methods.
+     */
+    private String key() {
+        StringBuilder sb = new StringBuilder(GENERATOR_VERSION)
+            .append('\n').append(proxyPkg)
+            .append('\n').append(accessFlags);
+        for (Class<?> intf : interfaces) {
+            sb.append('\n').append(intf.getName());
+        }
+        for (ProxyMethod pm : methods) {
+            sb.append('\n').append(pm.name).append(pm.descriptor());
+            for (Class<?> ex : pm.exceptionTypes) {
+                sb.append(' ').append(ex.getName());
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String digest(String key) {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256")
+                                .digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new InternalError(e.toString(), e);
+        }
+        StringBuilder sb = new StringBuilder(32);
+        for (int i = 0; i < 16; i++) {
+            sb.append(Character.forDigit((hash[i] >> 4) & 0xf, 16))
+              .append(Character.forDigit(hash[i] & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the class file stored in a cache entry, or {@code null} if
+     * there is no entry or it was written for a different key.
+     */
+    private byte[] readCacheEntry(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            if (in.readInt() != keyBytes.length) {
+                return null;
+            }
+            byte[] entryKey = new byte[keyBytes.length];
+            in.readFully(entryKey);
+            if (!Arrays.equals(entryKey, keyBytes)) {
+                return null;
+            }
+            int length = in.readInt();
+            if (length <= 0 || length > Files.size(file)) {
+                return null;
+            }
+            byte[] classFile = new byte[length];
+            in.readFully(classFile);
+            return (in.read() == -1) ? classFile : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores a cache entry, writing a temporary file first so that other
+     * processes sharing the directory never see a partial entry.  Failures
+     * are ignored, the cache being only an optimization.
+     */
+    private void writeCacheEntry(Path file, byte[] classFile) {
+        Path tmp = null;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(classFile.length + key.length() + 8);
+            DataOutputStream out = new DataOutputStream(bytes);
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(keyBytes.length);
+            out.write(keyBytes);
+            out.writeInt(classFile.length);
+            out.write(classFile);
+            out.close();
+            tmp = Files.createTempFile(cacheDir, digest, ".tmp");
+            Files.write(tmp, bytes.toByteArray());
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE,
+                       StandardCopyOption.REPLACE_EXISTING);
+            tmp = null;
+        } catch (IOException | RuntimeException e) {
+            // not cached
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the class file of the proxy class.
+     */
+    private byte[] generate() {
+        String className = className().replace('.', '/');
+        String[] interfaceNames = new String[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaceNames[i] = Type.getInternalName(interfaces[i]);
+        }
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(CLASSFILE_VERSION, accessFlags | ACC_SUPER, className, null,
+                 SUPER, interfaceNames);
+        cw.visitField(ACC_PRIVATE | ACC_FINAL, HANDLES, HANDLES_DESC, null, null)
+          .visitEnd();
+
+        MethodVisitor mv = cw.visitMethod(0, "<init>", CTOR_DESC, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKESPECIAL, SUPER, "<init>",
+                           "(Ljava/lang/reflect/InvocationHandler;)V", false);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitFieldInsn(PUTFIELD, className, HANDLES, HANDLES_DESC);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        for (int i = 0; i < methods.size(); i++) {
+            generateMethod(cw, className, methods.get(i), i);
+        }
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * Generates a proxy method that calls
+     * {@code handles[index].invokeExact(this, args...)}.
+     */
+    private static void generateMethod(ClassWriter cw, String className,
+                                       ProxyMethod pm, int index) {
+        String[] exceptions = new String[pm.exceptionTypes.size()];
+        for (int i = 0; i < exceptions.length; i++) {
+            exceptions[i] = Type.getInternalName(pm.exceptionTypes.get(i));
+        }
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_FINAL, pm.name,
+                                          pm.descriptor(), null, exceptions);
+        mv.visitCode();
+
+        List<Class<?>> catchList = computeUniqueCatchList(pm.exceptionTypes);
+        Label start = new Label();
+        Label end = new Label();
+        Label rethrow = new Label();
+        Label wrap = new Label();
+        if (!catchList.isEmpty()) {
+            for (Class<?> ex : catchList) {
+                mv.visitTryCatchBlock(start, end, rethrow,
+                                      Type.getInternalName(ex));
+            }
+            mv.visitTryCatchBlock(start, end, wrap, "java/lang/Throwable");
+        }
+
+        mv.visitLabel(start);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, className, HANDLES, HANDLES_DESC);
+        if (index <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, index);
+        } else if (index <= Short.MAX_VALUE) {
+            mv.visitIntInsn(SIPUSH, index);
+        } else {
+            mv.visitLdcInsn(index);
+        }
+        mv.visitInsn(AALOAD);
+        mv.visitVarInsn(ALOAD, 0);
+        int slot = 1;
+        StringBuilder desc = new StringBuilder("(Ljava/lang/Object;");
+        for (Class<?> p : pm.parameterTypes) {
+            Type t = Type.getType(p);
+            mv.visitVarInsn(t.getOpcode(ILOAD), slot);
+            slot += t.getSize();
+            desc.append(t.getDescriptor());
+        }
+        Type rt = Type.getType(pm.returnType);
+        desc.append(')').append(rt.getDescriptor());
+        mv.visitMethodInsn(INVOKEVIRTUAL, MH, "invokeExact", desc.toString(), false);
+        mv.visitInsn(rt.getOpcode(IRETURN));
+        mv.visitLabel(end);
+
+        if (!catchList.isEmpty()) {
+            mv.visitLabel(rethrow);
+            mv.visitInsn(ATHROW);
+
+            mv.visitLabel(wrap);
+            mv.visitVarInsn(ASTORE, slot);
+            mv.visitTypeInsn(NEW, UTE);
+            mv.visitInsn(DUP);
+            mv.visitVarInsn(ALOAD, slot);
+            mv.visitMethodInsn(INVOKESPECIAL, UTE, "<init>",
+                               "(Ljava/lang/Throwable;)V", false);
+            mv.visitInsn(ATHROW);
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+}
@@ -237,7 +237,14 @@ public class Proxy implements java.io.Serializable {
      * a cache of proxy classes
      */
     private static final WeakCache<ClassLoader, Class<?>[], Class<?>>
-        proxyClassCache = new WeakCache<>(new KeyFactory(), new ProxyClassFactory());
+        proxyClassCache = new WeakCache<>(new KeyFactory(), new ProxyClassFactory(false));
+
+    /**
+     * a cache of proxy classes dispatching to method handles
+     */
+    private static final WeakCache<ClassLoader, Class<?>[], Class<?>>
+        methodHandleProxyClassCache =
+            new WeakCache<>(new KeyFactory(), new ProxyClassFactory(true));
 
     /**
      * the invocation handler for this proxy instance.
@@ -419,6 +426,20 @@ public class Proxy implements java.io.Serializable {
         return proxyClassCache.get(loader, interfaces);
     }
 
+    /**
+     * Generate a proxy class dispatching to the method handles of a
+     * {@link MethodHandleInvocationHandler}.  Must call the
+     * checkProxyAccess method to perform permission checks before
+     * calling this.
+     */
+    private static Class<?> getMethodHandleProxyClass0(ClassLoader loader,
+                                                       Class<?>... interfaces) {
+        if (interfaces.length > 65535) {
+            throw new IllegalArgumentException("interface limit exceeded");
+        }
+        return methodHandleProxyClassCache.get(loader, interfaces);
+    }
+
     /*
      * a key used for proxy class with 0 implemented interfaces
      */
@@ -563,6 +584,13 @@ public class Proxy implements java.io.Serializable {
         // next number to use for generation of unique proxy class names
         private static final AtomicLong nextUniqueNumber = new AtomicLong();
 
+        // whether to generate proxy classes dispatching to method handles
+        private final boolean methodHandleDispatch;
+
+        ProxyClassFactory(boolean methodHandleDispatch) {
+            this.methodHandleDispatch = methodHandleDispatch;
+        }
+
         @Override
         public Class<?> apply(ClassLoader loader, Class<?>[] interfaces) {
 
@@ -627,17 +655,30 @@ public class Proxy implements java.io.Serializable {
                 proxyPkg = ReflectUtil.PROXY_PACKAGE + ".";
             }
 
-            /*
-             * Choose a name for the proxy class to generate.
-             */
-            long num = nextUniqueNumber.getAndIncrement();
-            String proxyName = proxyPkg + proxyClassNamePrefix + num;
+            String proxyName;
+            byte[] proxyClassFile;
+            if (methodHandleDispatch) {
+                /*
+                 * The name is derived from the content of the class, which
+                 * may come from the persistent proxy class cache.
+                 */
+                MethodHandleProxyGenerator gen =
+                    new MethodHandleProxyGenerator(proxyPkg, interfaces, accessFlags);
+                proxyName = gen.className();
+                proxyClassFile = gen.generateClassFile(loader);
+            } else {
+                /*
+                 * Choose a name for the proxy class to generate.
+                 */
+                long num = nextUniqueNumber.getAndIncrement();
+                proxyName = proxyPkg + proxyClassNamePrefix + num;
 
-            /*
-             * Generate the specified proxy class.
-             */
-            byte[] proxyClassFile = ProxyGenerator.generateProxyClass(
-                proxyName, interfaces, accessFlags);
+                /*
+                 * Generate the specified proxy class.
+                 */
+                proxyClassFile = ProxyGenerator.generateProxyClass(
+                    proxyName, interfaces, accessFlags);
+            }
             try {
                 return defineClass0(loader, proxyName,
                                     proxyClassFile, 0, proxyClassFile.length);
@@ -663,6 +704,15 @@ public class Proxy implements java.io.Serializable {
      * {@code IllegalArgumentException} for the same reasons that
      * {@code Proxy.getProxyClass} does.
      *
+     * <p>If {@code h} is a {@link MethodHandleInvocationHandler}, the
+     * proxy instance belongs to a proxy class whose methods invoke the
+     * method handles supplied by {@code h} directly rather than calling
+     * {@link InvocationHandler#invoke invoke}.  Such a proxy class is
+     * distinct from the one returned by {@code getProxyClass} for the
+     * same class loader and interfaces.  In that case this method also
+     * throws {@code IllegalArgumentException} if a method handle supplied
+     * by {@code h} cannot be adapted to the type of its method.
+     *
      * @param   loader the class loader to define the proxy class
      * @param   interfaces the list of interfaces for the proxy class
      *          to implement
@@ -713,6 +763,15 @@ public class Proxy implements java.io.Serializable {
             checkProxyAccess(Reflection.getCallerClass(), loader, intfs);
         }
 
+        if (h instanceof MethodHandleInvocationHandler) {
+            Class<?> cl = getMethodHandleProxyClass0(loader, intfs);
+            if (sm != null) {
+                checkNewProxyPermission(Reflection.getCallerClass(), cl);
+            }
+            return MethodHandleProxyGenerator.newInstance(
+                cl, (MethodHandleInvocationHandler) h);
+        }
+
         /*
          * Look up or generate the designated proxy class.
          */
@@ -788,7 +847,9 @@ public class Proxy implements java.io.Serializable {
      * @throws  NullPointerException if {@code cl} is {@code null}
      */
     public static boolean isProxyClass(Class<?> cl) {
-        return Proxy.class.isAssignableFrom(cl) && proxyClassCache.containsValue(cl);
+        return Proxy.class.isAssignableFrom(cl) &&
+            (proxyClassCache.containsValue(cl) ||
+             methodHandleProxyClassCache.containsValue(cl));
     }
 
     /**
@@ -0,0 +1,428 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import sun.misc.Resource;
+import sun.misc.URLClassPath;
+import sun.net.www.ParseUtil;
+import sun.security.action.GetPropertyAction;
+
+/**
+ * An index of the packages contained in the JAR files of a
+ * {@code URLClassLoader} search path, so that a class or resource lookup
+ * opens and probes only the JAR files that contain its package instead of
+ * every JAR file ahead of it on the search path.
+ *
+ * <p>The index is used only if the system property
+ * {@code jdk.net.URLClassLoader.indexDir} names a directory, in which the
+ * index of each search path is persisted.  It is built on first use by
+ * listing the entries of every JAR file, and read back by later runs.
+ * Each JAR file is recorded with its size and modification time; a JAR
+ * file that no longer matches its record is listed again and the index
+ * file is rewritten.
+ *
+ * <p>The index only applies to search paths consisting solely of local
+ * JAR files whose manifests have no {@code Class-Path} attribute and that
+ * contain no {@code META-INF/INDEX.LIST}, since such JAR files extend the
+ * search path in ways a package index cannot order.  For these search
+ * paths a lookup in the JAR files of a package, in search path order,
+ * finds the same class or resource as a lookup along the whole path.
+ */
+final class ClassPathIndex {
+
+    private static final int MAGIC = 0xCAFE1DC5;
+    private static final int VERSION = 1;
+
+    /** the directory holding the index files, or null if disabled */
+    private static final File indexDir;
+    static {
+        String dir = AccessController.doPrivileged(
+            new GetPropertyAction("jdk.net.URLClassLoader.indexDir"));
+        indexDir = (dir == null || dir.isEmpty()) ? null : new File(dir);
+    }
+
+    private final URL[] urls;
+    private final URLStreamHandlerFactory factory;
+
+    /** package ("a/b/", or "" for the unnamed package) to JAR positions */
+    private final Map<String, int[]> packages;
+
+    /** single JAR search paths, created as the JAR files are needed */
+    private final URLClassPath[] loaders;
+
+    private boolean closed;
+
+    private ClassPathIndex(URL[] urls, URLStreamHandlerFactory factory,
+                           Map<String, int[]> packages) {
+        this.urls = urls;
+        this.factory = factory;
+        this.packages = packages;
+        this.loaders = new URLClassPath[urls.length];
+    }
+
+    /**
+     * Returns the index for the given search path, building or updating
+     * its index file as needed, or {@code null} if the index is disabled
+     * or does not apply to the search path.
+     */
+    static ClassPathIndex forURLs(final URL[] urls,
+                                  final URLStreamHandlerFactory factory) {
+        if (indexDir == null || urls.length == 0) {
+            return null;
+        }
+        return AccessController.doPrivileged(
+            new PrivilegedAction<ClassPathIndex>() {
+                public ClassPathIndex run() {
+                    return build(urls, factory);
+                }
+            });
+    }
+
+    private static ClassPathIndex build(URL[] urls,
+                                        URLStreamHandlerFactory factory) {
+        File[] jars = new File[urls.length];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < urls.length; i++) {
+            URL url = urls[i];
+            if (url == null || !"file".equals(url.getProtocol()) ||
+                url.getFile().endsWith("/") || url.getRef() != null) {
+                return null;
+            }
+            File jar = new File(ParseUtil.decode(url.getFile()));
+            if (!jar.isFile()) {
+                return null;
+            }
+            jars[i] = jar;
+            sb.append(jar.getPath()).append(File.pathSeparatorChar);
+        }
+        File indexFile = new File(indexDir,
+            "classpath-" + Integer.toHexString(sb.toString().hashCode()) + ".idx");
+
+        Map<String, JarRecord> records = read(indexFile);
+        boolean changed = false;
+        JarRecord[] current = new JarRecord[jars.length];
+        for (int i = 0; i < jars.length; i++) {
+            File jar = jars[i];
+            JarRecord r = records.get(jar.getPath());
+            if (r == null || r.length != jar.length() ||
+                r.lastModified != jar.lastModified()) {
+                r = JarRecord.scan(jar);
+                if (r == null) {
+                    return null;
+                }
+                records.put(jar.getPath(), r);
+                changed = true;
+            }
+            current[i] = r;
+        }
+        if (changed) {
+            write(indexFile, current);
+        }
+        for (JarRecord r : current) {
+            if (!r.indexable) {
+                return null;
+            }
+        }
+
+        Map<String, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < current.length; i++) {
+            for (String pkg : current[i].packages) {
+                List<Integer> list = positions.get(pkg);
+                if (list == null) {
+                    positions.put(pkg, list = new ArrayList<>(1));
+                }
+                list.add(i);
+            }
+        }
+        Map<String, int[]> packages = new HashMap<>(positions.size() * 4 / 3 + 1);
+        for (Map.Entry<String, List<Integer>> e : positions.entrySet()) {
+            List<Integer> list = e.getValue();
+            int[] a = new int[list.size()];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = list.get(i);
+            }
+            packages.put(e.getKey(), a);
+        }
+        return new ClassPathIndex(urls.clone(), factory, packages);
+    }
+
+    /**
+     * The indexed content of one JAR file.
+     */
+    private static final class JarRecord {
+        final String path;
+        final long length;
+        final long lastModified;
+        final boolean indexable;
+        final String[] packages;
+
+        JarRecord(String path, long length, long lastModified,
+                  boolean indexable, String[] packages) {
+            this.path = path;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.indexable = indexable;
+            this.packages = packages;
+        }
+
+        /**
+         * Lists the packages of a JAR file, or returns {@code null} if it
+         * cannot be read.
+         */
+        static JarRecord scan(File jar) {
+            long length = jar.length();
+            long lastModified = jar.lastModified();
+            try (JarFile jf = new JarFile(jar, false)) {
+                boolean indexable = jf.getEntry("META-INF/INDEX.LIST") == null;
+                Manifest man = jf.getManifest();
+                if (man != null && man.getMainAttributes()
+                        .getValue(Attributes.Name.CLASS_PATH) != null) {
+                    indexable = false;
+                }
+                Set<String> packages = new LinkedHashSet<>();
+                Enumeration<JarEntry> entries = jf.entries();
+                while (entries.hasMoreElements()) {
+                    packages.add(packageOf(entries.nextElement().getName()));
+                }
+                return new JarRecord(jar.getPath(), length, lastModified,
+                    indexable, packages.toArray(new String[packages.size()]));
+            } catch (IOException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Returns the package part of a resource name, including its trailing
+     * slash.
+     */
+    private static String packageOf(String name) {
+        return name.substring(0, name.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Reads the records of an index file, returning an empty map if it is
+     * missing or cannot be read.
+     */
+    private static Map<String, JarRecord> read(File indexFile) {
+        Map<String, JarRecord> records = new HashMap<>();
+        if (!indexFile.isFile()) {
+            return records;
+        }
+        try (DataInputStream in = new DataInputStream(
+                 new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return records;
+            }
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                String path = in.readUTF();
+                long length = in.readLong();
+                long lastModified = in.readLong();
+                boolean indexable = in.readBoolean();
+                String[] packages = new String[in.readInt()];
+                for (int j = 0; j < packages.length; j++) {
+                    packages[j] = in.readUTF();
+                }
+                records.put(path, new JarRecord(path, length, lastModified,
+                                                indexable, packages));
+            }
+        } catch (IOException | RuntimeException e) {
+            records.clear();
+        }
+        return records;
+    }
+
+    /**
+     * Writes an index file through a temporary file, so that concurrent
+     * readers never see a partial index.  Failures are ignored, the index
+     * then being rebuilt by the next run.
+     */
+    private static void write(File indexFile, JarRecord[] records) {
+        File tmp = null;
+        try {
+            tmp = File.createTempFile("classpath", ".tmp", indexDir);
+            try (DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(records.length);
+                for (JarRecord r : records) {
+                    out.writeUTF(r.path);
+                    out.writeLong(r.length);
+                    out.writeLong(r.lastModified);
+                    out.writeBoolean(r.indexable);
+                    out.writeInt(r.packages.length);
+                    for (String pkg : r.packages) {
+                        out.writeUTF(pkg);
+                    }
+                }
+            }
+            if (tmp.renameTo(indexFile) ||
+                (indexFile.delete() && tmp.renameTo(indexFile))) {
+                tmp = null;
+            }
+        } catch (IOException | RuntimeException e) {
+            // not persisted
+        } finally {
+            if (tmp != null) {
+                tmp.delete();
+            }
+        }
+    }
+
+    /**
+     * Returns the search path of the JAR file at the given position.
+     */
+    private synchronized URLClassPath loader(int index) {
+        if (closed) {
+            return null;
+        }
+        URLClassPath ucp = loaders[index];
+        if (ucp == null) {
+            ucp = new URLClassPath(new URL[] { urls[index] }, factory);
+            loaders[index] = ucp;
+        }
+        return ucp;
+    }
+
+    /**
+     * Finds the first resource with the given name, probing only the JAR
+     * files containing its package.
+     */
+    Resource getResource(String name, boolean check) {
+        int[] jars = packages.get(packageOf(name));
+        if (jars != null) {
+            for (int index : jars) {
+                URLClassPath ucp = loader(index);
+                if (ucp == null) {
+                    return null;
+                }
+                Resource res = ucp.getResource(name, check);
+                if (res != null) {
+                    return res;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the URL of the first resource with the given name.
+     */
+    URL findResource(String name, boolean check) {
+        int[] jars = packages.get(packageOf(name));
+        if (jars != null) {
+            for (int index : jars) {
+                URLClassPath ucp = loader(index);
+                if (ucp == null) {
+                    return null;
+                }
+                URL url = ucp.findResource(name, check);
+                if (url != null) {
+                    return url;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the URLs of all resources with the given name, in search
+     * path order.
+     */
+    Enumeration<URL> findResources(final String name, final boolean check) {
+        final int[] jars = packages.get(packageOf(name));
+        if (jars == null) {
+            return Collections.emptyEnumeration();
+        }
+        return new Enumeration<URL>() {
+            private int next = 0;
+            private URL url = null;
+
+            private boolean next() {
+                while (url == null && next < jars.length) {
+                    URLClassPath ucp = loader(jars[next++]);
+                    if (ucp == null) {
+                        return false;
+                    }
+                    url = ucp.findResource(name, check);
+                }
+                return url != null;
+            }
+
+            public boolean hasMoreElements() {
+                return next();
+            }
+
+            public URL nextElement() {
+                if (!next()) {
+                    throw new NoSuchElementException();
+                }
+                URL u = url;
+                url = null;
+                return u;
+            }
+        };
+    }
+
+    /**
+     * Closes the JAR files opened through this index.
+     */
+    synchronized List<IOException> close() {
+        List<IOException> errors = new ArrayList<>();
+        if (!closed) {
+            closed = true;
+            for (URLClassPath ucp : loaders) {
+                if (ucp != null) {
+                    errors.addAll(ucp.closeLoaders());
+                }
+            }
+        }
+        return errors;
+    }
+}
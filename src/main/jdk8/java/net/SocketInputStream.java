@@ -279,11 +279,6 @@ class SocketInputStream extends FileInputStream
         this.eof = eof;
     }
 
-    /**
-     * Overrides finalize, the fd is closed by the Socket.
-     */
-    protected void finalize() {}
-
     /**
      * Perform class load-time initializations.
      */
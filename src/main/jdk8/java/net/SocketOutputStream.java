@@ -170,11 +170,6 @@ class SocketOutputStream extends FileOutputStream
         closing = false;
     }
 
-    /**
-     * Overrides finalize, the fd is closed by the Socket.
-     */
-    protected void finalize() {}
-
     /**
      * Perform class load-time initializations.
      */
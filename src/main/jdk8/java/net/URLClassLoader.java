@@ -77,6 +77,17 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
     /* The context to be used when loading classes and resources */
     private final AccessControlContext acc;
 
+    /* The factory for the URL stream handlers of the search path, if any */
+    private final URLStreamHandlerFactory factory;
+
+    /* The package index of the search path, built on first use */
+    private volatile ClassPathIndex index;
+
+    /* Set if the search path has no index, or no longer matches it */
+    private volatile boolean indexDisabled;
+
+    private final Object indexLock = new Object();
+
     /**
      * Constructs a new URLClassLoader for the given URLs. The URLs will be
      * searched in the order specified for classes and resources after first
@@ -105,6 +116,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
         }
         ucp = new URLClassPath(urls);
         this.acc = AccessController.getContext();
+        this.factory = null;
     }
 
     URLClassLoader(URL[] urls, ClassLoader parent,
@@ -117,6 +129,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
         }
         ucp = new URLClassPath(urls);
         this.acc = acc;
+        this.factory = null;
     }
 
     /**
@@ -149,6 +162,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
         }
         ucp = new URLClassPath(urls);
         this.acc = AccessController.getContext();
+        this.factory = null;
     }
 
     URLClassLoader(URL[] urls, AccessControlContext acc) {
@@ -160,6 +174,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
         }
         ucp = new URLClassPath(urls);
         this.acc = acc;
+        this.factory = null;
     }
 
     /**
@@ -193,6 +208,7 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
         }
         ucp = new URLClassPath(urls, factory);
         acc = AccessController.getContext();
+        this.factory = factory;
     }
 
     /* A map (used as a set) to keep track of closeable local resources
@@ -289,6 +305,12 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
             security.checkPermission(new RuntimePermission("closeClassLoader"));
         }
         List<IOException> errors = ucp.closeLoaders();
+        synchronized (indexLock) {
+            indexDisabled = true;
+            if (index != null) {
+                errors.addAll(index.close());
+            }
+        }
 
         // now close any remaining streams.
 
@@ -329,9 +351,38 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
      * @param url the URL to be added to the search path of URLs
      */
     protected void addURL(URL url) {
+        indexDisabled = true;
         ucp.addURL(url);
     }
 
+    /**
+     * Returns the package index of the search path, or {@code null} if
+     * there is none.
+     */
+    private ClassPathIndex index() {
+        if (indexDisabled) {
+            return null;
+        }
+        ClassPathIndex cpi = index;
+        if (cpi == null) {
+            synchronized (indexLock) {
+                if (indexDisabled) {
+                    return null;
+                }
+                cpi = index;
+                if (cpi == null) {
+                    cpi = ClassPathIndex.forURLs(ucp.getURLs(), factory);
+                    if (cpi == null) {
+                        indexDisabled = true;
+                    } else {
+                        index = cpi;
+                    }
+                }
+            }
+        }
+        return cpi;
+    }
+
     /**
      * Returns the search path of URLs for loading classes and resources.
      * This includes the original list of URLs specified to the constructor,
@@ -362,7 +413,10 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
                 new PrivilegedExceptionAction<Class<?>>() {
                     public Class<?> run() throws ClassNotFoundException {
                         String path = name.replace('.', '/').concat(".class");
-                        Resource res = ucp.getResource(path, false);
+                        ClassPathIndex cpi = index();
+                        Resource res = (cpi != null)
+                            ? cpi.getResource(path, false)
+                            : ucp.getResource(path, false);
                         if (res != null) {
                             try {
                                 return defineClass(name, res);
@@ -566,7 +620,10 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
         URL url = AccessController.doPrivileged(
             new PrivilegedAction<URL>() {
                 public URL run() {
-                    return ucp.findResource(name, true);
+                    ClassPathIndex cpi = index();
+                    return (cpi != null)
+                        ? cpi.findResource(name, true)
+                        : ucp.findResource(name, true);
                 }
             }, acc);
 
@@ -585,7 +642,10 @@ public class URLClassLoader extends SecureClassLoader implements Closeable {
     public Enumeration<URL> findResources(final String name)
         throws IOException
     {
-        final Enumeration<URL> e = ucp.findResources(name, true);
+        ClassPathIndex cpi = index();
+        final Enumeration<URL> e = (cpi != null)
+            ? cpi.findResources(name, true)
+            : ucp.findResources(name, true);
 
         return new Enumeration<URL>() {
             private URL url = null;
@@ -0,0 +1,291 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.nio.file;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A file-based lines spliterator, leveraging a shared mapping of the file
+ * into memory, for splitting and for reading lines.
+ *
+ * <p>The spliterator covers a range of bytes of the file.  Splitting picks
+ * the midpoint of the range and moves it to the nearest line terminator,
+ * so that each half covers whole lines and the halves are of near-equal
+ * size, unlike the batch-wise splitting of {@link BufferedReader#lines()}
+ * which only grows arithmetically.  Once traversal starts, the bytes of
+ * the range are decoded lazily, line by line, through a
+ * {@code BufferedReader} reading directly from the mapped regions.
+ *
+ * <p>Splitting by byte position is only correct for character sets in
+ * which the bytes of the line feed and carriage return characters never
+ * occur as part of the encoding of another character.  This is the case
+ * for the charsets in {@link #SUPPORTED_CHARSET_NAMES}.
+ *
+ * <p>The file is mapped lazily in read-only regions of at most
+ * {@link #REGION_SIZE} bytes, shared by all spliterators split from the
+ * same root, so files larger than a single {@code MappedByteBuffer} can
+ * address are supported.  The mappings are released when they become
+ * unreachable.
+ *
+ * <p>Note: if the file is modified while it is being traversed, the
+ * results are undefined.
+ */
+final class FileChannelLinesSpliterator implements Spliterator<String> {
+
+    static final Set<String> SUPPORTED_CHARSET_NAMES;
+    static {
+        SUPPORTED_CHARSET_NAMES = new HashSet<>();
+        SUPPORTED_CHARSET_NAMES.add(StandardCharsets.UTF_8.name());
+        SUPPORTED_CHARSET_NAMES.add(StandardCharsets.ISO_8859_1.name());
+        SUPPORTED_CHARSET_NAMES.add(StandardCharsets.US_ASCII.name());
+    }
+
+    /**
+     * The size of each mapped region of the file; a power of two so that
+     * a file position is split into region number and offset by shifting.
+     */
+    static final int REGION_SHIFT = 30;
+    static final int REGION_SIZE = 1 << REGION_SHIFT;
+
+    private final FileChannel fc;
+    private final Charset cs;
+    private final Regions regions;
+    private long index;
+    private final long fence;
+
+    // Non-null when traversing
+    private BufferedReader reader;
+
+    FileChannelLinesSpliterator(FileChannel fc, Charset cs, long index, long fence) {
+        this(fc, cs, index, fence, new Regions(fc, fence));
+    }
+
+    private FileChannelLinesSpliterator(FileChannel fc, Charset cs,
+                                        long index, long fence, Regions regions) {
+        this.fc = fc;
+        this.cs = cs;
+        this.index = index;
+        this.fence = fence;
+        this.regions = regions;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        String line = readLine();
+        if (line != null) {
+            action.accept(line);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        String line;
+        while ((line = readLine()) != null) {
+            action.accept(line);
+        }
+    }
+
+    private BufferedReader getBufferedReader() {
+        // A readable byte channel that reads the bytes of this
+        // spliterator's range from the mapped regions, advancing the index
+        ReadableByteChannel rrbc = new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                long pos = index;
+                if (pos >= fence)
+                    return -1;
+                int offset = (int) (pos & (REGION_SIZE - 1));
+                ByteBuffer src = regions.region(pos).duplicate();
+                long available = Math.min((long) src.limit() - offset, fence - pos);
+                int n = (int) Math.min(available, dst.remaining());
+                src.limit(offset + n).position(offset);
+                dst.put(src);
+                index = pos + n;
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return fc.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                fc.close();
+            }
+        };
+        return new BufferedReader(Channels.newReader(rrbc, cs.newDecoder(), -1));
+    }
+
+    private String readLine() {
+        if (reader == null) {
+            reader = getBufferedReader();
+        }
+
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        // Cannot split after partial traverse
+        if (reader != null)
+            return null;
+
+        final long hi = fence, lo = index;
+
+        // Check if line separator hits the mid point
+        long mid = (lo + hi) >>> 1;
+        if (mid <= lo)
+            return null;
+        int c = regions.get(mid);
+        if (c == '\n') {
+            mid++;
+        } else if (c == '\r') {
+            // Check if line separator is "\r\n"
+            if (++mid < hi && regions.get(mid) == '\n') {
+                mid++;
+            }
+        } else {
+            // Scan outwards from the mid point for the nearest line
+            // separator, alternating left and right
+            long midL = mid - 1;
+            long midR = mid + 1;
+            mid = 0;
+            while (midL > lo && midR < hi) {
+                // Sample to the left
+                c = regions.get(midL--);
+                if (c == '\n' || c == '\r') {
+                    // If c is "\r" then no need to check for "\r\n"
+                    // since the subsequent value was previously checked
+                    mid = midL + 2;
+                    break;
+                }
+
+                // Sample to the right
+                c = regions.get(midR++);
+                if (c == '\n' || c == '\r') {
+                    mid = midR;
+                    // Check if line separator is "\r\n"
+                    if (c == '\r' && mid < hi && regions.get(mid) == '\n') {
+                        mid++;
+                    }
+                    break;
+                }
+            }
+        }
+
+        // The left spliterator will have the line-separator at the end
+        return (mid > lo && mid < hi)
+               ? new FileChannelLinesSpliterator(fc, cs, lo, index = mid, regions)
+               : null;
+    }
+
+    @Override
+    public long estimateSize() {
+        // Use the number of bytes as an estimate.
+        // We could divide by a constant that is the average number of
+        // characters per-line, but that constant will be factored out.
+        return fence - index;
+    }
+
+    @Override
+    public long getExactSizeIfKnown() {
+        return -1;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.ORDERED | Spliterator.NONNULL;
+    }
+
+    /**
+     * The lazily mapped regions of a file, shared between a spliterator
+     * and all spliterators split from it.
+     */
+    static final class Regions {
+        private final FileChannel fc;
+        private final long size;
+        private final AtomicReferenceArray<MappedByteBuffer> buffers;
+
+        Regions(FileChannel fc, long size) {
+            long n = (size + REGION_SIZE - 1) >>> REGION_SHIFT;
+            this.fc = fc;
+            this.size = size;
+            this.buffers = new AtomicReferenceArray<>((int) n);
+        }
+
+        /**
+         * Returns the mapped region containing the given file position,
+         * mapping it on first use.  A region that is already mapped is
+         * read without locking; only mapping is serialized, so that each
+         * region is mapped once.
+         */
+        MappedByteBuffer region(long pos) {
+            int i = (int) (pos >>> REGION_SHIFT);
+            MappedByteBuffer b = buffers.get(i);
+            return (b != null) ? b : map(i);
+        }
+
+        private synchronized MappedByteBuffer map(int i) {
+            MappedByteBuffer b = buffers.get(i);
+            if (b == null) {
+                long start = (long) i << REGION_SHIFT;
+                try {
+                    b = fc.map(FileChannel.MapMode.READ_ONLY, start,
+                               Math.min(REGION_SIZE, size - start));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                buffers.set(i, b);
+            }
+            return b;
+        }
+
+        /** Returns the byte at the given file position. */
+        byte get(long pos) {
+            return region(pos).get((int) (pos & (REGION_SIZE - 1)));
+        }
+    }
+}
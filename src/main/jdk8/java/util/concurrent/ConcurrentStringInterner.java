@@ -0,0 +1,516 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+package java.util.concurrent;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.Charset;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe pool of canonical strings, holding its strings weakly.
+ * Like {@link String#intern}, method {@link #intern(String)} returns,
+ * for any string, the string held by the pool that is {@link
+ * String#equals equal} to it, adding the string to the pool if there is
+ * none.  Unlike {@code String.intern}, the pool does not prevent its
+ * strings from being garbage collected: once a canonical string is no
+ * longer otherwise reachable, it is cleared from the pool, and a later
+ * request for an equal string makes that string canonical instead.
+ * Separate pools are independent.
+ *
+ * <p>Strings may also be interned from a {@link CharSequence}, a range of
+ * a {@code char} array, or a range of a {@code byte} array in a given
+ * {@link Charset}, in which case a new string is created only if the pool
+ * holds no equal string.  This makes the pool suitable for deduplicating
+ * strings read by parsers and decoders, which can look up their input in
+ * place.
+ *
+ * <p>The pool is divided into segments, selected by the hash code of a
+ * string, each a hash table guarded by its own lock and resized
+ * independently.  Lookups of strings already in the pool do not lock.
+ * Cleared strings are removed by the next update of their segment.
+ * Methods {@link #hitCount} and {@link #missCount} report how many
+ * requests found a string in the pool and how many added one, and
+ * {@link #size} estimates the number of strings held.
+ *
+ * <p>This class does not permit {@code null} strings.
+ *
+ * @since 9
+ */
+public class ConcurrentStringInterner {
+
+    /*
+     * Each segment is an open hash table of weak references to strings,
+     * chained through volatile next fields, in an AtomicReferenceArray
+     * so that new chain heads are safely published to unlocked readers.
+     * Updates, which lock the segment, first expunge entries that have
+     * been cleared by the garbage collector and enqueued on the
+     * segment's reference queue, unlinking them in place.  Readers
+     * skip cleared entries, and may traverse unlinked entries, whose
+     * next fields are left intact.  Resizing builds new entries in a
+     * new table, so readers of the old table are unaffected; cleared
+     * entries of an old table are enqueued as well, and are ignored.
+     *
+     * Entries are keyed by String.hashCode, which every source of chars
+     * can compute without creating a string, and which strings cache.
+     */
+
+    /** The default initial capacity of the pool. */
+    static final int DEFAULT_INITIAL_CAPACITY = 256;
+
+    /** The default number of segments. */
+    static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /** The maximum number of segments. */
+    static final int MAX_SEGMENTS = 1 << 16;
+
+    /** The minimum capacity of a segment's table. */
+    static final int MIN_SEGMENT_TABLE_CAPACITY = 2;
+
+    /** The maximum capacity of a segment's table. */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    // Kinds of sources of chars to look up
+    static final int STRING = 0;  // a String
+    static final int SEQ    = 1;  // a range of a CharSequence
+    static final int CHARS  = 2;  // a range of a char[]
+    static final int LATIN1 = 3;  // a range of a byte[], one char per byte
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final int segmentMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a new, empty pool with a default initial capacity (256)
+     * and concurrency level (16).
+     */
+    public ConcurrentStringInterner() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates a new, empty pool with the given initial capacity and
+     * concurrency level.
+     *
+     * @param initialCapacity the number of strings the pool can hold
+     *        before resizing
+     * @param concurrencyLevel the estimated number of concurrently
+     *        updating threads, used as the number of segments
+     * @throws IllegalArgumentException if the initial capacity is
+     *         negative or the concurrency level is not positive
+     */
+    public ConcurrentStringInterner(int initialCapacity, int concurrencyLevel) {
+        if (initialCapacity < 0 || concurrencyLevel <= 0)
+            throw new IllegalArgumentException();
+        if (concurrencyLevel > MAX_SEGMENTS)
+            concurrencyLevel = MAX_SEGMENTS;
+        int sshift = 0;
+        int ssize = 1;
+        while (ssize < concurrencyLevel) {
+            ++sshift;
+            ssize <<= 1;
+        }
+        this.segmentShift = 32 - sshift;
+        this.segmentMask = ssize - 1;
+        if (initialCapacity > MAXIMUM_CAPACITY)
+            initialCapacity = MAXIMUM_CAPACITY;
+        int c = initialCapacity / ssize;
+        if (c * ssize < initialCapacity)
+            ++c;
+        int cap = MIN_SEGMENT_TABLE_CAPACITY;
+        while (cap < c)
+            cap <<= 1;
+        // Size tables so that c strings fit below the load factor
+        if (cap < MAXIMUM_CAPACITY && c > (cap >>> 1) + (cap >>> 2))
+            cap <<= 1;
+        Segment[] ss = new Segment[ssize];
+        for (int i = 0; i < ssize; i++)
+            ss[i] = new Segment(cap);
+        this.segments = ss;
+    }
+
+    /**
+     * Returns the canonical string equal to the given string, which
+     * becomes canonical if the pool holds no equal string.
+     *
+     * @param s a string
+     * @return the canonical string equal to {@code s}
+     * @throws NullPointerException if {@code s} is null
+     */
+    public String intern(String s) {
+        return intern(s.hashCode(), STRING, s, 0, s.length());
+    }
+
+    /**
+     * Returns the canonical string with the contents of the given
+     * character sequence, creating it if the pool holds no such string.
+     *
+     * @param cs a character sequence
+     * @return the canonical string equal to {@code cs.toString()}
+     * @throws NullPointerException if {@code cs} is null
+     */
+    public String intern(CharSequence cs) {
+        if (cs instanceof String)
+            return intern((String) cs);
+        return intern(cs, 0, cs.length());
+    }
+
+    /**
+     * Returns the canonical string with the contents of the given range
+     * of a character sequence, creating it if the pool holds no such
+     * string.
+     *
+     * @param cs a character sequence
+     * @param start the index of the first char of the range
+     * @param end the index after the last char of the range
+     * @return the canonical string equal to
+     *         {@code cs.subSequence(start, end).toString()}
+     * @throws NullPointerException if {@code cs} is null
+     * @throws IndexOutOfBoundsException if {@code start} or {@code end}
+     *         is negative, {@code start} is greater than {@code end}, or
+     *         {@code end} is greater than {@code cs.length()}
+     */
+    public String intern(CharSequence cs, int start, int end) {
+        if (start < 0 || start > end || end > cs.length())
+            throw new IndexOutOfBoundsException(
+                "start " + start + ", end " + end + ", length " + cs.length());
+        int h = 0;
+        for (int i = start; i < end; i++)
+            h = 31 * h + cs.charAt(i);
+        return intern(h, SEQ, cs, start, end - start);
+    }
+
+    /**
+     * Returns the canonical string with the contents of the given range
+     * of a char array, creating it if the pool holds no such string.
+     *
+     * @param chars a char array
+     * @param offset the index of the first char of the range
+     * @param count the number of chars in the range
+     * @return the canonical string equal to
+     *         {@code new String(chars, offset, count)}
+     * @throws NullPointerException if {@code chars} is null
+     * @throws IndexOutOfBoundsException if {@code offset} or {@code count}
+     *         is negative, or {@code offset + count} is greater than
+     *         {@code chars.length}
+     */
+    public String intern(char[] chars, int offset, int count) {
+        checkRange(chars.length, offset, count);
+        int h = 0;
+        for (int i = offset, end = offset + count; i < end; i++)
+            h = 31 * h + chars[i];
+        return intern(h, CHARS, chars, offset, count);
+    }
+
+    /**
+     * Returns the canonical string with the contents of the given range
+     * of a byte array decoded by the given charset, creating it if the pool
+     * holds no such string.  Bytes are decoded as by {@link
+     * String#String(byte[], int, int, Charset)}.  The bytes are looked up
+     * in place, without decoding, if the charset is ISO-8859-1, or if it is
+     * UTF-8 or US-ASCII and they are all ASCII; otherwise a string is
+     * decoded first, and then interned.
+     *
+     * @param bytes a byte array
+     * @param offset the index of the first byte of the range
+     * @param length the number of bytes in the range
+     * @param charset the charset of the bytes
+     * @return the canonical string equal to
+     *         {@code new String(bytes, offset, length, charset)}
+     * @throws NullPointerException if {@code bytes} or {@code charset}
+     *         is null
+     * @throws IndexOutOfBoundsException if {@code offset} or
+     *         {@code length} is negative, or {@code offset + length} is
+     *         greater than {@code bytes.length}
+     */
+    public String intern(byte[] bytes, int offset, int length, Charset charset) {
+        checkRange(bytes.length, offset, length);
+        String name = charset.name();
+        boolean latin1 = name.equals("ISO-8859-1");
+        boolean ascii = latin1 || name.equals("UTF-8") || name.equals("US-ASCII");
+        int h = 0;
+        for (int i = offset, end = offset + length; ascii && i < end; i++) {
+            int b = bytes[i];
+            if (b < 0 && !latin1)
+                ascii = false;
+            h = 31 * h + (b & 0xff);
+        }
+        if (!ascii)
+            return intern(new String(bytes, offset, length, charset));
+        return intern(h, LATIN1, bytes, offset, length);
+    }
+
+    /**
+     * Returns an estimate of the number of strings held by the pool,
+     * which may include strings cleared but not yet removed.
+     *
+     * @return the estimated number of strings
+     */
+    public int size() {
+        long n = 0L;
+        for (Segment seg : segments)
+            n += seg.count;
+        return (n >= Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) n;
+    }
+
+    /**
+     * Returns the number of requests that found a canonical string in
+     * the pool.
+     *
+     * @return the number of hits
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of requests that added a canonical string to
+     * the pool.
+     *
+     * @return the number of misses
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns a string identifying this pool, as well as its estimated
+     * size and counts of hits and misses.
+     *
+     * @return a string identifying this pool, as well as its statistics
+     */
+    public String toString() {
+        return super.toString() + "[size = " + size() +
+            ", hits = " + hitCount() + ", misses = " + missCount() + "]";
+    }
+
+    private static void checkRange(int arrayLength, int offset, int count) {
+        if (offset < 0 || count < 0 || offset > arrayLength - count)
+            throw new IndexOutOfBoundsException(
+                "offset " + offset + ", count " + count + ", length " + arrayLength);
+    }
+
+    /**
+     * Spreads the bits of a string hash code, so that segments, selected
+     * by high bits, and buckets, selected by low bits, both depend on all
+     * of its bits.  Hash codes of short strings have few significant
+     * bits, so they are first multiplied by the golden ratio, which
+     * carries low bits up.
+     */
+    static int spread(int h) {
+        h *= 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    private String intern(int h, int kind, Object src, int off, int len) {
+        int hash = spread(h);
+        Segment seg = segments[(hash >>> segmentShift) & segmentMask];
+        String s = seg.get(h, hash, kind, src, off, len);
+        if (s != null) {
+            hits.increment();
+            return s;
+        }
+        return seg.put(this, h, hash, kind, src, off, len);
+    }
+
+    /**
+     * Returns whether the given string has the contents of the given
+     * source of chars.
+     */
+    static boolean matches(String s, int kind, Object src, int off, int len) {
+        if (s.length() != len)
+            return false;
+        switch (kind) {
+            case STRING:
+                return s.equals(src);
+            case SEQ: {
+                CharSequence cs = (CharSequence) src;
+                for (int i = 0; i < len; i++) {
+                    if (s.charAt(i) != cs.charAt(off + i))
+                        return false;
+                }
+                return true;
+            }
+            case CHARS: {
+                char[] a = (char[]) src;
+                for (int i = 0; i < len; i++) {
+                    if (s.charAt(i) != a[off + i])
+                        return false;
+                }
+                return true;
+            }
+            default: {
+                byte[] a = (byte[]) src;
+                for (int i = 0; i < len; i++) {
+                    if (s.charAt(i) != (char) (a[off + i] & 0xff))
+                        return false;
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Creates a string with the contents of the given source of chars.
+     */
+    @SuppressWarnings("deprecation")
+    static String create(int kind, Object src, int off, int len) {
+        switch (kind) {
+            case STRING:
+                return (String) src;
+            case SEQ:
+                return ((CharSequence) src).subSequence(off, off + len).toString();
+            case CHARS:
+                return new String((char[]) src, off, len);
+            default:
+                return new String((byte[]) src, 0, off, len);
+        }
+    }
+
+    /**
+     * A weak reference to a canonical string, and the hash code of the
+     * string, in a chain of entries.
+     */
+    static final class Entry extends WeakReference<String> {
+        final int hash;
+        volatile Entry next;
+
+        Entry(String s, int hash, Entry next, ReferenceQueue<String> queue) {
+            super(s, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    /**
+     * A hash table of entries, locked for updates.  The count is that of
+     * entries in the current table, including cleared ones not yet
+     * expunged.
+     */
+    @SuppressWarnings("serial")
+    static final class Segment extends ReentrantLock {
+        final ReferenceQueue<String> queue = new ReferenceQueue<>();
+        volatile AtomicReferenceArray<Entry> table;
+        volatile int count;
+        int threshold;
+
+        Segment(int capacity) {
+            table = new AtomicReferenceArray<>(capacity);
+            threshold = (capacity >>> 1) + (capacity >>> 2);
+        }
+
+        String get(int h, int hash, int kind, Object src, int off, int len) {
+            AtomicReferenceArray<Entry> tab = table;
+            for (Entry e = tab.get(hash & (tab.length() - 1)); e != null; e = e.next) {
+                String s;
+                if (e.hash == h && (s = e.get()) != null &&
+                    matches(s, kind, src, off, len))
+                    return s;
+            }
+            return null;
+        }
+
+        String put(ConcurrentStringInterner pool,
+                   int h, int hash, int kind, Object src, int off, int len) {
+            lock();
+            try {
+                expunge();
+                String s = get(h, hash, kind, src, off, len);
+                if (s != null) {
+                    pool.hits.increment();
+                    return s;
+                }
+                s = create(kind, src, off, len);
+                if (count >= threshold)
+                    rehash();
+                AtomicReferenceArray<Entry> tab = table;
+                int i = hash & (tab.length() - 1);
+                tab.set(i, new Entry(s, h, tab.get(i), queue));
+                count = count + 1;
+                pool.misses.increment();
+                return s;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Unlinks cleared entries of the current table.
+         */
+        private void expunge() {
+            for (Object r; (r = queue.poll()) != null; ) {
+                Entry x = (Entry) r;
+                AtomicReferenceArray<Entry> tab = table;
+                int i = spread(x.hash) & (tab.length() - 1);
+                Entry pred = null;
+                for (Entry e = tab.get(i); e != null; pred = e, e = e.next) {
+                    if (e == x) {
+                        if (pred == null)
+                            tab.set(i, e.next);
+                        else
+                            pred.next = e.next;
+                        count = count - 1;
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Doubles the capacity of the table, if possible, copying its live
+         * entries into new entries.
+         */
+        private void rehash() {
+            AtomicReferenceArray<Entry> oldTable = table;
+            int oldCapacity = oldTable.length();
+            if (oldCapacity >= MAXIMUM_CAPACITY) {
+                threshold = Integer.MAX_VALUE;
+                return;
+            }
+            int newCapacity = oldCapacity << 1;
+            AtomicReferenceArray<Entry> newTable = new AtomicReferenceArray<>(newCapacity);
+            int n = 0;
+            for (int j = 0; j < oldCapacity; j++) {
+                for (Entry e = oldTable.get(j); e != null; e = e.next) {
+                    String s = e.get();
+                    if (s != null) {
+                        int i = spread(e.hash) & (newCapacity - 1);
+                        newTable.set(i, new Entry(s, e.hash, newTable.get(i), queue));
+                        n++;
+                    }
+                }
+            }
+            threshold = (newCapacity >>> 1) + (newCapacity >>> 2);
+            count = n;
+            table = newTable;
+        }
+    }
+}
@@ -35,6 +35,7 @@
 
 package java.util.concurrent;
 import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.locks.AdaptiveSpinPolicy;
 
 /**
  * A synchronization aid that allows one or more threads to wait until
@@ -165,6 +166,11 @@ public class CountDownLatch {
             setState(count);
         }
 
+        Sync(int count, AdaptiveSpinPolicy spinPolicy) {
+            setState(count);
+            setSpinPolicy(spinPolicy);
+        }
+
         int getCount() {
             return getState();
         }
@@ -200,6 +206,24 @@ public class CountDownLatch {
         this.sync = new Sync(count);
     }
 
+    /**
+     * Constructs a {@code CountDownLatch} initialized with the given
+     * count, whose waiting threads spin according to the given policy
+     * before blocking. Spinning can reduce the latency of {@link
+     * #await} when the count usually reaches zero soon after waiting
+     * begins.
+     *
+     * @param count the number of times {@link #countDown} must be invoked
+     *        before threads can pass through {@link #await}
+     * @param spinPolicy the spin policy, or {@code null} to not spin
+     * @throws IllegalArgumentException if {@code count} is negative
+     * @since 9
+     */
+    public CountDownLatch(int count, AdaptiveSpinPolicy spinPolicy) {
+        if (count < 0) throw new IllegalArgumentException("count < 0");
+        this.sync = new Sync(count, spinPolicy);
+    }
+
     /**
      * Causes the current thread to wait until the latch has counted down to
      * zero, unless the thread is {@linkplain Thread#interrupt interrupted}.
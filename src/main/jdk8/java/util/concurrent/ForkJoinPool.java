@@ -154,6 +154,15 @@ import java.security.Permissions;
  * using a factory that may return {@code null}. However doing so may
  * cause unjoined tasks to never be executed.
  *
+ * <p>Task-level instrumentation, recording per-worker execution and
+ * idle counts, queue residence times and spare thread creation, is
+ * enabled for all pools (including the common pool) constructed after
+ * setting the system property {@code
+ * java.util.concurrent.ForkJoinPool.instrumentation} to {@code true}.
+ * The size of the per-pool event buffer may be set using {@code
+ * java.util.concurrent.ForkJoinPool.instrumentation.eventBufferSize}.
+ * Recorded values are available via {@link #getMXBean}.
+ *
  * <p><b>Implementation notes</b>: This implementation restricts the
  * maximum number of running threads to 32767. Attempts to create
  * pools with greater than the maximum number result in
@@ -812,6 +821,8 @@ public class ForkJoinPool extends AbstractExecutorService {
         volatile Thread parker;    // == owner during call to park; else null
         volatile ForkJoinTask<?> currentJoin;  // task being joined in awaitJoin
         volatile ForkJoinTask<?> currentSteal; // mainly used by helpStealer
+        long[] stamps;             // push times if instrumented, else null
+        ForkJoinPoolMonitor.WorkerStats stats; // null unless instrumented
 
         WorkQueue(ForkJoinPool pool, ForkJoinWorkerThread owner) {
             this.pool = pool;
@@ -861,6 +872,9 @@ public class ForkJoinPool extends AbstractExecutorService {
             int b = base, s = top, n;
             if ((a = array) != null) {    // ignore if queue removed
                 int m = a.length - 1;     // fenced write for task visibility
+                long[] st;
+                if ((st = stamps) != null)
+                    st[(st.length - 1) & s] = System.nanoTime();
                 U.putOrderedObject(a, ((m & s) << ASHIFT) + ABASE, task);
                 U.putOrderedInt(this, QTOP, s + 1);
                 if ((n = s - b) <= 1) {
@@ -883,6 +897,10 @@ public class ForkJoinPool extends AbstractExecutorService {
             if (size > MAXIMUM_QUEUE_CAPACITY)
                 throw new RejectedExecutionException("Queue capacity exceeded");
             int oldMask, t, b;
+            ForkJoinPool p;
+            long[] oldSt = stamps, st = null;
+            if ((p = pool) != null && p.monitor != null)
+                stamps = st = new long[size]; // parallel to array
             ForkJoinTask<?>[] a = array = new ForkJoinTask<?>[size];
             if (oldA != null && (oldMask = oldA.length - 1) >= 0 &&
                 (t = top) - (b = base) > 0) {
@@ -891,6 +909,8 @@ public class ForkJoinPool extends AbstractExecutorService {
                     ForkJoinTask<?> x;
                     int oldj = ((b & oldMask) << ASHIFT) + ABASE;
                     int j    = ((b &    mask) << ASHIFT) + ABASE;
+                    if (st != null && oldSt != null)
+                        st[b & mask] = oldSt[b & (oldSt.length - 1)];
                     x = (ForkJoinTask<?>)U.getObjectVolatile(oldA, oldj);
                     if (x != null &&
                         U.compareAndSwapObject(oldA, oldj, x, null))
@@ -1015,19 +1035,25 @@ public class ForkJoinPool extends AbstractExecutorService {
 
         /**
          * Polls and runs tasks until empty.
+         *
+         * @return the number of tasks run
          */
-        final void pollAndExecAll() {
-            for (ForkJoinTask<?> t; (t = poll()) != null;)
+        final int pollAndExecAll() {
+            int n = 0;
+            for (ForkJoinTask<?> t; (t = poll()) != null; ++n)
                 t.doExec();
+            return n;
         }
 
         /**
          * Removes and executes all local tasks. If LIFO, invokes
          * pollAndExecAll. Otherwise implements a specialized pop loop
          * to exec until empty.
+         *
+         * @return the number of tasks run
          */
-        final void execLocalTasks() {
-            int b = base, m, s;
+        final int execLocalTasks() {
+            int b = base, m, s, n = 0;
             ForkJoinTask<?>[] a = array;
             if (b - (s = top - 1) <= 0 && a != null &&
                 (m = a.length - 1) >= 0) {
@@ -1038,13 +1064,15 @@ public class ForkJoinPool extends AbstractExecutorService {
                             break;
                         U.putOrderedInt(this, QTOP, s);
                         t.doExec();
+                        ++n;
                         if (base - (s = top - 1) > 0)
                             break;
                     }
                 }
                 else
-                    pollAndExecAll();
+                    n = pollAndExecAll();
             }
+            return n;
         }
 
         /**
@@ -1055,7 +1083,10 @@ public class ForkJoinPool extends AbstractExecutorService {
                 scanState &= ~SCANNING; // mark as busy
                 (currentSteal = task).doExec();
                 U.putOrderedObject(this, QCURRENTSTEAL, null); // release for GC
-                execLocalTasks();
+                int n = execLocalTasks();
+                ForkJoinPoolMonitor.WorkerStats ws;
+                if ((ws = stats) != null)
+                    ws.execs += n + 1;
                 ForkJoinWorkerThread thread = owner;
                 if (++nsteals < 0)      // collect on overflow
                     transferStealCount(pool);
@@ -1396,6 +1427,7 @@ public class ForkJoinPool extends AbstractExecutorService {
     final UncaughtExceptionHandler ueh;  // per-worker UEH
     final String workerNamePrefix;       // to create worker name string
     volatile AtomicLong stealCounter;    // also used as sync monitor
+    final ForkJoinPoolMonitor monitor;   // null unless instrumented
 
     /**
      * Acquires the runState lock; returns current (locked) runState.
@@ -1534,6 +1566,8 @@ public class ForkJoinPool extends AbstractExecutorService {
         if ((handler = ueh) != null)
             wt.setUncaughtExceptionHandler(handler);
         WorkQueue w = new WorkQueue(this, wt);
+        if (monitor != null)
+            w.stats = new ForkJoinPoolMonitor.WorkerStats();
         int i = 0;                                    // assign a pool index
         int mode = config & MODE_MASK;
         int rs = lockRunState();
@@ -1593,6 +1627,8 @@ public class ForkJoinPool extends AbstractExecutorService {
         if (w != null) {
             w.qlock = -1;                             // ensure set
             w.transferStealCount(this);
+            if (monitor != null)
+                monitor.retire(w);
             w.cancelAll();                            // cancel remaining tasks
         }
         for (;;) {                                    // possibly replace
@@ -1731,6 +1767,9 @@ public class ForkJoinPool extends AbstractExecutorService {
                                     q.base = b + 1;
                                     if (n < -1)       // signal others
                                         signalWork(ws, q);
+                                    ForkJoinPoolMonitor mon;
+                                    if ((mon = monitor) != null)
+                                        mon.recordTake(w, q, b);
                                     return t;
                                 }
                             }
@@ -1818,11 +1857,15 @@ public class ForkJoinPool extends AbstractExecutorService {
                 else
                     prevctl = parkTime = deadline = 0L;
                 Thread wt = Thread.currentThread();
+                ForkJoinPoolMonitor mon = monitor;
+                long parkStart = (mon == null) ? 0L : System.nanoTime();
                 U.putObject(wt, PARKBLOCKER, this);   // emulate LockSupport
                 w.parker = wt;
                 if (w.scanState < 0 && ctl == c)      // recheck before park
                     U.park(false, parkTime);
                 U.putOrderedObject(w, QPARKER, null);
+                if (mon != null)
+                    mon.recordIdle(w, System.nanoTime() - parkStart);
                 U.putObject(wt, PARKBLOCKER, null);
                 if (w.scanState >= 0)
                     break;
@@ -2018,6 +2061,9 @@ public class ForkJoinPool extends AbstractExecutorService {
                     add = U.compareAndSwapLong(this, CTL, c, nc);
                 unlockRunState(rs, rs & ~RSLOCK);
                 canBlock = add && createWorker(); // throws on exception
+                ForkJoinPoolMonitor mon;
+                if (canBlock && (mon = monitor) != null)
+                    mon.recordSpare(w, tc);
             }
         }
         return canBlock;
@@ -2356,6 +2402,9 @@ public class ForkJoinPool extends AbstractExecutorService {
                         if ((a != null && a.length > s + 1 - q.base) ||
                             (a = q.growArray()) != null) {
                             int j = (((a.length - 1) & s) << ASHIFT) + ABASE;
+                            long[] st;
+                            if ((st = q.stamps) != null)
+                                st[(st.length - 1) & s] = System.nanoTime();
                             U.putOrderedObject(a, j, task);
                             U.putOrderedInt(q, QTOP, s + 1);
                             submitted = true;
@@ -2407,6 +2456,9 @@ public class ForkJoinPool extends AbstractExecutorService {
             if ((a = q.array) != null &&
                 (am = a.length - 1) > (n = (s = q.top) - q.base)) {
                 int j = ((am & s) << ASHIFT) + ABASE;
+                long[] st;
+                if ((st = q.stamps) != null)
+                    st[(st.length - 1) & s] = System.nanoTime();
                 U.putOrderedObject(a, j, task);
                 U.putOrderedInt(q, QTOP, s + 1);
                 U.putIntVolatile(q, QLOCK, 0);
@@ -2570,6 +2622,42 @@ public class ForkJoinPool extends AbstractExecutorService {
         this.config = (parallelism & SMASK) | mode;
         long np = (long)(-parallelism); // offset ctl counts
         this.ctl = ((np << AC_SHIFT) & AC_MASK) | ((np << TC_SHIFT) & TC_MASK);
+        this.monitor = instrumentationEnabled() ?
+            new ForkJoinPoolMonitor(this, instrumentationEventBufferSize()) :
+            null;
+    }
+
+    /**
+     * Returns true if pools should be constructed with a monitor,
+     * reading the controlling system property on each call so that it
+     * may be set after this class is initialized.
+     */
+    private static boolean instrumentationEnabled() {
+        try {
+            return java.security.AccessController.doPrivileged(
+                new sun.security.action.GetBooleanAction(
+                    "java.util.concurrent.ForkJoinPool.instrumentation"))
+                .booleanValue();
+        } catch (Exception ignore) { // treat as disabled
+            return false;
+        }
+    }
+
+    /**
+     * Returns the requested event buffer size for monitors, or the
+     * default on any error reading or parsing the property.
+     */
+    private static int instrumentationEventBufferSize() {
+        int size = ForkJoinPoolMonitor.DEFAULT_EVENT_CAPACITY;
+        try {
+            String sp = java.security.AccessController.doPrivileged(
+                new sun.security.action.GetPropertyAction(
+                    "java.util.concurrent.ForkJoinPool.instrumentation.eventBufferSize"));
+            if (sp != null)
+                size = Integer.parseInt(sp);
+        } catch (Exception ignore) {
+        }
+        return (size < 1) ? 1 : Math.min(size, 1 << 20);
     }
 
     /**
@@ -2864,6 +2952,21 @@ public class ForkJoinPool extends AbstractExecutorService {
         return count;
     }
 
+    /**
+     * Returns the management interface for this pool's task-level
+     * instrumentation, or {@code null} if this pool was constructed
+     * while instrumentation was disabled (see the class
+     * documentation). The returned object may be registered with an
+     * {@code MBeanServer}.
+     *
+     * @return the management interface, or {@code null} if this pool
+     *         is not instrumented
+     * @since 9
+     */
+    public ForkJoinPoolMXBean getMXBean() {
+        return monitor;
+    }
+
     /**
      * Returns an estimate of the total number of tasks currently held
      * in queues by worker threads (but not including tasks submitted
@@ -0,0 +1,177 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+package java.util.concurrent;
+
+/**
+ * The management interface for an instrumented {@link ForkJoinPool}.
+ * Instrumentation is disabled by default; it is enabled for all pools
+ * (including the {@linkplain ForkJoinPool#commonPool common pool})
+ * constructed after setting the system property {@code
+ * java.util.concurrent.ForkJoinPool.instrumentation} to {@code true}.
+ * When enabled, {@link ForkJoinPool#getMXBean} returns an instance of
+ * this interface that may be registered with a platform {@code
+ * MBeanServer}, for example under an {@code ObjectName} of the form
+ * {@code java.util.concurrent:type=ForkJoinPool,name=<poolName>}.
+ *
+ * <p>All values are estimates: counters are maintained by each worker
+ * without synchronization and are read racily, so they may lag actual
+ * activity while the pool is not quiescent. Per-worker arrays are
+ * indexed in the order that live workers are found in the pool, which
+ * need not correspond to worker thread names; counts of workers that
+ * have since terminated are included only in totals.
+ *
+ * <p>Recent events (steals, idle periods and spare thread creations)
+ * are also held in a bounded lock-free ring buffer that may be dumped
+ * using {@link #dumpEvents}. Older events are overwritten when the
+ * buffer wraps around.
+ *
+ * @since 9
+ */
+public interface ForkJoinPoolMXBean {
+
+    /**
+     * Returns the worker name prefix identifying the pool.
+     *
+     * @return the pool name
+     */
+    String getPoolName();
+
+    /**
+     * Returns the target parallelism level of the pool.
+     *
+     * @return the target parallelism level
+     */
+    int getParallelism();
+
+    /**
+     * Returns the number of worker threads that have started but not
+     * yet terminated.
+     *
+     * @return the number of worker threads
+     */
+    int getPoolSize();
+
+    /**
+     * Returns an estimate of the total number of tasks stolen from
+     * one thread's work queue by another.
+     *
+     * @return the number of steals
+     */
+    long getStealCount();
+
+    /**
+     * Returns an estimate of the total number of tasks executed by
+     * workers, including locally popped subtasks.
+     *
+     * @return the number of executed tasks
+     */
+    long getExecutedTaskCount();
+
+    /**
+     * Returns the total number of spare threads created to compensate
+     * for blocked joins or {@link ForkJoinPool.ManagedBlocker}s.
+     *
+     * @return the number of spare threads created
+     */
+    long getSpareThreadCount();
+
+    /**
+     * Returns the total time, in nanoseconds, that workers have spent
+     * parked awaiting work.
+     *
+     * @return the idle time in nanoseconds
+     */
+    long getIdleNanos();
+
+    /**
+     * Returns the mean time, in nanoseconds, that top-level tasks
+     * taken by scanning workers spent in a work queue before being
+     * taken, or zero if none have been recorded.
+     *
+     * @return the mean queue residence time in nanoseconds
+     */
+    long getMeanQueueResidenceNanos();
+
+    /**
+     * Returns the maximum recorded time, in nanoseconds, that a
+     * top-level task spent in a work queue before being taken.
+     *
+     * @return the maximum queue residence time in nanoseconds
+     */
+    long getMaxQueueResidenceNanos();
+
+    /**
+     * Returns the per-worker counts of tasks stolen by each live worker.
+     *
+     * @return the per-worker steal counts
+     */
+    long[] getWorkerStealCounts();
+
+    /**
+     * Returns the per-worker counts of tasks executed by each live worker.
+     *
+     * @return the per-worker execution counts
+     */
+    long[] getWorkerExecutedTaskCounts();
+
+    /**
+     * Returns the per-worker idle time, in nanoseconds, of each live
+     * worker.
+     *
+     * @return the per-worker idle times
+     */
+    long[] getWorkerIdleNanos();
+
+    /**
+     * Returns the ratio of the largest per-worker execution count to
+     * the mean across live workers. A value of {@code 1.0} indicates
+     * perfectly balanced workers; larger values indicate that a few
+     * workers are doing most of the work. Returns zero if no worker
+     * has executed tasks.
+     *
+     * @return the worker imbalance ratio
+     */
+    double getWorkerImbalance();
+
+    /**
+     * Returns the capacity, in events, of the event ring buffer.
+     *
+     * @return the event buffer capacity
+     */
+    int getEventBufferCapacity();
+
+    /**
+     * Returns a textual dump of the events currently held in the ring
+     * buffer, oldest first, one event per line in the form {@code
+     * <nanoTime> <type> worker=<index> value=<value>}, where type is
+     * one of {@code STEAL} (value is queue residence in nanoseconds),
+     * {@code IDLE} (value is park duration in nanoseconds) or {@code
+     * SPARE} (value is the total worker count before creation).
+     *
+     * @return the event dump
+     */
+    String dumpEvents();
+}
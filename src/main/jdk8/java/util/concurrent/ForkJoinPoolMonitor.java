@@ -0,0 +1,328 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+package java.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects task-level statistics for a {@link ForkJoinPool} created
+ * while instrumentation is enabled, and exports them as a {@link
+ * ForkJoinPoolMXBean}. See that interface for a description of the
+ * recorded values.
+ *
+ * <p>Per-worker counters are held in a {@link WorkerStats} object
+ * attached to each worker's WorkQueue and are written only by the
+ * owning worker, so recording them needs no atomic operations. When
+ * a worker terminates, its counts are folded into the "retired"
+ * totals here. Events are recorded into an {@link EventRing}, a
+ * fixed-size lock-free multi-producer ring buffer.
+ *
+ * <p>Queue residence times are derived from push timestamps that
+ * WorkQueues maintain in a side array parallel to their task arrays
+ * only when a monitor is present. They are read racily by stealing
+ * workers, so individual values are approximate; implausible
+ * (negative or unset) values are ignored.
+ */
+final class ForkJoinPoolMonitor implements ForkJoinPoolMXBean {
+
+    /** Event types */
+    static final int STEAL = 1;
+    static final int IDLE  = 2;
+    static final int SPARE = 3;
+
+    /** Default event ring capacity; must be a power of two */
+    static final int DEFAULT_EVENT_CAPACITY = 1 << 12;
+
+    /**
+     * Per-worker counters, written only by the owning worker.
+     */
+    static final class WorkerStats {
+        long execs;            // tasks executed, including local pops
+        long idleNanos;        // time parked in awaitWork
+        long takes;            // top-level tasks with recorded residence
+        long residenceNanos;   // summed queue residence of takes
+        long maxResidence;     // largest recorded residence
+    }
+
+    /**
+     * A bounded ring of events. Each slot holds four longs: a
+     * sequence number, the event time, the packed type and worker
+     * index, and a value. Writers claim slots by incrementing the
+     * cursor, mark the slot busy, write the fields, and then publish
+     * the sequence number; readers discard slots whose sequence
+     * number changes while being read.
+     */
+    static final class EventRing {
+        final int mask;
+        final AtomicLongArray slots;
+        final AtomicLong cursor = new AtomicLong();
+
+        EventRing(int capacity) {
+            int n = 1;
+            while (n < capacity)
+                n <<= 1;
+            mask = n - 1;
+            slots = new AtomicLongArray(n << 2);
+        }
+
+        void record(int type, int worker, long value) {
+            long seq = cursor.getAndIncrement();
+            int i = ((int)seq & mask) << 2;
+            AtomicLongArray a = slots;
+            a.set(i, -1L);                         // mark busy
+            a.lazySet(i + 1, System.nanoTime());
+            a.lazySet(i + 2, ((long)type << 32) | (worker & 0xffffffffL));
+            a.lazySet(i + 3, value);
+            a.lazySet(i, seq);                     // publish
+        }
+
+        void dump(StringBuilder sb) {
+            AtomicLongArray a = slots;
+            long end = cursor.get(), cap = mask + 1L;
+            for (long seq = Math.max(0L, end - cap); seq < end; ++seq) {
+                int i = ((int)seq & mask) << 2;
+                if (a.get(i) != seq)
+                    continue;                      // in progress or overwritten
+                long time = a.get(i + 1);
+                long tw = a.get(i + 2);
+                long value = a.get(i + 3);
+                if (a.get(i) != seq)
+                    continue;
+                int type = (int)(tw >>> 32);
+                sb.append(time).append(' ')
+                    .append(type == STEAL ? "STEAL" :
+                            type == IDLE ? "IDLE" : "SPARE")
+                    .append(" worker=").append((int)tw)
+                    .append(" value=").append(value).append('\n');
+            }
+        }
+    }
+
+    final ForkJoinPool pool;
+    final EventRing events;
+    final AtomicLong spares = new AtomicLong();
+    final AtomicLong retiredExecs = new AtomicLong();
+    final AtomicLong retiredIdleNanos = new AtomicLong();
+    final AtomicLong retiredTakes = new AtomicLong();
+    final AtomicLong retiredResidenceNanos = new AtomicLong();
+    final AtomicLong retiredMaxResidence = new AtomicLong();
+
+    ForkJoinPoolMonitor(ForkJoinPool pool, int eventCapacity) {
+        this.pool = pool;
+        this.events = new EventRing(eventCapacity);
+    }
+
+    // Recording, called from ForkJoinPool
+
+    /**
+     * Records that worker w took a task from slot b of queue q.
+     */
+    final void recordTake(ForkJoinPool.WorkQueue w,
+                          ForkJoinPool.WorkQueue q, int b) {
+        long[] st; WorkerStats ws; long t0;
+        if (w != null && (ws = w.stats) != null && q != null &&
+            (st = q.stamps) != null &&
+            (t0 = st[(st.length - 1) & b]) != 0L) {
+            long d = System.nanoTime() - t0;
+            if (d >= 0L) {
+                ++ws.takes;
+                ws.residenceNanos += d;
+                if (d > ws.maxResidence)
+                    ws.maxResidence = d;
+                events.record(STEAL, w.getPoolIndex(), d);
+            }
+        }
+    }
+
+    /**
+     * Records that worker w was parked for the given time.
+     */
+    final void recordIdle(ForkJoinPool.WorkQueue w, long nanos) {
+        WorkerStats ws;
+        if (w != null && (ws = w.stats) != null && nanos > 0L) {
+            ws.idleNanos += nanos;
+            events.record(IDLE, w.getPoolIndex(), nanos);
+        }
+    }
+
+    /**
+     * Records creation of a spare thread on behalf of worker w.
+     */
+    final void recordSpare(ForkJoinPool.WorkQueue w, int totalCount) {
+        spares.getAndIncrement();
+        events.record(SPARE, (w == null) ? -1 : w.getPoolIndex(),
+                      totalCount);
+    }
+
+    /**
+     * Folds the counts of a terminating worker into retired totals.
+     */
+    final void retire(ForkJoinPool.WorkQueue w) {
+        WorkerStats ws;
+        if (w != null && (ws = w.stats) != null) {
+            retiredExecs.getAndAdd(ws.execs);
+            retiredIdleNanos.getAndAdd(ws.idleNanos);
+            retiredTakes.getAndAdd(ws.takes);
+            retiredResidenceNanos.getAndAdd(ws.residenceNanos);
+            long m = ws.maxResidence, p;
+            while (m > (p = retiredMaxResidence.get()) &&
+                   !retiredMaxResidence.compareAndSet(p, m))
+                ;
+            w.stats = null;
+        }
+    }
+
+    // Snapshots
+
+    /**
+     * Returns the stats of live workers, in queue-array order.
+     */
+    private WorkerStats[] liveStats() {
+        ForkJoinPool.WorkQueue[] ws = pool.workQueues;
+        int n = 0;
+        WorkerStats[] a = new WorkerStats[(ws == null) ? 0 : ws.length >>> 1];
+        if (ws != null) {
+            for (int i = 1; i < ws.length; i += 2) {
+                ForkJoinPool.WorkQueue w; WorkerStats s;
+                if ((w = ws[i]) != null && (s = w.stats) != null &&
+                    n < a.length)
+                    a[n++] = s;
+            }
+        }
+        return (n == a.length) ? a : java.util.Arrays.copyOf(a, n);
+    }
+
+    // ForkJoinPoolMXBean
+
+    public String getPoolName() {
+        String p = pool.workerNamePrefix;
+        return (p.endsWith("-worker-")) ?
+            p.substring(0, p.length() - 8) : p;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public int getPoolSize() {
+        return pool.getPoolSize();
+    }
+
+    public long getStealCount() {
+        return pool.getStealCount();
+    }
+
+    public long getExecutedTaskCount() {
+        long n = retiredExecs.get();
+        for (WorkerStats s : liveStats())
+            n += s.execs;
+        return n;
+    }
+
+    public long getSpareThreadCount() {
+        return spares.get();
+    }
+
+    public long getIdleNanos() {
+        long n = retiredIdleNanos.get();
+        for (WorkerStats s : liveStats())
+            n += s.idleNanos;
+        return n;
+    }
+
+    public long getMeanQueueResidenceNanos() {
+        long takes = retiredTakes.get(), sum = retiredResidenceNanos.get();
+        for (WorkerStats s : liveStats()) {
+            takes += s.takes;
+            sum += s.residenceNanos;
+        }
+        return (takes == 0L) ? 0L : sum / takes;
+    }
+
+    public long getMaxQueueResidenceNanos() {
+        long m = retiredMaxResidence.get();
+        for (WorkerStats s : liveStats())
+            m = Math.max(m, s.maxResidence);
+        return m;
+    }
+
+    public long[] getWorkerStealCounts() {
+        ForkJoinPool.WorkQueue[] ws = pool.workQueues;
+        long[] a = new long[(ws == null) ? 0 : ws.length >>> 1];
+        int n = 0;
+        if (ws != null) {
+            for (int i = 1; i < ws.length; i += 2) {
+                ForkJoinPool.WorkQueue w;
+                if ((w = ws[i]) != null && w.stats != null && n < a.length)
+                    a[n++] = w.nsteals;
+            }
+        }
+        return (n == a.length) ? a : java.util.Arrays.copyOf(a, n);
+    }
+
+    public long[] getWorkerExecutedTaskCounts() {
+        WorkerStats[] ss = liveStats();
+        long[] a = new long[ss.length];
+        for (int i = 0; i < ss.length; ++i)
+            a[i] = ss[i].execs;
+        return a;
+    }
+
+    public long[] getWorkerIdleNanos() {
+        WorkerStats[] ss = liveStats();
+        long[] a = new long[ss.length];
+        for (int i = 0; i < ss.length; ++i)
+            a[i] = ss[i].idleNanos;
+        return a;
+    }
+
+    public double getWorkerImbalance() {
+        long max = 0L, sum = 0L;
+        WorkerStats[] ss = liveStats();
+        for (WorkerStats s : ss) {
+            long e = s.execs;
+            sum += e;
+            if (e > max)
+                max = e;
+        }
+        return (sum == 0L) ? 0.0 : (double)max * ss.length / sum;
+    }
+
+    public int getEventBufferCapacity() {
+        return events.mask + 1;
+    }
+
+    public String dumpEvents() {
+        StringBuilder sb = new StringBuilder();
+        events.dump(sb);
+        return sb.toString();
+    }
+
+    public String toString() {
+        return super.toString() + "[" + getPoolName() + "]";
+    }
+}
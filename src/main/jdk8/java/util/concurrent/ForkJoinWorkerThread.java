@@ -171,11 +171,12 @@ public class ForkJoinWorkerThread extends Thread {
     }
 
     /**
-     * Erases ThreadLocals by nulling out Thread maps.
+     * Erases ThreadLocals by nulling out Thread maps and indexed values.
      */
     final void eraseThreadLocals() {
         U.putObject(this, THREADLOCALS, null);
         U.putObject(this, INHERITABLETHREADLOCALS, null);
+        U.putObject(this, INDEXEDTHREADLOCALS, null);
     }
 
     /**
@@ -188,6 +189,7 @@ public class ForkJoinWorkerThread extends Thread {
     private static final sun.misc.Unsafe U;
     private static final long THREADLOCALS;
     private static final long INHERITABLETHREADLOCALS;
+    private static final long INDEXEDTHREADLOCALS;
     private static final long INHERITEDACCESSCONTROLCONTEXT;
     static {
         try {
@@ -197,6 +199,8 @@ public class ForkJoinWorkerThread extends Thread {
                 (tk.getDeclaredField("threadLocals"));
             INHERITABLETHREADLOCALS = U.objectFieldOffset
                 (tk.getDeclaredField("inheritableThreadLocals"));
+            INDEXEDTHREADLOCALS = U.objectFieldOffset
+                (tk.getDeclaredField("indexedThreadLocals"));
             INHERITEDACCESSCONTROLCONTEXT = U.objectFieldOffset
                 (tk.getDeclaredField("inheritedAccessControlContext"));
 
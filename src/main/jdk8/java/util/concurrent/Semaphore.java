@@ -36,6 +36,7 @@
 package java.util.concurrent;
 import java.util.Collection;
 import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.locks.AdaptiveSpinPolicy;
 
 /**
  * A counting semaphore.  Conceptually, a semaphore maintains a set of
@@ -170,6 +171,11 @@ public class Semaphore implements java.io.Serializable {
             setState(permits);
         }
 
+        Sync(int permits, AdaptiveSpinPolicy spinPolicy) {
+            setState(permits);
+            setSpinPolicy(spinPolicy);
+        }
+
         final int getPermits() {
             return getState();
         }
@@ -225,6 +231,10 @@ public class Semaphore implements java.io.Serializable {
             super(permits);
         }
 
+        NonfairSync(int permits, AdaptiveSpinPolicy spinPolicy) {
+            super(permits, spinPolicy);
+        }
+
         protected int tryAcquireShared(int acquires) {
             return nonfairTryAcquireShared(acquires);
         }
@@ -240,6 +250,10 @@ public class Semaphore implements java.io.Serializable {
             super(permits);
         }
 
+        FairSync(int permits, AdaptiveSpinPolicy spinPolicy) {
+            super(permits, spinPolicy);
+        }
+
         protected int tryAcquireShared(int acquires) {
             for (;;) {
                 if (hasQueuedPredecessors())
@@ -280,6 +294,27 @@ public class Semaphore implements java.io.Serializable {
         sync = fair ? new FairSync(permits) : new NonfairSync(permits);
     }
 
+    /**
+     * Creates a {@code Semaphore} with the given number of
+     * permits and the given fairness setting, whose acquiring threads
+     * spin according to the given policy before queuing when no
+     * permits are available.
+     *
+     * @param permits the initial number of permits available.
+     *        This value may be negative, in which case releases
+     *        must occur before any acquires will be granted.
+     * @param fair {@code true} if this semaphore will guarantee
+     *        first-in first-out granting of permits under contention,
+     *        else {@code false}
+     * @param spinPolicy the spin policy, or {@code null} to not spin
+     * @since 9
+     */
+    public Semaphore(int permits, boolean fair,
+                     AdaptiveSpinPolicy spinPolicy) {
+        sync = fair ? new FairSync(permits, spinPolicy) :
+            new NonfairSync(permits, spinPolicy);
+    }
+
     /**
      * Acquires a permit from this semaphore, blocking until one is
      * available, or the thread is {@linkplain Thread#interrupt interrupted}.
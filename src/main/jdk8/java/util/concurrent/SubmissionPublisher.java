@@ -0,0 +1,1107 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+package java.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Flow.Publisher} that asynchronously issues submitted
+ * (non-null) items to current subscribers until it is closed.  Each
+ * current subscriber receives newly submitted items in the same order
+ * unless drops or exceptions are encountered.  Using a
+ * SubmissionPublisher allows item generators to act as compliant <a
+ * href="http://www.reactive-streams.org/"> reactive-streams</a>
+ * Publishers relying on drop handling and/or blocking for flow
+ * control.
+ *
+ * <p>A SubmissionPublisher uses the {@link Executor} supplied in its
+ * constructor for delivery to subscribers. The best choice of
+ * Executor depends on expected usage. If the generator(s) of
+ * submitted items run in separate threads, and the number of
+ * subscribers can be estimated, consider using a {@link
+ * Executors#newFixedThreadPool}. Otherwise consider using the
+ * default, normally the {@link ForkJoinPool#commonPool}.
+ *
+ * <p>Buffering allows producers and consumers to transiently operate
+ * at different rates.  Each subscriber uses an independent buffer.
+ * Buffers are created upon first use and expanded as needed up to
+ * the given maximum. (The enforced capacity may be rounded up to the
+ * nearest power of two and/or bounded by the largest value supported
+ * by this implementation.)  Invocations of {@link
+ * Flow.Subscription#request(long) request} do not directly result in
+ * buffer expansion, but risk saturation if unfilled requests exceed
+ * the maximum capacity.  The default value of {@link
+ * Flow#defaultBufferSize()} may provide a useful starting point for
+ * choosing a capacity based on expected rates, resources, and usages.
+ *
+ * <p>Publication methods support different policies about what to do
+ * when buffers are saturated. Method {@link #submit(Object) submit}
+ * blocks until resources are available. This is simplest, but least
+ * responsive.  The {@code offer} methods may drop items (either
+ * immediately or with bounded timeout), but provide an opportunity
+ * to interpose a handler and then retry.
+ *
+ * <p>If any Subscriber method throws an exception, its subscription
+ * is cancelled.  If a handler is supplied as a constructor argument,
+ * it is invoked before cancellation upon an exception in method
+ * {@link Flow.Subscriber#onNext onNext}, but exceptions in methods
+ * {@link Flow.Subscriber#onSubscribe onSubscribe},
+ * {@link Flow.Subscriber#onError(Throwable) onError} and
+ * {@link Flow.Subscriber#onComplete() onComplete} are not recorded or
+ * handled before cancellation.  If the supplied Executor throws
+ * {@link RejectedExecutionException} (or any other RuntimeException
+ * or Error) when attempting to execute a task, or a drop handler
+ * throws an exception when processing a dropped item, then the
+ * exception is rethrown.
+ *
+ * <p>Method {@link #consume(Consumer)} simplifies support for a
+ * common case in which the only action of a subscriber is to request
+ * and process all items using a supplied function.
+ *
+ * <p>This class may also serve as a convenient base for subclasses
+ * that generate items, and use the methods in this class to publish
+ * them.  For example here is a class that periodically publishes the
+ * items generated from a supplier. (In practice you might add methods
+ * to independently start and stop generation, to share Executors
+ * among publishers, and so on, or use a SubmissionPublisher as a
+ * component rather than a superclass.)
+ *
+ * <pre> {@code
+ * class PeriodicPublisher<T> extends SubmissionPublisher<T> {
+ *   final ScheduledFuture<?> periodicTask;
+ *   final ScheduledExecutorService scheduler;
+ *   PeriodicPublisher(Executor executor, int maxBufferCapacity,
+ *                     Supplier<? extends T> supplier,
+ *                     long period, TimeUnit unit) {
+ *     super(executor, maxBufferCapacity);
+ *     scheduler = new ScheduledThreadPoolExecutor(1);
+ *     periodicTask = scheduler.scheduleAtFixedRate(
+ *       () -> submit(supplier.get()), 0, period, unit);
+ *   }
+ *   public void close() {
+ *     periodicTask.cancel(false);
+ *     scheduler.shutdown();
+ *     super.close();
+ *   }
+ * }}</pre>
+ *
+ * <p>Here is an example of a {@link Flow.Processor} implementation.
+ * It uses single-step requests to its publisher for simplicity of
+ * illustration. A more adaptive version could monitor flow using the
+ * lag estimate returned from {@code submit}, along with other
+ * utility methods.
+ *
+ * <pre> {@code
+ * class TransformProcessor<S,T> extends SubmissionPublisher<T>
+ *   implements Flow.Processor<S,T> {
+ *   final Function<? super S, ? extends T> function;
+ *   Flow.Subscription subscription;
+ *   TransformProcessor(Executor executor, int maxBufferCapacity,
+ *                      Function<? super S, ? extends T> function) {
+ *     super(executor, maxBufferCapacity);
+ *     this.function = function;
+ *   }
+ *   public void onSubscribe(Flow.Subscription subscription) {
+ *     (this.subscription = subscription).request(1);
+ *   }
+ *   public void onNext(S item) {
+ *     subscription.request(1);
+ *     submit(function.apply(item));
+ *   }
+ *   public void onError(Throwable ex) { closeExceptionally(ex); }
+ *   public void onComplete() { close(); }
+ * }}</pre>
+ *
+ * @param <T> the published item type
+ * @since 9
+ */
+public class SubmissionPublisher<T> implements Flow.Publisher<T>,
+                                               AutoCloseable {
+    /*
+     * Overview: Each subscriber is managed by a BufferedSubscription
+     * holding a single-producer single-consumer ring buffer of
+     * items. Publication methods hold this publisher's lock while
+     * offering to each subscription, so there is only ever one
+     * producer per buffer; delivery to a subscriber is performed by
+     * the subscription itself, run as a task on the executor, and at
+     * most one such task is active per subscription at any time
+     * (controlled by the ACTIVE bit of its ctl field). A consumer
+     * task runs until it finds no deliverable items (either the
+     * buffer is empty or there is no outstanding demand), at which
+     * point it clears ACTIVE and rechecks, so that producers,
+     * requesters and closers need only start a task when ACTIVE is
+     * clear. Producers blocked on a full buffer (in submit or timed
+     * offer) register in the subscription's "waiter" field and are
+     * unparked when the consumer takes an item; they block as
+     * ForkJoinPool.ManagedBlockers, so that blocking within the
+     * common pool is compensated.
+     */
+
+    /** The largest possible power of two array size. */
+    static final int BUFFER_CAPACITY_LIMIT = 1 << 30;
+
+    /** Initial buffer capacity, grown up to the maximum as needed. */
+    static final int INITIAL_CAPACITY = 32;
+
+    /** Round capacity to power of 2, most efficiently if already a power of 2. */
+    static final int roundCapacity(int cap) {
+        int n = cap - 1;
+        n |= n >>> 1;
+        n |= n >>> 2;
+        n |= n >>> 4;
+        n |= n >>> 8;
+        n |= n >>> 16;
+        return (n <= 0) ? 1 : // at least 1
+            (n >= BUFFER_CAPACITY_LIMIT) ? BUFFER_CAPACITY_LIMIT : n + 1;
+    }
+
+    /**
+     * Current subscriptions, guarded by this publisher's lock.
+     * Cancelled and terminated subscriptions are removed lazily
+     * during traversals.
+     */
+    final ArrayList<BufferedSubscription<T>> clients =
+        new ArrayList<BufferedSubscription<T>>();
+
+    /** Run status, updated only within locks */
+    volatile boolean closed;
+    /** If non-null, the exception in closeExceptionally */
+    volatile Throwable closedException;
+
+    // Parameters for constructing BufferedSubscriptions
+    final Executor executor;
+    final BiConsumer<? super Flow.Subscriber<? super T>, ? super Throwable> onNextHandler;
+    final int maxBufferCapacity;
+
+    /**
+     * Default executor -- ForkJoinPool.commonPool() unless it cannot
+     * support parallelism.
+     */
+    private static final Executor ASYNC_POOL =
+        (ForkJoinPool.getCommonPoolParallelism() > 1) ?
+        ForkJoinPool.commonPool() :
+        new CompletableFuture.ThreadPerTaskExecutor();
+
+    /**
+     * Creates a new SubmissionPublisher using the given Executor for
+     * async delivery to subscribers, with the given maximum buffer size
+     * for each subscriber, and, if non-null, the given handler invoked
+     * when any Subscriber throws an exception in method {@link
+     * Flow.Subscriber#onNext(Object) onNext}.
+     *
+     * @param executor the executor to use for async delivery,
+     * supporting creation of at least one independent thread
+     * @param maxBufferCapacity the maximum capacity for each
+     * subscriber's buffer (the enforced capacity may be rounded up to
+     * the nearest power of two and/or bounded by the largest value
+     * supported by this implementation; method {@link #getMaxBufferCapacity}
+     * returns the actual value)
+     * @param handler if non-null, procedure to invoke upon exception
+     * thrown in method {@code onNext}
+     * @throws NullPointerException if executor is null
+     * @throws IllegalArgumentException if maxBufferCapacity not
+     * positive
+     */
+    public SubmissionPublisher(Executor executor, int maxBufferCapacity,
+                               BiConsumer<? super Flow.Subscriber<? super T>, ? super Throwable> handler) {
+        if (executor == null)
+            throw new NullPointerException();
+        if (maxBufferCapacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive");
+        this.executor = executor;
+        this.onNextHandler = handler;
+        this.maxBufferCapacity = roundCapacity(maxBufferCapacity);
+    }
+
+    /**
+     * Creates a new SubmissionPublisher using the given Executor for
+     * async delivery to subscribers, with the given maximum buffer size
+     * for each subscriber, and no handler for Subscriber exceptions in
+     * method {@link Flow.Subscriber#onNext(Object) onNext}.
+     *
+     * @param executor the executor to use for async delivery,
+     * supporting creation of at least one independent thread
+     * @param maxBufferCapacity the maximum capacity for each
+     * subscriber's buffer (the enforced capacity may be rounded up to
+     * the nearest power of two and/or bounded by the largest value
+     * supported by this implementation; method {@link #getMaxBufferCapacity}
+     * returns the actual value)
+     * @throws NullPointerException if executor is null
+     * @throws IllegalArgumentException if maxBufferCapacity not
+     * positive
+     */
+    public SubmissionPublisher(Executor executor, int maxBufferCapacity) {
+        this(executor, maxBufferCapacity, null);
+    }
+
+    /**
+     * Creates a new SubmissionPublisher using the {@link
+     * ForkJoinPool#commonPool()} for async delivery to subscribers
+     * (unless it does not support a parallelism level of at least two,
+     * in which case, a new Thread is created to run each task), with
+     * maximum buffer capacity of {@link Flow#defaultBufferSize}, and no
+     * handler for Subscriber exceptions in method {@link
+     * Flow.Subscriber#onNext(Object) onNext}.
+     */
+    public SubmissionPublisher() {
+        this(ASYNC_POOL, Flow.defaultBufferSize(), null);
+    }
+
+    /**
+     * Adds the given Subscriber unless already subscribed.  If already
+     * subscribed, the Subscriber's {@link
+     * Flow.Subscriber#onError(Throwable) onError} method is invoked on
+     * the existing subscription with an {@link IllegalStateException}.
+     * Otherwise, upon success, the Subscriber's {@link
+     * Flow.Subscriber#onSubscribe onSubscribe} method is invoked
+     * asynchronously with a new {@link Flow.Subscription}.  If {@link
+     * Flow.Subscriber#onSubscribe onSubscribe} throws an exception, the
+     * subscription is cancelled. Otherwise, if this SubmissionPublisher
+     * was closed exceptionally, then the subscriber's {@link
+     * Flow.Subscriber#onError onError} method is invoked with the
+     * corresponding exception, or if closed without exception, the
+     * subscriber's {@link Flow.Subscriber#onComplete() onComplete}
+     * method is invoked.  Subscribers may enable receiving items by
+     * invoking the {@link Flow.Subscription#request(long) request}
+     * method of the new Subscription, and may unsubscribe by invoking
+     * its {@link Flow.Subscription#cancel() cancel} method.
+     *
+     * @param subscriber the subscriber
+     * @throws NullPointerException if subscriber is null
+     */
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) throw new NullPointerException();
+        BufferedSubscription<T> subscription =
+            new BufferedSubscription<T>(subscriber, executor, onNextHandler,
+                                        maxBufferCapacity);
+        BufferedSubscription<T> existing = null;
+        synchronized (this) {
+            for (Iterator<BufferedSubscription<T>> it = clients.iterator();
+                 it.hasNext();) {
+                BufferedSubscription<T> b = it.next();
+                if (b.isDisabled())
+                    it.remove();
+                else if (b.subscriber == subscriber)
+                    existing = b;
+            }
+            if (existing == null) {
+                Throwable ex;
+                if ((ex = closedException) != null)
+                    subscription.onError(ex);
+                else if (closed)
+                    subscription.onComplete();
+                else
+                    clients.add(subscription);
+                subscription.startOnSubscribe();
+            }
+        }
+        if (existing != null)
+            existing.onError(new IllegalStateException("Duplicate subscribe"));
+    }
+
+    /**
+     * Common implementation for all three forms of submit and offer.
+     * Acts as submit if nanos == Long.MAX_VALUE, else offer.
+     */
+    private int doOffer(T item, long nanos,
+                        BiPredicate<Flow.Subscriber<? super T>, ? super T> onDrop) {
+        if (item == null) throw new NullPointerException();
+        int lag = 0, drops = 0;
+        synchronized (this) {
+            if (closed)
+                throw new IllegalStateException("Closed");
+            for (Iterator<BufferedSubscription<T>> it = clients.iterator();
+                 it.hasNext();) {
+                BufferedSubscription<T> b = it.next();
+                int stat = b.offer(item);
+                if (stat == 0 && nanos > 0L)
+                    stat = b.awaitSpace(item, nanos);
+                if (stat == 0 && onDrop != null &&
+                    onDrop.test(b.subscriber, item))
+                    stat = b.offer(item);          // retry once
+                if (stat < 0)                      // disabled
+                    it.remove();
+                else if (stat == 0)
+                    ++drops;
+                else if (stat > lag)
+                    lag = stat;
+            }
+        }
+        return (drops > 0) ? -drops : lag;
+    }
+
+    /**
+     * Publishes the given item to each current subscriber by
+     * asynchronously invoking its {@link Flow.Subscriber#onNext(Object)
+     * onNext} method, blocking uninterruptibly while resources for any
+     * subscriber are unavailable. This method returns an estimate of
+     * the maximum lag (number of items submitted but not yet consumed)
+     * among all current subscribers. This value is at least one
+     * (accounting for this submitted item) if there are any
+     * subscribers, else zero.
+     *
+     * <p>If the Executor for this publisher throws a
+     * RejectedExecutionException (or any other RuntimeException or
+     * Error) when attempting to asynchronously notify subscribers,
+     * then this exception is rethrown, in which case not all
+     * subscribers will have been issued this item.
+     *
+     * @param item the (non-null) item to publish
+     * @return the estimated maximum lag among subscribers
+     * @throws IllegalStateException if closed
+     * @throws NullPointerException if item is null
+     * @throws RejectedExecutionException if thrown by Executor
+     */
+    public int submit(T item) {
+        return doOffer(item, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Publishes the given item, if possible, to each current subscriber
+     * by asynchronously invoking its {@link
+     * Flow.Subscriber#onNext(Object) onNext} method. The item may be
+     * dropped by one or more subscribers if resource limits are
+     * exceeded, in which case the given handler (if non-null) is
+     * invoked, and if it returns true, retried once.  Other calls to
+     * methods in this class by other threads are blocked while the
+     * handler is invoked.  Unless recovery is assured, options are
+     * usually limited to logging the error and/or issuing an {@link
+     * Flow.Subscriber#onError(Throwable) onError} signal to the
+     * subscriber.
+     *
+     * <p>This method returns a status indicator: If negative, it
+     * represents the (negative) number of drops (failed attempts to
+     * issue the item to a subscriber). Otherwise it is an estimate of
+     * the maximum lag (number of items submitted but not yet
+     * consumed) among all current subscribers. This value is at least
+     * one (accounting for this submitted item) if there are any
+     * subscribers, else zero.
+     *
+     * <p>If the Executor for this publisher throws a
+     * RejectedExecutionException (or any other RuntimeException or
+     * Error) when attempting to asynchronously notify subscribers, or
+     * the drop handler throws an exception when processing a dropped
+     * item, then this exception is rethrown.
+     *
+     * @param item the (non-null) item to publish
+     * @param onDrop if non-null, the handler invoked upon a drop to a
+     * subscriber, with arguments of the subscriber and item; if it
+     * returns true, an offer is re-attempted (once)
+     * @return if negative, the (negative) number of drops; otherwise
+     * an estimate of maximum lag
+     * @throws IllegalStateException if closed
+     * @throws NullPointerException if item is null
+     * @throws RejectedExecutionException if thrown by Executor
+     */
+    public int offer(T item,
+                     BiPredicate<Flow.Subscriber<? super T>, ? super T> onDrop) {
+        return doOffer(item, 0L, onDrop);
+    }
+
+    /**
+     * Publishes the given item, if possible, to each current subscriber
+     * by asynchronously invoking its {@link
+     * Flow.Subscriber#onNext(Object) onNext} method, blocking while
+     * resources for any subscription are unavailable, up to the
+     * specified timeout or until the caller thread is interrupted, at
+     * which point the given handler (if non-null) is invoked, and if it
+     * returns true, retried once. (The drop handler may distinguish
+     * timeouts from interrupts by checking whether the current thread
+     * is interrupted.)  Other calls to methods in this class by other
+     * threads are blocked while the handler is invoked.  Unless
+     * recovery is assured, options are usually limited to logging the
+     * error and/or issuing an {@link Flow.Subscriber#onError(Throwable)
+     * onError} signal to the subscriber.
+     *
+     * <p>This method returns a status indicator: If negative, it
+     * represents the (negative) number of drops (failed attempts to
+     * issue the item to a subscriber). Otherwise it is an estimate of
+     * the maximum lag (number of items submitted but not yet
+     * consumed) among all current subscribers. This value is at least
+     * one (accounting for this submitted item) if there are any
+     * subscribers, else zero.
+     *
+     * <p>If the Executor for this publisher throws a
+     * RejectedExecutionException (or any other RuntimeException or
+     * Error) when attempting to asynchronously notify subscribers, or
+     * the drop handler throws an exception when processing a dropped
+     * item, then this exception is rethrown.
+     *
+     * @param item the (non-null) item to publish
+     * @param timeout how long to wait for resources for any subscriber
+     * before giving up, in units of {@code unit}
+     * @param unit a {@code TimeUnit} determining how to interpret the
+     * {@code timeout} parameter
+     * @param onDrop if non-null, the handler invoked upon a drop to a
+     * subscriber, with arguments of the subscriber and item; if it
+     * returns true, an offer is re-attempted (once)
+     * @return if negative, the (negative) number of drops; otherwise
+     * an estimate of maximum lag
+     * @throws IllegalStateException if closed
+     * @throws NullPointerException if item is null
+     * @throws RejectedExecutionException if thrown by Executor
+     */
+    public int offer(T item, long timeout, TimeUnit unit,
+                     BiPredicate<Flow.Subscriber<? super T>, ? super T> onDrop) {
+        long nanos = unit.toNanos(timeout);
+        // distinguishes from untimed (only wrt interrupt policy)
+        if (nanos == Long.MAX_VALUE) --nanos;
+        return doOffer(item, nanos, onDrop);
+    }
+
+    /**
+     * Unless already closed, issues {@link
+     * Flow.Subscriber#onComplete() onComplete} signals to current
+     * subscribers, and disallows subsequent attempts to publish.
+     * Upon return, this method does <em>NOT</em> guarantee that all
+     * subscribers have yet completed.
+     */
+    public void close() {
+        synchronized (this) {
+            if (!closed) {
+                closed = true;
+                for (BufferedSubscription<T> b : clients)
+                    b.onComplete();
+                clients.clear();
+            }
+        }
+    }
+
+    /**
+     * Unless already closed, issues {@link
+     * Flow.Subscriber#onError(Throwable) onError} signals to current
+     * subscribers with the given error, and disallows subsequent
+     * attempts to publish.  Future subscribers also receive the given
+     * error. Upon return, this method does <em>NOT</em> guarantee
+     * that all subscribers have yet completed.
+     *
+     * @param error the {@code onError} argument sent to subscribers
+     * @throws NullPointerException if error is null
+     */
+    public void closeExceptionally(Throwable error) {
+        if (error == null)
+            throw new NullPointerException();
+        synchronized (this) {
+            if (!closed) {
+                closedException = error;
+                closed = true;
+                for (BufferedSubscription<T> b : clients)
+                    b.onError(error);
+                clients.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns true if this publisher is not accepting submissions.
+     *
+     * @return true if closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the exception associated with {@link
+     * #closeExceptionally(Throwable) closeExceptionally}, or null if
+     * not closed or if closed normally.
+     *
+     * @return the exception, or null if none
+     */
+    public Throwable getClosedException() {
+        return closedException;
+    }
+
+    /**
+     * Returns true if this publisher has any subscribers.
+     *
+     * @return true if this publisher has any subscribers
+     */
+    public boolean hasSubscribers() {
+        return getNumberOfSubscribers() > 0;
+    }
+
+    /**
+     * Returns the number of current subscribers.
+     *
+     * @return the number of current subscribers
+     */
+    public int getNumberOfSubscribers() {
+        int n = 0;
+        synchronized (this) {
+            for (Iterator<BufferedSubscription<T>> it = clients.iterator();
+                 it.hasNext();) {
+                if (it.next().isDisabled())
+                    it.remove();
+                else
+                    ++n;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Returns the Executor used for asynchronous delivery.
+     *
+     * @return the Executor used for asynchronous delivery
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the maximum per-subscriber buffer capacity.
+     *
+     * @return the maximum per-subscriber buffer capacity
+     */
+    public int getMaxBufferCapacity() {
+        return maxBufferCapacity;
+    }
+
+    /**
+     * Returns a list of current subscribers for monitoring and
+     * tracking purposes, not for invoking {@link Flow.Subscriber}
+     * methods on the subscribers.
+     *
+     * @return list of current subscribers
+     */
+    public List<Flow.Subscriber<? super T>> getSubscribers() {
+        ArrayList<Flow.Subscriber<? super T>> subs =
+            new ArrayList<Flow.Subscriber<? super T>>();
+        synchronized (this) {
+            for (Iterator<BufferedSubscription<T>> it = clients.iterator();
+                 it.hasNext();) {
+                BufferedSubscription<T> b = it.next();
+                if (b.isDisabled())
+                    it.remove();
+                else
+                    subs.add(b.subscriber);
+            }
+        }
+        return subs;
+    }
+
+    /**
+     * Returns true if the given Subscriber is currently subscribed.
+     *
+     * @param subscriber the subscriber
+     * @return true if currently subscribed
+     * @throws NullPointerException if subscriber is null
+     */
+    public boolean isSubscribed(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) throw new NullPointerException();
+        synchronized (this) {
+            for (BufferedSubscription<T> b : clients) {
+                if (b.subscriber == subscriber && !b.isDisabled())
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns an estimate of the minimum number of items requested
+     * (via {@link Flow.Subscription#request(long) request}) but not
+     * yet produced, among all current subscribers.
+     *
+     * @return the estimate, or zero if no subscribers
+     */
+    public long estimateMinimumDemand() {
+        long min = Long.MAX_VALUE;
+        boolean nonEmpty = false;
+        synchronized (this) {
+            for (BufferedSubscription<T> b : clients) {
+                if (!b.isDisabled()) {
+                    long d = b.estimateDemand();
+                    if (d < min)
+                        min = d;
+                    nonEmpty = true;
+                }
+            }
+        }
+        return nonEmpty ? min : 0L;
+    }
+
+    /**
+     * Returns an estimate of the maximum number of items produced but
+     * not yet consumed among all current subscribers.
+     *
+     * @return the estimate
+     */
+    public int estimateMaximumLag() {
+        int max = 0;
+        synchronized (this) {
+            for (BufferedSubscription<T> b : clients) {
+                int n;
+                if (!b.isDisabled() && (n = b.estimateLag()) > max)
+                    max = n;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Processes all published items using the given Consumer function.
+     * Returns a CompletableFuture that is completed normally when this
+     * publisher signals {@link Flow.Subscriber#onComplete()
+     * onComplete}, or completed exceptionally upon any error, or an
+     * exception is thrown by the Consumer, or the returned
+     * CompletableFuture is cancelled, in which case no further items
+     * are processed.
+     *
+     * @param consumer the function applied to each onNext item
+     * @return a CompletableFuture that is completed normally
+     * when the publisher signals onComplete, and exceptionally
+     * upon any error or cancellation
+     * @throws NullPointerException if consumer is null
+     */
+    public CompletableFuture<Void> consume(Consumer<? super T> consumer) {
+        if (consumer == null)
+            throw new NullPointerException();
+        CompletableFuture<Void> status = new CompletableFuture<Void>();
+        subscribe(new ConsumerSubscriber<T>(status, consumer));
+        return status;
+    }
+
+    /** Subscriber for method consume */
+    static final class ConsumerSubscriber<T> implements Flow.Subscriber<T> {
+        final CompletableFuture<Void> status;
+        final Consumer<? super T> consumer;
+        Flow.Subscription subscription;
+        ConsumerSubscriber(CompletableFuture<Void> status,
+                           Consumer<? super T> consumer) {
+            this.status = status; this.consumer = consumer;
+        }
+        public final void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            status.whenComplete((v, e) -> subscription.cancel());
+            if (!status.isDone())
+                subscription.request(Long.MAX_VALUE);
+        }
+        public final void onError(Throwable ex) {
+            status.completeExceptionally(ex);
+        }
+        public final void onComplete() {
+            status.complete(null);
+        }
+        public final void onNext(T item) {
+            try {
+                consumer.accept(item);
+            } catch (Throwable ex) {
+                subscription.cancel();
+                status.completeExceptionally(ex);
+            }
+        }
+    }
+
+    /**
+     * A bounded buffer of items for a single subscriber, with demand
+     * tracking, that delivers items by running itself as a task on
+     * the publisher's executor. Items are added by the (single, lock
+     * holding) producer at "tail" and removed by the (single, ACTIVE)
+     * consumer at "head". The array is grown by the producer up to
+     * maxCapacity, preserving the index of each item modulo the
+     * array length, so the consumer may read from either the old or
+     * new array.
+     */
+    static final class BufferedSubscription<T>
+        implements Flow.Subscription, Runnable, ForkJoinPool.ManagedBlocker {
+        volatile long head;        // next index to take; written by consumer
+        volatile long tail;        // next index to put; written by producer
+        volatile long demand;      // # unfilled requests
+        volatile int ctl;          // run status flags
+        volatile Object[] array;   // buffer, or null if not yet allocated
+        volatile Thread waiter;    // blocked producer thread
+        Throwable pendingError;    // holds until onError issued
+        boolean subscribed;        // true after onSubscribe; consumer only
+        T putItem;                 // item being offered by blocked producer
+        long timeout;              // Long.MAX_VALUE if untimed wait
+        final int maxCapacity;     // max buffer size
+        final Executor executor;   // delivery executor
+        final Flow.Subscriber<? super T> subscriber;
+        final BiConsumer<? super Flow.Subscriber<? super T>, ? super Throwable> onNextHandler;
+
+        // ctl bit values
+        static final int ACTIVE    = 0x01; // consumer task running or scheduled
+        static final int CLOSED    = 0x02; // onComplete pending after drain
+        static final int ERROR     = 0x04; // onError pending
+        static final int CANCELLED = 0x08; // no further signals
+        static final int DONE      = 0x10; // terminal signal issued or cancelled
+
+        BufferedSubscription(Flow.Subscriber<? super T> subscriber,
+                             Executor executor,
+                             BiConsumer<? super Flow.Subscriber<? super T>, ? super Throwable> onNextHandler,
+                             int maxBufferCapacity) {
+            this.subscriber = subscriber;
+            this.executor = executor;
+            this.onNextHandler = onNextHandler;
+            this.maxCapacity = maxBufferCapacity;
+        }
+
+        final boolean isDisabled() {
+            return (ctl & (CANCELLED | DONE)) != 0;
+        }
+
+        final int estimateLag() {
+            long n = tail - head;
+            return (n <= 0L) ? 0 : (n >= Integer.MAX_VALUE) ?
+                Integer.MAX_VALUE : (int)n;
+        }
+
+        final long estimateDemand() {
+            long d = demand - estimateLag();
+            return (d > 0L) ? d : 0L;
+        }
+
+        /**
+         * Tries to add item to the buffer. Called only by the producer.
+         *
+         * @return the number of buffered items if added, zero if the
+         * buffer is full, or negative if this subscription is disabled
+         */
+        final int offer(T item) {
+            if (isDisabled())
+                return -1;
+            long t = tail;
+            int n = (int)(t - head);
+            if (n >= maxCapacity)
+                return 0;
+            Object[] a = array;
+            if (a == null || n >= a.length)
+                a = growArray(a, t);
+            a[(int)t & (a.length - 1)] = item;
+            tail = t + 1;                  // volatile write; see signal
+            signal();
+            return n + 1;
+        }
+
+        /**
+         * Allocates or doubles the buffer, copying items between head
+         * and tail to the same indices modulo the new length.
+         */
+        private Object[] growArray(Object[] a, long t) {
+            int cap = (a == null) ?
+                Math.min(INITIAL_CAPACITY, maxCapacity) : a.length << 1;
+            Object[] na = new Object[cap];
+            if (a != null) {
+                int oldMask = a.length - 1, mask = cap - 1;
+                for (long i = head; i < t; ++i)
+                    na[(int)i & mask] = a[(int)i & oldMask];
+            }
+            array = na;
+            return na;
+        }
+
+        /**
+         * Blocks the producer until item can be added, the
+         * subscription is disabled, or the timeout elapses.
+         *
+         * @return result of offer, or 0 on timeout or interrupt
+         */
+        final int awaitSpace(T item, long nanos) {
+            int stat;
+            putItem = item;
+            timeout = nanos;
+            if (nanos != Long.MAX_VALUE)
+                timeout = System.nanoTime() + nanos; // as deadline
+            boolean interrupted = false;
+            try {
+                for (;;) {
+                    if ((stat = offer(item)) != 0)
+                        break;
+                    if (timeout != Long.MAX_VALUE &&
+                        timeout - System.nanoTime() <= 0L)
+                        break;
+                    try {
+                        ForkJoinPool.managedBlock(this);
+                    } catch (InterruptedException ie) {
+                        interrupted = true;
+                    }
+                    if (interrupted && nanos != Long.MAX_VALUE) {
+                        stat = offer(item);  // timed offers give up
+                        break;
+                    }
+                    if (interrupted)
+                        Thread.interrupted(); // clear so park blocks
+                }
+            } finally {
+                putItem = null;
+                waiter = null;
+                if (interrupted)
+                    Thread.currentThread().interrupt();
+            }
+            return stat;
+        }
+
+        // ManagedBlocker support for awaitSpace
+
+        public final boolean isReleasable() {
+            return isDisabled() || tail - head < maxCapacity ||
+                (timeout != Long.MAX_VALUE &&
+                 timeout - System.nanoTime() <= 0L);
+        }
+
+        public final boolean block() throws InterruptedException {
+            waiter = Thread.currentThread();
+            if (!isReleasable()) {
+                if (timeout == Long.MAX_VALUE)
+                    LockSupport.park(this);
+                else
+                    LockSupport.parkNanos(this, timeout - System.nanoTime());
+            }
+            waiter = null;
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            return isReleasable();
+        }
+
+        /**
+         * Unparks the blocked producer, if any.
+         */
+        private void wakeProducer() {
+            Thread w = waiter;
+            if (w != null)
+                LockSupport.unpark(w);
+        }
+
+        // Signals from producers, requesters, and closers
+
+        /**
+         * Starts a consumer task unless one is active or this
+         * subscription is terminated.
+         */
+        final void signal() {
+            for (int c;;) {
+                if (((c = ctl) & (ACTIVE | DONE)) != 0)
+                    break;
+                if (U.compareAndSwapInt(this, CTL, c, c | ACTIVE)) {
+                    startConsumer();
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Issues the consumer task, or on executor failure, delivers
+         * the failure as an error in the calling thread and rethrows.
+         */
+        private void startConsumer() {
+            try {
+                executor.execute(this);
+            } catch (RuntimeException | Error ex) {
+                // consumer is not running, since we own ACTIVE
+                pendingError = ex;
+                setBits(ERROR);
+                run();
+                throw ex;
+            }
+        }
+
+        final void startOnSubscribe() {
+            signal();
+        }
+
+        private void setBits(int bits) {
+            for (int c;;) {
+                if (U.compareAndSwapInt(this, CTL, c = ctl, c | bits))
+                    break;
+            }
+        }
+
+        final void onComplete() {
+            setBits(CLOSED);
+            signal();
+        }
+
+        final void onError(Throwable ex) {
+            if (ex != null && (ctl & (ERROR | DONE)) == 0) {
+                pendingError = ex;   // published by setBits
+                setBits(ERROR);
+            }
+            signal();
+            wakeProducer();
+        }
+
+        public void cancel() {
+            setBits(CANCELLED);
+            signal();
+            wakeProducer();
+        }
+
+        public void request(long n) {
+            if (n > 0L) {
+                for (long prev;;) {
+                    long d = (prev = demand) + n;
+                    if (d < prev)               // saturate on overflow
+                        d = Long.MAX_VALUE;
+                    if (U.compareAndSwapLong(this, DEMAND, prev, d))
+                        break;
+                }
+                signal();
+            }
+            else
+                onError(new IllegalArgumentException(
+                            "non-positive subscription request"));
+        }
+
+        // Consumer
+
+        /**
+         * Delivers onSubscribe if not yet done, then delivers
+         * items while there are items and demand, then any terminal
+         * signal, before deactivating.
+         */
+        public final void run() {
+            Flow.Subscriber<? super T> s = subscriber;
+            if (!subscribed) {
+                subscribed = true;
+                try {
+                    s.onSubscribe(this);
+                } catch (Throwable ex) {
+                    setBits(CANCELLED);
+                }
+            }
+            for (;;) {
+                int c = ctl;
+                if ((c & DONE) != 0)
+                    break;
+                if ((c & CANCELLED) != 0) {
+                    detach();
+                    break;
+                }
+                if ((c & ERROR) != 0) {
+                    Throwable ex = pendingError;
+                    detach();
+                    try {
+                        s.onError(ex);
+                    } catch (Throwable ignore) {
+                    }
+                    break;
+                }
+                long h = head;
+                if (h != tail) {
+                    if (demand > 0L) {
+                        T item = take(h);
+                        try {
+                            s.onNext(item);
+                        } catch (Throwable ex) {
+                            handleOnNext(ex);
+                        }
+                        continue;
+                    }
+                }
+                else if ((c & CLOSED) != 0) {
+                    detach();
+                    try {
+                        s.onComplete();
+                    } catch (Throwable ignore) {
+                    }
+                    break;
+                }
+                // Nothing deliverable: deactivate, then recheck
+                if (U.compareAndSwapInt(this, CTL, c, c & ~ACTIVE)) {
+                    if (!hasWork() ||
+                        !U.compareAndSwapInt(this, CTL, c &= ~ACTIVE,
+                                             c | ACTIVE))
+                        break;
+                }
+            }
+        }
+
+        /**
+         * Returns true if there is something for the consumer to do.
+         */
+        private boolean hasWork() {
+            int c = ctl;
+            return (c & DONE) == 0 &&
+                ((c & (CLOSED | ERROR | CANCELLED)) != 0 ||
+                 (tail != head && demand > 0L));
+        }
+
+        /**
+         * Removes and returns the item at index h, decrementing demand.
+         */
+        @SuppressWarnings("unchecked")
+        private T take(long h) {
+            Object[] a = array;
+            int i = (int)h & (a.length - 1);
+            T item = (T)a[i];
+            a[i] = null;
+            Object[] b = array;            // clear if concurrently grown
+            if (b != a)
+                b[(int)h & (b.length - 1)] = null;
+            head = h + 1;
+            U.getAndAddLong(this, DEMAND, -1L);
+            wakeProducer();
+            return item;
+        }
+
+        /**
+         * Sets DONE and releases buffered items and any blocked producer.
+         */
+        private void detach() {
+            setBits(DONE);
+            array = null;
+            pendingError = null;
+            wakeProducer();
+        }
+
+        private void handleOnNext(Throwable ex) {
+            BiConsumer<? super Flow.Subscriber<? super T>, ? super Throwable> h;
+            if ((h = onNextHandler) != null) {
+                try {
+                    h.accept(subscriber, ex);
+                } catch (Throwable ignore) {
+                }
+            }
+            setBits(CANCELLED);
+        }
+
+        // Unsafe mechanics
+        private static final sun.misc.Unsafe U;
+        private static final long CTL;
+        private static final long DEMAND;
+
+        static {
+            try {
+                U = sun.misc.Unsafe.getUnsafe();
+                Class<?> k = BufferedSubscription.class;
+                CTL = U.objectFieldOffset
+                    (k.getDeclaredField("ctl"));
+                DEMAND = U.objectFieldOffset
+                    (k.getDeclaredField("demand"));
+            } catch (Exception e) {
+                throw new Error(e);
+            }
+        }
+    }
+}
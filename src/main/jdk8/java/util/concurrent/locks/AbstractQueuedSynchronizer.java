@@ -98,6 +98,12 @@ import sun.misc.Unsafe;
  * using an {@code AbstractQueuedSynchronizer} for their
  * synchronization mechanics.
  *
+ * <p>By default, a thread whose initial attempt to acquire fails is
+ * queued and soon parks. Subclasses protecting short critical
+ * sections may instead install an {@link AdaptiveSpinPolicy} using
+ * {@link #setSpinPolicy}, so that such threads first spin, retrying
+ * acquisition, for a duration adapted to recent waits.
+ *
  * <p>Serialization of this class stores only the underlying atomic
  * integer maintaining state, so deserialized objects have empty
  * thread queues. Typical subclasses requiring serializability will
@@ -562,6 +568,12 @@ public abstract class AbstractQueuedSynchronizer
      */
     private volatile int state;
 
+    /**
+     * The policy for spinning before queuing, or null if acquiring
+     * threads queue as soon as an initial attempt fails.
+     */
+    private transient volatile AdaptiveSpinPolicy spinPolicy;
+
     /**
      * Returns the current value of synchronization state.
      * This operation has memory semantics of a {@code volatile} read.
@@ -598,6 +610,34 @@ public abstract class AbstractQueuedSynchronizer
         return unsafe.compareAndSwapInt(this, stateOffset, expect, update);
     }
 
+    /**
+     * Sets the policy used to spin, retrying acquisition, before
+     * queuing and parking threads whose initial attempt to acquire
+     * fails. By default no policy is set, and threads do not spin.
+     * Spinning applies to the {@code acquire} methods in both
+     * exclusive and shared modes, but not to reacquisition after a
+     * {@link ConditionObject} wait. Since the policy is not
+     * serialized, deserialized synchronizers do not spin until a
+     * policy is set again.
+     *
+     * @param policy the spin policy, or {@code null} to disable spinning
+     * @since 9
+     */
+    protected final void setSpinPolicy(AdaptiveSpinPolicy policy) {
+        spinPolicy = policy;
+    }
+
+    /**
+     * Returns the policy set by {@link #setSpinPolicy}, or {@code
+     * null} if none.
+     *
+     * @return the spin policy, or {@code null} if none
+     * @since 9
+     */
+    protected final AdaptiveSpinPolicy getSpinPolicy() {
+        return spinPolicy;
+    }
+
     // Queuing utilities
 
     /**
@@ -891,10 +931,53 @@ public abstract class AbstractQueuedSynchronizer
      * @return {@code true} if interrupted
      */
     private final boolean parkAndCheckInterrupt() {
+        AdaptiveSpinPolicy policy = spinPolicy;
+        if (policy != null)
+            policy.parked();
         LockSupport.park(this);
         return Thread.interrupted();
     }
 
+    /**
+     * Convenience method for timed park, as used in timed acquires.
+     */
+    private void parkNanos(long nanosTimeout) {
+        AdaptiveSpinPolicy policy = spinPolicy;
+        if (policy != null)
+            policy.parked();
+        LockSupport.parkNanos(this, nanosTimeout);
+    }
+
+    /**
+     * If a spin policy is set, repeatedly tries to acquire for the
+     * duration given by the policy, but no longer than the given
+     * timeout if positive, recording the outcome with the policy.
+     * Called only after an initial attempt to acquire has failed.
+     *
+     * @param arg the acquire argument
+     * @param shared true if acquiring in shared mode
+     * @param nanosTimeout limit on spin time, or zero if untimed
+     * @return {@code true} if acquired
+     */
+    private boolean spinAcquire(int arg, boolean shared, long nanosTimeout) {
+        AdaptiveSpinPolicy policy = spinPolicy;
+        long spin;
+        if (policy == null || (spin = policy.spinNanos()) <= 0L)
+            return false;
+        if (nanosTimeout > 0L && nanosTimeout < spin)
+            spin = nanosTimeout;
+        final long start = System.nanoTime();
+        long elapsed;
+        do {
+            if (shared ? tryAcquireShared(arg) >= 0 : tryAcquire(arg)) {
+                policy.spinSucceeded(System.nanoTime() - start);
+                return true;
+            }
+        } while ((elapsed = System.nanoTime() - start) < spin);
+        policy.spinFailed(elapsed);
+        return false;
+    }
+
     /*
      * Various flavors of acquire, varying in exclusive/shared and
      * control modes.  Each is mostly the same, but annoyingly
@@ -998,7 +1081,7 @@ public abstract class AbstractQueuedSynchronizer
                     return false;
                 if (shouldParkAfterFailedAcquire(p, node) &&
                         nanosTimeout > spinForTimeoutThreshold)
-                    LockSupport.parkNanos(this, nanosTimeout);
+                    parkNanos(nanosTimeout);
                 if (Thread.interrupted())
                     throw new InterruptedException();
             }
@@ -1103,7 +1186,7 @@ public abstract class AbstractQueuedSynchronizer
                     return false;
                 if (shouldParkAfterFailedAcquire(p, node) &&
                         nanosTimeout > spinForTimeoutThreshold)
-                    LockSupport.parkNanos(this, nanosTimeout);
+                    parkNanos(nanosTimeout);
                 if (Thread.interrupted())
                     throw new InterruptedException();
             }
@@ -1275,6 +1358,7 @@ public abstract class AbstractQueuedSynchronizer
          * acquireQueued()：自旋抢占
          */
         if (!tryAcquire(arg)
+                && !spinAcquire(arg, false, 0L)
                 && acquireQueued(addWaiter(Node.EXCLUSIVE), arg))
 
             // 自我阻塞
@@ -1299,7 +1383,7 @@ public abstract class AbstractQueuedSynchronizer
             throws InterruptedException {
         if (Thread.interrupted())
             throw new InterruptedException();
-        if (!tryAcquire(arg))
+        if (!tryAcquire(arg) && !spinAcquire(arg, false, 0L))
             doAcquireInterruptibly(arg);
     }
 
@@ -1324,8 +1408,15 @@ public abstract class AbstractQueuedSynchronizer
             throws InterruptedException {
         if (Thread.interrupted())
             throw new InterruptedException();
-        return tryAcquire(arg) ||
-                doAcquireNanos(arg, nanosTimeout);
+        if (tryAcquire(arg))
+            return true;
+        if (spinPolicy != null && nanosTimeout > 0L) {
+            long start = System.nanoTime();
+            if (spinAcquire(arg, false, nanosTimeout))
+                return true;
+            nanosTimeout -= System.nanoTime() - start;
+        }
+        return doAcquireNanos(arg, nanosTimeout);
     }
 
     /**
@@ -1360,7 +1451,7 @@ public abstract class AbstractQueuedSynchronizer
      *            and can represent anything you like.
      */
     public final void acquireShared(int arg) {
-        if (tryAcquireShared(arg) < 0)
+        if (tryAcquireShared(arg) < 0 && !spinAcquire(arg, true, 0L))
             doAcquireShared(arg);
     }
 
@@ -1382,7 +1473,7 @@ public abstract class AbstractQueuedSynchronizer
             throws InterruptedException {
         if (Thread.interrupted())
             throw new InterruptedException();
-        if (tryAcquireShared(arg) < 0)
+        if (tryAcquireShared(arg) < 0 && !spinAcquire(arg, true, 0L))
             doAcquireSharedInterruptibly(arg);
     }
 
@@ -1406,8 +1497,15 @@ public abstract class AbstractQueuedSynchronizer
             throws InterruptedException {
         if (Thread.interrupted())
             throw new InterruptedException();
-        return tryAcquireShared(arg) >= 0 ||
-                doAcquireSharedNanos(arg, nanosTimeout);
+        if (tryAcquireShared(arg) >= 0)
+            return true;
+        if (spinPolicy != null && nanosTimeout > 0L) {
+            long start = System.nanoTime();
+            if (spinAcquire(arg, true, nanosTimeout))
+                return true;
+            nanosTimeout -= System.nanoTime() - start;
+        }
+        return doAcquireSharedNanos(arg, nanosTimeout);
     }
 
     /**
@@ -0,0 +1,237 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+package java.util.concurrent.locks;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A policy controlling how long threads acquiring an {@link
+ * AbstractQueuedSynchronizer} spin, repeatedly retrying the
+ * acquisition, before enqueuing and parking. Spinning avoids the cost
+ * of blocking and unblocking threads when synchronizers are held for
+ * periods that are short relative to those costs, but wastes
+ * processor time otherwise; so the spin duration adapts per
+ * synchronizer to how long recent acquirers had to wait for the
+ * synchronizer to become available, which for locks reflects owners'
+ * recent hold times.
+ *
+ * <p>The policy maintains a running estimate of the wait. When the
+ * estimate is below the maximum spin duration, acquirers spin for
+ * about twice the estimate before giving up and queuing. Each
+ * successful spin contributes its observed wait to the estimate,
+ * and each failed spin contributes twice its duration, so that
+ * synchronizers held for long periods quickly stop spinning. Once the
+ * estimate exceeds the maximum, threads queue without spinning,
+ * except that occasional short probe spins allow the estimate to
+ * recover when hold times shrink again.
+ *
+ * <p>Spinning is opt-in. Synchronizers that support it, including
+ * {@link ReentrantLock}, {@link java.util.concurrent.Semaphore} and
+ * {@link java.util.concurrent.CountDownLatch}, accept a policy in a
+ * constructor; otherwise subclasses of {@code
+ * AbstractQueuedSynchronizer} may install one using {@link
+ * AbstractQueuedSynchronizer#setSpinPolicy}. A policy should normally
+ * be used by a single synchronizer; if shared, the estimate and
+ * statistics are combined across all users.
+ *
+ * <p>Spinning is appropriate only when there are more available
+ * processors than threads contending for the synchronizer. Fair
+ * synchronizers do not grant acquisitions to spinning threads while
+ * others are queued, so such spins fail and soon cease.
+ *
+ * <p>Methods {@link #getSpinAcquireCount}, {@link
+ * #getSpinFailureCount} and {@link #getParkCount} report how
+ * acquisitions that did not succeed immediately were resolved. They
+ * are designed for use in monitoring and tuning, not for
+ * synchronization control.
+ *
+ * @since 9
+ */
+public class AdaptiveSpinPolicy {
+
+    /**
+     * The default maximum spin duration, in nanoseconds: roughly the
+     * cost of a park and subsequent unpark on common platforms.
+     */
+    static final long DEFAULT_MAX_SPIN_NANOS = 20000L;
+
+    /**
+     * The shortest spin, in nanoseconds, also used for probe spins.
+     */
+    static final long MIN_SPIN_NANOS = 500L;
+
+    /**
+     * Mask for the number of acquisitions between probe spins when
+     * the estimate exceeds the maximum. Must be a power of two minus one.
+     */
+    static final int PROBE_MASK = (1 << 6) - 1;
+
+    /** The maximum spin duration, in nanoseconds */
+    private final long maxSpinNanos;
+
+    /**
+     * Exponentially weighted moving average of recent waits, in
+     * nanoseconds. Updated without synchronization; lost updates
+     * only slow adaptation.
+     */
+    private volatile long estimate;
+
+    /** Number of acquisitions that skipped spinning, for probing */
+    private int skips;
+
+    private final LongAdder spinAcquires = new LongAdder();
+    private final LongAdder spinFailures = new LongAdder();
+    private final LongAdder parks = new LongAdder();
+
+    /**
+     * Creates a policy with the default maximum spin duration.
+     */
+    public AdaptiveSpinPolicy() {
+        this(DEFAULT_MAX_SPIN_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a policy with the given maximum spin duration.
+     *
+     * @param maxSpin the maximum time to spin before queuing
+     * @param unit the time unit of the {@code maxSpin} argument
+     * @throws IllegalArgumentException if {@code maxSpin} is negative
+     * @throws NullPointerException if the time unit is null
+     */
+    public AdaptiveSpinPolicy(long maxSpin, TimeUnit unit) {
+        if (maxSpin < 0L)
+            throw new IllegalArgumentException();
+        this.maxSpinNanos = unit.toNanos(maxSpin);
+        this.estimate = maxSpinNanos >>> 1;
+    }
+
+    /**
+     * Returns the number of nanoseconds to spin before queuing, or
+     * zero if the caller should not spin.
+     */
+    final long spinNanos() {
+        long e = estimate, max = maxSpinNanos;
+        if (max == 0L)
+            return 0L;
+        if (e < max) {
+            long n = e << 1;
+            return (n < MIN_SPIN_NANOS) ? MIN_SPIN_NANOS : (n > max) ? max : n;
+        }
+        return ((++skips & PROBE_MASK) == 0) ?
+            Math.min(MIN_SPIN_NANOS, max) : 0L;
+    }
+
+    /**
+     * Records an acquisition after spinning for the given time.
+     */
+    final void spinSucceeded(long waited) {
+        spinAcquires.increment();
+        sample(waited);
+    }
+
+    /**
+     * Records a spin of the given duration that failed to acquire.
+     */
+    final void spinFailed(long spun) {
+        spinFailures.increment();
+        sample(spun << 1);
+    }
+
+    /**
+     * Records that an acquiring thread parked.
+     */
+    final void parked() {
+        parks.increment();
+    }
+
+    private void sample(long nanos) {
+        long e = estimate;
+        estimate = e + ((nanos - e) >> 3);
+    }
+
+    /**
+     * Returns the maximum spin duration, in nanoseconds.
+     *
+     * @return the maximum spin duration
+     */
+    public long getMaxSpinNanos() {
+        return maxSpinNanos;
+    }
+
+    /**
+     * Returns the current estimate, in nanoseconds, of the time that
+     * acquiring threads wait for the synchronizer to become available.
+     *
+     * @return the wait estimate
+     */
+    public long getWaitEstimateNanos() {
+        return estimate;
+    }
+
+    /**
+     * Returns the number of acquisitions that succeeded while spinning.
+     *
+     * @return the number of acquisitions by spinning
+     */
+    public long getSpinAcquireCount() {
+        return spinAcquires.sum();
+    }
+
+    /**
+     * Returns the number of spins that ended without acquiring, after
+     * which the spinning thread queued.
+     *
+     * @return the number of failed spins
+     */
+    public long getSpinFailureCount() {
+        return spinFailures.sum();
+    }
+
+    /**
+     * Returns the number of times threads parked while queued to
+     * acquire. A thread may park more than once per acquisition.
+     *
+     * @return the number of parks
+     */
+    public long getParkCount() {
+        return parks.sum();
+    }
+
+    /**
+     * Returns a string identifying this policy, as well as its state.
+     * The state, in brackets, includes the wait estimate and the
+     * spin and park counts.
+     *
+     * @return a string identifying this policy, as well as its state
+     */
+    public String toString() {
+        return super.toString() +
+            "[Wait estimate = " + estimate +
+            "ns, Spin acquires = " + getSpinAcquireCount() +
+            ", Spin failures = " + getSpinFailureCount() +
+            ", Parks = " + getParkCount() + "]";
+    }
+}
@@ -0,0 +1,686 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+
+package java.util.concurrent.locks;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link ReadWriteLock} biased toward readers, intended for
+ * read-mostly data accessed by many threads on machines with many
+ * processors. While the lock is <em>read-biased</em>, acquiring the
+ * read lock updates only a per-lock counter slot selected by the
+ * current thread's id, so readers running on different processors do
+ * not contend on a single memory location as they do in {@link
+ * ReentrantReadWriteLock}, whose readers all update the same
+ * synchronization state.
+ *
+ * <p>The lock is built on an underlying {@link ReentrantReadWriteLock}
+ * that is used by writers, and by readers whenever the bias is
+ * disabled. A writer first acquires the underlying write lock and
+ * then, if the lock is read-biased, <em>revokes</em> the bias and
+ * waits for all biased readers to release their slots. Since
+ * revocation is relatively expensive, the bias is re-enabled by a
+ * subsequent reader only after an inhibition period proportional to
+ * the time taken by the last revocation, which bounds the fraction
+ * of time that writers spend revoking. Consequently this lock is
+ * appropriate only when reads greatly outnumber writes; otherwise
+ * {@link ReentrantReadWriteLock} or {@link StampedLock} should be
+ * preferred.
+ *
+ * <p>This lock supports the same reentrancy as {@link
+ * ReentrantReadWriteLock}: readers and writers may reacquire read or
+ * write locks, and a writer may acquire the read lock, downgrading by
+ * then releasing the write lock. Upgrading from read to write is not
+ * possible. The write lock supports {@link Condition}s, with the same
+ * semantics as those of {@link ReentrantReadWriteLock.WriteLock}; the
+ * read lock does not.
+ *
+ * <p>The fairness policy of the underlying lock applies only while the
+ * bias is disabled: biased readers never wait for queued writers, but
+ * a writer that has acquired the underlying lock excludes new biased
+ * readers as soon as it revokes the bias.
+ *
+ * <p>Each instance uses a counter array sized in proportion to the
+ * number of available processors, each counter padded to reduce
+ * false sharing, so instances are considerably larger than those of
+ * {@link ReentrantReadWriteLock}.
+ *
+ * <p>Sample usage, for a routing table that is rarely updated:
+ * <pre> {@code
+ * class Routes {
+ *   private final Map<String, Route> routes = new HashMap<>();
+ *   private final BiasedReadWriteLock lock = new BiasedReadWriteLock();
+ *
+ *   Route lookup(String key) {
+ *     lock.readLock().lock();
+ *     try { return routes.get(key); }
+ *     finally { lock.readLock().unlock(); }
+ *   }
+ *
+ *   void update(String key, Route route) {
+ *     lock.writeLock().lock();
+ *     try { routes.put(key, route); }
+ *     finally { lock.writeLock().unlock(); }
+ *   }
+ * }}</pre>
+ *
+ * @since 9
+ */
+public class BiasedReadWriteLock implements ReadWriteLock {
+
+    /*
+     * Overview: This is a variant of the BRAVO scheme. The "slots"
+     * array holds one counter per stripe, spaced PAD longs apart. A
+     * biased reader increments its stripe, then rechecks "rbias". A
+     * writer holding the underlying write lock clears rbias and then
+     * waits for every stripe to become zero. Because both sides use
+     * volatile accesses, either the reader sees rbias cleared (and
+     * backs out to the underlying read lock, where it blocks behind
+     * the writer) or the writer sees the reader's increment (and
+     * waits for it).
+     *
+     * Unlocking must release whichever lock was acquired, so each
+     * thread records in a ThreadLocal (as ReentrantReadWriteLock does
+     * for its hold counts) how many biased and underlying read holds
+     * it has. Reentrant biased acquisitions only bump the thread's
+     * own count, so a thread occupies a stripe at most once. A thread
+     * that already holds underlying read locks always reacquires via
+     * the underlying lock, which permits reentrant reads even when a
+     * writer is queued.
+     *
+     * The bias is re-enabled only by a reader that holds the
+     * underlying read lock (so no other thread can hold the write
+     * lock), when the lock is not write-locked by that reader itself
+     * and the inhibition period following the last revocation has
+     * elapsed.
+     */
+
+    /** Spacing, in longs, between stripes, to avoid false sharing */
+    private static final int PAD = 16;
+
+    /** Multiplier for the post-revocation inhibition period */
+    private static final int INHIBIT_MULTIPLIER = 9;
+
+    /** The lock used by writers and by unbiased readers */
+    final ReentrantReadWriteLock underlying;
+
+    /** Per-stripe counts of threads holding biased read locks */
+    private final AtomicLongArray slots;
+
+    /** Number of stripes minus one; the number of stripes is a power of two */
+    private final int mask;
+
+    /** True if readers may acquire via the slots */
+    private volatile boolean rbias;
+
+    /** Time before which the bias may not be re-enabled */
+    private volatile long inhibitUntil;
+
+    /** Per-thread read hold counts */
+    private final ThreadLocal<ReadHolds> readHolds;
+
+    /** Inner class providing readlock */
+    private final BiasedReadWriteLock.ReadLock readerLock;
+    /** Inner class providing writelock */
+    private final BiasedReadWriteLock.WriteLock writerLock;
+
+    /**
+     * Counts of read locks held by a thread, by acquisition path.
+     */
+    static final class ReadHolds {
+        int biased;     // reentrant holds via the slots
+        int unbiased;   // reentrant holds via the underlying lock
+        final int slot; // index into slots
+        ReadHolds(int slot) { this.slot = slot; }
+    }
+
+    /**
+     * Creates a new {@code BiasedReadWriteLock} with a nonfair
+     * underlying lock.
+     */
+    public BiasedReadWriteLock() {
+        this(false);
+    }
+
+    /**
+     * Creates a new {@code BiasedReadWriteLock} with the given
+     * fairness policy for its underlying lock.
+     *
+     * @param fair {@code true} if the underlying lock should use a
+     *        fair ordering policy
+     */
+    public BiasedReadWriteLock(boolean fair) {
+        underlying = new ReentrantReadWriteLock(fair);
+        int n = 1, p = Runtime.getRuntime().availableProcessors() << 1;
+        while (n < p)
+            n <<= 1;
+        mask = n - 1;
+        slots = new AtomicLongArray((n + 1) * PAD); // pad both ends
+        readHolds = new ThreadLocal<ReadHolds>() {
+            protected ReadHolds initialValue() {
+                long id = ReentrantReadWriteLock.getThreadId
+                    (Thread.currentThread());
+                int h = (int)(id ^ (id >>> 32)) * 0x9e3779b9;
+                return new ReadHolds((h ^ (h >>> 16)) & mask);
+            }
+        };
+        readerLock = new ReadLock(this);
+        writerLock = new WriteLock(this);
+        rbias = true;
+    }
+
+    public BiasedReadWriteLock.WriteLock writeLock() { return writerLock; }
+    public BiasedReadWriteLock.ReadLock  readLock()  { return readerLock; }
+
+    /**
+     * Returns the index in slots of the counter for the given stripe.
+     */
+    private static int slotIndex(int slot) {
+        return (slot + 1) * PAD;
+    }
+
+    // Reader support
+
+    /**
+     * Tries to acquire a biased read lock without blocking.
+     *
+     * @return true if acquired, false if the caller must use the
+     *         underlying lock
+     */
+    private boolean tryBiasedRead(ReadHolds h) {
+        if (h.biased > 0) {                 // reentrant
+            ++h.biased;
+            return true;
+        }
+        if (h.unbiased == 0 && rbias) {
+            int i = slotIndex(h.slot);
+            slots.getAndIncrement(i);
+            if (rbias) {
+                h.biased = 1;
+                return true;
+            }
+            slots.getAndDecrement(i);       // raced with revocation
+        }
+        return false;
+    }
+
+    /**
+     * Records an acquisition of the underlying read lock, possibly
+     * re-enabling the bias.
+     */
+    private void afterUnbiasedRead(ReadHolds h) {
+        ++h.unbiased;
+        if (!rbias && System.nanoTime() - inhibitUntil >= 0L &&
+            !underlying.isWriteLocked())
+            rbias = true;
+    }
+
+    /**
+     * Releases a read lock held by the current thread.
+     */
+    private void releaseRead() {
+        ReadHolds h = readHolds.get();
+        if (h.biased > 0) {
+            if (--h.biased == 0)
+                slots.getAndDecrement(slotIndex(h.slot));
+        }
+        else if (h.unbiased > 0) {
+            underlying.readLock().unlock();
+            --h.unbiased;
+        }
+        else {
+            readHolds.remove();
+            throw new IllegalMonitorStateException();
+        }
+        if (h.biased == 0 && h.unbiased == 0)
+            readHolds.remove();
+    }
+
+    // Writer support
+
+    /**
+     * Called by a thread holding the underlying write lock. If the
+     * lock is biased, disables the bias and waits until no biased
+     * readers remain, or until the deadline if {@code timed}.
+     *
+     * @return true if no biased readers remain
+     */
+    private boolean revokeBias(boolean timed, long deadline) {
+        if (!rbias)
+            return true;
+        rbias = false;
+        long start = System.nanoTime();
+        for (int s = 0; s <= mask; ++s) {
+            int i = slotIndex(s);
+            while (slots.get(i) != 0L) {
+                if (timed && deadline - System.nanoTime() <= 0L)
+                    return false;
+                Thread.yield();
+            }
+        }
+        long now = System.nanoTime();
+        inhibitUntil = now + (now - start) * INHIBIT_MULTIPLIER;
+        return true;
+    }
+
+    /**
+     * The lock returned by method {@link BiasedReadWriteLock#readLock}.
+     */
+    public static class ReadLock implements Lock {
+        private final BiasedReadWriteLock lock;
+
+        /**
+         * Constructor for use by subclasses
+         *
+         * @param lock the outer lock object
+         * @throws NullPointerException if the lock is null
+         */
+        protected ReadLock(BiasedReadWriteLock lock) {
+            if (lock == null)
+                throw new NullPointerException();
+            this.lock = lock;
+        }
+
+        /**
+         * Acquires the read lock.
+         *
+         * <p>If the lock is read-biased, or the current thread already
+         * holds a biased read lock, the lock is acquired without
+         * blocking. Otherwise the read lock of the underlying lock is
+         * acquired as by {@link ReentrantReadWriteLock.ReadLock#lock}.
+         */
+        public void lock() {
+            BiasedReadWriteLock l = lock;
+            ReadHolds h = l.readHolds.get();
+            if (!l.tryBiasedRead(h)) {
+                l.underlying.readLock().lock();
+                l.afterUnbiasedRead(h);
+            }
+        }
+
+        /**
+         * Acquires the read lock unless the current thread is
+         * {@linkplain Thread#interrupt interrupted}.
+         *
+         * @throws InterruptedException if the current thread is interrupted
+         */
+        public void lockInterruptibly() throws InterruptedException {
+            BiasedReadWriteLock l = lock;
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            ReadHolds h = l.readHolds.get();
+            if (!l.tryBiasedRead(h)) {
+                try {
+                    l.underlying.readLock().lockInterruptibly();
+                } catch (InterruptedException ie) {
+                    if (h.biased == 0 && h.unbiased == 0)
+                        l.readHolds.remove();
+                    throw ie;
+                }
+                l.afterUnbiasedRead(h);
+            }
+        }
+
+        /**
+         * Acquires the read lock only if the write lock is not held by
+         * another thread at the time of invocation.
+         *
+         * @return {@code true} if the read lock was acquired
+         */
+        public boolean tryLock() {
+            BiasedReadWriteLock l = lock;
+            ReadHolds h = l.readHolds.get();
+            if (l.tryBiasedRead(h))
+                return true;
+            if (l.underlying.readLock().tryLock()) {
+                l.afterUnbiasedRead(h);
+                return true;
+            }
+            if (h.biased == 0 && h.unbiased == 0)
+                l.readHolds.remove();
+            return false;
+        }
+
+        /**
+         * Acquires the read lock if the write lock is not held by
+         * another thread within the given waiting time and the
+         * current thread has not been {@linkplain Thread#interrupt
+         * interrupted}.
+         *
+         * @param timeout the time to wait for the read lock
+         * @param unit the time unit of the timeout argument
+         * @return {@code true} if the read lock was acquired
+         * @throws InterruptedException if the current thread is interrupted
+         * @throws NullPointerException if the time unit is null
+         */
+        public boolean tryLock(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            BiasedReadWriteLock l = lock;
+            if (unit == null)
+                throw new NullPointerException();
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            ReadHolds h = l.readHolds.get();
+            if (l.tryBiasedRead(h))
+                return true;
+            boolean acquired = false;
+            try {
+                acquired = l.underlying.readLock().tryLock(timeout, unit);
+            } finally {
+                if (acquired)
+                    l.afterUnbiasedRead(h);
+                else if (h.biased == 0 && h.unbiased == 0)
+                    l.readHolds.remove();
+            }
+            return acquired;
+        }
+
+        /**
+         * Attempts to release this lock.
+         *
+         * @throws IllegalMonitorStateException if the current thread
+         *         does not hold this lock
+         */
+        public void unlock() {
+            lock.releaseRead();
+        }
+
+        /**
+         * Throws {@code UnsupportedOperationException} because
+         * {@code ReadLocks} do not support conditions.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Returns a string identifying this lock, as well as its lock state.
+         * The state, in brackets, includes the String {@code "Biased"}
+         * or {@code "Unbiased"}.
+         *
+         * @return a string identifying this lock, as well as its lock state
+         */
+        public String toString() {
+            return super.toString() +
+                (lock.rbias ? "[Biased]" : "[Unbiased]");
+        }
+    }
+
+    /**
+     * The lock returned by method {@link BiasedReadWriteLock#writeLock}.
+     */
+    public static class WriteLock implements Lock {
+        private final BiasedReadWriteLock lock;
+
+        /**
+         * Constructor for use by subclasses
+         *
+         * @param lock the outer lock object
+         * @throws NullPointerException if the lock is null
+         */
+        protected WriteLock(BiasedReadWriteLock lock) {
+            if (lock == null)
+                throw new NullPointerException();
+            this.lock = lock;
+        }
+
+        /**
+         * Acquires the write lock, as by {@link
+         * ReentrantReadWriteLock.WriteLock#lock}, and then waits for
+         * any biased readers to release the lock.
+         */
+        public void lock() {
+            lock.underlying.writeLock().lock();
+            lock.revokeBias(false, 0L);
+        }
+
+        /**
+         * Acquires the write lock unless the current thread is
+         * {@linkplain Thread#interrupt interrupted}. Once the
+         * underlying write lock is acquired, waiting for biased
+         * readers to release the lock is not interruptible.
+         *
+         * @throws InterruptedException if the current thread is interrupted
+         */
+        public void lockInterruptibly() throws InterruptedException {
+            lock.underlying.writeLock().lockInterruptibly();
+            lock.revokeBias(false, 0L);
+        }
+
+        /**
+         * Acquires the write lock only if it is not held by another
+         * thread and no read locks are held at the time of
+         * invocation.
+         *
+         * @return {@code true} if the lock was acquired
+         */
+        public boolean tryLock() {
+            BiasedReadWriteLock l = lock;
+            ReentrantReadWriteLock.WriteLock w = l.underlying.writeLock();
+            if (!w.tryLock())
+                return false;
+            if (l.revokeBias(true, System.nanoTime()))
+                return true;
+            w.unlock();
+            return false;
+        }
+
+        /**
+         * Acquires the write lock if it is not held by another thread
+         * and all biased readers release the lock within the given
+         * waiting time, and the current thread has not been
+         * {@linkplain Thread#interrupt interrupted}.
+         *
+         * @param timeout the time to wait for the write lock
+         * @param unit the time unit of the timeout argument
+         * @return {@code true} if the lock was acquired
+         * @throws InterruptedException if the current thread is interrupted
+         * @throws NullPointerException if the time unit is null
+         */
+        public boolean tryLock(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            BiasedReadWriteLock l = lock;
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            ReentrantReadWriteLock.WriteLock w = l.underlying.writeLock();
+            if (!w.tryLock(timeout, unit))
+                return false;
+            if (l.revokeBias(true, deadline))
+                return true;
+            w.unlock();
+            return false;
+        }
+
+        /**
+         * Attempts to release this lock.
+         *
+         * @throws IllegalMonitorStateException if the current thread
+         *         does not hold this lock
+         */
+        public void unlock() {
+            lock.underlying.writeLock().unlock();
+        }
+
+        /**
+         * Returns a {@link Condition} instance for use with this
+         * {@link Lock} instance, with the same semantics as those of
+         * {@link ReentrantReadWriteLock.WriteLock#newCondition}. Upon
+         * return from any waiting method, the write lock has been
+         * reacquired and any bias re-enabled while waiting has been
+         * revoked.
+         *
+         * @return the Condition object
+         */
+        public Condition newCondition() {
+            return new WriterCondition
+                (lock, lock.underlying.writeLock().newCondition());
+        }
+
+        /**
+         * Queries if this write lock is held by the current thread.
+         *
+         * @return {@code true} if the current thread holds this lock
+         */
+        public boolean isHeldByCurrentThread() {
+            return lock.underlying.writeLock().isHeldByCurrentThread();
+        }
+
+        /**
+         * Returns a string identifying this lock, as well as its lock
+         * state, as reported by the underlying write lock.
+         *
+         * @return a string identifying this lock, as well as its lock state
+         */
+        public String toString() {
+            String s = lock.underlying.writeLock().toString();
+            return super.toString() + s.substring(s.indexOf('['));
+        }
+    }
+
+    /**
+     * Condition for the write lock, revoking the bias on each return
+     * from a wait, since the underlying write lock is released while
+     * waiting.
+     */
+    static final class WriterCondition implements Condition {
+        final BiasedReadWriteLock lock;
+        final Condition cond;
+
+        WriterCondition(BiasedReadWriteLock lock, Condition cond) {
+            this.lock = lock;
+            this.cond = cond;
+        }
+
+        public void await() throws InterruptedException {
+            try {
+                cond.await();
+            } finally {
+                lock.revokeBias(false, 0L);
+            }
+        }
+
+        public void awaitUninterruptibly() {
+            cond.awaitUninterruptibly();
+            lock.revokeBias(false, 0L);
+        }
+
+        public long awaitNanos(long nanosTimeout) throws InterruptedException {
+            try {
+                return cond.awaitNanos(nanosTimeout);
+            } finally {
+                lock.revokeBias(false, 0L);
+            }
+        }
+
+        public boolean await(long time, TimeUnit unit)
+                throws InterruptedException {
+            try {
+                return cond.await(time, unit);
+            } finally {
+                lock.revokeBias(false, 0L);
+            }
+        }
+
+        public boolean awaitUntil(Date deadline) throws InterruptedException {
+            try {
+                return cond.awaitUntil(deadline);
+            } finally {
+                lock.revokeBias(false, 0L);
+            }
+        }
+
+        public void signal() {
+            cond.signal();
+        }
+
+        public void signalAll() {
+            cond.signalAll();
+        }
+    }
+
+    // Instrumentation and status
+
+    /**
+     * Returns {@code true} if read locks may currently be acquired
+     * via the bias. This method is designed for use in monitoring
+     * system state, not for synchronization control.
+     *
+     * @return {@code true} if the lock is currently read-biased
+     */
+    public boolean isReadBiased() {
+        return rbias;
+    }
+
+    /**
+     * Queries if the write lock is held by any thread.
+     *
+     * @return {@code true} if any thread holds the write lock and
+     *         {@code false} otherwise
+     */
+    public boolean isWriteLocked() {
+        return underlying.isWriteLocked();
+    }
+
+    /**
+     * Queries if the write lock is held by the current thread.
+     *
+     * @return {@code true} if the current thread holds the write lock and
+     *         {@code false} otherwise
+     */
+    public boolean isWriteLockedByCurrentThread() {
+        return underlying.isWriteLockedByCurrentThread();
+    }
+
+    /**
+     * Queries the number of read locks held by the current thread,
+     * counting both biased and unbiased holds.
+     *
+     * @return the number of holds on the read lock by the current thread,
+     *         or zero if the read lock is not held by the current thread
+     */
+    public int getReadHoldCount() {
+        ReadHolds h = readHolds.get();
+        int n = h.biased + h.unbiased;
+        if (n == 0)
+            readHolds.remove();
+        return n;
+    }
+
+    /**
+     * Returns a string identifying this lock, as well as its lock state.
+     * The state, in brackets, includes the String {@code "Biased"} or
+     * {@code "Unbiased"}, followed by the state of the underlying lock.
+     *
+     * @return a string identifying this lock, as well as its lock state
+     */
+    public String toString() {
+        String s = underlying.toString();
+        return super.toString() + (rbias ? "[Biased]" : "[Unbiased]") +
+            s.substring(s.indexOf('['));
+    }
+}
@@ -277,6 +277,22 @@ public class ReentrantLock implements Lock, java.io.Serializable {
         sync = fair ? new FairSync() : new NonfairSync();
     }
 
+    /**
+     * Creates an instance of {@code ReentrantLock} with the
+     * given fairness policy, whose threads spin according to the
+     * given policy before queuing when the lock is held by another
+     * thread. Spinning can reduce the cost of contention for locks
+     * that are held only briefly.
+     *
+     * @param fair {@code true} if this lock should use a fair ordering policy
+     * @param spinPolicy the spin policy, or {@code null} to not spin
+     * @since 9
+     */
+    public ReentrantLock(boolean fair, AdaptiveSpinPolicy spinPolicy) {
+        this(fair);
+        sync.setSpinPolicy(spinPolicy);
+    }
+
     /**
      * Acquires the lock.
      *
@@ -47,10 +47,13 @@
  *
  * <p>The {@link java.util.concurrent.locks.ReadWriteLock} interface
  * similarly defines locks that may be shared among readers but are
- * exclusive to writers.  Only a single implementation, {@link
- * java.util.concurrent.locks.ReentrantReadWriteLock}, is provided, since
- * it covers most standard usage contexts.  But programmers may create
- * their own implementations to cover nonstandard requirements.
+ * exclusive to writers.  The main implementation is {@link
+ * java.util.concurrent.locks.ReentrantReadWriteLock}, since it covers
+ * most standard usage contexts.  {@link
+ * java.util.concurrent.locks.BiasedReadWriteLock} trades space and
+ * write latency for reads that scale across many processors, for
+ * read-mostly data.  Programmers may also create their own
+ * implementations to cover nonstandard requirements.
  *
  * <p>The {@link java.util.concurrent.locks.Condition} interface
  * describes condition variables that may be associated with Locks.
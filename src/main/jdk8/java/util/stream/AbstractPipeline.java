@@ -148,6 +148,12 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
      */
     private boolean parallel;
 
+    /**
+     * The profiler of the current evaluation of the pipeline, if profiling
+     * is enabled; only valid for the source stage.
+     */
+    private StreamProfiler profiler;
+
     /**
      * Constructor for the head of a stream pipeline.
      *
@@ -229,9 +235,15 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
             throw new IllegalStateException(MSG_STREAM_LINKED);
         linkedOrConsumed = true;
 
-        return isParallel()
-               ? terminalOp.evaluateParallel(this, sourceSpliterator(terminalOp.getOpFlags()))
-               : terminalOp.evaluateSequential(this, sourceSpliterator(terminalOp.getOpFlags()));
+        StreamProfiler profiler = StreamProfiler.shouldProfile() ? startProfiling(terminalOp) : null;
+        try {
+            return isParallel()
+                   ? terminalOp.evaluateParallel(this, sourceSpliterator(terminalOp.getOpFlags()))
+                   : terminalOp.evaluateSequential(this, sourceSpliterator(terminalOp.getOpFlags()));
+        } finally {
+            if (profiler != null)
+                profiler.report();
+        }
     }
 
     /**
@@ -246,21 +258,45 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
             throw new IllegalStateException(MSG_STREAM_LINKED);
         linkedOrConsumed = true;
 
-        // If the last intermediate operation is stateful then
-        // evaluate directly to avoid an extra collection step
-        if (isParallel() && previousStage != null && opIsStateful()) {
-            // Set the depth of this, last, pipeline stage to zero to slice the
-            // pipeline such that this operation will not be included in the
-            // upstream slice and upstream operations will not be included
-            // in this slice
-            depth = 0;
-            return opEvaluateParallel(previousStage, previousStage.sourceSpliterator(0), generator);
-        }
-        else {
-            return evaluate(sourceSpliterator(0), true, generator);
+        StreamProfiler profiler = StreamProfiler.shouldProfile() ? startProfiling("toArray") : null;
+        try {
+            // If the last intermediate operation is stateful then
+            // evaluate directly to avoid an extra collection step
+            if (isParallel() && previousStage != null && opIsStateful()) {
+                // Set the depth of this, last, pipeline stage to zero to slice the
+                // pipeline such that this operation will not be included in the
+                // upstream slice and upstream operations will not be included
+                // in this slice
+                depth = 0;
+                return opEvaluateParallel(previousStage, previousStage.sourceSpliterator(0), generator);
+            }
+            else {
+                return evaluate(sourceSpliterator(0), true, generator);
+            }
+        } finally {
+            if (profiler != null)
+                profiler.report();
         }
     }
 
+    /**
+     * Creates the profiler of an evaluation of this pipeline, and installs it
+     * in the source stage.
+     *
+     * @param terminalOp the terminal operation, or a string naming it
+     * @return the profiler
+     */
+    @SuppressWarnings("rawtypes")
+    private StreamProfiler startProfiling(Object terminalOp) {
+        int n = 0;
+        for (AbstractPipeline p = this; p != null; p = p.previousStage)
+            n++;
+        AbstractPipeline[] stages = new AbstractPipeline[n];
+        for (AbstractPipeline p = this; p != null; p = p.previousStage)
+            stages[--n] = p;
+        return sourceStage.profiler = new StreamProfiler(stages, terminalOp, isParallel());
+    }
+
     /**
      * Gets the source stage spliterator if this pipeline stage is the source
      * stage.  The pipeline is consumed after this method is called and
@@ -476,6 +512,17 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
     final <P_IN> void copyInto(Sink<P_IN> wrappedSink, Spliterator<P_IN> spliterator) {
         Objects.requireNonNull(wrappedSink);
 
+        if (sourceStage.profiler != null && !StreamProfiler.isTraversing()) {
+            // Pipelines evaluated by the operations are not profiled
+            StreamProfiler.setTraversing(true);
+            try {
+                copyInto(wrappedSink, spliterator);
+            } finally {
+                StreamProfiler.setTraversing(false);
+            }
+            return;
+        }
+
         if (!StreamOpFlag.SHORT_CIRCUIT.isKnown(getStreamAndOpFlags())) {
             wrappedSink.begin(spliterator.getExactSizeIfKnown());
             spliterator.forEachRemaining(wrappedSink);
@@ -489,6 +536,15 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
     @Override
     @SuppressWarnings("unchecked")
     final <P_IN> void copyIntoWithCancel(Sink<P_IN> wrappedSink, Spliterator<P_IN> spliterator) {
+        if (sourceStage.profiler != null && !StreamProfiler.isTraversing()) {
+            StreamProfiler.setTraversing(true);
+            try {
+                copyIntoWithCancel(wrappedSink, spliterator);
+            } finally {
+                StreamProfiler.setTraversing(false);
+            }
+            return;
+        }
         @SuppressWarnings({"rawtypes","unchecked"})
         AbstractPipeline p = AbstractPipeline.this;
         while (p.depth > 0) {
@@ -513,12 +569,24 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
     final <P_IN> Sink<P_IN> wrapSink(Sink<E_OUT> sink) {
         Objects.requireNonNull(sink);
 
+        StreamProfiler profiler = sourceStage.profiler;
+        if (profiler != null) {
+            sink = profiler.wrap(profiler.indexOf(this) + 1, getOutputShape(), sink);
+        }
         for ( @SuppressWarnings("rawtypes") AbstractPipeline p=AbstractPipeline.this; p.depth > 0; p=p.previousStage) {
             sink = p.opWrapSink(p.previousStage.combinedFlags, sink);
+            if (profiler != null) {
+                sink = profiler.wrap(profiler.indexOf(p), p.previousStage.getOutputShape(), sink);
+            }
         }
         return (Sink<P_IN>) sink;
     }
 
+    @Override
+    final StreamProfiler getProfiler() {
+        return sourceStage.profiler;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     final <P_IN> Spliterator<E_OUT> wrapSpliterator(Spliterator<P_IN> sourceSpliterator) {
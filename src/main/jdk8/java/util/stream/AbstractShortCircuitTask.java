@@ -112,6 +112,9 @@ abstract class AbstractShortCircuitTask<P_IN, P_OUT, R,
                 break;
             }
             if (sizeEstimate <= sizeThreshold || (ls = rs.trySplit()) == null) {
+                StreamProfiler profiler = helper.getProfiler();
+                if (profiler != null)
+                    profiler.recordLeaf(task, sizeEstimate);
                 result = task.doLeaf();
                 break;
             }
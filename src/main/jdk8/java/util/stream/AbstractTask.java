@@ -313,6 +313,9 @@ abstract class AbstractTask<P_IN, P_OUT, R,
             taskToFork.fork();
             sizeEstimate = rs.estimateSize();
         }
+        StreamProfiler profiler = helper.getProfiler();
+        if (profiler != null)
+            profiler.recordLeaf(task, sizeEstimate);
         task.setLocalResult(task.doLeaf());
         task.tryComplete();
     }
@@ -0,0 +1,271 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Factory methods for transforming streams by asynchronous mapping
+ * functions, with a bounded number of mapping operations in flight.
+ *
+ * <p>Each element is passed to a mapping function returning a
+ * {@link CompletionStage}, and the results of the stages are passed
+ * downstream either in encounter order or in order of completion.  The
+ * stages are completed by whatever threads the mapping function arranges;
+ * only the thread evaluating the pipeline calls the downstream
+ * {@link Sink}.  Completed results are queued and drained by that thread
+ * whenever it next passes an element, and it blocks only when the maximum
+ * number of operations are in flight (and at the end of input), using a
+ * {@link ForkJoinPool.ManagedBlocker} so that a {@code ForkJoinPool} may
+ * compensate for the blocked worker.
+ *
+ * <p>In parallel, the upstream elements are first collected in parallel,
+ * and then passed to the mapping function by the calling thread, so that
+ * the bound on the number of operations in flight applies to the pipeline
+ * as a whole rather than to each of its tasks.
+ *
+ * @since 9
+ */
+final class AsyncMapOps {
+
+    private AsyncMapOps() { }
+
+    /**
+     * Appends an asynchronous map operation to the provided stream.
+     *
+     * @param <T> the type of input elements
+     * @param <R> the type of output elements
+     * @param upstream a reference stream with element type T
+     * @param mapper the asynchronous mapping function
+     * @param maxConcurrency the maximum number of incomplete stages
+     * @param ordered whether results are passed downstream in encounter
+     *        order, rather than in order of completion
+     * @return the new stream
+     */
+    static <T, R> Stream<R> makeRef(AbstractPipeline<?, T, ?> upstream,
+                                    Function<? super T, ? extends CompletionStage<? extends R>> mapper,
+                                    int maxConcurrency, boolean ordered) {
+        checkArguments(mapper, maxConcurrency);
+        int flags = StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT
+                    | (ordered ? 0 : StreamOpFlag.NOT_ORDERED);
+        return new ReferencePipeline.StatefulOp<T, R>(upstream, StreamShape.REFERENCE, flags) {
+            @Override
+            Sink<T> opWrapSink(int flags, Sink<R> sink) {
+                return new AsyncMapSink<>(Objects.requireNonNull(sink), mapper, maxConcurrency,
+                                          ordered && StreamOpFlag.ORDERED.isKnown(flags));
+            }
+
+            @Override
+            <P_IN> Node<R> opEvaluateParallel(PipelineHelper<R> helper,
+                                              Spliterator<P_IN> spliterator,
+                                              IntFunction<R[]> generator) {
+                @SuppressWarnings("unchecked")
+                PipelineHelper<Object> h = (PipelineHelper<Object>) (PipelineHelper<?>) helper;
+                @SuppressWarnings("unchecked")
+                Node<T> input = (Node<T>) h.evaluate(spliterator, true, Object[]::new);
+                Node.Builder<R> nb = Nodes.builder(input.count(), generator);
+                Sink<T> sink = opWrapSink(h.getStreamAndOpFlags(), nb);
+                sink.begin(input.count());
+                input.forEach(sink);
+                sink.end();
+                return nb.build();
+            }
+        };
+    }
+
+    /**
+     * Wraps the provided spliterator in one that traverses the results of
+     * an asynchronous map operation, for streams that are not pipelines.
+     *
+     * @param <T> the type of input elements
+     * @param <R> the type of output elements
+     * @param source the spliterator of the stream to map
+     * @param mapper the asynchronous mapping function
+     * @param maxConcurrency the maximum number of incomplete stages
+     * @param ordered whether results are passed downstream in encounter
+     *        order, rather than in order of completion
+     * @return the wrapping spliterator
+     */
+    static <T, R> Spliterator<R> wrapRef(Spliterator<T> source,
+                                         Function<? super T, ? extends CompletionStage<? extends R>> mapper,
+                                         int maxConcurrency, boolean ordered) {
+        boolean inOrder = ordered && source.hasCharacteristics(Spliterator.ORDERED);
+        return new StreamSpliterators.SinkSpliterator<>(source, inOrder ? Spliterator.ORDERED : 0,
+                                                        s -> new AsyncMapSink<>(s, mapper, maxConcurrency,
+                                                                                inOrder));
+    }
+
+    static void checkArguments(Function<?, ?> mapper, int maxConcurrency) {
+        Objects.requireNonNull(mapper);
+        if (maxConcurrency <= 0)
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+    }
+
+    /**
+     * The outcome of a stage: its result or exception, and the encounter
+     * index of the element it was produced from.
+     */
+    private static final class Completion {
+        final long index;
+        final Object result;
+        final Throwable ex;
+
+        Completion(long index, Object result, Throwable ex) {
+            this.index = index;
+            this.result = result;
+            this.ex = ex;
+        }
+    }
+
+    /**
+     * {@link Sink} starting a stage for each element, and passing the
+     * results of completed stages downstream.  For ordered results,
+     * completions are held in a ring of {@code maxConcurrency} slots until
+     * all preceding results have been passed downstream; an element is
+     * in flight until its result has been passed downstream, which bounds
+     * the number of held completions.
+     */
+    private static final class AsyncMapSink<T, R> extends Sink.ChainedReference<T, R>
+            implements ForkJoinPool.ManagedBlocker {
+        private final Function<? super T, ? extends CompletionStage<? extends R>> mapper;
+        private final int maxConcurrency;
+        private final Completion[] slots;   // non-null if ordered
+        private final ConcurrentLinkedQueue<Completion> completions
+                = new ConcurrentLinkedQueue<>();
+        private volatile Thread waiter;
+        private long started;               // number of stages started
+        private long head;                  // index of next ordered result
+        private int inFlight;
+
+        AsyncMapSink(Sink<? super R> downstream,
+                     Function<? super T, ? extends CompletionStage<? extends R>> mapper,
+                     int maxConcurrency, boolean ordered) {
+            super(downstream);
+            this.mapper = mapper;
+            this.maxConcurrency = maxConcurrency;
+            this.slots = ordered ? new Completion[maxConcurrency] : null;
+        }
+
+        @Override
+        public void begin(long size) {
+            started = head = 0;
+            inFlight = 0;
+            downstream.begin(size);
+        }
+
+        @Override
+        public void accept(T t) {
+            drain();
+            while (inFlight >= maxConcurrency && !downstream.cancellationRequested()) {
+                await();
+                drain();
+            }
+            long index = started++;
+            inFlight++;
+            CompletionStage<? extends R> stage = Objects.requireNonNull(mapper.apply(t));
+            stage.whenComplete((r, ex) -> {
+                completions.add(new Completion(index, r, ex));
+                LockSupport.unpark(waiter);
+            });
+        }
+
+        @Override
+        public void end() {
+            drain();
+            while (inFlight > 0 && !downstream.cancellationRequested()) {
+                await();
+                drain();
+            }
+            downstream.end();
+        }
+
+        /**
+         * Passes the results of completed stages downstream, throwing a
+         * {@code CompletionException} if a stage completed exceptionally.
+         */
+        @SuppressWarnings("unchecked")
+        private void drain() {
+            Completion c;
+            while (!downstream.cancellationRequested() && (c = completions.poll()) != null) {
+                if (c.ex != null)
+                    throw (c.ex instanceof CompletionException)
+                          ? (CompletionException) c.ex
+                          : new CompletionException(c.ex);
+                if (slots == null) {
+                    inFlight--;
+                    downstream.accept((R) c.result);
+                }
+                else {
+                    slots[(int) (c.index % maxConcurrency)] = c;
+                    int i;
+                    while ((c = slots[i = (int) (head % maxConcurrency)]) != null
+                           && !downstream.cancellationRequested()) {
+                        slots[i] = null;
+                        head++;
+                        inFlight--;
+                        downstream.accept((R) c.result);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Waits until a stage completes.
+         */
+        private void await() {
+            waiter = Thread.currentThread();
+            try {
+                ForkJoinPool.managedBlock(this);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(ie);
+            } finally {
+                waiter = null;
+            }
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return !completions.isEmpty();
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            while (!isReleasable()) {
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+                LockSupport.park(this);
+            }
+            return true;
+        }
+    }
+}
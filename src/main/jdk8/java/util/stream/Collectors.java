@@ -451,6 +451,63 @@ public final class Collectors {
         return reducing(BinaryOperator.maxBy(comparator));
     }
 
+    /**
+     * Returns a {@code Collector} that produces a list of the {@code k}
+     * greatest input elements according to a given {@code Comparator}, in
+     * descending order.  Of elements that compare equal, those encountered
+     * first precede those encountered later.  If there are fewer than
+     * {@code k} input elements, all of them are returned.
+     *
+     * <p>The result is equivalent to that of
+     * {@code sorted(Collections.reverseOrder(comparator)).limit(k)}, but is
+     * computed by retaining at most {@code k} elements in a bounded heap,
+     * taking O(n log k) time and O(k) space.  There are no guarantees on the
+     * type, mutability, serializability, or thread-safety of the
+     * {@code List} returned.
+     *
+     * @param <T> the type of the input elements
+     * @param k the maximum number of elements to return
+     * @param comparator a {@code Comparator} for comparing elements
+     * @return a {@code Collector} that produces the {@code k} greatest
+     * elements in descending order
+     * @throws IllegalArgumentException if {@code k} is negative
+     * @since 9
+     */
+    public static <T> Collector<T, ?, List<T>>
+    topK(int k, Comparator<? super T> comparator) {
+        if (k < 0)
+            throw new IllegalArgumentException(Integer.toString(k));
+        Comparator<? super T> reversed = Collections.reverseOrder(comparator);
+        return new CollectorImpl<>(() -> new SortedOps.RefTopKBuffer<T>(k, reversed),
+                                   SortedOps.RefTopKBuffer::accept,
+                                   SortedOps.RefTopKBuffer::combine,
+                                   SortedOps.RefTopKBuffer::toList,
+                                   CH_NOID);
+    }
+
+    /**
+     * Returns a {@code Collector} that produces a list of the {@code k}
+     * greatest input elements according to their natural order, in
+     * descending order.
+     *
+     * @implSpec
+     * This produces a result equivalent to:
+     * <pre>{@code
+     *     topK(k, Comparator.naturalOrder())
+     * }</pre>
+     *
+     * @param <T> the type of the input elements
+     * @param k the maximum number of elements to return
+     * @return a {@code Collector} that produces the {@code k} greatest
+     * elements in descending order
+     * @throws IllegalArgumentException if {@code k} is negative
+     * @since 9
+     */
+    public static <T extends Comparable<? super T>> Collector<T, ?, List<T>>
+    topK(int k) {
+        return topK(k, Comparator.<T>naturalOrder());
+    }
+
     /**
      * Returns a {@code Collector} that produces the sum of a integer-valued
      * function applied to the input elements.  If no elements are present,
@@ -1537,7 +1594,7 @@ public final class Collectors {
     /**
      * Implementation class used by partitioningBy.
      */
-    private static final class Partition<T>
+    static final class Partition<T>
             extends AbstractMap<Boolean, T>
             implements Map<Boolean, T> {
         final T forTrue;
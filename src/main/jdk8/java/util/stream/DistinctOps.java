@@ -24,6 +24,7 @@
  */
 package java.util.stream;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Objects;
@@ -35,7 +36,8 @@ import java.util.function.IntFunction;
 
 /**
  * Factory methods for transforming streams into duplicate-free streams, using
- * {@link Object#equals(Object)} to determine equality.
+ * {@link Object#equals(Object)} to determine equality, or for primitive
+ * streams, equality of the primitive values.
  *
  * @since 1.8
  */
@@ -180,4 +182,486 @@ final class DistinctOps {
             }
         };
     }
+
+    /**
+     * Appends a "distinct" operation to the provided {@code int} stream,
+     * and returns the new stream.
+     * Elements are tracked in a primitive set of their values, so no element
+     * is boxed.
+     *
+     * @param upstream an int stream
+     * @return the new stream
+     */
+    static IntStream makeInt(AbstractPipeline<?, Integer, ?> upstream) {
+        return new IntPipeline.StatefulOp<Integer>(upstream, StreamShape.INT_VALUE,
+                                                  StreamOpFlag.IS_DISTINCT | StreamOpFlag.NOT_SIZED) {
+
+            <P_IN> Node<Integer> reduce(PipelineHelper<Integer> helper, Spliterator<P_IN> spliterator) {
+                // If the stream is SORTED then it should also be ORDERED so the following will also
+                // preserve the sort order
+                TerminalOp<Integer, LongSet> reduceOp
+                        = ReduceOps.<LongSet>makeInt(() -> new LongSet(true),
+                                                      (set, t) -> set.add(t),
+                                                      LongSet::addAll);
+                return Nodes.node(toIntArray(reduceOp.evaluateParallel(helper, spliterator).toArray()));
+            }
+
+            @Override
+            <P_IN> Node<Integer> opEvaluateParallel(PipelineHelper<Integer> helper,
+                                                 Spliterator<P_IN> spliterator,
+                                                 IntFunction<Integer[]> generator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    // No-op
+                    return helper.evaluate(spliterator, false, generator);
+                }
+                else if (StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags())) {
+                    return reduce(helper, spliterator);
+                }
+                else {
+                    ConcurrentLongSet set = new ConcurrentLongSet();
+                    TerminalOp<Integer, Void> forEachOp = ForEachOps.makeInt(t -> set.add(t), false);
+                    forEachOp.evaluateParallel(helper, spliterator);
+                    return Nodes.node(toIntArray(set.toArray()));
+                }
+            }
+
+            @Override
+            Sink<Integer> opWrapSink(int flags, Sink<Integer> sink) {
+                Objects.requireNonNull(sink);
+
+                if (StreamOpFlag.DISTINCT.isKnown(flags)) {
+                    return sink;
+                } else if (StreamOpFlag.SORTED.isKnown(flags)) {
+                    // Equal elements are adjacent, only compare with the last
+                    return new Sink.ChainedInt<Integer>(sink) {
+                        boolean seenAny;
+                        long lastSeen;
+
+                        @Override
+                        public void begin(long size) {
+                            seenAny = false;
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void end() {
+                            seenAny = false;
+                            downstream.end();
+                        }
+
+                        @Override
+                        public void accept(int t) {
+                            long key = t;
+                            if (!seenAny || key != lastSeen) {
+                                seenAny = true;
+                                lastSeen = key;
+                                downstream.accept(t);
+                            }
+                        }
+                    };
+                } else {
+                    return new Sink.ChainedInt<Integer>(sink) {
+                        LongSet seen;
+
+                        @Override
+                        public void begin(long size) {
+                            seen = new LongSet(false);
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void end() {
+                            seen = null;
+                            downstream.end();
+                        }
+
+                        @Override
+                        public void accept(int t) {
+                            if (seen.add(t))
+                                downstream.accept(t);
+                        }
+                    };
+                }
+            }
+        };
+    }
+
+    /**
+     * Appends a "distinct" operation to the provided {@code long} stream,
+     * and returns the new stream.
+     * Elements are tracked in a primitive set of their values, so no element
+     * is boxed.
+     *
+     * @param upstream a long stream
+     * @return the new stream
+     */
+    static LongStream makeLong(AbstractPipeline<?, Long, ?> upstream) {
+        return new LongPipeline.StatefulOp<Long>(upstream, StreamShape.LONG_VALUE,
+                                                  StreamOpFlag.IS_DISTINCT | StreamOpFlag.NOT_SIZED) {
+
+            <P_IN> Node<Long> reduce(PipelineHelper<Long> helper, Spliterator<P_IN> spliterator) {
+                // If the stream is SORTED then it should also be ORDERED so the following will also
+                // preserve the sort order
+                TerminalOp<Long, LongSet> reduceOp
+                        = ReduceOps.<LongSet>makeLong(() -> new LongSet(true),
+                                                      (set, t) -> set.add(t),
+                                                      LongSet::addAll);
+                return Nodes.node(toLongArray(reduceOp.evaluateParallel(helper, spliterator).toArray()));
+            }
+
+            @Override
+            <P_IN> Node<Long> opEvaluateParallel(PipelineHelper<Long> helper,
+                                                 Spliterator<P_IN> spliterator,
+                                                 IntFunction<Long[]> generator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    // No-op
+                    return helper.evaluate(spliterator, false, generator);
+                }
+                else if (StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags())) {
+                    return reduce(helper, spliterator);
+                }
+                else {
+                    ConcurrentLongSet set = new ConcurrentLongSet();
+                    TerminalOp<Long, Void> forEachOp = ForEachOps.makeLong(t -> set.add(t), false);
+                    forEachOp.evaluateParallel(helper, spliterator);
+                    return Nodes.node(toLongArray(set.toArray()));
+                }
+            }
+
+            @Override
+            Sink<Long> opWrapSink(int flags, Sink<Long> sink) {
+                Objects.requireNonNull(sink);
+
+                if (StreamOpFlag.DISTINCT.isKnown(flags)) {
+                    return sink;
+                } else if (StreamOpFlag.SORTED.isKnown(flags)) {
+                    // Equal elements are adjacent, only compare with the last
+                    return new Sink.ChainedLong<Long>(sink) {
+                        boolean seenAny;
+                        long lastSeen;
+
+                        @Override
+                        public void begin(long size) {
+                            seenAny = false;
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void end() {
+                            seenAny = false;
+                            downstream.end();
+                        }
+
+                        @Override
+                        public void accept(long t) {
+                            long key = t;
+                            if (!seenAny || key != lastSeen) {
+                                seenAny = true;
+                                lastSeen = key;
+                                downstream.accept(t);
+                            }
+                        }
+                    };
+                } else {
+                    return new Sink.ChainedLong<Long>(sink) {
+                        LongSet seen;
+
+                        @Override
+                        public void begin(long size) {
+                            seen = new LongSet(false);
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void end() {
+                            seen = null;
+                            downstream.end();
+                        }
+
+                        @Override
+                        public void accept(long t) {
+                            if (seen.add(t))
+                                downstream.accept(t);
+                        }
+                    };
+                }
+            }
+        };
+    }
+
+    /**
+     * Appends a "distinct" operation to the provided {@code double} stream,
+     * and returns the new stream.
+     * As for {@link Double#equals(Object)}, two values are the same if their
+     * {@link Double#doubleToLongBits(double) doubleToLongBits} representations
+     * are identical, so all {@code NaN} values are the same and {@code 0.0d}
+     * and {@code -0.0d} are different.  Elements are tracked in a primitive
+     * set of those representations, so no element is boxed.
+     *
+     * @param upstream a double stream
+     * @return the new stream
+     */
+    static DoubleStream makeDouble(AbstractPipeline<?, Double, ?> upstream) {
+        return new DoublePipeline.StatefulOp<Double>(upstream, StreamShape.DOUBLE_VALUE,
+                                                  StreamOpFlag.IS_DISTINCT | StreamOpFlag.NOT_SIZED) {
+
+            <P_IN> Node<Double> reduce(PipelineHelper<Double> helper, Spliterator<P_IN> spliterator) {
+                // If the stream is SORTED then it should also be ORDERED so the following will also
+                // preserve the sort order
+                TerminalOp<Double, LongSet> reduceOp
+                        = ReduceOps.<LongSet>makeDouble(() -> new LongSet(true),
+                                                      (set, t) -> set.add(Double.doubleToLongBits(t)),
+                                                      LongSet::addAll);
+                return Nodes.node(toDoubleArray(reduceOp.evaluateParallel(helper, spliterator).toArray()));
+            }
+
+            @Override
+            <P_IN> Node<Double> opEvaluateParallel(PipelineHelper<Double> helper,
+                                                 Spliterator<P_IN> spliterator,
+                                                 IntFunction<Double[]> generator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    // No-op
+                    return helper.evaluate(spliterator, false, generator);
+                }
+                else if (StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags())) {
+                    return reduce(helper, spliterator);
+                }
+                else {
+                    ConcurrentLongSet set = new ConcurrentLongSet();
+                    TerminalOp<Double, Void> forEachOp = ForEachOps.makeDouble(t -> set.add(Double.doubleToLongBits(t)), false);
+                    forEachOp.evaluateParallel(helper, spliterator);
+                    return Nodes.node(toDoubleArray(set.toArray()));
+                }
+            }
+
+            @Override
+            Sink<Double> opWrapSink(int flags, Sink<Double> sink) {
+                Objects.requireNonNull(sink);
+
+                if (StreamOpFlag.DISTINCT.isKnown(flags)) {
+                    return sink;
+                } else if (StreamOpFlag.SORTED.isKnown(flags)) {
+                    // Equal elements are adjacent, only compare with the last
+                    return new Sink.ChainedDouble<Double>(sink) {
+                        boolean seenAny;
+                        long lastSeen;
+
+                        @Override
+                        public void begin(long size) {
+                            seenAny = false;
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void end() {
+                            seenAny = false;
+                            downstream.end();
+                        }
+
+                        @Override
+                        public void accept(double t) {
+                            long key = Double.doubleToLongBits(t);
+                            if (!seenAny || key != lastSeen) {
+                                seenAny = true;
+                                lastSeen = key;
+                                downstream.accept(t);
+                            }
+                        }
+                    };
+                } else {
+                    return new Sink.ChainedDouble<Double>(sink) {
+                        LongSet seen;
+
+                        @Override
+                        public void begin(long size) {
+                            seen = new LongSet(false);
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void end() {
+                            seen = null;
+                            downstream.end();
+                        }
+
+                        @Override
+                        public void accept(double t) {
+                            if (seen.add(Double.doubleToLongBits(t)))
+                                downstream.accept(t);
+                        }
+                    };
+                }
+            }
+        };
+    }
+
+    private static int[] toIntArray(long[] keys) {
+        int[] values = new int[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            values[i] = (int) keys[i];
+        return values;
+    }
+
+    private static long[] toLongArray(long[] keys) {
+        return keys;
+    }
+
+    private static double[] toDoubleArray(long[] keys) {
+        double[] values = new double[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            values[i] = Double.longBitsToDouble(keys[i]);
+        return values;
+    }
+
+    /**
+     * An open-addressing hash set of {@code long} keys, using linear
+     * probing, which if {@code ordered} also records the keys in insertion
+     * order.  Zero marks an empty slot, so the presence of the zero key is
+     * held separately.
+     */
+    static final class LongSet {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private long[] table;
+        private boolean containsZero;
+        private int size;
+        private long[] order;
+
+        LongSet(boolean ordered) {
+            table = new long[INITIAL_CAPACITY];
+            order = ordered ? new long[INITIAL_CAPACITY] : null;
+        }
+
+        static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        /**
+         * Adds the key if absent.
+         *
+         * @return true if the key was added
+         */
+        boolean add(long key) {
+            if (key == 0L) {
+                if (containsZero)
+                    return false;
+                containsZero = true;
+            }
+            else {
+                long[] tab = table;
+                int mask = tab.length - 1;
+                int i = hash(key) & mask;
+                for (long k; (k = tab[i]) != 0L; i = (i + 1) & mask) {
+                    if (k == key)
+                        return false;
+                }
+                tab[i] = key;
+                if (size + 1 > (tab.length >>> 1) + (tab.length >>> 2))
+                    resize();
+            }
+            if (order != null) {
+                if (size == order.length)
+                    order = Arrays.copyOf(order, size << 1);
+                order[size] = key;
+            }
+            size++;
+            return true;
+        }
+
+        private void resize() {
+            long[] old = table;
+            int n = old.length << 1;
+            if (n <= 0 || n > Nodes.MAX_ARRAY_SIZE)
+                throw new IllegalArgumentException(Nodes.BAD_SIZE);
+            long[] tab = new long[n];
+            int mask = n - 1;
+            for (long k : old) {
+                if (k != 0L) {
+                    int i = hash(k) & mask;
+                    while (tab[i] != 0L)
+                        i = (i + 1) & mask;
+                    tab[i] = k;
+                }
+            }
+            table = tab;
+        }
+
+        /**
+         * Adds the keys of another ordered set absent from this one, in
+         * their insertion order.
+         */
+        LongSet addAll(LongSet other) {
+            long[] keys = other.order;
+            for (int i = 0; i < other.size; i++)
+                add(keys[i]);
+            return this;
+        }
+
+        /**
+         * Returns the keys, in insertion order if this set is ordered.
+         */
+        long[] toArray() {
+            if (order != null)
+                return Arrays.copyOf(order, size);
+            long[] keys = new long[size];
+            int j = 0;
+            if (containsZero)
+                j++;    // keys[0] is already 0L
+            for (long k : table) {
+                if (k != 0L)
+                    keys[j++] = k;
+            }
+            return keys;
+        }
+    }
+
+    /**
+     * A concurrent set of {@code long} keys, striped over a fixed number of
+     * {@link LongSet}s each guarded by its own lock.  A key's stripe is
+     * selected by bits of its hash distinct from those used to probe within
+     * the stripe.
+     */
+    static final class ConcurrentLongSet {
+        private final LongSet[] stripes;
+
+        ConcurrentLongSet() {
+            int n = Integer.highestOneBit(
+                    Math.max(1, Math.min(256, Runtime.getRuntime().availableProcessors() * 4)));
+            stripes = new LongSet[n];
+            for (int i = 0; i < n; i++)
+                stripes[i] = new LongSet(false);
+        }
+
+        boolean add(long key) {
+            LongSet stripe = stripes[(LongSet.hash(key) >>> 24) & (stripes.length - 1)];
+            synchronized (stripe) {
+                return stripe.add(key);
+            }
+        }
+
+        /**
+         * Returns the keys.  Must only be called once all additions have
+         * completed.
+         */
+        long[] toArray() {
+            long[][] parts = new long[stripes.length][];
+            long n = 0;
+            for (int i = 0; i < stripes.length; i++) {
+                synchronized (stripes[i]) {
+                    parts[i] = stripes[i].toArray();
+                }
+                n += parts[i].length;
+            }
+            if (n >= Nodes.MAX_ARRAY_SIZE)
+                throw new IllegalArgumentException(Nodes.BAD_SIZE);
+            long[] keys = new long[(int) n];
+            int j = 0;
+            for (long[] part : parts) {
+                System.arraycopy(part, 0, keys, j, part.length);
+                j += part.length;
+            }
+            return keys;
+        }
+    }
 }
@@ -336,7 +336,9 @@ abstract class DoublePipeline<E_IN>
     public final DoubleStream limit(long maxSize) {
         if (maxSize < 0)
             throw new IllegalArgumentException(Long.toString(maxSize));
-        return SliceOps.makeDouble(this, (long) 0, maxSize);
+        DoubleStream stream = SliceOps.makeDouble(this, (long) 0, maxSize);
+        SortedOps.bound(this, maxSize);
+        return stream;
     }
 
     @Override
@@ -358,9 +360,17 @@ abstract class DoublePipeline<E_IN>
 
     @Override
     public final DoubleStream distinct() {
-        // While functional and quick to implement, this approach is not very efficient.
-        // An efficient version requires a double-specific map/set implementation.
-        return boxed().distinct().mapToDouble(i -> (double) i);
+        return DistinctOps.makeDouble(this);
+    }
+
+    @Override
+    public final Stream<double[]> chunked(int size) {
+        return WindowOps.makeDouble(this, size, size, true);
+    }
+
+    @Override
+    public final Stream<double[]> windowed(int size, int step) {
+        return WindowOps.makeDouble(this, size, step, false);
     }
 
     // Terminal ops from DoubleStream
@@ -476,6 +486,35 @@ abstract class DoublePipeline<E_IN>
         return evaluate(ReduceOps.makeDouble(supplier, accumulator, operator));
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public final <R, A> R collect(DoubleCollector<A, R> collector) {
+        A container;
+        if (isParallel()
+                && (collector.characteristics().contains(Collector.Characteristics.CONCURRENT))
+                && (!isOrdered() || collector.characteristics().contains(Collector.Characteristics.UNORDERED))) {
+            container = collector.supplier().get();
+            ObjDoubleConsumer<A> accumulator = collector.accumulator();
+            forEach(t -> accumulator.accept(container, t));
+        }
+        else {
+            container = evaluate(ReduceOps.makeDouble(collector));
+        }
+        return collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)
+               ? (R) container
+               : collector.finisher().apply(container);
+    }
+
+    @Override
+    public final double[] topK(int k) {
+        if (k < 0)
+            throw new IllegalArgumentException(Integer.toString(k));
+        return collect(DoubleCollector.of(() -> new SortedOps.DoubleTopKBuffer(k, true),
+                                          SortedOps.DoubleTopKBuffer::accept,
+                                          SortedOps.DoubleTopKBuffer::combine,
+                                          SortedOps.DoubleTopKBuffer::toArray));
+    }
+
     @Override
     public final boolean anyMatch(DoublePredicate predicate) {
         return evaluate(MatchOps.makeDouble(predicate, MatchOps.MatchKind.ANY));
@@ -37,6 +37,7 @@ import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
 import java.util.function.DoubleBinaryOperator;
 import java.util.function.DoubleConsumer;
 import java.util.function.DoubleFunction;
@@ -192,6 +193,83 @@ public interface DoubleStream extends BaseStream<Double, DoubleStream> {
      */
     DoubleStream sorted();
 
+    /**
+     * Returns a stream consisting of the elements of this stream grouped into
+     * consecutive, non-overlapping chunks of {@code size} elements, in
+     * encounter order.  The last chunk holds fewer than {@code size} elements
+     * if the number of elements of this stream is not a multiple of
+     * {@code size}.  Each chunk is an {@code double[]}.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @apiNote The returned stream does not report a size, even if the size of
+     * this stream is known.  Each chunk is a fresh array that is never modified
+     * after it is emitted, so it may be retained by downstream operations.
+     *
+     * @implSpec
+     * The default implementation obtains the {@link #spliterator() spliterator}
+     * of this stream, wraps that spliterator so as to form the chunks on
+     * traversal, and returns a new stream associated with the wrapped
+     * spliterator.  The returned stream is parallel if this stream is, but the
+     * wrapped spliterator splits only by batching.  When the returned stream is
+     * closed, the close handlers of both the returned stream and this stream
+     * are invoked.
+     *
+     * @param size the number of elements in each chunk
+     * @return the new stream
+     * @throws IllegalArgumentException if {@code size} is not positive
+     * @since 9
+     */
+    default Stream<double[]> chunked(int size) {
+        WindowOps.checkArguments(size, size);
+        return StreamSupport.stream(WindowOps.wrapDouble(spliterator(), size, size, true),
+                                    isParallel())
+                            .onClose(this::close);
+    }
+
+    /**
+     * Returns a stream consisting of the sliding windows of {@code size}
+     * consecutive elements of this stream, in encounter order, where the first
+     * element of each window is {@code step} elements after the first element
+     * of the previous window.  Windows overlap if {@code step} is less than
+     * {@code size}, and elements between windows are skipped if {@code step} is
+     * greater than {@code size}.  Only complete windows are included, so the
+     * returned stream is empty if this stream has fewer than {@code size}
+     * elements.  Each window is an {@code double[]}.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @apiNote The returned stream does not report a size, even if the size of
+     * this stream is known.  Each window is a fresh array that is never
+     * modified after it is emitted, so it may be retained by downstream
+     * operations.
+     *
+     * @implSpec
+     * The default implementation obtains the {@link #spliterator() spliterator}
+     * of this stream, wraps that spliterator so as to form the windows on
+     * traversal, and returns a new stream associated with the wrapped
+     * spliterator.  The returned stream is parallel if this stream is, but the
+     * wrapped spliterator splits only by batching.  When the returned stream is
+     * closed, the close handlers of both the returned stream and this stream
+     * are invoked.
+     *
+     * @param size the number of elements in each window
+     * @param step the distance, in elements, between the first elements of
+     *             consecutive windows
+     * @return the new stream
+     * @throws IllegalArgumentException if {@code size} or {@code step} is not
+     *         positive
+     * @since 9
+     */
+    default Stream<double[]> windowed(int size, int step) {
+        WindowOps.checkArguments(size, step);
+        return StreamSupport.stream(WindowOps.wrapDouble(spliterator(), size, step, false),
+                                    isParallel())
+                            .onClose(this::close);
+    }
+
     /**
      * Returns a stream consisting of the elements of this stream, additionally
      * performing the provided action on each element as elements are consumed
@@ -454,6 +532,89 @@ public interface DoubleStream extends BaseStream<Double, DoubleStream> {
                   ObjDoubleConsumer<R> accumulator,
                   BiConsumer<R, R> combiner);
 
+    /**
+     * Performs a <a href="package-summary.html#MutableReduction">mutable
+     * reduction</a> operation on the elements of this stream using a
+     * {@code DoubleCollector}.  Elements are passed to the collector as
+     * {@code double} values, without boxing.  When the number of elements is
+     * known in advance, result containers are created with the collector's
+     * {@link DoubleCollector#sizedSupplier() sized supplier}, allowing them
+     * to be allocated at their final size.
+     *
+     * <p>If the stream is parallel, and the {@code DoubleCollector}
+     * is {@link Collector.Characteristics#CONCURRENT concurrent}, and
+     * either the stream is unordered or the collector is
+     * {@link Collector.Characteristics#UNORDERED unordered},
+     * then a concurrent reduction will be performed (see {@link Collector} for
+     * details on concurrent reduction.)
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">terminal
+     * operation</a>.
+     *
+     * @implSpec
+     * The default implementation performs the reduction with
+     * {@link #collect(Supplier, ObjDoubleConsumer, BiConsumer)}, holding each
+     * container in a one-element array so that the results of the
+     * collector's combiner can replace it.  It neither uses the sized
+     * supplier nor performs a concurrent reduction.
+     *
+     * @param <R> the type of the result
+     * @param <A> the intermediate accumulation type of the {@code DoubleCollector}
+     * @param collector the {@code DoubleCollector} describing the reduction
+     * @return the result of the reduction
+     * @see #collect(Supplier, ObjDoubleConsumer, BiConsumer)
+     * @see PrimitiveCollectors
+     * @since 9
+     */
+    @SuppressWarnings("unchecked")
+    default <R, A> R collect(DoubleCollector<A, R> collector) {
+        Supplier<A> supplier = collector.supplier();
+        ObjDoubleConsumer<A> accumulator = collector.accumulator();
+        BinaryOperator<A> combiner = collector.combiner();
+        Object[] box = collect(() -> new Object[] { supplier.get() },
+                               (b, t) -> accumulator.accept((A) b[0], t),
+                               (l, r) -> l[0] = combiner.apply((A) l[0], (A) r[0]));
+        A container = (A) box[0];
+        return collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)
+               ? (R) container
+               : collector.finisher().apply(container);
+    }
+
+    /**
+     * Returns an array containing the {@code k} greatest elements of this
+     * stream, in descending order.  If this stream has fewer than {@code k}
+     * elements, all of them are returned.  Elements are ordered as by
+     * {@link Double#compare(double, double)}, so that {@code NaN} is greater
+     * than all other values and {@code 0.0d} is greater than {@code -0.0d}.
+     *
+     * <p>The result is equivalent to the first {@code k} elements of the
+     * reverse of {@code sorted().toArray()}, but is computed by retaining at
+     * most {@code k} elements in a bounded heap, taking O(n log k) time and
+     * O(k) space.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">terminal
+     * operation</a>.
+     *
+     * @implSpec
+     * The default implementation reduces the elements with
+     * {@link #collect(DoubleCollector)} into a bounded heap of at most
+     * {@code k} elements per container.
+     *
+     * @param k the maximum number of elements to return
+     * @return an array containing the {@code k} greatest elements of this
+     * stream, in descending order
+     * @throws IllegalArgumentException if {@code k} is negative
+     * @since 9
+     */
+    default double[] topK(int k) {
+        if (k < 0)
+            throw new IllegalArgumentException(Integer.toString(k));
+        return collect(DoubleCollector.of(() -> new SortedOps.DoubleTopKBuffer(k, true),
+                                          SortedOps.DoubleTopKBuffer::accept,
+                                          SortedOps.DoubleTopKBuffer::combine,
+                                          SortedOps.DoubleTopKBuffer::toArray));
+    }
+
     /**
      * Returns the sum of elements in this stream.
      *
@@ -288,6 +288,9 @@ final class ForEachOps {
             while (!isShortCircuit || !taskSink.cancellationRequested()) {
                 if (sizeEstimate <= sizeThreshold ||
                     (leftSplit = rightSplit.trySplit()) == null) {
+                    StreamProfiler profiler = task.helper.getProfiler();
+                    if (profiler != null)
+                        profiler.recordLeaf(task, sizeEstimate);
                     task.helper.copyInto(taskSink, rightSplit);
                     break;
                 }
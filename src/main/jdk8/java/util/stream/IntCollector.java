@@ -0,0 +1,196 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A <a href="package-summary.html#Reduction">mutable reduction operation</a>
+ * over {@code int} values, the primitive specialization of {@link Collector}.
+ * An {@code IntCollector} accumulates the elements of an {@link IntStream}
+ * into a mutable result container without boxing them, optionally
+ * transforming the accumulated result into a final representation after all
+ * input elements have been processed.
+ *
+ * <p>An {@code IntCollector} is specified by the same four functions as a
+ * {@code Collector}, and is subject to the same identity and associativity
+ * constraints: <ul>
+ *     <li>creation of a new result container ({@link #supplier()})</li>
+ *     <li>incorporating a new data element into a result container ({@link #accumulator()})</li>
+ *     <li>combining two result containers into one ({@link #combiner()})</li>
+ *     <li>performing an optional final transform on the container ({@link #finisher()})</li>
+ * </ul>
+ *
+ * <p>In addition, a collector may supply a {@link #sizedSupplier()} that is
+ * told the exact number of elements a container will receive when that
+ * number is known in advance (for example when the stream source is
+ * {@link java.util.Spliterator#SIZED SIZED} and no filtering intermediate
+ * operations are present), allowing containers such as arrays to be
+ * allocated at their final size.
+ *
+ * <p>The class {@link PrimitiveCollectors} provides implementations of many
+ * common reductions; the static factory methods
+ * {@link #of(Supplier, ObjIntConsumer, BinaryOperator, Collector.Characteristics...)}
+ * and {@link #of(Supplier, ObjIntConsumer, BinaryOperator, Function, Collector.Characteristics...)}
+ * can be used to construct others.
+ *
+ * @param <A> the mutable accumulation type of the reduction operation (often
+ *            hidden as an implementation detail)
+ * @param <R> the result type of the reduction operation
+ * @see IntStream#collect(IntCollector)
+ * @see Collector
+ * @since 9
+ */
+public interface IntCollector<A, R> {
+    /**
+     * A function that creates and returns a new mutable result container.
+     *
+     * @return a function which returns a new, mutable result container
+     */
+    Supplier<A> supplier();
+
+    /**
+     * A function that folds an {@code int} value into a mutable result
+     * container.
+     *
+     * @return a function which folds a value into a mutable result container
+     */
+    ObjIntConsumer<A> accumulator();
+
+    /**
+     * A function that accepts two partial results and merges them.  The
+     * combiner function may fold state from one argument into the other and
+     * return that, or may return a new result container.
+     *
+     * @return a function which combines two partial results into a combined
+     * result
+     */
+    BinaryOperator<A> combiner();
+
+    /**
+     * Perform the final transformation from the intermediate accumulation type
+     * {@code A} to the final result type {@code R}.
+     *
+     * <p>If the characteristic {@code IDENTITY_FINISH} is
+     * set, this function may be presumed to be an identity transform with an
+     * unchecked cast from {@code A} to {@code R}.
+     *
+     * @return a function which transforms the intermediate result to the final
+     * result
+     */
+    Function<A, R> finisher();
+
+    /**
+     * Returns a {@code Set} of {@code Collector.Characteristics} indicating
+     * the characteristics of this IntCollector.  This set should be immutable.
+     *
+     * @return an immutable set of collector characteristics
+     */
+    Set<Collector.Characteristics> characteristics();
+
+    /**
+     * A function that creates and returns a new mutable result container
+     * given the exact number of elements that will be accumulated into it,
+     * or {@code -1} if that number is not known.  The reduction
+     * implementation uses this function in place of {@link #supplier()}
+     * wherever it creates a container for accumulation.
+     *
+     * @implSpec
+     * The default implementation ignores the size and returns a function
+     * that delegates to {@link #supplier()}.
+     *
+     * @return a function which returns a new, mutable result container for
+     * the given number of elements
+     */
+    default LongFunction<A> sizedSupplier() {
+        Supplier<A> supplier = supplier();
+        return size -> supplier.get();
+    }
+
+    /**
+     * Returns a new {@code IntCollector} described by the given
+     * {@code supplier}, {@code accumulator}, and {@code combiner} functions.
+     * The resulting {@code IntCollector} has the
+     * {@code Collector.Characteristics.IDENTITY_FINISH} characteristic.
+     *
+     * @param supplier The supplier function for the new collector
+     * @param accumulator The accumulator function for the new collector
+     * @param combiner The combiner function for the new collector
+     * @param characteristics The collector characteristics for the new
+     *                        collector
+     * @param <R> The type of intermediate accumulation result, and final result,
+     *           for the new collector
+     * @throws NullPointerException if any argument is null
+     * @return the new {@code IntCollector}
+     */
+    public static <R> IntCollector<R, R> of(Supplier<R> supplier,
+                                            ObjIntConsumer<R> accumulator,
+                                            BinaryOperator<R> combiner,
+                                            Collector.Characteristics... characteristics) {
+        Objects.requireNonNull(supplier);
+        Objects.requireNonNull(accumulator);
+        Objects.requireNonNull(combiner);
+        Objects.requireNonNull(characteristics);
+        return new PrimitiveCollectors.IntCollectorImpl<>(
+                supplier, null, accumulator, combiner, null,
+                PrimitiveCollectors.characteristics(true, characteristics));
+    }
+
+    /**
+     * Returns a new {@code IntCollector} described by the given
+     * {@code supplier}, {@code accumulator}, {@code combiner}, and
+     * {@code finisher} functions.
+     *
+     * @param supplier The supplier function for the new collector
+     * @param accumulator The accumulator function for the new collector
+     * @param combiner The combiner function for the new collector
+     * @param finisher The finisher function for the new collector
+     * @param characteristics The collector characteristics for the new
+     *                        collector
+     * @param <A> The intermediate accumulation type of the new collector
+     * @param <R> The final result type of the new collector
+     * @throws NullPointerException if any argument is null
+     * @return the new {@code IntCollector}
+     */
+    public static <A, R> IntCollector<A, R> of(Supplier<A> supplier,
+                                               ObjIntConsumer<A> accumulator,
+                                               BinaryOperator<A> combiner,
+                                               Function<A, R> finisher,
+                                               Collector.Characteristics... characteristics) {
+        Objects.requireNonNull(supplier);
+        Objects.requireNonNull(accumulator);
+        Objects.requireNonNull(combiner);
+        Objects.requireNonNull(finisher);
+        Objects.requireNonNull(characteristics);
+        return new PrimitiveCollectors.IntCollectorImpl<>(
+                supplier, null, accumulator, combiner, finisher,
+                PrimitiveCollectors.characteristics(false, characteristics));
+    }
+}
@@ -372,7 +372,9 @@ abstract class IntPipeline<E_IN>
     public final IntStream limit(long maxSize) {
         if (maxSize < 0)
             throw new IllegalArgumentException(Long.toString(maxSize));
-        return SliceOps.makeInt(this, 0, maxSize);
+        IntStream stream = SliceOps.makeInt(this, 0, maxSize);
+        SortedOps.bound(this, maxSize);
+        return stream;
     }
 
     @Override
@@ -392,9 +394,17 @@ abstract class IntPipeline<E_IN>
 
     @Override
     public final IntStream distinct() {
-        // While functional and quick to implement, this approach is not very efficient.
-        // An efficient version requires an int-specific map/set implementation.
-        return boxed().distinct().mapToInt(i -> i);
+        return DistinctOps.makeInt(this);
+    }
+
+    @Override
+    public final Stream<int[]> chunked(int size) {
+        return WindowOps.makeInt(this, size, size, true);
+    }
+
+    @Override
+    public final Stream<int[]> windowed(int size, int step) {
+        return WindowOps.makeInt(this, size, step, false);
     }
 
     // Terminal ops from IntStream
@@ -472,6 +482,35 @@ abstract class IntPipeline<E_IN>
         return evaluate(ReduceOps.makeInt(supplier, accumulator, operator));
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public final <R, A> R collect(IntCollector<A, R> collector) {
+        A container;
+        if (isParallel()
+                && (collector.characteristics().contains(Collector.Characteristics.CONCURRENT))
+                && (!isOrdered() || collector.characteristics().contains(Collector.Characteristics.UNORDERED))) {
+            container = collector.supplier().get();
+            ObjIntConsumer<A> accumulator = collector.accumulator();
+            forEach(t -> accumulator.accept(container, t));
+        }
+        else {
+            container = evaluate(ReduceOps.makeInt(collector));
+        }
+        return collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)
+               ? (R) container
+               : collector.finisher().apply(container);
+    }
+
+    @Override
+    public final int[] topK(int k) {
+        if (k < 0)
+            throw new IllegalArgumentException(Integer.toString(k));
+        return collect(IntCollector.of(() -> new SortedOps.IntTopKBuffer(k, true),
+                                       SortedOps.IntTopKBuffer::accept,
+                                       SortedOps.IntTopKBuffer::combine,
+                                       SortedOps.IntTopKBuffer::toArray));
+    }
+
     @Override
     public final boolean anyMatch(IntPredicate predicate) {
         return evaluate(MatchOps.makeInt(predicate, MatchOps.MatchKind.ANY));
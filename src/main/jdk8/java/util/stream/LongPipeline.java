@@ -353,7 +353,9 @@ abstract class LongPipeline<E_IN>
     public final LongStream limit(long maxSize) {
         if (maxSize < 0)
             throw new IllegalArgumentException(Long.toString(maxSize));
-        return SliceOps.makeLong(this, 0, maxSize);
+        LongStream stream = SliceOps.makeLong(this, 0, maxSize);
+        SortedOps.bound(this, maxSize);
+        return stream;
     }
 
     @Override
@@ -373,9 +375,17 @@ abstract class LongPipeline<E_IN>
 
     @Override
     public final LongStream distinct() {
-        // While functional and quick to implement, this approach is not very efficient.
-        // An efficient version requires a long-specific map/set implementation.
-        return boxed().distinct().mapToLong(i -> (long) i);
+        return DistinctOps.makeLong(this);
+    }
+
+    @Override
+    public final Stream<long[]> chunked(int size) {
+        return WindowOps.makeLong(this, size, size, true);
+    }
+
+    @Override
+    public final Stream<long[]> windowed(int size, int step) {
+        return WindowOps.makeLong(this, size, step, false);
     }
 
     // Terminal ops from LongStream
@@ -454,6 +464,35 @@ abstract class LongPipeline<E_IN>
         return evaluate(ReduceOps.makeLong(supplier, accumulator, operator));
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public final <R, A> R collect(LongCollector<A, R> collector) {
+        A container;
+        if (isParallel()
+                && (collector.characteristics().contains(Collector.Characteristics.CONCURRENT))
+                && (!isOrdered() || collector.characteristics().contains(Collector.Characteristics.UNORDERED))) {
+            container = collector.supplier().get();
+            ObjLongConsumer<A> accumulator = collector.accumulator();
+            forEach(t -> accumulator.accept(container, t));
+        }
+        else {
+            container = evaluate(ReduceOps.makeLong(collector));
+        }
+        return collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)
+               ? (R) container
+               : collector.finisher().apply(container);
+    }
+
+    @Override
+    public final long[] topK(int k) {
+        if (k < 0)
+            throw new IllegalArgumentException(Integer.toString(k));
+        return collect(LongCollector.of(() -> new SortedOps.LongTopKBuffer(k, true),
+                                        SortedOps.LongTopKBuffer::accept,
+                                        SortedOps.LongTopKBuffer::combine,
+                                        SortedOps.LongTopKBuffer::toArray));
+    }
+
     @Override
     public final boolean anyMatch(LongPredicate predicate) {
         return evaluate(MatchOps.makeLong(predicate, MatchOps.MatchKind.ANY));
@@ -200,4 +200,13 @@ abstract class PipelineHelper<P_OUT> {
     abstract<P_IN> Node<P_OUT> evaluate(Spliterator<P_IN> spliterator,
                                         boolean flatten,
                                         IntFunction<P_OUT[]> generator);
+
+    /**
+     * Gets the profiler of the current evaluation of the pipeline.
+     *
+     * @return the profiler, or {@code null} if the pipeline is not being
+     * profiled
+     * @see StreamProfiler
+     */
+    abstract StreamProfiler getProfiler();
 }
@@ -0,0 +1,1157 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.DoubleSummaryStatistics;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Implementations of {@link IntCollector}, {@link LongCollector} and
+ * {@link DoubleCollector} that implement useful reduction operations over
+ * primitive streams, such as accumulating elements into arrays, grouping and
+ * counting elements by a primitive key, and summarizing elements.
+ *
+ * <p>Unlike reductions expressed with {@link Collectors} on a
+ * {@linkplain IntStream#boxed() boxed} stream, these collectors receive each
+ * element as a primitive value and accumulate it into primitive containers,
+ * so that a reduction allocates nothing per element.  Allocation is limited
+ * to the result containers themselves, one per distinct group key for the
+ * grouping collectors, and the final result.
+ *
+ * <p>The following are examples of using the predefined collectors:
+ *
+ * <pre>{@code
+ *     // Accumulate lengths into an array, presized when the source is SIZED
+ *     int[] lengths = words.stream()
+ *                          .mapToInt(String::length)
+ *                          .collect(PrimitiveCollectors.toIntArray());
+ *
+ *     // Count the occurrences of each length
+ *     Map<Integer, Long> histogram = words.stream()
+ *                                         .mapToInt(String::length)
+ *                                         .collect(PrimitiveCollectors.histogramOfInt());
+ *
+ *     // Summarize latencies per 10ms bucket
+ *     Map<Long, DoubleSummaryStatistics> byBucket
+ *         = latencies.stream()
+ *                    .collect(PrimitiveCollectors.groupingByDouble(
+ *                                 ms -> (long) (ms / 10),
+ *                                 PrimitiveCollectors.summarizingDouble()));
+ *
+ *     // Median and 99th percentile
+ *     double[] p = latencies.stream()
+ *                           .collect(PrimitiveCollectors.percentilesOfDouble(50, 99));
+ * }</pre>
+ *
+ * @see IntStream#collect(IntCollector)
+ * @see LongStream#collect(LongCollector)
+ * @see DoubleStream#collect(DoubleCollector)
+ * @since 9
+ */
+public final class PrimitiveCollectors {
+
+    private PrimitiveCollectors() { }
+
+    /**
+     * Returns an immutable characteristics set for a collector, adding
+     * {@code IDENTITY_FINISH} if requested.
+     */
+    static Set<Collector.Characteristics> characteristics(boolean identityFinish,
+                                                          Collector.Characteristics... characteristics) {
+        if (characteristics.length == 0)
+            return identityFinish ? Collectors.CH_ID : Collectors.CH_NOID;
+        Set<Collector.Characteristics> cs = EnumSet.noneOf(Collector.Characteristics.class);
+        Collections.addAll(cs, characteristics);
+        if (identityFinish)
+            cs.add(Collector.Characteristics.IDENTITY_FINISH);
+        return Collections.unmodifiableSet(cs);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <I, R> Function<I, R> castingIdentity() {
+        return i -> (R) i;
+    }
+
+    /**
+     * Simple implementation class for {@code IntCollector}.
+     *
+     * @param <A> the type of the result container
+     * @param <R> the type of the result
+     */
+    static class IntCollectorImpl<A, R> implements IntCollector<A, R> {
+        private final Supplier<A> supplier;
+        private final LongFunction<A> sizedSupplier;
+        private final ObjIntConsumer<A> accumulator;
+        private final BinaryOperator<A> combiner;
+        private final Function<A, R> finisher;
+        private final Set<Collector.Characteristics> characteristics;
+
+        IntCollectorImpl(Supplier<A> supplier,
+                         LongFunction<A> sizedSupplier,
+                         ObjIntConsumer<A> accumulator,
+                         BinaryOperator<A> combiner,
+                         Function<A, R> finisher,
+                         Set<Collector.Characteristics> characteristics) {
+            this.supplier = supplier;
+            this.sizedSupplier = sizedSupplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+            this.finisher = (finisher != null) ? finisher : castingIdentity();
+            this.characteristics = characteristics;
+        }
+
+        @Override
+        public Supplier<A> supplier() {
+            return supplier;
+        }
+
+        @Override
+        public LongFunction<A> sizedSupplier() {
+            return (sizedSupplier != null) ? sizedSupplier : IntCollector.super.sizedSupplier();
+        }
+
+        @Override
+        public ObjIntConsumer<A> accumulator() {
+            return accumulator;
+        }
+
+        @Override
+        public BinaryOperator<A> combiner() {
+            return combiner;
+        }
+
+        @Override
+        public Function<A, R> finisher() {
+            return finisher;
+        }
+
+        @Override
+        public Set<Collector.Characteristics> characteristics() {
+            return characteristics;
+        }
+    }
+
+    /**
+     * Simple implementation class for {@code LongCollector}.
+     *
+     * @param <A> the type of the result container
+     * @param <R> the type of the result
+     */
+    static class LongCollectorImpl<A, R> implements LongCollector<A, R> {
+        private final Supplier<A> supplier;
+        private final LongFunction<A> sizedSupplier;
+        private final ObjLongConsumer<A> accumulator;
+        private final BinaryOperator<A> combiner;
+        private final Function<A, R> finisher;
+        private final Set<Collector.Characteristics> characteristics;
+
+        LongCollectorImpl(Supplier<A> supplier,
+                          LongFunction<A> sizedSupplier,
+                          ObjLongConsumer<A> accumulator,
+                          BinaryOperator<A> combiner,
+                          Function<A, R> finisher,
+                          Set<Collector.Characteristics> characteristics) {
+            this.supplier = supplier;
+            this.sizedSupplier = sizedSupplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+            this.finisher = (finisher != null) ? finisher : castingIdentity();
+            this.characteristics = characteristics;
+        }
+
+        @Override
+        public Supplier<A> supplier() {
+            return supplier;
+        }
+
+        @Override
+        public LongFunction<A> sizedSupplier() {
+            return (sizedSupplier != null) ? sizedSupplier : LongCollector.super.sizedSupplier();
+        }
+
+        @Override
+        public ObjLongConsumer<A> accumulator() {
+            return accumulator;
+        }
+
+        @Override
+        public BinaryOperator<A> combiner() {
+            return combiner;
+        }
+
+        @Override
+        public Function<A, R> finisher() {
+            return finisher;
+        }
+
+        @Override
+        public Set<Collector.Characteristics> characteristics() {
+            return characteristics;
+        }
+    }
+
+    /**
+     * Simple implementation class for {@code DoubleCollector}.
+     *
+     * @param <A> the type of the result container
+     * @param <R> the type of the result
+     */
+    static class DoubleCollectorImpl<A, R> implements DoubleCollector<A, R> {
+        private final Supplier<A> supplier;
+        private final LongFunction<A> sizedSupplier;
+        private final ObjDoubleConsumer<A> accumulator;
+        private final BinaryOperator<A> combiner;
+        private final Function<A, R> finisher;
+        private final Set<Collector.Characteristics> characteristics;
+
+        DoubleCollectorImpl(Supplier<A> supplier,
+                            LongFunction<A> sizedSupplier,
+                            ObjDoubleConsumer<A> accumulator,
+                            BinaryOperator<A> combiner,
+                            Function<A, R> finisher,
+                            Set<Collector.Characteristics> characteristics) {
+            this.supplier = supplier;
+            this.sizedSupplier = sizedSupplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+            this.finisher = (finisher != null) ? finisher : castingIdentity();
+            this.characteristics = characteristics;
+        }
+
+        @Override
+        public Supplier<A> supplier() {
+            return supplier;
+        }
+
+        @Override
+        public LongFunction<A> sizedSupplier() {
+            return (sizedSupplier != null) ? sizedSupplier : DoubleCollector.super.sizedSupplier();
+        }
+
+        @Override
+        public ObjDoubleConsumer<A> accumulator() {
+            return accumulator;
+        }
+
+        @Override
+        public BinaryOperator<A> combiner() {
+            return combiner;
+        }
+
+        @Override
+        public Function<A, R> finisher() {
+            return finisher;
+        }
+
+        @Override
+        public Set<Collector.Characteristics> characteristics() {
+            return characteristics;
+        }
+    }
+
+    // Arrays
+
+    /**
+     * Returns an {@code IntCollector} that accumulates the input elements
+     * into a new {@code int} array, in encounter order.  When the number of
+     * elements is known in advance, the array is allocated once at its final
+     * size and returned without copying.
+     *
+     * @return an {@code IntCollector} which collects all the input elements
+     * into an array, in encounter order
+     */
+    public static IntCollector<?, int[]> toIntArray() {
+        return new IntCollectorImpl<>(IntBuffer::new, IntBuffer::new,
+                                      IntBuffer::accept, IntBuffer::combine,
+                                      IntBuffer::toArray, Collectors.CH_NOID);
+    }
+
+    /**
+     * Returns a {@code LongCollector} that accumulates the input elements
+     * into a new {@code long} array, in encounter order.  When the number of
+     * elements is known in advance, the array is allocated once at its final
+     * size and returned without copying.
+     *
+     * @return a {@code LongCollector} which collects all the input elements
+     * into an array, in encounter order
+     */
+    public static LongCollector<?, long[]> toLongArray() {
+        return new LongCollectorImpl<>(LongBuffer::new, LongBuffer::new,
+                                       LongBuffer::accept, LongBuffer::combine,
+                                       LongBuffer::toArray, Collectors.CH_NOID);
+    }
+
+    /**
+     * Returns a {@code DoubleCollector} that accumulates the input elements
+     * into a new {@code double} array, in encounter order.  When the number
+     * of elements is known in advance, the array is allocated once at its
+     * final size and returned without copying.
+     *
+     * @return a {@code DoubleCollector} which collects all the input elements
+     * into an array, in encounter order
+     */
+    public static DoubleCollector<?, double[]> toDoubleArray() {
+        return new DoubleCollectorImpl<>(DoubleBuffer::new, DoubleBuffer::new,
+                                         DoubleBuffer::accept, DoubleBuffer::combine,
+                                         DoubleBuffer::toArray, Collectors.CH_NOID);
+    }
+
+    // Counting and summarizing
+
+    /**
+     * Returns an {@code IntCollector} that counts the number of input
+     * elements.  If no elements are present, the result is 0.
+     *
+     * @return an {@code IntCollector} that counts the input elements
+     */
+    public static IntCollector<?, Long> countingInt() {
+        return new IntCollectorImpl<long[], Long>(
+                () -> new long[1], null,
+                (a, t) -> { a[0]++; },
+                (a, b) -> { a[0] += b[0]; return a; },
+                a -> a[0], Collectors.CH_NOID);
+    }
+
+    /**
+     * Returns a {@code LongCollector} that counts the number of input
+     * elements.  If no elements are present, the result is 0.
+     *
+     * @return a {@code LongCollector} that counts the input elements
+     */
+    public static LongCollector<?, Long> countingLong() {
+        return new LongCollectorImpl<long[], Long>(
+                () -> new long[1], null,
+                (a, t) -> { a[0]++; },
+                (a, b) -> { a[0] += b[0]; return a; },
+                a -> a[0], Collectors.CH_NOID);
+    }
+
+    /**
+     * Returns a {@code DoubleCollector} that counts the number of input
+     * elements.  If no elements are present, the result is 0.
+     *
+     * @return a {@code DoubleCollector} that counts the input elements
+     */
+    public static DoubleCollector<?, Long> countingDouble() {
+        return new DoubleCollectorImpl<long[], Long>(
+                () -> new long[1], null,
+                (a, t) -> { a[0]++; },
+                (a, b) -> { a[0] += b[0]; return a; },
+                a -> a[0], Collectors.CH_NOID);
+    }
+
+    /**
+     * Returns an {@code IntCollector} which returns summary statistics for
+     * the input elements.
+     *
+     * @return an {@code IntCollector} implementing the summary-statistics
+     * reduction
+     * @see IntStream#summaryStatistics()
+     */
+    public static IntCollector<?, IntSummaryStatistics> summarizingInt() {
+        return new IntCollectorImpl<IntSummaryStatistics, IntSummaryStatistics>(
+                IntSummaryStatistics::new, null,
+                IntSummaryStatistics::accept,
+                (l, r) -> { l.combine(r); return l; },
+                null, Collectors.CH_ID);
+    }
+
+    /**
+     * Returns a {@code LongCollector} which returns summary statistics for
+     * the input elements.
+     *
+     * @return a {@code LongCollector} implementing the summary-statistics
+     * reduction
+     * @see LongStream#summaryStatistics()
+     */
+    public static LongCollector<?, LongSummaryStatistics> summarizingLong() {
+        return new LongCollectorImpl<LongSummaryStatistics, LongSummaryStatistics>(
+                LongSummaryStatistics::new, null,
+                LongSummaryStatistics::accept,
+                (l, r) -> { l.combine(r); return l; },
+                null, Collectors.CH_ID);
+    }
+
+    /**
+     * Returns a {@code DoubleCollector} which returns summary statistics for
+     * the input elements.
+     *
+     * @return a {@code DoubleCollector} implementing the summary-statistics
+     * reduction
+     * @see DoubleStream#summaryStatistics()
+     */
+    public static DoubleCollector<?, DoubleSummaryStatistics> summarizingDouble() {
+        return new DoubleCollectorImpl<DoubleSummaryStatistics, DoubleSummaryStatistics>(
+                DoubleSummaryStatistics::new, null,
+                DoubleSummaryStatistics::accept,
+                (l, r) -> { l.combine(r); return l; },
+                null, Collectors.CH_ID);
+    }
+
+    // Percentiles
+
+    /**
+     * Returns an {@code IntCollector} that computes the given percentiles
+     * of the input elements using the nearest-rank method: the
+     * {@code p}-th percentile of {@code n} elements is the smallest element
+     * such that at least {@code p} percent of the elements are less than or
+     * equal to it, and the 0th percentile is the minimum.  The result holds
+     * one value per requested percentile, in the order requested, or is
+     * empty if there were no input elements.
+     *
+     * <p>The elements are buffered in a primitive array and sorted once when
+     * the reduction completes, so the collector requires memory proportional
+     * to the number of elements.
+     *
+     * @param percentiles the percentiles to compute, each in the range
+     *                    {@code [0, 100]}
+     * @return an {@code IntCollector} computing the given percentiles
+     * @throws IllegalArgumentException if a percentile is out of range or NaN
+     */
+    public static IntCollector<?, int[]> percentilesOfInt(double... percentiles) {
+        double[] ps = checkPercentiles(percentiles);
+        return new IntCollectorImpl<IntBuffer, int[]>(
+                IntBuffer::new, IntBuffer::new,
+                IntBuffer::accept, IntBuffer::combine,
+                buf -> {
+                    int n = buf.size;
+                    if (n == 0)
+                        return new int[0];
+                    Arrays.sort(buf.array, 0, n);
+                    int[] result = new int[ps.length];
+                    for (int i = 0; i < ps.length; i++)
+                        result[i] = buf.array[rankIndex(ps[i], n)];
+                    return result;
+                },
+                Collectors.CH_NOID);
+    }
+
+    /**
+     * Returns a {@code LongCollector} that computes the given percentiles
+     * of the input elements using the nearest-rank method, as described
+     * for {@link #percentilesOfInt(double...)}.
+     *
+     * @param percentiles the percentiles to compute, each in the range
+     *                    {@code [0, 100]}
+     * @return a {@code LongCollector} computing the given percentiles
+     * @throws IllegalArgumentException if a percentile is out of range or NaN
+     */
+    public static LongCollector<?, long[]> percentilesOfLong(double... percentiles) {
+        double[] ps = checkPercentiles(percentiles);
+        return new LongCollectorImpl<LongBuffer, long[]>(
+                LongBuffer::new, LongBuffer::new,
+                LongBuffer::accept, LongBuffer::combine,
+                buf -> {
+                    int n = buf.size;
+                    if (n == 0)
+                        return new long[0];
+                    Arrays.sort(buf.array, 0, n);
+                    long[] result = new long[ps.length];
+                    for (int i = 0; i < ps.length; i++)
+                        result[i] = buf.array[rankIndex(ps[i], n)];
+                    return result;
+                },
+                Collectors.CH_NOID);
+    }
+
+    /**
+     * Returns a {@code DoubleCollector} that computes the given percentiles
+     * of the input elements using the nearest-rank method, as described
+     * for {@link #percentilesOfInt(double...)}.  Elements are ordered as by
+     * {@link Double#compare(double, double)}, so NaN values rank above all
+     * other values.
+     *
+     * @param percentiles the percentiles to compute, each in the range
+     *                    {@code [0, 100]}
+     * @return a {@code DoubleCollector} computing the given percentiles
+     * @throws IllegalArgumentException if a percentile is out of range or NaN
+     */
+    public static DoubleCollector<?, double[]> percentilesOfDouble(double... percentiles) {
+        double[] ps = checkPercentiles(percentiles);
+        return new DoubleCollectorImpl<DoubleBuffer, double[]>(
+                DoubleBuffer::new, DoubleBuffer::new,
+                DoubleBuffer::accept, DoubleBuffer::combine,
+                buf -> {
+                    int n = buf.size;
+                    if (n == 0)
+                        return new double[0];
+                    Arrays.sort(buf.array, 0, n);
+                    double[] result = new double[ps.length];
+                    for (int i = 0; i < ps.length; i++)
+                        result[i] = buf.array[rankIndex(ps[i], n)];
+                    return result;
+                },
+                Collectors.CH_NOID);
+    }
+
+    private static double[] checkPercentiles(double[] percentiles) {
+        double[] ps = percentiles.clone();
+        for (double p : ps) {
+            if (!(p >= 0.0d && p <= 100.0d))
+                throw new IllegalArgumentException("percentile out of range: " + p);
+        }
+        return ps;
+    }
+
+    /**
+     * Returns the index in a sorted array of {@code n > 0} elements of the
+     * nearest-rank {@code p}-th percentile.
+     */
+    static int rankIndex(double p, int n) {
+        long rank = (long) Math.ceil(p / 100.0d * n);
+        return (rank <= 0L) ? 0 : (int) Math.min(rank, n) - 1;
+    }
+
+    // Grouping
+
+    /**
+     * Returns an {@code IntCollector} implementing a "group by" operation on
+     * input elements, grouping elements by an {@code int} key computed by a
+     * classification function, and performing a reduction on the elements
+     * of each group using the specified downstream {@code IntCollector}.
+     * Neither the key nor the element is boxed during accumulation; keys are
+     * boxed only once per group when the resulting {@code Map} is built.
+     *
+     * <p>There are no guarantees on the type, mutability,
+     * serializability, or thread-safety of the {@code Map} returned.
+     *
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <D> the result type of the downstream reduction
+     * @param classifier a classifier function mapping input elements to keys
+     * @param downstream an {@code IntCollector} implementing the downstream
+     *                   reduction
+     * @return an {@code IntCollector} implementing the cascaded group-by
+     * operation
+     */
+    public static <A, D> IntCollector<?, Map<Integer, D>>
+    groupingByInt(IntUnaryOperator classifier, IntCollector<A, D> downstream) {
+        Objects.requireNonNull(classifier);
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        ObjIntConsumer<A> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        return new IntCollectorImpl<LongKeyedTable<A>, Map<Integer, D>>(
+                LongKeyedTable::new, null,
+                (table, t) -> downstreamAccumulator.accept(
+                        table.computeIfAbsent(classifier.applyAsInt(t), downstreamSupplier), t),
+                (left, right) -> left.mergeAll(right, downstreamCombiner),
+                table -> table.toMap(k -> (int) k, downstreamFinisher),
+                Collectors.CH_NOID);
+    }
+
+    /**
+     * Returns an {@code IntCollector} implementing a "group by" operation on
+     * input elements, grouping elements by an {@code int} key computed by a
+     * classification function, and collecting the elements of each group
+     * into an array.
+     *
+     * @param classifier a classifier function mapping input elements to keys
+     * @return an {@code IntCollector} implementing the group-by operation
+     * @see #groupingByInt(IntUnaryOperator, IntCollector)
+     */
+    public static IntCollector<?, Map<Integer, int[]>>
+    groupingByInt(IntUnaryOperator classifier) {
+        return groupingByInt(classifier, toIntArray());
+    }
+
+    /**
+     * Returns a {@code LongCollector} implementing a "group by" operation on
+     * input elements, grouping elements by a {@code long} key computed by a
+     * classification function, and performing a reduction on the elements
+     * of each group using the specified downstream {@code LongCollector}.
+     * Neither the key nor the element is boxed during accumulation; keys are
+     * boxed only once per group when the resulting {@code Map} is built.
+     *
+     * <p>There are no guarantees on the type, mutability,
+     * serializability, or thread-safety of the {@code Map} returned.
+     *
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <D> the result type of the downstream reduction
+     * @param classifier a classifier function mapping input elements to keys
+     * @param downstream a {@code LongCollector} implementing the downstream
+     *                   reduction
+     * @return a {@code LongCollector} implementing the cascaded group-by
+     * operation
+     */
+    public static <A, D> LongCollector<?, Map<Long, D>>
+    groupingByLong(LongUnaryOperator classifier, LongCollector<A, D> downstream) {
+        Objects.requireNonNull(classifier);
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        ObjLongConsumer<A> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        return new LongCollectorImpl<LongKeyedTable<A>, Map<Long, D>>(
+                LongKeyedTable::new, null,
+                (table, t) -> downstreamAccumulator.accept(
+                        table.computeIfAbsent(classifier.applyAsLong(t), downstreamSupplier), t),
+                (left, right) -> left.mergeAll(right, downstreamCombiner),
+                table -> table.toMap(k -> k, downstreamFinisher),
+                Collectors.CH_NOID);
+    }
+
+    /**
+     * Returns a {@code LongCollector} implementing a "group by" operation on
+     * input elements, grouping elements by a {@code long} key computed by a
+     * classification function, and collecting the elements of each group
+     * into an array.
+     *
+     * @param classifier a classifier function mapping input elements to keys
+     * @return a {@code LongCollector} implementing the group-by operation
+     * @see #groupingByLong(LongUnaryOperator, LongCollector)
+     */
+    public static LongCollector<?, Map<Long, long[]>>
+    groupingByLong(LongUnaryOperator classifier) {
+        return groupingByLong(classifier, toLongArray());
+    }
+
+    /**
+     * Returns a {@code DoubleCollector} implementing a "group by" operation
+     * on input elements, grouping elements by a {@code long} key, such as a
+     * bucket number, computed by a classification function, and performing
+     * a reduction on the elements of each group using the specified
+     * downstream {@code DoubleCollector}.  Neither the key nor the element is
+     * boxed during accumulation; keys are boxed only once per group when the
+     * resulting {@code Map} is built.
+     *
+     * <p>There are no guarantees on the type, mutability,
+     * serializability, or thread-safety of the {@code Map} returned.
+     *
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <D> the result type of the downstream reduction
+     * @param classifier a classifier function mapping input elements to keys
+     * @param downstream a {@code DoubleCollector} implementing the downstream
+     *                   reduction
+     * @return a {@code DoubleCollector} implementing the cascaded group-by
+     * operation
+     */
+    public static <A, D> DoubleCollector<?, Map<Long, D>>
+    groupingByDouble(DoubleToLongFunction classifier, DoubleCollector<A, D> downstream) {
+        Objects.requireNonNull(classifier);
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        ObjDoubleConsumer<A> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        return new DoubleCollectorImpl<LongKeyedTable<A>, Map<Long, D>>(
+                LongKeyedTable::new, null,
+                (table, t) -> downstreamAccumulator.accept(
+                        table.computeIfAbsent(classifier.applyAsLong(t), downstreamSupplier), t),
+                (left, right) -> left.mergeAll(right, downstreamCombiner),
+                table -> table.toMap(k -> k, downstreamFinisher),
+                Collectors.CH_NOID);
+    }
+
+    /**
+     * Returns a {@code DoubleCollector} implementing a "group by" operation
+     * on input elements, grouping elements by a {@code long} key computed by
+     * a classification function, and collecting the elements of each group
+     * into an array.
+     *
+     * @param classifier a classifier function mapping input elements to keys
+     * @return a {@code DoubleCollector} implementing the group-by operation
+     * @see #groupingByDouble(DoubleToLongFunction, DoubleCollector)
+     */
+    public static DoubleCollector<?, Map<Long, double[]>>
+    groupingByDouble(DoubleToLongFunction classifier) {
+        return groupingByDouble(classifier, toDoubleArray());
+    }
+
+    /**
+     * Returns an {@code IntCollector} that counts the occurrences of each
+     * distinct input value.
+     *
+     * @return an {@code IntCollector} mapping each distinct value to the
+     * number of times it occurs
+     */
+    public static IntCollector<?, Map<Integer, Long>> histogramOfInt() {
+        return groupingByInt(IntUnaryOperator.identity(), countingInt());
+    }
+
+    /**
+     * Returns a {@code LongCollector} that counts the occurrences of each
+     * distinct input value.
+     *
+     * @return a {@code LongCollector} mapping each distinct value to the
+     * number of times it occurs
+     */
+    public static LongCollector<?, Map<Long, Long>> histogramOfLong() {
+        return groupingByLong(LongUnaryOperator.identity(), countingLong());
+    }
+
+    /**
+     * Returns a {@code DoubleCollector} that counts the input elements
+     * falling into each bucket computed by the given function.
+     *
+     * @param bucket a function mapping input elements to bucket keys
+     * @return a {@code DoubleCollector} mapping each bucket key to the
+     * number of elements in that bucket
+     */
+    public static DoubleCollector<?, Map<Long, Long>> histogramOfDouble(DoubleToLongFunction bucket) {
+        return groupingByDouble(bucket, countingDouble());
+    }
+
+    // Partitioning
+
+    /**
+     * Returns an {@code IntCollector} which partitions the input elements
+     * according to an {@code IntPredicate}, reduces the values in each
+     * partition according to another {@code IntCollector}, and organizes
+     * them into a {@code Map<Boolean, D>} whose values are the result of the
+     * downstream reduction.
+     *
+     * <p>There are no guarantees on the type, mutability,
+     * serializability, or thread-safety of the {@code Map} returned.
+     *
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <D> the result type of the downstream reduction
+     * @param predicate a predicate used for classifying input elements
+     * @param downstream an {@code IntCollector} implementing the downstream
+     *                   reduction
+     * @return an {@code IntCollector} implementing the cascaded partitioning
+     *         operation
+     */
+    public static <A, D> IntCollector<?, Map<Boolean, D>>
+    partitioningByInt(IntPredicate predicate, IntCollector<A, D> downstream) {
+        Objects.requireNonNull(predicate);
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        ObjIntConsumer<A> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> op = downstream.combiner();
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        boolean identityFinish =
+                downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH);
+        return new IntCollectorImpl<Collectors.Partition<A>, Map<Boolean, D>>(
+                () -> new Collectors.Partition<>(downstreamSupplier.get(),
+                                                 downstreamSupplier.get()),
+                null,
+                (result, t) -> downstreamAccumulator.accept(
+                        predicate.test(t) ? result.forTrue : result.forFalse, t),
+                (left, right) -> new Collectors.Partition<>(op.apply(left.forTrue, right.forTrue),
+                                                            op.apply(left.forFalse, right.forFalse)),
+                identityFinish ? null : par -> new Collectors.Partition<>(
+                        downstreamFinisher.apply(par.forTrue),
+                        downstreamFinisher.apply(par.forFalse)),
+                identityFinish ? Collectors.CH_ID : Collectors.CH_NOID);
+    }
+
+    /**
+     * Returns an {@code IntCollector} which partitions the input elements
+     * according to an {@code IntPredicate}, and organizes them into a
+     * {@code Map<Boolean, int[]>}.
+     *
+     * @param predicate a predicate used for classifying input elements
+     * @return an {@code IntCollector} implementing the partitioning operation
+     * @see #partitioningByInt(IntPredicate, IntCollector)
+     */
+    public static IntCollector<?, Map<Boolean, int[]>>
+    partitioningByInt(IntPredicate predicate) {
+        return partitioningByInt(predicate, toIntArray());
+    }
+
+    /**
+     * Returns a {@code LongCollector} which partitions the input elements
+     * according to a {@code LongPredicate}, reduces the values in each
+     * partition according to another {@code LongCollector}, and organizes
+     * them into a {@code Map<Boolean, D>} whose values are the result of the
+     * downstream reduction.
+     *
+     * <p>There are no guarantees on the type, mutability,
+     * serializability, or thread-safety of the {@code Map} returned.
+     *
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <D> the result type of the downstream reduction
+     * @param predicate a predicate used for classifying input elements
+     * @param downstream a {@code LongCollector} implementing the downstream
+     *                   reduction
+     * @return a {@code LongCollector} implementing the cascaded partitioning
+     *         operation
+     */
+    public static <A, D> LongCollector<?, Map<Boolean, D>>
+    partitioningByLong(LongPredicate predicate, LongCollector<A, D> downstream) {
+        Objects.requireNonNull(predicate);
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        ObjLongConsumer<A> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> op = downstream.combiner();
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        boolean identityFinish =
+                downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH);
+        return new LongCollectorImpl<Collectors.Partition<A>, Map<Boolean, D>>(
+                () -> new Collectors.Partition<>(downstreamSupplier.get(),
+                                                 downstreamSupplier.get()),
+                null,
+                (result, t) -> downstreamAccumulator.accept(
+                        predicate.test(t) ? result.forTrue : result.forFalse, t),
+                (left, right) -> new Collectors.Partition<>(op.apply(left.forTrue, right.forTrue),
+                                                            op.apply(left.forFalse, right.forFalse)),
+                identityFinish ? null : par -> new Collectors.Partition<>(
+                        downstreamFinisher.apply(par.forTrue),
+                        downstreamFinisher.apply(par.forFalse)),
+                identityFinish ? Collectors.CH_ID : Collectors.CH_NOID);
+    }
+
+    /**
+     * Returns a {@code LongCollector} which partitions the input elements
+     * according to a {@code LongPredicate}, and organizes them into a
+     * {@code Map<Boolean, long[]>}.
+     *
+     * @param predicate a predicate used for classifying input elements
+     * @return a {@code LongCollector} implementing the partitioning operation
+     * @see #partitioningByLong(LongPredicate, LongCollector)
+     */
+    public static LongCollector<?, Map<Boolean, long[]>>
+    partitioningByLong(LongPredicate predicate) {
+        return partitioningByLong(predicate, toLongArray());
+    }
+
+    /**
+     * Returns a {@code DoubleCollector} which partitions the input elements
+     * according to a {@code DoublePredicate}, reduces the values in each
+     * partition according to another {@code DoubleCollector}, and organizes
+     * them into a {@code Map<Boolean, D>} whose values are the result of the
+     * downstream reduction.
+     *
+     * <p>There are no guarantees on the type, mutability,
+     * serializability, or thread-safety of the {@code Map} returned.
+     *
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <D> the result type of the downstream reduction
+     * @param predicate a predicate used for classifying input elements
+     * @param downstream a {@code DoubleCollector} implementing the downstream
+     *                   reduction
+     * @return a {@code DoubleCollector} implementing the cascaded partitioning
+     *         operation
+     */
+    public static <A, D> DoubleCollector<?, Map<Boolean, D>>
+    partitioningByDouble(DoublePredicate predicate, DoubleCollector<A, D> downstream) {
+        Objects.requireNonNull(predicate);
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        ObjDoubleConsumer<A> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> op = downstream.combiner();
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        boolean identityFinish =
+                downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH);
+        return new DoubleCollectorImpl<Collectors.Partition<A>, Map<Boolean, D>>(
+                () -> new Collectors.Partition<>(downstreamSupplier.get(),
+                                                 downstreamSupplier.get()),
+                null,
+                (result, t) -> downstreamAccumulator.accept(
+                        predicate.test(t) ? result.forTrue : result.forFalse, t),
+                (left, right) -> new Collectors.Partition<>(op.apply(left.forTrue, right.forTrue),
+                                                            op.apply(left.forFalse, right.forFalse)),
+                identityFinish ? null : par -> new Collectors.Partition<>(
+                        downstreamFinisher.apply(par.forTrue),
+                        downstreamFinisher.apply(par.forFalse)),
+                identityFinish ? Collectors.CH_ID : Collectors.CH_NOID);
+    }
+
+    /**
+     * Returns a {@code DoubleCollector} which partitions the input elements
+     * according to a {@code DoublePredicate}, and organizes them into a
+     * {@code Map<Boolean, double[]>}.
+     *
+     * @param predicate a predicate used for classifying input elements
+     * @return a {@code DoubleCollector} implementing the partitioning operation
+     * @see #partitioningByDouble(DoublePredicate, DoubleCollector)
+     */
+    public static DoubleCollector<?, Map<Boolean, double[]>>
+    partitioningByDouble(DoublePredicate predicate) {
+        return partitioningByDouble(predicate, toDoubleArray());
+    }
+
+    // Containers
+
+    /** Default capacity of array buffers of unknown size. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Returns a capacity for a buffer given an exact element count, or
+     * the default capacity if the count is unknown or too large.
+     */
+    private static int initialCapacity(long exactSizeIfKnown) {
+        return (exactSizeIfKnown >= 0 && exactSizeIfKnown < Nodes.MAX_ARRAY_SIZE)
+               ? (int) exactSizeIfKnown
+               : INITIAL_CAPACITY;
+    }
+
+    /**
+     * Returns the capacity to grow an array of length {@code length} to,
+     * so that it can hold at least {@code minCapacity} elements.
+     */
+    private static int newCapacity(int length, int minCapacity) {
+        if (minCapacity < 0 || minCapacity > Nodes.MAX_ARRAY_SIZE)
+            throw new IllegalArgumentException(Nodes.BAD_SIZE);
+        int capacity = Math.max(length + (length >> 1), INITIAL_CAPACITY);
+        if (capacity < minCapacity || capacity > Nodes.MAX_ARRAY_SIZE)
+            capacity = (int) Math.max(minCapacity, Math.min(capacity, Nodes.MAX_ARRAY_SIZE));
+        return capacity;
+    }
+
+    /** A growable {@code int} array. */
+    static final class IntBuffer {
+        int[] array;
+        int size;
+
+        IntBuffer() {
+            array = new int[INITIAL_CAPACITY];
+        }
+
+        IntBuffer(long exactSizeIfKnown) {
+            array = new int[initialCapacity(exactSizeIfKnown)];
+        }
+
+        void accept(int value) {
+            if (size == array.length)
+                array = Arrays.copyOf(array, newCapacity(array.length, size + 1));
+            array[size++] = value;
+        }
+
+        IntBuffer combine(IntBuffer other) {
+            int n = size + other.size;
+            if (n > array.length)
+                array = Arrays.copyOf(array, newCapacity(array.length, n));
+            System.arraycopy(other.array, 0, array, size, other.size);
+            size = n;
+            return this;
+        }
+
+        int[] toArray() {
+            return (size == array.length) ? array : Arrays.copyOf(array, size);
+        }
+    }
+
+    /** A growable {@code long} array. */
+    static final class LongBuffer {
+        long[] array;
+        int size;
+
+        LongBuffer() {
+            array = new long[INITIAL_CAPACITY];
+        }
+
+        LongBuffer(long exactSizeIfKnown) {
+            array = new long[initialCapacity(exactSizeIfKnown)];
+        }
+
+        void accept(long value) {
+            if (size == array.length)
+                array = Arrays.copyOf(array, newCapacity(array.length, size + 1));
+            array[size++] = value;
+        }
+
+        LongBuffer combine(LongBuffer other) {
+            int n = size + other.size;
+            if (n > array.length)
+                array = Arrays.copyOf(array, newCapacity(array.length, n));
+            System.arraycopy(other.array, 0, array, size, other.size);
+            size = n;
+            return this;
+        }
+
+        long[] toArray() {
+            return (size == array.length) ? array : Arrays.copyOf(array, size);
+        }
+    }
+
+    /** A growable {@code double} array. */
+    static final class DoubleBuffer {
+        double[] array;
+        int size;
+
+        DoubleBuffer() {
+            array = new double[INITIAL_CAPACITY];
+        }
+
+        DoubleBuffer(long exactSizeIfKnown) {
+            array = new double[initialCapacity(exactSizeIfKnown)];
+        }
+
+        void accept(double value) {
+            if (size == array.length)
+                array = Arrays.copyOf(array, newCapacity(array.length, size + 1));
+            array[size++] = value;
+        }
+
+        DoubleBuffer combine(DoubleBuffer other) {
+            int n = size + other.size;
+            if (n > array.length)
+                array = Arrays.copyOf(array, newCapacity(array.length, n));
+            System.arraycopy(other.array, 0, array, size, other.size);
+            size = n;
+            return this;
+        }
+
+        double[] toArray() {
+            return (size == array.length) ? array : Arrays.copyOf(array, size);
+        }
+    }
+
+    /**
+     * An open-addressing hash table from primitive {@code long} keys (which
+     * also hold widened {@code int} keys) to per-group result containers,
+     * using linear probing.  Looking up the container of an existing key
+     * allocates nothing.
+     *
+     * @param <A> the type of the group containers
+     */
+    static final class LongKeyedTable<A> {
+        private long[] keys;
+        private Object[] values;   // null marks an empty slot
+        private int size;
+
+        LongKeyedTable() {
+            keys = new long[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        /**
+         * Returns the container for the given key, creating it with the
+         * given supplier if absent.
+         */
+        @SuppressWarnings("unchecked")
+        A computeIfAbsent(long key, Supplier<A> supplier) {
+            long[] ks = keys;
+            Object[] vs = values;
+            int mask = ks.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                Object v = vs[i];
+                if (v == null)
+                    break;
+                if (ks[i] == key)
+                    return (A) v;
+            }
+            A a = Objects.requireNonNull(supplier.get());
+            insert(key, a);
+            return a;
+        }
+
+        /**
+         * Inserts a key known to be absent, growing the table first if it
+         * would become more than three-quarters full.
+         */
+        private void insert(long key, Object value) {
+            if (size + 1 > (keys.length >>> 1) + (keys.length >>> 2))
+                resize();
+            long[] ks = keys;
+            Object[] vs = values;
+            int mask = ks.length - 1;
+            int i = hash(key) & mask;
+            while (vs[i] != null)
+                i = (i + 1) & mask;
+            ks[i] = key;
+            vs[i] = value;
+            size++;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            int n = oldKeys.length << 1;
+            if (n <= 0)
+                throw new IllegalStateException("Too many groups");
+            long[] ks = new long[n];
+            Object[] vs = new Object[n];
+            int mask = n - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                Object v = oldValues[j];
+                if (v != null) {
+                    int i = hash(oldKeys[j]) & mask;
+                    while (vs[i] != null)
+                        i = (i + 1) & mask;
+                    ks[i] = oldKeys[j];
+                    vs[i] = v;
+                }
+            }
+            keys = ks;
+            values = vs;
+        }
+
+        /**
+         * Merges the groups of {@code other} into this table, combining
+         * the containers of keys present in both.
+         */
+        @SuppressWarnings("unchecked")
+        LongKeyedTable<A> mergeAll(LongKeyedTable<A> other, BinaryOperator<A> combiner) {
+            long[] oks = other.keys;
+            Object[] ovs = other.values;
+            for (int j = 0; j < oks.length; j++) {
+                Object ov = ovs[j];
+                if (ov == null)
+                    continue;
+                long key = oks[j];
+                long[] ks = keys;
+                Object[] vs = values;
+                int mask = ks.length - 1;
+                int i = hash(key) & mask;
+                while (vs[i] != null && ks[i] != key)
+                    i = (i + 1) & mask;
+                if (vs[i] != null)
+                    vs[i] = Objects.requireNonNull(combiner.apply((A) vs[i], (A) ov));
+                else
+                    insert(key, ov);
+            }
+            return this;
+        }
+
+        /**
+         * Builds the result map, boxing each key once with the given key
+         * mapper and finishing each container.
+         */
+        @SuppressWarnings("unchecked")
+        <K, D> Map<K, D> toMap(LongFunction<K> keyMapper, Function<A, D> finisher) {
+            Map<K, D> map = new HashMap<>(Math.max((int) (size / .75f) + 1, 16));
+            long[] ks = keys;
+            Object[] vs = values;
+            for (int i = 0; i < ks.length; i++) {
+                Object v = vs[i];
+                if (v != null)
+                    map.put(keyMapper.apply(ks[i]), finisher.apply((A) v));
+            }
+            return map;
+        }
+    }
+}
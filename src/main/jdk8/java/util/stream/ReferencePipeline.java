@@ -26,10 +26,12 @@ package java.util.stream;
 
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.CompletionStage;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
@@ -248,6 +250,18 @@ abstract class ReferencePipeline<P_IN, P_OUT>
         };
     }
 
+    @Override
+    public final <R> Stream<R> mapAsync(Function<? super P_OUT, ? extends CompletionStage<? extends R>> mapper,
+                                        int maxConcurrency) {
+        return AsyncMapOps.makeRef(this, mapper, maxConcurrency, false);
+    }
+
+    @Override
+    public final <R> Stream<R> mapAsyncOrdered(Function<? super P_OUT, ? extends CompletionStage<? extends R>> mapper,
+                                               int maxConcurrency) {
+        return AsyncMapOps.makeRef(this, mapper, maxConcurrency, true);
+    }
+
     @Override
     public final <R> Stream<R> flatMap(Function<? super P_OUT, ? extends Stream<? extends R>> mapper) {
         Objects.requireNonNull(mapper);
@@ -394,11 +408,23 @@ abstract class ReferencePipeline<P_IN, P_OUT>
         return SortedOps.makeRef(this, comparator);
     }
 
+    @Override
+    public final Stream<List<P_OUT>> chunked(int size) {
+        return WindowOps.makeRef(this, size, size, true);
+    }
+
+    @Override
+    public final Stream<List<P_OUT>> windowed(int size, int step) {
+        return WindowOps.makeRef(this, size, step, false);
+    }
+
     @Override
     public final Stream<P_OUT> limit(long maxSize) {
         if (maxSize < 0)
             throw new IllegalArgumentException(Long.toString(maxSize));
-        return SliceOps.makeRef(this, 0, maxSize);
+        Stream<P_OUT> stream = SliceOps.makeRef(this, 0, maxSize);
+        SortedOps.bound(this, maxSize);
+        return stream;
     }
 
     @Override
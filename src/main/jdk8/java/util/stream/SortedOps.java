@@ -27,6 +27,7 @@ package java.util.stream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Spliterator;
 import java.util.function.IntFunction;
@@ -93,6 +94,37 @@ final class SortedOps {
         return new OfDouble(upstream);
     }
 
+    /**
+     * Bounds a "sorted" operation by the number of elements a "limit"
+     * operation appended directly after it will pass, so that only that
+     * many of the least elements need be retained and sorted.  This is a
+     * no-op if {@code upstream} is not a "sorted" operation or the limit is
+     * too large to be buffered.
+     *
+     * <p>A bounded sort retains the least {@code limit} elements in a
+     * bounded max-heap, replacing the heap root when a lesser element
+     * arrives, and so takes O(n log k) time and O(k) space rather than
+     * O(n log n) and O(n) for a full sort.  Ties are broken by encounter
+     * order, preserving the stability of the sort.  In parallel, each leaf
+     * task keeps its own heap, and heaps are merged pairwise in encounter
+     * order.
+     *
+     * @param upstream the stage to which a limit is being appended
+     * @param limit the maximum number of elements the limit will pass
+     */
+    static void bound(AbstractPipeline<?, ?, ?> upstream, long limit) {
+        if (limit < 0 || limit >= Nodes.MAX_ARRAY_SIZE)
+            return;
+        if (upstream instanceof OfRef)
+            ((OfRef<?>) upstream).bound = (int) limit;
+        else if (upstream instanceof OfInt)
+            ((OfInt) upstream).bound = (int) limit;
+        else if (upstream instanceof OfLong)
+            ((OfLong) upstream).bound = (int) limit;
+        else if (upstream instanceof OfDouble)
+            ((OfDouble) upstream).bound = (int) limit;
+    }
+
     /**
      * Specialized subtype for sorting reference streams
      */
@@ -103,6 +135,11 @@ final class SortedOps {
         private final boolean isNaturalSort;
         private final Comparator<? super T> comparator;
 
+        /**
+         * The number of least elements to retain, or -1 if unbounded
+         */
+        int bound = -1;
+
         /**
          * Sort using natural order of {@literal <T>} which must be
          * {@code Comparable}.
@@ -137,6 +174,8 @@ final class SortedOps {
             // also naturally sorted then this is a no-op
             if (StreamOpFlag.SORTED.isKnown(flags) && isNaturalSort)
                 return sink;
+            else if (bound >= 0)
+                return new BoundedRefSortingSink<>(sink, comparator, bound);
             else if (StreamOpFlag.SIZED.isKnown(flags))
                 return new SizedRefSortingSink<>(sink, comparator);
             else
@@ -152,6 +191,16 @@ final class SortedOps {
             if (StreamOpFlag.SORTED.isKnown(helper.getStreamAndOpFlags()) && isNaturalSort) {
                 return helper.evaluate(spliterator, false, generator);
             }
+            else if (bound >= 0) {
+                // Per-leaf bounded heaps, merged in encounter order
+                int k = bound;
+                RefTopKBuffer<T> b = ReduceOps.makeRef(
+                        Collector.<T, RefTopKBuffer<T>>of(() -> new RefTopKBuffer<>(k, comparator),
+                                                          RefTopKBuffer::accept,
+                                                          RefTopKBuffer::combine))
+                        .evaluateParallel(helper, spliterator);
+                return Nodes.node(b.toArray(generator));
+            }
             else {
                 // @@@ Weak two-pass parallel implementation; parallel collect, parallel sort
                 T[] flattenedData = helper.evaluate(spliterator, true, generator).asArray(generator);
@@ -165,6 +214,11 @@ final class SortedOps {
      * Specialized subtype for sorting int streams.
      */
     private static final class OfInt extends IntPipeline.StatefulOp<Integer> {
+        /**
+         * The number of least elements to retain, or -1 if unbounded
+         */
+        int bound = -1;
+
         OfInt(AbstractPipeline<?, Integer, ?> upstream) {
             super(upstream, StreamShape.INT_VALUE,
                   StreamOpFlag.IS_ORDERED | StreamOpFlag.IS_SORTED);
@@ -176,6 +230,8 @@ final class SortedOps {
 
             if (StreamOpFlag.SORTED.isKnown(flags))
                 return sink;
+            else if (bound >= 0)
+                return new BoundedIntSortingSink(sink, bound);
             else if (StreamOpFlag.SIZED.isKnown(flags))
                 return new SizedIntSortingSink(sink);
             else
@@ -189,6 +245,16 @@ final class SortedOps {
             if (StreamOpFlag.SORTED.isKnown(helper.getStreamAndOpFlags())) {
                 return helper.evaluate(spliterator, false, generator);
             }
+            else if (bound >= 0) {
+                // Per-leaf bounded heaps, merged in encounter order
+                int k = bound;
+                IntTopKBuffer b = ReduceOps.makeInt(
+                        IntCollector.of(() -> new IntTopKBuffer(k, false),
+                                        IntTopKBuffer::accept,
+                                        IntTopKBuffer::combine))
+                        .evaluateParallel(helper, spliterator);
+                return Nodes.node(b.toArray());
+            }
             else {
                 Node.OfInt n = (Node.OfInt) helper.evaluate(spliterator, true, generator);
 
@@ -204,6 +270,11 @@ final class SortedOps {
      * Specialized subtype for sorting long streams.
      */
     private static final class OfLong extends LongPipeline.StatefulOp<Long> {
+        /**
+         * The number of least elements to retain, or -1 if unbounded
+         */
+        int bound = -1;
+
         OfLong(AbstractPipeline<?, Long, ?> upstream) {
             super(upstream, StreamShape.LONG_VALUE,
                   StreamOpFlag.IS_ORDERED | StreamOpFlag.IS_SORTED);
@@ -215,6 +286,8 @@ final class SortedOps {
 
             if (StreamOpFlag.SORTED.isKnown(flags))
                 return sink;
+            else if (bound >= 0)
+                return new BoundedLongSortingSink(sink, bound);
             else if (StreamOpFlag.SIZED.isKnown(flags))
                 return new SizedLongSortingSink(sink);
             else
@@ -228,6 +301,16 @@ final class SortedOps {
             if (StreamOpFlag.SORTED.isKnown(helper.getStreamAndOpFlags())) {
                 return helper.evaluate(spliterator, false, generator);
             }
+            else if (bound >= 0) {
+                // Per-leaf bounded heaps, merged in encounter order
+                int k = bound;
+                LongTopKBuffer b = ReduceOps.makeLong(
+                        LongCollector.of(() -> new LongTopKBuffer(k, false),
+                                        LongTopKBuffer::accept,
+                                        LongTopKBuffer::combine))
+                        .evaluateParallel(helper, spliterator);
+                return Nodes.node(b.toArray());
+            }
             else {
                 Node.OfLong n = (Node.OfLong) helper.evaluate(spliterator, true, generator);
 
@@ -243,6 +326,11 @@ final class SortedOps {
      * Specialized subtype for sorting double streams.
      */
     private static final class OfDouble extends DoublePipeline.StatefulOp<Double> {
+        /**
+         * The number of least elements to retain, or -1 if unbounded
+         */
+        int bound = -1;
+
         OfDouble(AbstractPipeline<?, Double, ?> upstream) {
             super(upstream, StreamShape.DOUBLE_VALUE,
                   StreamOpFlag.IS_ORDERED | StreamOpFlag.IS_SORTED);
@@ -254,6 +342,8 @@ final class SortedOps {
 
             if (StreamOpFlag.SORTED.isKnown(flags))
                 return sink;
+            else if (bound >= 0)
+                return new BoundedDoubleSortingSink(sink, bound);
             else if (StreamOpFlag.SIZED.isKnown(flags))
                 return new SizedDoubleSortingSink(sink);
             else
@@ -267,6 +357,16 @@ final class SortedOps {
             if (StreamOpFlag.SORTED.isKnown(helper.getStreamAndOpFlags())) {
                 return helper.evaluate(spliterator, false, generator);
             }
+            else if (bound >= 0) {
+                // Per-leaf bounded heaps, merged in encounter order
+                int k = bound;
+                DoubleTopKBuffer b = ReduceOps.makeDouble(
+                        DoubleCollector.of(() -> new DoubleTopKBuffer(k, false),
+                                        DoubleTopKBuffer::accept,
+                                        DoubleTopKBuffer::combine))
+                        .evaluateParallel(helper, spliterator);
+                return Nodes.node(b.toArray());
+            }
             else {
                 Node.OfDouble n = (Node.OfDouble) helper.evaluate(spliterator, true, generator);
 
@@ -698,4 +798,650 @@ final class SortedOps {
             b.accept(t);
         }
     }
+
+    /**
+     * {@link Sink} for implementing a sort bounded by a following limit on
+     * reference streams.
+     */
+    private static final class BoundedRefSortingSink<T> extends AbstractRefSortingSink<T> {
+        private final int bound;
+        private RefTopKBuffer<T> buffer;
+
+        BoundedRefSortingSink(Sink<? super T> sink, Comparator<? super T> comparator, int bound) {
+            super(sink, comparator);
+            this.bound = bound;
+        }
+
+        @Override
+        public void begin(long size) {
+            buffer = new RefTopKBuffer<>(bound, comparator);
+        }
+
+        @Override
+        public void end() {
+            buffer.sort();
+            int n = buffer.size();
+            downstream.begin(n);
+            if (!cancellationWasRequested) {
+                for (int i = 0; i < n; i++)
+                    downstream.accept(buffer.get(i));
+            }
+            else {
+                for (int i = 0; i < n && !downstream.cancellationRequested(); i++)
+                    downstream.accept(buffer.get(i));
+            }
+            downstream.end();
+            buffer = null;
+        }
+
+        @Override
+        public void accept(T t) {
+            buffer.accept(t);
+        }
+    }
+
+    /**
+     * {@link Sink} for implementing a sort bounded by a following limit on
+     * int streams.
+     */
+    private static final class BoundedIntSortingSink extends AbstractIntSortingSink {
+        private final int bound;
+        private IntTopKBuffer buffer;
+
+        BoundedIntSortingSink(Sink<? super Integer> sink, int bound) {
+            super(sink);
+            this.bound = bound;
+        }
+
+        @Override
+        public void begin(long size) {
+            buffer = new IntTopKBuffer(bound, false);
+        }
+
+        @Override
+        public void end() {
+            buffer.sort();
+            int n = buffer.size();
+            downstream.begin(n);
+            if (!cancellationWasRequested) {
+                for (int i = 0; i < n; i++)
+                    downstream.accept(buffer.get(i));
+            }
+            else {
+                for (int i = 0; i < n && !downstream.cancellationRequested(); i++)
+                    downstream.accept(buffer.get(i));
+            }
+            downstream.end();
+            buffer = null;
+        }
+
+        @Override
+        public void accept(int t) {
+            buffer.accept(t);
+        }
+    }
+
+    /**
+     * {@link Sink} for implementing a sort bounded by a following limit on
+     * long streams.
+     */
+    private static final class BoundedLongSortingSink extends AbstractLongSortingSink {
+        private final int bound;
+        private LongTopKBuffer buffer;
+
+        BoundedLongSortingSink(Sink<? super Long> sink, int bound) {
+            super(sink);
+            this.bound = bound;
+        }
+
+        @Override
+        public void begin(long size) {
+            buffer = new LongTopKBuffer(bound, false);
+        }
+
+        @Override
+        public void end() {
+            buffer.sort();
+            int n = buffer.size();
+            downstream.begin(n);
+            if (!cancellationWasRequested) {
+                for (int i = 0; i < n; i++)
+                    downstream.accept(buffer.get(i));
+            }
+            else {
+                for (int i = 0; i < n && !downstream.cancellationRequested(); i++)
+                    downstream.accept(buffer.get(i));
+            }
+            downstream.end();
+            buffer = null;
+        }
+
+        @Override
+        public void accept(long t) {
+            buffer.accept(t);
+        }
+    }
+
+    /**
+     * {@link Sink} for implementing a sort bounded by a following limit on
+     * double streams.
+     */
+    private static final class BoundedDoubleSortingSink extends AbstractDoubleSortingSink {
+        private final int bound;
+        private DoubleTopKBuffer buffer;
+
+        BoundedDoubleSortingSink(Sink<? super Double> sink, int bound) {
+            super(sink);
+            this.bound = bound;
+        }
+
+        @Override
+        public void begin(long size) {
+            buffer = new DoubleTopKBuffer(bound, false);
+        }
+
+        @Override
+        public void end() {
+            buffer.sort();
+            int n = buffer.size();
+            downstream.begin(n);
+            if (!cancellationWasRequested) {
+                for (int i = 0; i < n; i++)
+                    downstream.accept(buffer.get(i));
+            }
+            else {
+                for (int i = 0; i < n && !downstream.cancellationRequested(); i++)
+                    downstream.accept(buffer.get(i));
+            }
+            downstream.end();
+            buffer = null;
+        }
+
+        @Override
+        public void accept(double t) {
+            buffer.accept(t);
+        }
+    }
+
+    /** Initial capacity of the heap of a top-k buffer. */
+    private static final int TOP_K_INITIAL_CAPACITY = 16;
+
+    /**
+     * Returns the capacity to grow the heap of a top-k buffer to.
+     */
+    private static int growCapacity(int length, int k) {
+        return (int) Math.min((long) k, Math.max(TOP_K_INITIAL_CAPACITY, 2L * length));
+    }
+
+    /**
+     * A buffer retaining the {@code k} least elements accepted, according
+     * to a comparator, with ties broken by encounter order.  While
+     * accepting, the elements are held in a max-heap whose root is the
+     * greatest retained element, along with the sequence number of each
+     * element so that an element is never displaced by a later equal one.
+     * Sorting the buffer heap-sorts the elements in place into ascending
+     * order, after which no further elements may be accepted.
+     *
+     * <p>Combining two buffers, the left of which holds elements
+     * encountered before those of the right, merges their sorted elements,
+     * preferring the left on ties, and keeps the first {@code k}.
+     *
+     * @param <T> the type of elements
+     */
+    static final class RefTopKBuffer<T> {
+        private final int k;
+        private final Comparator<? super T> comparator;
+        private Object[] elements;
+        private long[] seqs;
+        private int size;
+        private long count;
+        private boolean sorted;
+
+        RefTopKBuffer(int k, Comparator<? super T> comparator) {
+            this.k = k;
+            this.comparator = comparator;
+            int capacity = Math.min(k, TOP_K_INITIAL_CAPACITY);
+            this.elements = new Object[capacity];
+            this.seqs = new long[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        @SuppressWarnings("unchecked")
+        T get(int i) {
+            return (T) elements[i];
+        }
+
+        void accept(T t) {
+            long seq = count++;
+            if (size < k) {
+                if (size == elements.length) {
+                    int capacity = growCapacity(size, k);
+                    elements = Arrays.copyOf(elements, capacity);
+                    seqs = Arrays.copyOf(seqs, capacity);
+                }
+                elements[size] = t;
+                seqs[size] = seq;
+                siftUp(size++);
+            }
+            else if (k > 0 && comparator.compare(t, get(0)) < 0) {
+                elements[0] = t;
+                seqs[0] = seq;
+                siftDown(0, size);
+            }
+        }
+
+        private int compare(int i, int j) {
+            int c = comparator.compare(get(i), get(j));
+            return (c != 0) ? c : Long.compare(seqs[i], seqs[j]);
+        }
+
+        private void swap(int i, int j) {
+            Object e = elements[i]; elements[i] = elements[j]; elements[j] = e;
+            long q = seqs[i]; seqs[i] = seqs[j]; seqs[j] = q;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (compare(i, parent) <= 0)
+                    break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i, int n) {
+            int child;
+            while ((child = (i << 1) + 1) < n) {
+                if (child + 1 < n && compare(child + 1, child) > 0)
+                    child++;
+                if (compare(child, i) <= 0)
+                    break;
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        /**
+         * Sorts the retained elements into ascending order.
+         */
+        void sort() {
+            if (!sorted) {
+                for (int end = size - 1; end > 0; end--) {
+                    swap(0, end);
+                    siftDown(0, end);
+                }
+                sorted = true;
+            }
+        }
+
+        RefTopKBuffer<T> combine(RefTopKBuffer<T> right) {
+            sort();
+            right.sort();
+            int n = (int) Math.min((long) k, (long) size + right.size);
+            Object[] es = new Object[n];
+            int i = 0, j = 0;
+            for (int m = 0; m < n; m++) {
+                if (j >= right.size
+                    || (i < size && comparator.compare(get(i), right.get(j)) <= 0))
+                    es[m] = elements[i++];
+                else
+                    es[m] = right.elements[j++];
+            }
+            long[] qs = new long[n];
+            for (int m = 0; m < n; m++)
+                qs[m] = m;
+            elements = es;
+            seqs = qs;
+            size = n;
+            count = n;
+            return this;
+        }
+
+        T[] toArray(IntFunction<T[]> generator) {
+            sort();
+            T[] array = generator.apply(size);
+            System.arraycopy(elements, 0, array, 0, size);
+            return array;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> toList() {
+            sort();
+            return new ArrayList<>(Arrays.asList((T[]) Arrays.copyOf(elements, size)));
+        }
+    }
+
+    /**
+     * A buffer retaining the {@code k} least, or if {@code descending} the
+     * {@code k} greatest, {@code int} elements accepted, in a
+     * bounded heap, as for {@link RefTopKBuffer}.  Equal elements being
+     * indistinguishable, no sequence numbers are kept.
+     */
+    static final class IntTopKBuffer {
+        private final int k;
+        private final boolean descending;
+        private int[] heap;
+        private int size;
+        private boolean sorted;
+
+        IntTopKBuffer(int k, boolean descending) {
+            this.k = k;
+            this.descending = descending;
+            this.heap = new int[Math.min(k, TOP_K_INITIAL_CAPACITY)];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(int i) {
+            return heap[i];
+        }
+
+        /** Returns true if {@code a} is ordered strictly before {@code b}. */
+        private boolean before(int a, int b) {
+            return descending ? a > b : a < b;
+        }
+
+        void accept(int t) {
+            if (size < k) {
+                if (size == heap.length)
+                    heap = Arrays.copyOf(heap, growCapacity(size, k));
+                heap[size] = t;
+                siftUp(size++);
+            }
+            else if (k > 0 && before(t, heap[0])) {
+                heap[0] = t;
+                siftDown(0, size);
+            }
+        }
+
+        private void siftUp(int i) {
+            int[] h = heap;
+            int t = h[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(h[parent], t))
+                    break;
+                h[i] = h[parent];
+                i = parent;
+            }
+            h[i] = t;
+        }
+
+        private void siftDown(int i, int n) {
+            int[] h = heap;
+            int t = h[i];
+            int child;
+            while ((child = (i << 1) + 1) < n) {
+                if (child + 1 < n && before(h[child], h[child + 1]))
+                    child++;
+                if (!before(t, h[child]))
+                    break;
+                h[i] = h[child];
+                i = child;
+            }
+            h[i] = t;
+        }
+
+        /**
+         * Sorts the retained elements into order.
+         */
+        void sort() {
+            if (!sorted) {
+                int[] h = heap;
+                for (int end = size - 1; end > 0; end--) {
+                    int t = h[0]; h[0] = h[end]; h[end] = t;
+                    siftDown(0, end);
+                }
+                sorted = true;
+            }
+        }
+
+        IntTopKBuffer combine(IntTopKBuffer right) {
+            sort();
+            right.sort();
+            int n = (int) Math.min((long) k, (long) size + right.size);
+            int[] h = new int[n];
+            int i = 0, j = 0;
+            for (int m = 0; m < n; m++) {
+                if (j >= right.size || (i < size && !before(right.heap[j], heap[i])))
+                    h[m] = heap[i++];
+                else
+                    h[m] = right.heap[j++];
+            }
+            heap = h;
+            size = n;
+            return this;
+        }
+
+        int[] toArray() {
+            sort();
+            return (size == heap.length) ? heap : Arrays.copyOf(heap, size);
+        }
+    }
+
+    /**
+     * A buffer retaining the {@code k} least, or if {@code descending} the
+     * {@code k} greatest, {@code long} elements accepted, in a
+     * bounded heap, as for {@link RefTopKBuffer}.  Equal elements being
+     * indistinguishable, no sequence numbers are kept.
+     */
+    static final class LongTopKBuffer {
+        private final int k;
+        private final boolean descending;
+        private long[] heap;
+        private int size;
+        private boolean sorted;
+
+        LongTopKBuffer(int k, boolean descending) {
+            this.k = k;
+            this.descending = descending;
+            this.heap = new long[Math.min(k, TOP_K_INITIAL_CAPACITY)];
+        }
+
+        int size() {
+            return size;
+        }
+
+        long get(int i) {
+            return heap[i];
+        }
+
+        /** Returns true if {@code a} is ordered strictly before {@code b}. */
+        private boolean before(long a, long b) {
+            return descending ? a > b : a < b;
+        }
+
+        void accept(long t) {
+            if (size < k) {
+                if (size == heap.length)
+                    heap = Arrays.copyOf(heap, growCapacity(size, k));
+                heap[size] = t;
+                siftUp(size++);
+            }
+            else if (k > 0 && before(t, heap[0])) {
+                heap[0] = t;
+                siftDown(0, size);
+            }
+        }
+
+        private void siftUp(int i) {
+            long[] h = heap;
+            long t = h[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(h[parent], t))
+                    break;
+                h[i] = h[parent];
+                i = parent;
+            }
+            h[i] = t;
+        }
+
+        private void siftDown(int i, int n) {
+            long[] h = heap;
+            long t = h[i];
+            int child;
+            while ((child = (i << 1) + 1) < n) {
+                if (child + 1 < n && before(h[child], h[child + 1]))
+                    child++;
+                if (!before(t, h[child]))
+                    break;
+                h[i] = h[child];
+                i = child;
+            }
+            h[i] = t;
+        }
+
+        /**
+         * Sorts the retained elements into order.
+         */
+        void sort() {
+            if (!sorted) {
+                long[] h = heap;
+                for (int end = size - 1; end > 0; end--) {
+                    long t = h[0]; h[0] = h[end]; h[end] = t;
+                    siftDown(0, end);
+                }
+                sorted = true;
+            }
+        }
+
+        LongTopKBuffer combine(LongTopKBuffer right) {
+            sort();
+            right.sort();
+            int n = (int) Math.min((long) k, (long) size + right.size);
+            long[] h = new long[n];
+            int i = 0, j = 0;
+            for (int m = 0; m < n; m++) {
+                if (j >= right.size || (i < size && !before(right.heap[j], heap[i])))
+                    h[m] = heap[i++];
+                else
+                    h[m] = right.heap[j++];
+            }
+            heap = h;
+            size = n;
+            return this;
+        }
+
+        long[] toArray() {
+            sort();
+            return (size == heap.length) ? heap : Arrays.copyOf(heap, size);
+        }
+    }
+
+    /**
+     * A buffer retaining the {@code k} least, or if {@code descending} the
+     * {@code k} greatest, {@code double} elements accepted, as by {@link Double#compare(double, double)}, in a
+     * bounded heap, as for {@link RefTopKBuffer}.  Equal elements being
+     * indistinguishable, no sequence numbers are kept.
+     */
+    static final class DoubleTopKBuffer {
+        private final int k;
+        private final boolean descending;
+        private double[] heap;
+        private int size;
+        private boolean sorted;
+
+        DoubleTopKBuffer(int k, boolean descending) {
+            this.k = k;
+            this.descending = descending;
+            this.heap = new double[Math.min(k, TOP_K_INITIAL_CAPACITY)];
+        }
+
+        int size() {
+            return size;
+        }
+
+        double get(int i) {
+            return heap[i];
+        }
+
+        /** Returns true if {@code a} is ordered strictly before {@code b}. */
+        private boolean before(double a, double b) {
+            return descending ? Double.compare(a, b) > 0 : Double.compare(a, b) < 0;
+        }
+
+        void accept(double t) {
+            if (size < k) {
+                if (size == heap.length)
+                    heap = Arrays.copyOf(heap, growCapacity(size, k));
+                heap[size] = t;
+                siftUp(size++);
+            }
+            else if (k > 0 && before(t, heap[0])) {
+                heap[0] = t;
+                siftDown(0, size);
+            }
+        }
+
+        private void siftUp(int i) {
+            double[] h = heap;
+            double t = h[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(h[parent], t))
+                    break;
+                h[i] = h[parent];
+                i = parent;
+            }
+            h[i] = t;
+        }
+
+        private void siftDown(int i, int n) {
+            double[] h = heap;
+            double t = h[i];
+            int child;
+            while ((child = (i << 1) + 1) < n) {
+                if (child + 1 < n && before(h[child], h[child + 1]))
+                    child++;
+                if (!before(t, h[child]))
+                    break;
+                h[i] = h[child];
+                i = child;
+            }
+            h[i] = t;
+        }
+
+        /**
+         * Sorts the retained elements into order.
+         */
+        void sort() {
+            if (!sorted) {
+                double[] h = heap;
+                for (int end = size - 1; end > 0; end--) {
+                    double t = h[0]; h[0] = h[end]; h[end] = t;
+                    siftDown(0, end);
+                }
+                sorted = true;
+            }
+        }
+
+        DoubleTopKBuffer combine(DoubleTopKBuffer right) {
+            sort();
+            right.sort();
+            int n = (int) Math.min((long) k, (long) size + right.size);
+            double[] h = new double[n];
+            int i = 0, j = 0;
+            for (int m = 0; m < n; m++) {
+                if (j >= right.size || (i < size && !before(right.heap[j], heap[i])))
+                    h[m] = heap[i++];
+                else
+                    h[m] = right.heap[j++];
+            }
+            heap = h;
+            size = n;
+            return this;
+        }
+
+        double[] toArray() {
+            sort();
+            return (size == heap.length) ? heap : Arrays.copyOf(heap, size);
+        }
+    }
 }
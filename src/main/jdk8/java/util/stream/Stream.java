@@ -31,10 +31,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -225,6 +227,140 @@ public interface Stream<T> extends BaseStream<T, Stream<T>> {
      */
     DoubleStream mapToDouble(ToDoubleFunction<? super T> mapper);
 
+    /**
+     * Returns a stream consisting of the results of the
+     * {@code CompletionStage}s returned by applying the given function to the
+     * elements of this stream, in the order in which the stages complete.  The
+     * returned stream is unordered.  At most {@code maxConcurrency}
+     * stages are incomplete at any time: when that many are outstanding, the
+     * thread evaluating the pipeline waits for one to complete before
+     * applying the function to the next element.
+     *
+     * <p>The function is applied to each element, and results are passed to
+     * the following stages of the pipeline, by the thread evaluating the
+     * pipeline; the stages are completed by whatever threads the function
+     * arranges.  The thread evaluating the pipeline waits using
+     * {@link java.util.concurrent.ForkJoinPool#managedBlock}, so that a
+     * {@code ForkJoinPool} worker waiting for a stage to complete may be
+     * compensated for.  In parallel pipelines, the function is applied to
+     * the elements in a single thread after the preceding stages have been
+     * evaluated in parallel, so that the bound applies to the whole pipeline.
+     *
+     * <p>If a stage completes exceptionally, the pipeline throws a
+     * {@link java.util.concurrent.CompletionException} with the exception as
+     * its cause; other outstanding stages are not cancelled.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @apiNote
+     * This method suits mapping functions that perform I/O, such as requests
+     * to remote services, without occupying a thread for each outstanding
+     * request:
+     * <pre>{@code
+     *     List<Response> responses = requests.stream()
+     *         .mapAsync(request -> client.sendAsync(request), 16)
+     *         .collect(Collectors.toList());
+     * }</pre>
+     *
+     * @implSpec
+     * The default implementation obtains the {@link #spliterator() spliterator}
+     * of this stream, wraps that spliterator so as to apply the function and
+     * pass on the results of the stages on traversal, and returns a new
+     * stream associated with the wrapped spliterator.  The function is
+     * applied by whichever thread traverses or splits the wrapped
+     * spliterator, one element at a time.  The returned stream is parallel if
+     * this stream is, but the wrapped spliterator splits only by batching.
+     * When the returned stream is closed, the close handlers of both the
+     * returned stream and this stream are invoked.
+     *
+     * @param <R> The element type of the new stream
+     * @param mapper a <a href="package-summary.html#NonInterference">non-interfering</a>,
+     *               <a href="package-summary.html#Statelessness">stateless</a>
+     *               function to apply to each element, returning a non-null
+     *               {@code CompletionStage}
+     * @param maxConcurrency the maximum number of incomplete stages
+     * @return the new stream
+     * @throws IllegalArgumentException if {@code maxConcurrency} is not
+     *         positive
+     * @since 9
+     */
+    default <R> Stream<R> mapAsync(Function<? super T, ? extends CompletionStage<? extends R>> mapper,
+                                   int maxConcurrency) {
+        AsyncMapOps.checkArguments(mapper, maxConcurrency);
+        return StreamSupport.stream(AsyncMapOps.wrapRef(spliterator(), mapper, maxConcurrency, false),
+                                    isParallel())
+                            .onClose(this::close);
+    }
+
+    /**
+     * Returns a stream consisting of the results of the
+     * {@code CompletionStage}s returned by applying the given function to the
+     * elements of this stream, in encounter order if this stream is ordered.
+     * At most {@code maxConcurrency} stages are incomplete or have results
+     * not yet passed downstream, awaiting the results of stages for preceding
+     * elements, at any time: when that many are outstanding, the thread
+     * evaluating the pipeline waits for one to complete before applying the
+     * function to the next element.
+     *
+     * <p>The function is applied to each element, and results are passed to
+     * the following stages of the pipeline, by the thread evaluating the
+     * pipeline; the stages are completed by whatever threads the function
+     * arranges.  The thread evaluating the pipeline waits using
+     * {@link java.util.concurrent.ForkJoinPool#managedBlock}, so that a
+     * {@code ForkJoinPool} worker waiting for a stage to complete may be
+     * compensated for.  In parallel pipelines, the function is applied to
+     * the elements in a single thread after the preceding stages have been
+     * evaluated in parallel, so that the bound applies to the whole pipeline.
+     *
+     * <p>If a stage completes exceptionally, the pipeline throws a
+     * {@link java.util.concurrent.CompletionException} with the exception as
+     * its cause; other outstanding stages are not cancelled.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @apiNote
+     * This method suits mapping functions that perform I/O, such as requests
+     * to remote services, without occupying a thread for each outstanding
+     * request:
+     * <pre>{@code
+     *     List<Response> responses = requests.stream()
+     *         .mapAsyncOrdered(request -> client.sendAsync(request), 16)
+     *         .collect(Collectors.toList());
+     * }</pre>
+     *
+     * @implSpec
+     * The default implementation obtains the {@link #spliterator() spliterator}
+     * of this stream, wraps that spliterator so as to apply the function and
+     * pass on the results of the stages on traversal, and returns a new
+     * stream associated with the wrapped spliterator.  The function is
+     * applied by whichever thread traverses or splits the wrapped
+     * spliterator, one element at a time.  The returned stream is parallel if
+     * this stream is, but the wrapped spliterator splits only by batching.
+     * When the returned stream is closed, the close handlers of both the
+     * returned stream and this stream are invoked.
+     *
+     * @param <R> The element type of the new stream
+     * @param mapper a <a href="package-summary.html#NonInterference">non-interfering</a>,
+     *               <a href="package-summary.html#Statelessness">stateless</a>
+     *               function to apply to each element, returning a non-null
+     *               {@code CompletionStage}
+     * @param maxConcurrency the maximum number of stages incomplete or
+     *        awaiting the results of earlier stages
+     * @return the new stream
+     * @throws IllegalArgumentException if {@code maxConcurrency} is not
+     *         positive
+     * @since 9
+     */
+    default <R> Stream<R> mapAsyncOrdered(Function<? super T, ? extends CompletionStage<? extends R>> mapper,
+                                          int maxConcurrency) {
+        AsyncMapOps.checkArguments(mapper, maxConcurrency);
+        return StreamSupport.stream(AsyncMapOps.wrapRef(spliterator(), mapper, maxConcurrency, true),
+                                    isParallel())
+                            .onClose(this::close);
+    }
+
     /**
      * Returns a stream consisting of the results of replacing each element of
      * this stream with the contents of a mapped stream produced by applying
@@ -391,6 +527,84 @@ public interface Stream<T> extends BaseStream<T, Stream<T>> {
      */
     Stream<T> sorted(Comparator<? super T> comparator);
 
+    /**
+     * Returns a stream consisting of the elements of this stream grouped into
+     * consecutive, non-overlapping chunks of {@code size} elements, in
+     * encounter order.  The last chunk holds fewer than {@code size} elements
+     * if the number of elements of this stream is not a multiple of
+     * {@code size}.  Each chunk is a fixed-size {@code List} that permits
+     * {@code null} elements.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @apiNote The returned stream does not report a size, even if the size of
+     * this stream is known.  Each chunk is a fresh list that is never modified
+     * after it is emitted, so it may be retained by downstream operations.
+     *
+     * @implSpec
+     * The default implementation obtains the {@link #spliterator() spliterator}
+     * of this stream, wraps that spliterator so as to form the chunks on
+     * traversal, and returns a new stream associated with the wrapped
+     * spliterator.  The returned stream is parallel if this stream is, but the
+     * wrapped spliterator splits only by batching.  When the returned stream is
+     * closed, the close handlers of both the returned stream and this stream
+     * are invoked.
+     *
+     * @param size the number of elements in each chunk
+     * @return the new stream
+     * @throws IllegalArgumentException if {@code size} is not positive
+     * @since 9
+     */
+    default Stream<List<T>> chunked(int size) {
+        WindowOps.checkArguments(size, size);
+        return StreamSupport.stream(WindowOps.wrapRef(spliterator(), size, size, true),
+                                    isParallel())
+                            .onClose(this::close);
+    }
+
+    /**
+     * Returns a stream consisting of the sliding windows of {@code size}
+     * consecutive elements of this stream, in encounter order, where the first
+     * element of each window is {@code step} elements after the first element
+     * of the previous window.  Windows overlap if {@code step} is less than
+     * {@code size}, and elements between windows are skipped if {@code step} is
+     * greater than {@code size}.  Only complete windows are included, so the
+     * returned stream is empty if this stream has fewer than {@code size}
+     * elements.  Each window is a fixed-size {@code List} that permits
+     * {@code null} elements.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @apiNote The returned stream does not report a size, even if the size of
+     * this stream is known.  Each window is a fresh list that is never modified
+     * after it is emitted, so it may be retained by downstream operations.
+     *
+     * @implSpec
+     * The default implementation obtains the {@link #spliterator() spliterator}
+     * of this stream, wraps that spliterator so as to form the windows on
+     * traversal, and returns a new stream associated with the wrapped
+     * spliterator.  The returned stream is parallel if this stream is, but the
+     * wrapped spliterator splits only by batching.  When the returned stream is
+     * closed, the close handlers of both the returned stream and this stream
+     * are invoked.
+     *
+     * @param size the number of elements in each window
+     * @param step the distance, in elements, between the first elements of
+     *             consecutive windows
+     * @return the new stream
+     * @throws IllegalArgumentException if {@code size} or {@code step} is not
+     *         positive
+     * @since 9
+     */
+    default Stream<List<T>> windowed(int size, int step) {
+        WindowOps.checkArguments(size, step);
+        return StreamSupport.stream(WindowOps.wrapRef(spliterator(), size, step, false),
+                                    isParallel())
+                            .onClose(this::close);
+    }
+
     /**
      * Returns a stream consisting of the elements of this stream, additionally
      * performing the provided action on each element as elements are consumed
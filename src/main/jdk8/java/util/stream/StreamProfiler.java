@@ -0,0 +1,387 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.lang.reflect.Method;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import sun.util.logging.PlatformLogger;
+
+/**
+ * Diagnostic profiler for the evaluation of stream pipelines.  Profiling is
+ * turned on or off based on whether the system property
+ * {@code org.openjdk.java.util.stream.profile} is considered {@code true}
+ * according to {@link Boolean#getBoolean(String)}.  This should normally be
+ * turned off for production use, as profiling adds the cost of reading the
+ * clock twice per element per stage.
+ *
+ * <p>When profiling is on, each evaluation of a terminal operation creates
+ * a profiler, which wraps the {@link Sink} of each stage built by
+ * {@link AbstractPipeline#wrapSink(Sink)}, and the sink receiving the
+ * output of the last stage, so as to record for each stage the number of
+ * elements it accepts, the time spent in it and the following stages, and
+ * whether it requested cancellation.  Parallel evaluations additionally
+ * record the split depth and size of each leaf task.  When the terminal
+ * operation completes, normally or abruptly, a report is logged at level
+ * {@code INFO} to the {@code PlatformLogger} named
+ * {@code java.util.stream.profile}, for example:
+ * <pre>{@code
+ *     Stream pipeline profile: parallel, 12.345 ms elapsed
+ *       stage                               in          out    self ms  cancel
+ *       0 source                             -         1000          -
+ *       1 ReferencePipeline.filter        1000          500      0.912
+ *       2 ReferencePipeline.map            500          500      0.420
+ *       3 ReduceOps.makeRef                500            -      0.101
+ *       leaves 8, split depth 3..3, leaf size 125..125 (avg 125)
+ * }</pre>
+ * The number of elements output by a stage is the number accepted by the
+ * next stage, and counts and times not observed are shown as {@code -}.  The self time of a stage is its total time less that of the
+ * next stage, summed over all threads.  A stage marked as cancelling
+ * requested cancellation when its downstream did not, which is where a
+ * short-circuiting pipeline stopped.
+ *
+ * <p>Stateful operations evaluated in parallel are timed by the sinks
+ * collecting their input, but not while they combine it.  Pipelines
+ * traversed through {@link BaseStream#iterator()} or
+ * {@link BaseStream#spliterator()} are not profiled.  Nor are pipelines
+ * evaluated by a thread while it traverses a profiled pipeline, such as the
+ * streams produced by the mapping function of {@code flatMap}: their time
+ * is part of that of the stage evaluating them.
+ *
+ * @since 9
+ */
+final class StreamProfiler {
+    private static final String PROFILE_PROPERTY = "org.openjdk.java.util.stream.profile";
+
+    /** Should pipelines be profiled? */
+    static final boolean ENABLED = AccessController.doPrivileged(
+            (PrivilegedAction<Boolean>) () -> Boolean.getBoolean(PROFILE_PROPERTY));
+
+    /** Set while the current thread traverses a profiled pipeline */
+    private static final ThreadLocal<Boolean> traversing = new ThreadLocal<>();
+
+    /**
+     * Returns whether an evaluation starting in the current thread should
+     * be profiled: profiling is on, and the thread is not traversing a
+     * profiled pipeline.
+     */
+    static boolean shouldProfile() {
+        return ENABLED && traversing.get() == null;
+    }
+
+    /**
+     * Returns whether the current thread is traversing a profiled pipeline.
+     */
+    static boolean isTraversing() {
+        return traversing.get() != null;
+    }
+
+    /**
+     * Marks or unmarks the current thread as traversing a profiled
+     * pipeline.
+     */
+    static void setTraversing(boolean value) {
+        if (value)
+            traversing.set(Boolean.TRUE);
+        else
+            traversing.remove();
+    }
+
+    /** The stages of the pipeline, from the source stage */
+    @SuppressWarnings("rawtypes")
+    private final AbstractPipeline[] stages;
+    /** Names of the stages and of the terminal operation */
+    private final String[] names;
+    private final boolean parallel;
+    private final long startNanos;
+
+    /** Per stage, indexed as names: elements accepted */
+    private final LongAdder[] counts;
+    /** Per stage, indexed as names: time in the stage and downstream */
+    private final LongAdder[] nanos;
+    /** Per stage, indexed as names: whether cancellation was requested */
+    private final boolean[] cancelled;
+    /** Per stage, indexed as names: whether its input was observed */
+    private final boolean[] wrapped;
+
+    private final LongAdder leaves = new LongAdder();
+    private final LongAdder leafElements = new LongAdder();
+    private final LongAccumulator minDepth = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, Long.MIN_VALUE);
+    private final LongAccumulator minLeaf = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator maxLeaf = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    /**
+     * Creates a profiler for an evaluation of a pipeline.
+     *
+     * @param stages the stages of the pipeline, from the source stage
+     * @param terminalOp the terminal operation, or a string naming it
+     * @param parallel whether the pipeline is evaluated in parallel
+     */
+    @SuppressWarnings("rawtypes")
+    StreamProfiler(AbstractPipeline[] stages, Object terminalOp, boolean parallel) {
+        this.stages = stages;
+        this.parallel = parallel;
+        int n = stages.length + 1;
+        names = new String[n];
+        counts = new LongAdder[n];
+        nanos = new LongAdder[n];
+        cancelled = new boolean[n];
+        wrapped = new boolean[n];
+        names[0] = "source";
+        for (int i = 1; i < n; i++) {
+            names[i] = describe(i < stages.length ? stages[i] : terminalOp);
+            counts[i] = new LongAdder();
+            nanos[i] = new LongAdder();
+        }
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Describes an operation by the method declaring it, if it is an
+     * anonymous class, otherwise by its class name.
+     */
+    private static String describe(Object op) {
+        if (op instanceof String)
+            return (String) op;
+        Class<?> c = op.getClass();
+        Method m = AccessController.doPrivileged(
+                (PrivilegedAction<Method>) c::getEnclosingMethod);
+        if (m != null)
+            return m.getDeclaringClass().getSimpleName() + "." + m.getName();
+        String name = c.getName();
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Returns the index of the given stage, where the source stage has
+     * index 0.
+     */
+    int indexOf(AbstractPipeline<?, ?, ?> stage) {
+        for (int i = 0; i < stages.length; i++) {
+            if (stages[i] == stage)
+                return i;
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Wraps the sink accepting the input of a stage.
+     *
+     * @param index the index of the stage, or the number of stages for the
+     *        sink of the terminal operation
+     * @param shape the shape of the input of the stage
+     * @param sink the sink to wrap
+     * @return the wrapped sink
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    Sink wrap(int index, StreamShape shape, Sink sink) {
+        wrapped[index] = true;
+        switch (shape) {
+            case REFERENCE:    return new OfRef<>(this, index, sink);
+            case INT_VALUE:    return new OfInt(this, index, (Sink.OfInt) sink);
+            case LONG_VALUE:   return new OfLong(this, index, (Sink.OfLong) sink);
+            case DOUBLE_VALUE: return new OfDouble(this, index, (Sink.OfDouble) sink);
+            default:
+                throw new IllegalStateException("Unknown shape " + shape);
+        }
+    }
+
+    /**
+     * Records a leaf task of a parallel evaluation.
+     *
+     * @param leaf the leaf task, whose depth is the number of its completers
+     * @param sizeEstimate the estimated number of elements of the leaf
+     */
+    void recordLeaf(CountedCompleter<?> leaf, long sizeEstimate) {
+        int depth = 0;
+        for (CountedCompleter<?> c = leaf.getCompleter(); c != null; c = c.getCompleter())
+            depth++;
+        leaves.increment();
+        minDepth.accumulate(depth);
+        maxDepth.accumulate(depth);
+        if (sizeEstimate >= 0 && sizeEstimate < Long.MAX_VALUE) {
+            leafElements.add(sizeEstimate);
+            minLeaf.accumulate(sizeEstimate);
+            maxLeaf.accumulate(sizeEstimate);
+        }
+    }
+
+    /**
+     * Logs the report of this profiler.
+     */
+    void report() {
+        PlatformLogger.getLogger("java.util.stream.profile").info(toString());
+    }
+
+    @Override
+    public String toString() {
+        long elapsed = System.nanoTime() - startNanos;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Stream pipeline profile: %s, %.3f ms elapsed%n",
+                                parallel ? "parallel" : "sequential", elapsed / 1e6));
+        int n = names.length;
+        int width = 8;
+        for (String name : names)
+            width = Math.max(width, name.length());
+        String format = "  %-" + (width + 4) + "s %12s %12s %10s  %s%n";
+        sb.append(String.format(format, "stage", "in", "out", "self ms", "cancel"));
+        int origin = -1;
+        for (int i = n - 1; i > 0 && origin < 0; i--) {
+            if (cancelled[i])
+                origin = i;
+        }
+        for (int i = 0; i < n; i++) {
+            String self = "-";
+            if (wrapped[i]) {
+                long t = nanos[i].sum() - (i + 1 < n && wrapped[i + 1] ? nanos[i + 1].sum() : 0);
+                self = String.format("%.3f", Math.max(t, 0) / 1e6);
+            }
+            String line = String.format(format, i + " " + names[i],
+                                        wrapped[i] ? Long.toString(counts[i].sum()) : "-",
+                                        i + 1 < n && wrapped[i + 1]
+                                        ? Long.toString(counts[i + 1].sum()) : "-",
+                                        self, i == origin ? "yes" : "");
+            // Trim the padding of an empty last column
+            sb.append(line.replaceFirst(" +(\\R)$", "$1"));
+        }
+        long count = leaves.sum();
+        if (count > 0) {
+            sb.append(String.format("  leaves %d, split depth %d..%d", count,
+                                    minDepth.get(), maxDepth.get()));
+            if (maxLeaf.get() >= 0)
+                sb.append(String.format(", leaf size %d..%d (avg %d)", minLeaf.get(),
+                                        maxLeaf.get(), leafElements.sum() / count));
+            sb.append(String.format("%n"));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Base class for sinks recording the input of a stage.  Sinks may be
+     * shared by concurrent leaf tasks, so they record directly to the
+     * profiler.
+     */
+    private abstract static class ProfilingSink<T, S extends Sink<T>> implements Sink<T> {
+        final S sink;
+        final LongAdder count;
+        final LongAdder nanos;
+        private final StreamProfiler profiler;
+        private final int index;
+
+        ProfilingSink(StreamProfiler profiler, int index, S sink) {
+            this.sink = sink;
+            this.profiler = profiler;
+            this.index = index;
+            this.count = profiler.counts[index];
+            this.nanos = profiler.nanos[index];
+        }
+
+        @Override
+        public void begin(long size) {
+            long start = System.nanoTime();
+            sink.begin(size);
+            nanos.add(System.nanoTime() - start);
+        }
+
+        @Override
+        public void end() {
+            long start = System.nanoTime();
+            sink.end();
+            nanos.add(System.nanoTime() - start);
+        }
+
+        @Override
+        public boolean cancellationRequested() {
+            if (sink.cancellationRequested()) {
+                profiler.cancelled[index] = true;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class OfRef<T> extends ProfilingSink<T, Sink<T>> {
+        OfRef(StreamProfiler profiler, int index, Sink<T> sink) {
+            super(profiler, index, sink);
+        }
+
+        @Override
+        public void accept(T t) {
+            count.increment();
+            long start = System.nanoTime();
+            sink.accept(t);
+            nanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private static final class OfInt extends ProfilingSink<Integer, Sink.OfInt>
+            implements Sink.OfInt {
+        OfInt(StreamProfiler profiler, int index, Sink.OfInt sink) {
+            super(profiler, index, sink);
+        }
+
+        @Override
+        public void accept(int t) {
+            count.increment();
+            long start = System.nanoTime();
+            sink.accept(t);
+            nanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private static final class OfLong extends ProfilingSink<Long, Sink.OfLong>
+            implements Sink.OfLong {
+        OfLong(StreamProfiler profiler, int index, Sink.OfLong sink) {
+            super(profiler, index, sink);
+        }
+
+        @Override
+        public void accept(long t) {
+            count.increment();
+            long start = System.nanoTime();
+            sink.accept(t);
+            nanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private static final class OfDouble extends ProfilingSink<Double, Sink.OfDouble>
+            implements Sink.OfDouble {
+        OfDouble(StreamProfiler profiler, int index, Sink.OfDouble sink) {
+            super(profiler, index, sink);
+        }
+
+        @Override
+        public void accept(double t) {
+            count.increment();
+            long start = System.nanoTime();
+            sink.accept(t);
+            nanos.add(System.nanoTime() - start);
+        }
+    }
+}
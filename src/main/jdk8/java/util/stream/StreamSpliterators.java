@@ -27,12 +27,14 @@ package java.util.stream;
 import java.util.Comparator;
 import java.util.Objects;
 import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.DoubleConsumer;
 import java.util.function.DoubleSupplier;
+import java.util.function.Function;
 import java.util.function.IntConsumer;
 import java.util.function.IntSupplier;
 import java.util.function.LongConsumer;
@@ -492,6 +494,66 @@ class StreamSpliterators {
         }
     }
 
+    /**
+     * Spliterator over the output of a sink chain into which the elements of
+     * a source spliterator are pushed, used to implement operations of
+     * streams that are not pipelines.  Source elements are pushed one at a
+     * time until the sink chain produces output, which is buffered until
+     * consumed.  Splits only by batching, since the sink chain is stateful.
+     *
+     * @param <P_IN> type of elements of the source spliterator
+     * @param <P_OUT> type of output elements
+     */
+    static final class SinkSpliterator<P_IN, P_OUT>
+            extends Spliterators.AbstractSpliterator<P_OUT>
+            implements Sink<P_OUT> {
+        private final Spliterator<P_IN> spliterator;
+        private final Sink<P_IN> sink;
+        private final SpinedBuffer<P_OUT> buffer = new SpinedBuffer<>();
+        private long nextToConsume;
+        private boolean begun;
+        private boolean finished;
+
+        /**
+         * Constructs a spliterator pushing the elements of the source
+         * spliterator into the sink chain obtained from {@code wrapSink}.
+         * A primitive sink chain is also a primitive consumer, so the
+         * elements of a primitive source are pushed without boxing.
+         */
+        SinkSpliterator(Spliterator<P_IN> spliterator, int characteristics,
+                        Function<Sink<P_OUT>, Sink<P_IN>> wrapSink) {
+            super(Long.MAX_VALUE, characteristics);
+            this.spliterator = spliterator;
+            this.sink = wrapSink.apply(this);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super P_OUT> consumer) {
+            Objects.requireNonNull(consumer);
+            if (!begun) {
+                begun = true;
+                sink.begin(spliterator.getExactSizeIfKnown());
+            }
+            while (nextToConsume == buffer.count()) {
+                if (finished)
+                    return false;
+                buffer.clear();
+                nextToConsume = 0;
+                if (!spliterator.tryAdvance(sink)) {
+                    finished = true;
+                    sink.end();
+                }
+            }
+            consumer.accept(buffer.get(nextToConsume++));
+            return true;
+        }
+
+        @Override
+        public void accept(P_OUT t) {
+            buffer.accept(t);
+        }
+    }
+
     /**
      * Spliterator implementation that delegates to an underlying spliterator,
      * acquiring the spliterator from a {@code Supplier<Spliterator>} on the
@@ -0,0 +1,681 @@
+/*
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+
+/**
+ * Factory methods for transforming streams into streams of fixed-size
+ * windows of consecutive elements, either disjoint chunks or sliding
+ * windows.
+ *
+ * <p>A window operation with size {@code size} and step {@code step} emits
+ * a window of the elements at encounter positions {@code [i * step,
+ * i * step + size)} for each {@code i}, in order.  For chunking,
+ * {@code step == size}, and a final chunk holding fewer than {@code size}
+ * elements is emitted if the element count is not a multiple of the size;
+ * for sliding windows, only complete windows are emitted.
+ *
+ * <p>Sequentially, windows are filled as elements arrive and emitted as
+ * soon as they are complete; each window is allocated once, presized to
+ * the remaining element count for a final chunk of a known-size stream,
+ * and for overlapping windows only the overlap is copied into the next
+ * window.  The exact number of windows of a stream whose size is known is
+ * passed downstream by {@link Sink#begin(long)}.  In parallel, the
+ * upstream elements are first collected into an array, after which each
+ * window is defined by its index alone, so the windows are split evenly
+ * and independently of chunk boundaries, and created lazily by whichever
+ * task traverses them.
+ *
+ * <p>Windows are never reused: a downstream operation may retain or
+ * publish any window it receives.
+ *
+ * @since 9
+ */
+final class WindowOps {
+
+    private WindowOps() { }
+
+    /**
+     * Returns the number of windows of a stream of {@code count} elements,
+     * or -1 if {@code count} is unknown.
+     */
+    static long windowCount(long count, int size, int step, boolean partial) {
+        if (count < 0)
+            return -1;
+        if (partial)
+            return (count + size - 1) / size;
+        return (count < size) ? 0 : (count - size) / step + 1;
+    }
+
+    static void checkArguments(int size, int step) {
+        if (size <= 0)
+            throw new IllegalArgumentException("size must be positive: " + size);
+        if (step <= 0)
+            throw new IllegalArgumentException("step must be positive: " + step);
+    }
+
+    /**
+     * Returns the capacity of a window begun by an element followed by
+     * {@code remaining} further elements, or by an unknown number of
+     * elements if {@code remaining} is negative.
+     */
+    private static int capacity(int size, boolean partial, long remaining) {
+        return (partial && remaining >= 0 && remaining < size - 1)
+               ? (int) remaining + 1
+               : size;
+    }
+
+    /**
+     * Appends a window operation to the provided reference stream.
+     *
+     * @param <T> the type of input elements
+     * @param upstream a reference stream with element type T
+     * @param size the number of elements in each window
+     * @param step the distance between the first elements of consecutive
+     *        windows
+     * @param partial whether to emit a final incomplete window, only
+     *        supported when {@code step == size}
+     * @return the new stream
+     */
+    static <T> Stream<List<T>> makeRef(AbstractPipeline<?, T, ?> upstream,
+                                       int size, int step, boolean partial) {
+        checkArguments(size, step);
+        return new ReferencePipeline.StatefulOp<T, List<T>>(upstream, StreamShape.REFERENCE,
+                                                            flags()) {
+            @Override
+            Sink<T> opWrapSink(int flags, Sink<List<T>> sink) {
+                return new RefWindowSink<>(Objects.requireNonNull(sink), size, step, partial);
+            }
+
+            @Override
+            <P_IN> Spliterator<List<T>> opEvaluateParallelLazy(PipelineHelper<List<T>> helper,
+                                                               Spliterator<P_IN> spliterator) {
+                @SuppressWarnings("unchecked")
+                PipelineHelper<Object> h = (PipelineHelper<Object>) (PipelineHelper<?>) helper;
+                Object[] array = h.evaluate(spliterator, true, Object[]::new).asArray(Object[]::new);
+                return new WindowSpliterator<>(windowCount(array.length, size, step, partial),
+                                               i -> refWindow(array, i, size, step));
+            }
+
+            @Override
+            <P_IN> Node<List<T>> opEvaluateParallel(PipelineHelper<List<T>> helper,
+                                                    Spliterator<P_IN> spliterator,
+                                                    IntFunction<List<T>[]> generator) {
+                WindowSpliterator<List<T>> s =
+                        (WindowSpliterator<List<T>>) opEvaluateParallelLazy(helper, spliterator);
+                return Nodes.node(s.toArray(generator));
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> refWindow(Object[] array, long i, int size, int step) {
+        int from = (int) (i * step);
+        return Arrays.asList((T[]) Arrays.copyOfRange(array, from, Math.min(from + size, array.length)));
+    }
+
+    /**
+     * Appends a window operation to the provided {@code int} stream.
+     *
+     * @param upstream an int stream
+     * @param size the number of elements in each window
+     * @param step the distance between the first elements of consecutive
+     *        windows
+     * @param partial whether to emit a final incomplete window, only
+     *        supported when {@code step == size}
+     * @return the new stream
+     */
+    static Stream<int[]> makeInt(AbstractPipeline<?, Integer, ?> upstream,
+                                   int size, int step, boolean partial) {
+        checkArguments(size, step);
+        return new ReferencePipeline.StatefulOp<Integer, int[]>(upstream, StreamShape.INT_VALUE,
+                                                             flags()) {
+            @Override
+            Sink<Integer> opWrapSink(int flags, Sink<int[]> sink) {
+                return new IntWindowSink(Objects.requireNonNull(sink), size, step, partial);
+            }
+
+            @Override
+            <P_IN> Spliterator<int[]> opEvaluateParallelLazy(PipelineHelper<int[]> helper,
+                                                              Spliterator<P_IN> spliterator) {
+                @SuppressWarnings("unchecked")
+                PipelineHelper<Integer> h = (PipelineHelper<Integer>) (PipelineHelper<?>) helper;
+                int[] array = ((Node.OfInt) h.evaluate(spliterator, true, Integer[]::new)).asPrimitiveArray();
+                return new WindowSpliterator<>(windowCount(array.length, size, step, partial),
+                                               i -> {
+                                                   int from = (int) (i * step);
+                                                   return Arrays.copyOfRange(array, from,
+                                                                             Math.min(from + size, array.length));
+                                               });
+            }
+
+            @Override
+            <P_IN> Node<int[]> opEvaluateParallel(PipelineHelper<int[]> helper,
+                                                  Spliterator<P_IN> spliterator,
+                                                  IntFunction<int[][]> generator) {
+                WindowSpliterator<int[]> s =
+                        (WindowSpliterator<int[]>) opEvaluateParallelLazy(helper, spliterator);
+                return Nodes.node(s.toArray(generator));
+            }
+        };
+    }
+
+    /**
+     * Appends a window operation to the provided {@code long} stream.
+     *
+     * @param upstream a long stream
+     * @param size the number of elements in each window
+     * @param step the distance between the first elements of consecutive
+     *        windows
+     * @param partial whether to emit a final incomplete window, only
+     *        supported when {@code step == size}
+     * @return the new stream
+     */
+    static Stream<long[]> makeLong(AbstractPipeline<?, Long, ?> upstream,
+                                   int size, int step, boolean partial) {
+        checkArguments(size, step);
+        return new ReferencePipeline.StatefulOp<Long, long[]>(upstream, StreamShape.LONG_VALUE,
+                                                             flags()) {
+            @Override
+            Sink<Long> opWrapSink(int flags, Sink<long[]> sink) {
+                return new LongWindowSink(Objects.requireNonNull(sink), size, step, partial);
+            }
+
+            @Override
+            <P_IN> Spliterator<long[]> opEvaluateParallelLazy(PipelineHelper<long[]> helper,
+                                                              Spliterator<P_IN> spliterator) {
+                @SuppressWarnings("unchecked")
+                PipelineHelper<Long> h = (PipelineHelper<Long>) (PipelineHelper<?>) helper;
+                long[] array = ((Node.OfLong) h.evaluate(spliterator, true, Long[]::new)).asPrimitiveArray();
+                return new WindowSpliterator<>(windowCount(array.length, size, step, partial),
+                                               i -> {
+                                                   int from = (int) (i * step);
+                                                   return Arrays.copyOfRange(array, from,
+                                                                             Math.min(from + size, array.length));
+                                               });
+            }
+
+            @Override
+            <P_IN> Node<long[]> opEvaluateParallel(PipelineHelper<long[]> helper,
+                                                  Spliterator<P_IN> spliterator,
+                                                  IntFunction<long[][]> generator) {
+                WindowSpliterator<long[]> s =
+                        (WindowSpliterator<long[]>) opEvaluateParallelLazy(helper, spliterator);
+                return Nodes.node(s.toArray(generator));
+            }
+        };
+    }
+
+    /**
+     * Appends a window operation to the provided {@code double} stream.
+     *
+     * @param upstream a double stream
+     * @param size the number of elements in each window
+     * @param step the distance between the first elements of consecutive
+     *        windows
+     * @param partial whether to emit a final incomplete window, only
+     *        supported when {@code step == size}
+     * @return the new stream
+     */
+    static Stream<double[]> makeDouble(AbstractPipeline<?, Double, ?> upstream,
+                                   int size, int step, boolean partial) {
+        checkArguments(size, step);
+        return new ReferencePipeline.StatefulOp<Double, double[]>(upstream, StreamShape.DOUBLE_VALUE,
+                                                             flags()) {
+            @Override
+            Sink<Double> opWrapSink(int flags, Sink<double[]> sink) {
+                return new DoubleWindowSink(Objects.requireNonNull(sink), size, step, partial);
+            }
+
+            @Override
+            <P_IN> Spliterator<double[]> opEvaluateParallelLazy(PipelineHelper<double[]> helper,
+                                                              Spliterator<P_IN> spliterator) {
+                @SuppressWarnings("unchecked")
+                PipelineHelper<Double> h = (PipelineHelper<Double>) (PipelineHelper<?>) helper;
+                double[] array = ((Node.OfDouble) h.evaluate(spliterator, true, Double[]::new)).asPrimitiveArray();
+                return new WindowSpliterator<>(windowCount(array.length, size, step, partial),
+                                               i -> {
+                                                   int from = (int) (i * step);
+                                                   return Arrays.copyOfRange(array, from,
+                                                                             Math.min(from + size, array.length));
+                                               });
+            }
+
+            @Override
+            <P_IN> Node<double[]> opEvaluateParallel(PipelineHelper<double[]> helper,
+                                                  Spliterator<P_IN> spliterator,
+                                                  IntFunction<double[][]> generator) {
+                WindowSpliterator<double[]> s =
+                        (WindowSpliterator<double[]>) opEvaluateParallelLazy(helper, spliterator);
+                return Nodes.node(s.toArray(generator));
+            }
+        };
+    }
+
+    /**
+     * Wraps the provided reference spliterator in one that traverses its
+     * windows, for streams that are not pipelines.
+     *
+     * @param <T> the type of input elements
+     * @param source the spliterator of the stream to window
+     * @param size the number of elements in each window
+     * @param step the distance between the first elements of consecutive
+     *        windows
+     * @param partial whether to emit a final incomplete window, only
+     *        supported when {@code step == size}
+     * @return the wrapping spliterator
+     */
+    static <T> Spliterator<List<T>> wrapRef(Spliterator<T> source,
+                                            int size, int step, boolean partial) {
+        return new StreamSpliterators.SinkSpliterator<>(source, characteristics(source),
+                                                        s -> new RefWindowSink<>(s, size, step, partial));
+    }
+
+    /**
+     * Wraps the provided {@code int} spliterator in one that traverses its
+     * windows, for streams that are not pipelines.
+     */
+    static Spliterator<int[]> wrapInt(Spliterator.OfInt source,
+                                      int size, int step, boolean partial) {
+        return new StreamSpliterators.SinkSpliterator<>(source, characteristics(source),
+                                                        s -> new IntWindowSink(s, size, step, partial));
+    }
+
+    /**
+     * Wraps the provided {@code long} spliterator in one that traverses its
+     * windows, for streams that are not pipelines.
+     */
+    static Spliterator<long[]> wrapLong(Spliterator.OfLong source,
+                                        int size, int step, boolean partial) {
+        return new StreamSpliterators.SinkSpliterator<>(source, characteristics(source),
+                                                        s -> new LongWindowSink(s, size, step, partial));
+    }
+
+    /**
+     * Wraps the provided {@code double} spliterator in one that traverses its
+     * windows, for streams that are not pipelines.
+     */
+    static Spliterator<double[]> wrapDouble(Spliterator.OfDouble source,
+                                            int size, int step, boolean partial) {
+        return new StreamSpliterators.SinkSpliterator<>(source, characteristics(source),
+                                                        s -> new DoubleWindowSink(s, size, step, partial));
+    }
+
+    /**
+     * Returns the characteristics of the windows of the provided spliterator.
+     */
+    private static int characteristics(Spliterator<?> source) {
+        return (source.characteristics() & Spliterator.ORDERED) | Spliterator.NONNULL;
+    }
+
+    /**
+     * Returns the flags of a window operation: windows are neither sorted
+     * nor distinct, and the number of windows differs from the number of
+     * elements.
+     */
+    private static int flags() {
+        return StreamOpFlag.NOT_SORTED | StreamOpFlag.NOT_DISTINCT | StreamOpFlag.NOT_SIZED;
+    }
+
+    /**
+     * A spliterator over windows identified by index, each created on
+     * traversal by a function of its index.  Splits evenly by index.
+     *
+     * @param <R> the type of windows
+     */
+    static final class WindowSpliterator<R> implements Spliterator<R> {
+        private final LongFunction<R> windowAt;
+        private long index;
+        private final long fence;
+
+        WindowSpliterator(long count, LongFunction<R> windowAt) {
+            this(windowAt, 0, count);
+        }
+
+        private WindowSpliterator(LongFunction<R> windowAt, long index, long fence) {
+            this.windowAt = windowAt;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            Objects.requireNonNull(action);
+            if (index < fence) {
+                action.accept(windowAt.apply(index++));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super R> action) {
+            Objects.requireNonNull(action);
+            long i = index, hi = fence;
+            index = hi;
+            for (; i < hi; i++)
+                action.accept(windowAt.apply(i));
+        }
+
+        @Override
+        public Spliterator<R> trySplit() {
+            long lo = index, mid = (lo + fence) >>> 1;
+            return (lo >= mid) ? null : new WindowSpliterator<>(windowAt, lo, index = mid);
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+                   | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        }
+
+        /**
+         * Creates all remaining windows into an array, in parallel.
+         */
+        R[] toArray(IntFunction<R[]> generator) {
+            long n = fence - index;
+            if (n >= Nodes.MAX_ARRAY_SIZE)
+                throw new IllegalArgumentException(Nodes.BAD_SIZE);
+            R[] windows = generator.apply((int) n);
+            long base = index;
+            Arrays.parallelSetAll(windows, i -> windowAt.apply(base + i));
+            index = fence;
+            return windows;
+        }
+    }
+
+    /**
+     * {@link Sink} for windowing reference streams.
+     */
+    private static final class RefWindowSink<T> extends Sink.ChainedReference<T, List<T>> {
+        private final int size;
+        private final int step;
+        private final boolean partial;
+        private Object[] window;
+        private int filled;
+        private long skip;      // elements to skip before the next window
+        private long remaining; // elements yet to arrive, or -1 if unknown
+
+        RefWindowSink(Sink<? super List<T>> downstream, int size, int step, boolean partial) {
+            super(downstream);
+            this.size = size;
+            this.step = step;
+            this.partial = partial;
+        }
+
+        @Override
+        public void begin(long size) {
+            window = null;
+            filled = 0;
+            skip = 0;
+            remaining = size;
+            downstream.begin(windowCount(size, this.size, step, partial));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void accept(T t) {
+            if (remaining > 0)
+                remaining--;
+            if (skip > 0) {
+                skip--;
+                return;
+            }
+            if (window == null)
+                window = new Object[capacity(size, partial, remaining)];
+            window[filled++] = t;
+            if (filled == window.length) {
+                Object[] w = window;
+                if (step < size) {
+                    // Carry the overlap into the next window
+                    window = new Object[size];
+                    filled = size - step;
+                    System.arraycopy(w, step, window, 0, filled);
+                }
+                else {
+                    window = null;
+                    filled = 0;
+                    skip = step - size;
+                }
+                downstream.accept(Arrays.asList((T[]) w));
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void end() {
+            if (partial && filled > 0 && !downstream.cancellationRequested())
+                downstream.accept(Arrays.asList((T[]) Arrays.copyOf(window, filled)));
+            window = null;
+            downstream.end();
+        }
+    }
+
+    /**
+     * {@link Sink} for windowing {@code int} streams.
+     */
+    private static final class IntWindowSink extends Sink.ChainedInt<int[]> {
+        private final int size;
+        private final int step;
+        private final boolean partial;
+        private int[] window;
+        private int filled;
+        private long skip;      // elements to skip before the next window
+        private long remaining; // elements yet to arrive, or -1 if unknown
+
+        IntWindowSink(Sink<? super int[]> downstream, int size, int step, boolean partial) {
+            super(downstream);
+            this.size = size;
+            this.step = step;
+            this.partial = partial;
+        }
+
+        @Override
+        public void begin(long size) {
+            window = null;
+            filled = 0;
+            skip = 0;
+            remaining = size;
+            downstream.begin(windowCount(size, this.size, step, partial));
+        }
+
+        @Override
+        public void accept(int t) {
+            if (remaining > 0)
+                remaining--;
+            if (skip > 0) {
+                skip--;
+                return;
+            }
+            if (window == null)
+                window = new int[capacity(size, partial, remaining)];
+            window[filled++] = t;
+            if (filled == window.length) {
+                int[] w = window;
+                if (step < size) {
+                    // Carry the overlap into the next window
+                    window = new int[size];
+                    filled = size - step;
+                    System.arraycopy(w, step, window, 0, filled);
+                }
+                else {
+                    window = null;
+                    filled = 0;
+                    skip = step - size;
+                }
+                downstream.accept(w);
+            }
+        }
+
+        @Override
+        public void end() {
+            if (partial && filled > 0 && !downstream.cancellationRequested())
+                downstream.accept(Arrays.copyOf(window, filled));
+            window = null;
+            downstream.end();
+        }
+    }
+
+    /**
+     * {@link Sink} for windowing {@code long} streams.
+     */
+    private static final class LongWindowSink extends Sink.ChainedLong<long[]> {
+        private final int size;
+        private final int step;
+        private final boolean partial;
+        private long[] window;
+        private int filled;
+        private long skip;      // elements to skip before the next window
+        private long remaining; // elements yet to arrive, or -1 if unknown
+
+        LongWindowSink(Sink<? super long[]> downstream, int size, int step, boolean partial) {
+            super(downstream);
+            this.size = size;
+            this.step = step;
+            this.partial = partial;
+        }
+
+        @Override
+        public void begin(long size) {
+            window = null;
+            filled = 0;
+            skip = 0;
+            remaining = size;
+            downstream.begin(windowCount(size, this.size, step, partial));
+        }
+
+        @Override
+        public void accept(long t) {
+            if (remaining > 0)
+                remaining--;
+            if (skip > 0) {
+                skip--;
+                return;
+            }
+            if (window == null)
+                window = new long[capacity(size, partial, remaining)];
+            window[filled++] = t;
+            if (filled == window.length) {
+                long[] w = window;
+                if (step < size) {
+                    // Carry the overlap into the next window
+                    window = new long[size];
+                    filled = size - step;
+                    System.arraycopy(w, step, window, 0, filled);
+                }
+                else {
+                    window = null;
+                    filled = 0;
+                    skip = step - size;
+                }
+                downstream.accept(w);
+            }
+        }
+
+        @Override
+        public void end() {
+            if (partial && filled > 0 && !downstream.cancellationRequested())
+                downstream.accept(Arrays.copyOf(window, filled));
+            window = null;
+            downstream.end();
+        }
+    }
+
+    /**
+     * {@link Sink} for windowing {@code double} streams.
+     */
+    private static final class DoubleWindowSink extends Sink.ChainedDouble<double[]> {
+        private final int size;
+        private final int step;
+        private final boolean partial;
+        private double[] window;
+        private int filled;
+        private long skip;      // elements to skip before the next window
+        private long remaining; // elements yet to arrive, or -1 if unknown
+
+        DoubleWindowSink(Sink<? super double[]> downstream, int size, int step, boolean partial) {
+            super(downstream);
+            this.size = size;
+            this.step = step;
+            this.partial = partial;
+        }
+
+        @Override
+        public void begin(long size) {
+            window = null;
+            filled = 0;
+            skip = 0;
+            remaining = size;
+            downstream.begin(windowCount(size, this.size, step, partial));
+        }
+
+        @Override
+        public void accept(double t) {
+            if (remaining > 0)
+                remaining--;
+            if (skip > 0) {
+                skip--;
+                return;
+            }
+            if (window == null)
+                window = new double[capacity(size, partial, remaining)];
+            window[filled++] = t;
+            if (filled == window.length) {
+                double[] w = window;
+                if (step < size) {
+                    // Carry the overlap into the next window
+                    window = new double[size];
+                    filled = size - step;
+                    System.arraycopy(w, step, window, 0, filled);
+                }
+                else {
+                    window = null;
+                    filled = 0;
+                    skip = step - size;
+                }
+                downstream.accept(w);
+            }
+        }
+
+        @Override
+        public void end() {
+            if (partial && filled > 0 && !downstream.cancellationRequested())
+                downstream.accept(Arrays.copyOf(window, filled));
+            window = null;
+            downstream.end();
+        }
+    }
+}
@@ -168,7 +168,8 @@ class Deflater {
     public Deflater(int level, boolean nowrap) {
         this.level = level;
         this.strategy = DEFAULT_STRATEGY;
-        this.zsRef = new ZStreamRef(init(level, DEFAULT_STRATEGY, nowrap));
+        this.zsRef = new ZStreamRef(this, init(level, DEFAULT_STRATEGY, nowrap),
+                                    false);
     }
 
     /**
@@ -531,28 +532,18 @@ class Deflater {
     /**
      * Closes the compressor and discards any unprocessed input.
      * This method should be called when the compressor is no longer
-     * being used, but will also be called automatically by the
-     * finalize() method. Once this method is called, the behavior
+     * being used.  If it is not called, the native compressor is
+     * released some time after the Deflater becomes unreachable, without
+     * this method being invoked.  Once this method is called, the behavior
      * of the Deflater object is undefined.
      */
     public void end() {
         synchronized (zsRef) {
-            long addr = zsRef.address();
-            zsRef.clear();
-            if (addr != 0) {
-                end(addr);
-                buf = null;
-            }
+            zsRef.clean();
+            buf = null;
         }
     }
 
-    /**
-     * Closes the compressor when garbage is collected.
-     */
-    protected void finalize() {
-        end();
-    }
-
     private void ensureOpen() {
         assert Thread.holdsLock(zsRef);
         if (zsRef.address() == 0)
@@ -566,5 +557,5 @@ class Deflater {
                                     int flush);
     private native static int getAdler(long addr);
     private native static void reset(long addr);
-    private native static void end(long addr);
+    static native void end(long addr);
 }
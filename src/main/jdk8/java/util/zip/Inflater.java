@@ -100,7 +100,7 @@ class Inflater {
      * @param nowrap if true then support GZIP compatible compression
      */
     public Inflater(boolean nowrap) {
-        zsRef = new ZStreamRef(init(nowrap));
+        zsRef = new ZStreamRef(this, init(nowrap), true);
     }
 
     /**
@@ -361,28 +361,18 @@ class Inflater {
     /**
      * Closes the decompressor and discards any unprocessed input.
      * This method should be called when the decompressor is no longer
-     * being used, but will also be called automatically by the finalize()
-     * method. Once this method is called, the behavior of the Inflater
-     * object is undefined.
+     * being used.  If it is not called, the native decompressor is
+     * released some time after the Inflater becomes unreachable, without
+     * this method being invoked.  Once this method is called, the behavior
+     * of the Inflater object is undefined.
      */
     public void end() {
         synchronized (zsRef) {
-            long addr = zsRef.address();
-            zsRef.clear();
-            if (addr != 0) {
-                end(addr);
-                buf = null;
-            }
+            zsRef.clean();
+            buf = null;
         }
     }
 
-    /**
-     * Closes the decompressor when garbage is collected.
-     */
-    protected void finalize() {
-        end();
-    }
-
     private void ensureOpen () {
         assert Thread.holdsLock(zsRef);
         if (zsRef.address() == 0)
@@ -403,5 +393,5 @@ class Inflater {
             throws DataFormatException;
     private native static int getAdler(long addr);
     private native static void reset(long addr);
-    private native static void end(long addr);
+    static native void end(long addr);
 }
@@ -25,22 +25,49 @@
 
 package java.util.zip;
 
+import java.lang.ref.Cleaner;
+
 /**
  * A reference to the native zlib's z_stream structure.
+ *
+ * <p>The reference is also the cleaning action of its owning
+ * {@code Inflater} or {@code Deflater}: the z_stream is released either
+ * eagerly by {@link #clean} or by the common cleaner once the owner has
+ * become phantom reachable.
  */
 
-class ZStreamRef {
+class ZStreamRef implements Runnable {
 
     private volatile long address;
-    ZStreamRef (long address) {
+    private final boolean inflater;
+    private final Cleaner.Cleanable cleanable;
+
+    ZStreamRef (Object owner, long address, boolean inflater) {
         this.address = address;
+        this.inflater = inflater;
+        this.cleanable = Cleaner.commonCleaner().register(owner, this);
     }
 
     long address() {
         return address;
     }
 
-    void clear() {
+    /**
+     * Releases the z_stream, at most once.
+     */
+    void clean() {
+        cleanable.clean();
+    }
+
+    public synchronized void run() {
+        long addr = address;
         address = 0;
+        if (addr != 0) {
+            if (inflater) {
+                Inflater.end(addr);
+            } else {
+                Deflater.end(addr);
+            }
+        }
     }
 }
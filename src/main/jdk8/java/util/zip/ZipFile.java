@@ -30,6 +30,7 @@ import java.io.InputStream;
 import java.io.IOException;
 import java.io.EOFException;
 import java.io.File;
+import java.lang.ref.Cleaner;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
@@ -64,6 +65,11 @@ class ZipFile implements ZipConstants, Closeable {
     private final boolean locsig;  // if zip file starts with LOCSIG (usually true)
     private volatile boolean closeRequested = false;
 
+    // the native zip file and the cached inflaters, released by close()
+    // or by the common cleaner once this ZipFile is unreachable
+    private final CleanableResource res;
+    private final Cleaner.Cleanable cleanable;
+
     private static final int STORED = ZipEntry.STORED;
     private static final int DEFLATED = ZipEntry.DEFLATED;
 
@@ -217,6 +223,8 @@ class ZipFile implements ZipConstants, Closeable {
         this.zc = ZipCoder.get(charset);
         long t0 = System.nanoTime();
         jzfile = open(name, mode, file.lastModified(), usemmap);
+        this.res = new CleanableResource(jzfile);
+        this.cleanable = Cleaner.commonCleaner().register(this, res);
         sun.misc.PerfCounter.getZipFileOpenTime().addElapsedTimeFrom(t0);
         sun.misc.PerfCounter.getZipFileCount().increment();
         this.name = name;
@@ -370,7 +378,7 @@ class ZipFile implements ZipConstants, Closeable {
                 long size = getEntrySize(jzentry) + 2; // Inflater likes a bit of slack
                 if (size > 65536) size = 8192;
                 if (size <= 0) size = 4096;
-                Inflater inf = getInflater();
+                Inflater inf = res.getInflater();
                 InputStream is =
                     new ZipFileInflaterInputStream(in, inf, (int)size);
                 synchronized (streams) {
@@ -387,11 +395,14 @@ class ZipFile implements ZipConstants, Closeable {
         private volatile boolean closeRequested = false;
         private boolean eof = false;
         private final ZipFileInputStream zfin;
+        private final Cleaner.Cleanable cleanable;
 
         ZipFileInflaterInputStream(ZipFileInputStream zfin, Inflater inf,
                 int size) {
             super(zfin, inf, size);
             this.zfin = zfin;
+            this.cleanable = Cleaner.commonCleaner().register(this,
+                new InflaterCleanup(res, inf));
         }
 
         public void close() throws IOException {
@@ -400,13 +411,11 @@ class ZipFile implements ZipConstants, Closeable {
             closeRequested = true;
 
             super.close();
-            Inflater inf;
             synchronized (streams) {
-                inf = streams.remove(this);
-            }
-            if (inf != null) {
-                releaseInflater(inf);
+                streams.remove(this);
             }
+            // returns the inflater to the cache
+            cleanable.clean();
         }
 
         // Override fill() method to provide an extra "dummy" byte
@@ -432,42 +441,121 @@ class ZipFile implements ZipConstants, Closeable {
             return (avail > (long) Integer.MAX_VALUE ?
                     Integer.MAX_VALUE : (int) avail);
         }
-
-        protected void finalize() throws Throwable {
-            close();
-        }
     }
 
     /*
-     * Gets an inflater from the list of available inflaters or allocates
-     * a new one.
+     * The native resources of a ZipFile: the jzfile and the inflaters kept
+     * for reuse.  Run as a cleaning action it closes both; it must not
+     * refer to the ZipFile, which could then never become phantom reachable.
      */
-    private Inflater getInflater() {
-        Inflater inf;
-        synchronized (inflaterCache) {
-            while (null != (inf = inflaterCache.poll())) {
-                if (false == inf.ended()) {
-                    return inf;
+    private static class CleanableResource implements Runnable {
+        private long jzfile;    // guarded by this
+
+        // List of available Inflater objects for decompression
+        private final Deque<Inflater> inflaterCache = new ArrayDeque<>();
+        private boolean inflatersReleased; // guarded by inflaterCache
+
+        CleanableResource(long jzfile) {
+            this.jzfile = jzfile;
+        }
+
+        /*
+         * Gets an inflater from the list of available inflaters or allocates
+         * a new one.
+         */
+        Inflater getInflater() {
+            Inflater inf;
+            synchronized (inflaterCache) {
+                while (null != (inf = inflaterCache.poll())) {
+                    if (false == inf.ended()) {
+                        return inf;
+                    }
+                }
+            }
+            return new Inflater(true);
+        }
+
+        /*
+         * Releases the specified inflater to the list of available
+         * inflaters, or ends it if the zip file has been closed.
+         */
+        void releaseInflater(Inflater inf) {
+            if (false == inf.ended()) {
+                inf.reset();
+                synchronized (inflaterCache) {
+                    if (!inflatersReleased) {
+                        inflaterCache.add(inf);
+                        return;
+                    }
+                }
+                inf.end();
+            }
+        }
+
+        /*
+         * Frees the specified entry unless the zip file has been closed.
+         */
+        synchronized void freeEntry(long jzentry) {
+            if (jzfile != 0) {
+                ZipFile.freeEntry(jzfile, jzentry);
+            }
+        }
+
+        public void run() {
+            // Release cached inflaters
+            Inflater inf;
+            synchronized (inflaterCache) {
+                inflatersReleased = true;
+                while (null != (inf = inflaterCache.poll())) {
+                    inf.end();
+                }
+            }
+
+            synchronized (this) {
+                if (jzfile != 0) {
+                    // Close the zip file
+                    long zf = this.jzfile;
+                    jzfile = 0;
+
+                    close(zf);
                 }
             }
         }
-        return new Inflater(true);
     }
 
     /*
-     * Releases the specified inflater to the list of available inflaters.
+     * Cleaning action of a ZipFileInflaterInputStream.
      */
-    private void releaseInflater(Inflater inf) {
-        if (false == inf.ended()) {
-            inf.reset();
-            synchronized (inflaterCache) {
-                inflaterCache.add(inf);
-            }
+    private static class InflaterCleanup implements Runnable {
+        private final CleanableResource res;
+        private final Inflater inf;
+
+        InflaterCleanup(CleanableResource res, Inflater inf) {
+            this.res = res;
+            this.inf = inf;
+        }
+
+        public void run() {
+            res.releaseInflater(inf);
         }
     }
 
-    // List of available Inflater objects for decompression
-    private Deque<Inflater> inflaterCache = new ArrayDeque<>();
+    /*
+     * Cleaning action of a ZipFileInputStream.
+     */
+    private static class EntryCleanup implements Runnable {
+        private final CleanableResource res;
+        private final long jzentry;
+
+        EntryCleanup(CleanableResource res, long jzentry) {
+            this.res = res;
+            this.jzentry = jzentry;
+        }
+
+        public void run() {
+            res.freeEntry(jzentry);
+        }
+    }
 
     /**
      * Returns the path name of the ZIP file.
@@ -626,42 +714,12 @@ class ZipFile implements ZipConstants, Closeable {
                 }
             }
 
-            // Release cached inflaters
-            Inflater inf;
-            synchronized (inflaterCache) {
-                while (null != (inf = inflaterCache.poll())) {
-                    inf.end();
-                }
-            }
-
-            if (jzfile != 0) {
-                // Close the zip file
-                long zf = this.jzfile;
-                jzfile = 0;
-
-                close(zf);
-            }
+            // Release cached inflaters and close the zip file
+            jzfile = 0;
+            cleanable.clean();
         }
     }
 
-    /**
-     * Ensures that the system resources held by this ZipFile object are
-     * released when there are no more references to it.
-     *
-     * <p>
-     * Since the time when GC would invoke this method is undetermined,
-     * it is strongly recommended that applications invoke the <code>close</code>
-     * method as soon they have finished accessing this <code>ZipFile</code>.
-     * This will prevent holding up system resources for an undetermined
-     * length of time.
-     *
-     * @throws IOException if an I/O error has occurred
-     * @see    java.util.zip.ZipFile#close()
-     */
-    protected void finalize() throws IOException {
-        close();
-    }
-
     private static native void close(long jzfile);
 
     private void ensureOpen() {
@@ -690,12 +748,15 @@ class ZipFile implements ZipConstants, Closeable {
         private   long pos;     // current position within entry data
         protected long rem;     // number of remaining bytes within entry
         protected long size;    // uncompressed size of this entry
+        private final Cleaner.Cleanable cleanable;
 
         ZipFileInputStream(long jzentry) {
             pos = 0;
             rem = getEntryCSize(jzentry);
             size = getEntrySize(jzentry);
             this.jzentry = jzentry;
+            this.cleanable = Cleaner.commonCleaner().register(this,
+                new EntryCleanup(res, jzentry));
         }
 
         public int read(byte b[], int off, int len) throws IOException {
@@ -762,19 +823,14 @@ class ZipFile implements ZipConstants, Closeable {
 
             rem = 0;
             synchronized (ZipFile.this) {
-                if (jzentry != 0 && ZipFile.this.jzfile != 0) {
-                    freeEntry(ZipFile.this.jzfile, jzentry);
-                    jzentry = 0;
-                }
+                // frees the entry unless the zip file has been closed
+                jzentry = 0;
+                cleanable.clean();
             }
             synchronized (streams) {
                 streams.remove(this);
             }
         }
-
-        protected void finalize() {
-            close();
-        }
     }
 
     static {